@@ -17,6 +17,7 @@ CREATE TABLE MIGRATIONTOOLKIT_TABLECOPYTASKS (
     lastupdate DATETIME2 NOT NULL DEFAULT '0001-01-01 00:00:00',
     avgwriterrowthroughput numeric(10,2) NULL DEFAULT 0,
     avgreaderrowthroughput numeric(10,2) NULL DEFAULT 0,
+    batchsize int NOT NULL DEFAULT 0,
     PRIMARY KEY (migrationid, targetnodeid, pipelinename)
 );
 
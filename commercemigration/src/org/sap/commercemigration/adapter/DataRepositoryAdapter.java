@@ -2,7 +2,10 @@ package org.sap.commercemigration.adapter;
 
 import org.sap.commercemigration.context.MigrationContext;
 import org.sap.commercemigration.dataset.DataSet;
+import org.sap.commercemigration.dataset.DataSetConsumer;
+import org.sap.commercemigration.repository.model.ColumnProjection;
 
+import java.util.List;
 import java.util.Set;
 
 public interface DataRepositoryAdapter {
@@ -10,10 +13,18 @@ public interface DataRepositoryAdapter {
 
     DataSet getAll(MigrationContext context, String table) throws Exception;
 
-    DataSet getBatchWithoutIdentifier(MigrationContext context, String table, Set<String> allColumns, long batchSize, long offset) throws Exception;
+    void streamAll(MigrationContext context, String table, ColumnProjection projection, long batchSize, DataSetConsumer consumer) throws Exception;
 
-    DataSet getBatchOrderedByColumn(MigrationContext context, String table, String column, Object lastColumnValue, long batchSize) throws Exception;
+    void streamPartition(MigrationContext context, String table, ColumnProjection projection, int partition, int partitionCount, long batchSize, DataSetConsumer consumer) throws Exception;
 
-    DataSet getBatchMarkersOrderedByColumn(MigrationContext context, String table, String column, long batchSize) throws Exception;
+    DataSet getBatchWithoutIdentifier(MigrationContext context, String table, ColumnProjection projection, Set<String> allColumns, long batchSize, long offset) throws Exception;
+
+    DataSet getBatchOrderedByColumn(MigrationContext context, String table, ColumnProjection projection, String column, Object lowerValue, Object upperValue, long batchSize) throws Exception;
+
+    void streamBatchMarkersOrderedByColumn(MigrationContext context, String table, String column, long batchSize, DataSetConsumer consumer) throws Exception;
+
+    DataSet getBatchOrderedByColumns(MigrationContext context, String table, ColumnProjection projection, List<String> columns, Object lowerValue, Object upperValue, List<Object> lastKey, long batchSize) throws Exception;
+
+    void streamBatchesOrderedByColumn(MigrationContext context, String table, ColumnProjection projection, String column, Object lowerValue, boolean lowerInclusive, Object upperValue, long batchSize, DataSetConsumer consumer) throws Exception;
 
 }
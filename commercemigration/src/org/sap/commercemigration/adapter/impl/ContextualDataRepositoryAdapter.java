@@ -4,9 +4,12 @@ import org.sap.commercemigration.adapter.DataRepositoryAdapter;
 import org.sap.commercemigration.constants.CommercemigrationConstants;
 import org.sap.commercemigration.context.MigrationContext;
 import org.sap.commercemigration.dataset.DataSet;
+import org.sap.commercemigration.dataset.DataSetConsumer;
 import org.sap.commercemigration.repository.DataRepository;
+import org.sap.commercemigration.repository.model.ColumnProjection;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -40,29 +43,65 @@ public class ContextualDataRepositoryAdapter implements DataRepositoryAdapter {
     }
 
     @Override
-    public DataSet getBatchWithoutIdentifier(MigrationContext context, String table, Set<String> allColumns, long batchSize, long offset) throws Exception {
+    public void streamAll(MigrationContext context, String table, ColumnProjection projection, long batchSize, DataSetConsumer consumer) throws Exception {
         if (context.isIncrementalModeEnabled()) {
-            return repository.getBatchWithoutIdentifier(table, allColumns, batchSize, offset, getIncrementalTimestamp(context));
+            repository.streamAllModifiedAfter(table, projection, getIncrementalTimestamp(context), batchSize, consumer);
         } else {
-            return repository.getBatchWithoutIdentifier(table, allColumns, batchSize, offset);
+            repository.streamAll(table, projection, batchSize, consumer);
         }
     }
 
     @Override
-    public DataSet getBatchOrderedByColumn(MigrationContext context, String table, String column, Object lastColumnValue, long batchSize) throws Exception {
+    public void streamPartition(MigrationContext context, String table, ColumnProjection projection, int partition, int partitionCount, long batchSize, DataSetConsumer consumer) throws Exception {
         if (context.isIncrementalModeEnabled()) {
-            return repository.getBatchOrderedByColumn(table, column, lastColumnValue, batchSize, getIncrementalTimestamp(context));
+            repository.streamPartitionModifiedAfter(table, projection, partition, partitionCount, getIncrementalTimestamp(context), batchSize, consumer);
         } else {
-            return repository.getBatchOrderedByColumn(table, column, lastColumnValue, batchSize);
+            repository.streamPartition(table, projection, partition, partitionCount, batchSize, consumer);
         }
     }
 
     @Override
-    public DataSet getBatchMarkersOrderedByColumn(MigrationContext context, String table, String column, long batchSize) throws Exception {
+    public DataSet getBatchWithoutIdentifier(MigrationContext context, String table, ColumnProjection projection, Set<String> allColumns, long batchSize, long offset) throws Exception {
         if (context.isIncrementalModeEnabled()) {
-            return repository.getBatchMarkersOrderedByColumn(table, column, batchSize, getIncrementalTimestamp(context));
+            return repository.getBatchWithoutIdentifier(table, projection, allColumns, batchSize, offset, getIncrementalTimestamp(context));
         } else {
-            return repository.getBatchMarkersOrderedByColumn(table, column, batchSize);
+            return repository.getBatchWithoutIdentifier(table, projection, allColumns, batchSize, offset);
+        }
+    }
+
+    @Override
+    public DataSet getBatchOrderedByColumn(MigrationContext context, String table, ColumnProjection projection, String column, Object lowerValue, Object upperValue, long batchSize) throws Exception {
+        if (context.isIncrementalModeEnabled()) {
+            return repository.getBatchOrderedByColumn(table, projection, column, lowerValue, upperValue, batchSize, getIncrementalTimestamp(context));
+        } else {
+            return repository.getBatchOrderedByColumn(table, projection, column, lowerValue, upperValue, batchSize);
+        }
+    }
+
+    @Override
+    public void streamBatchMarkersOrderedByColumn(MigrationContext context, String table, String column, long batchSize, DataSetConsumer consumer) throws Exception {
+        if (context.isIncrementalModeEnabled()) {
+            repository.streamBatchMarkersOrderedByColumn(table, column, batchSize, getIncrementalTimestamp(context), consumer);
+        } else {
+            repository.streamBatchMarkersOrderedByColumn(table, column, batchSize, consumer);
+        }
+    }
+
+    @Override
+    public DataSet getBatchOrderedByColumns(MigrationContext context, String table, ColumnProjection projection, List<String> columns, Object lowerValue, Object upperValue, List<Object> lastKey, long batchSize) throws Exception {
+        if (context.isIncrementalModeEnabled()) {
+            return repository.getBatchOrderedByColumns(table, projection, columns, lowerValue, upperValue, lastKey, batchSize, getIncrementalTimestamp(context));
+        } else {
+            return repository.getBatchOrderedByColumns(table, projection, columns, lowerValue, upperValue, lastKey, batchSize);
+        }
+    }
+
+    @Override
+    public void streamBatchesOrderedByColumn(MigrationContext context, String table, ColumnProjection projection, String column, Object lowerValue, boolean lowerInclusive, Object upperValue, long batchSize, DataSetConsumer consumer) throws Exception {
+        if (context.isIncrementalModeEnabled()) {
+            repository.streamBatchesOrderedByColumn(table, projection, column, lowerValue, lowerInclusive, upperValue, batchSize, getIncrementalTimestamp(context), consumer);
+        } else {
+            repository.streamBatchesOrderedByColumn(table, projection, column, lowerValue, lowerInclusive, upperValue, batchSize, consumer);
         }
     }
 
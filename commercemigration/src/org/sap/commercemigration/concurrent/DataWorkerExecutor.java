@@ -7,5 +7,12 @@ import java.util.concurrent.Future;
 public interface DataWorkerExecutor<T> {
     Future<T> safelyExecute(Callable<T> callable) throws InterruptedException;
 
+    /**
+     * Submits the task only if it can be done without waiting for a task in flight to complete
+     *
+     * @return the future of the task, null if it was not submitted
+     */
+    Future<T> trySafelyExecute(Callable<T> callable);
+
     void waitAndRethrowUncaughtExceptions() throws ExecutionException, InterruptedException;
 }
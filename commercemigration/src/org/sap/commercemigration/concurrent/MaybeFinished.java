@@ -10,23 +10,39 @@ public class MaybeFinished<T> {
     private final T value;
     private final boolean done;
     private final boolean poison;
+    private final int lane;
 
-    private MaybeFinished(T value, boolean done, boolean poison) {
+    private MaybeFinished(T value, boolean done, boolean poison, int lane) {
         this.value = value;
         this.done = done;
         this.poison = poison;
+        this.lane = lane;
     }
 
     public static <T> MaybeFinished<T> of(T value) {
-        return new MaybeFinished<>(value, false, false);
+        return of(value, -1);
+    }
+
+    /**
+     * @param lane the writer lane of the value in the ordered write mode, -1 if any lane may write it
+     */
+    public static <T> MaybeFinished<T> of(T value, int lane) {
+        return new MaybeFinished<>(value, false, false, lane);
     }
 
     public static <T> MaybeFinished<T> finished(T value) {
-        return new MaybeFinished<>(value, true, false);
+        return new MaybeFinished<>(value, true, false, -1);
     }
 
     public static <T> MaybeFinished<T> poison() {
-        return new MaybeFinished<>(null, true, true);
+        return new MaybeFinished<>(null, true, true, -1);
+    }
+
+    /**
+     * @return the same status holding another value
+     */
+    public MaybeFinished<T> withValue(T value) {
+        return new MaybeFinished<>(value, done, poison, lane);
     }
 
     public T getValue() {
@@ -40,4 +56,8 @@ public class MaybeFinished<T> {
     public boolean isPoison() {
         return poison;
     }
+
+    public int getLane() {
+        return lane;
+    }
 }
@@ -0,0 +1,214 @@
+package org.sap.commercemigration.concurrent.impl;
+
+import org.sap.commercemigration.dataset.DataColumn;
+import org.sap.commercemigration.dataset.DataSet;
+import org.sap.commercemigration.dataset.impl.ColumnarDataSet;
+import org.sap.commercemigration.dataset.impl.DefaultDataColumn;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes a data set row by row, every value is preceded by a tag naming its type. Values of types not known to the
+ * codec fall back to java serialization.
+ */
+public class DataSetSpillCodec implements SpillCodec<DataSet> {
+
+    private static final byte NULL = 0;
+    private static final byte LONG = 1;
+    private static final byte INT = 2;
+    private static final byte DOUBLE = 3;
+    private static final byte STRING = 4;
+    private static final byte BYTES = 5;
+    private static final byte TIMESTAMP = 6;
+    private static final byte DECIMAL = 7;
+    private static final byte BOOLEAN = 8;
+    private static final byte DATE = 9;
+    private static final byte TIME = 10;
+    private static final byte STREAM = 11;
+    private static final byte SHORT = 12;
+    private static final byte FLOAT = 13;
+    private static final byte SERIALIZED = 127;
+
+    @Override
+    public void write(DataSet dataSet, DataOutput out) throws IOException {
+        List<DataColumn> columnOrder = dataSet.getColumnOrder();
+        out.writeInt(columnOrder.size());
+        for (DataColumn column : columnOrder) {
+            out.writeUTF(column.getColumnName());
+            out.writeInt(column.getColumnType());
+            out.writeInt(column.getPrecision());
+            out.writeInt(column.getScale());
+        }
+        int rowCount = dataSet.getRowCount();
+        out.writeInt(rowCount);
+        for (int row = 0; row < rowCount; row++) {
+            for (int column = 0; column < columnOrder.size(); column++) {
+                writeValue(dataSet.getValue(row, column), out);
+            }
+        }
+    }
+
+    @Override
+    public DataSet read(DataInput in) throws IOException {
+        int columnCount = in.readInt();
+        List<DataColumn> columnOrder = new ArrayList<>(columnCount);
+        for (int i = 0; i < columnCount; i++) {
+            columnOrder.add(new DefaultDataColumn(in.readUTF(), in.readInt(), in.readInt(), in.readInt()));
+        }
+        int rowCount = in.readInt();
+        ColumnarDataSet.Builder builder = new ColumnarDataSet.Builder(columnOrder, rowCount);
+        for (int row = 0; row < rowCount; row++) {
+            for (int column = 0; column < columnCount; column++) {
+                readValue(in, builder, column);
+            }
+            builder.endRow();
+        }
+        return builder.build();
+    }
+
+    private void writeValue(Object value, DataOutput out) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof Long) {
+            out.writeByte(LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(INT);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Double) {
+            out.writeByte(DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof String) {
+            out.writeByte(STRING);
+            writeBytes(((String) value).getBytes(StandardCharsets.UTF_8), out);
+        } else if (value instanceof byte[]) {
+            out.writeByte(BYTES);
+            writeBytes((byte[]) value, out);
+        } else if (value.getClass() == Timestamp.class) {
+            out.writeByte(TIMESTAMP);
+            out.writeLong(((Timestamp) value).getTime());
+            out.writeInt(((Timestamp) value).getNanos());
+        } else if (value instanceof BigDecimal) {
+            out.writeByte(DECIMAL);
+            out.writeInt(((BigDecimal) value).scale());
+            writeBytes(((BigDecimal) value).unscaledValue().toByteArray(), out);
+        } else if (value instanceof Boolean) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value.getClass() == Date.class) {
+            out.writeByte(DATE);
+            out.writeLong(((Date) value).getTime());
+        } else if (value.getClass() == Time.class) {
+            out.writeByte(TIME);
+            out.writeLong(((Time) value).getTime());
+        } else if (value instanceof ByteArrayInputStream) {
+            // the stream is consumed, the data set must not be read again after spilling
+            ByteArrayInputStream stream = (ByteArrayInputStream) value;
+            byte[] bytes = new byte[stream.available()];
+            stream.read(bytes, 0, bytes.length);
+            out.writeByte(STREAM);
+            writeBytes(bytes, out);
+        } else if (value instanceof Short) {
+            out.writeByte(SHORT);
+            out.writeShort((Short) value);
+        } else if (value instanceof Float) {
+            out.writeByte(FLOAT);
+            out.writeFloat((Float) value);
+        } else if (value instanceof Serializable) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream objectOut = new ObjectOutputStream(bytes)) {
+                objectOut.writeObject(value);
+            }
+            out.writeByte(SERIALIZED);
+            writeBytes(bytes.toByteArray(), out);
+        } else {
+            throw new IOException(String.format("Cannot spill value of type %s", value.getClass().getName()));
+        }
+    }
+
+    private void readValue(DataInput in, ColumnarDataSet.Builder builder, int column) throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case NULL:
+                builder.add(column, null);
+                break;
+            case LONG:
+                builder.addLong(column, in.readLong());
+                break;
+            case INT:
+                builder.addInt(column, in.readInt());
+                break;
+            case DOUBLE:
+                builder.addDouble(column, in.readDouble());
+                break;
+            case STRING:
+                builder.add(column, new String(readBytes(in), StandardCharsets.UTF_8));
+                break;
+            case BYTES:
+                builder.add(column, readBytes(in));
+                break;
+            case TIMESTAMP:
+                Timestamp timestamp = new Timestamp(in.readLong());
+                timestamp.setNanos(in.readInt());
+                builder.add(column, timestamp);
+                break;
+            case DECIMAL:
+                int scale = in.readInt();
+                builder.add(column, new BigDecimal(new BigInteger(readBytes(in)), scale));
+                break;
+            case BOOLEAN:
+                builder.add(column, in.readBoolean());
+                break;
+            case DATE:
+                builder.add(column, new Date(in.readLong()));
+                break;
+            case TIME:
+                builder.add(column, new Time(in.readLong()));
+                break;
+            case STREAM:
+                builder.add(column, new ByteArrayInputStream(readBytes(in)));
+                break;
+            case SHORT:
+                builder.add(column, in.readShort());
+                break;
+            case FLOAT:
+                builder.add(column, in.readFloat());
+                break;
+            case SERIALIZED:
+                try (ObjectInputStream objectIn = new ObjectInputStream(new ByteArrayInputStream(readBytes(in)))) {
+                    builder.add(column, objectIn.readObject());
+                } catch (ClassNotFoundException e) {
+                    throw new IOException("Cannot read spilled value", e);
+                }
+                break;
+            default:
+                throw new IOException(String.format("Unknown value tag %s in spill file", tag));
+        }
+    }
+
+    private static void writeBytes(byte[] bytes, DataOutput out) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInput in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return bytes;
+    }
+}
@@ -10,28 +10,55 @@ import org.sap.commercemigration.service.DatabaseCopyTaskRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.ToLongFunction;
 
+/**
+ * Bounds the data sets waiting for a writer by count and by their estimated size. Each pipe has its own memory
+ * budget, the global budget is shared by all pipes of the JVM.
+ * <p>
+ * With a spill file, a data set exceeding any of the bounds is written to disk instead of blocking the reader. The
+ * writer takes the data sets in the order they were put, no matter if they were kept in memory or spilled.
+ */
 public class DefaultDataPipe<T> implements DataPipe<T> {
     private static final Logger LOG = LoggerFactory.getLogger(DefaultDataPipe.class);
 
-    private final BlockingQueue<MaybeFinished<T>> queue;
+    private final BlockingQueue<Element<T>> queue = new LinkedBlockingQueue<>();
+    private final Semaphore slots;
     private final int defaultTimeout;
     private final AtomicReference<Exception> abortException = new AtomicReference<>();
     private final CopyContext context;
     private final CopyContext.DataCopyItem copyItem;
     private final DatabaseCopyTaskRepository taskRepository;
     private final DatabaseCopyScheduler scheduler;
+    private final MemoryBudget memoryBudget;
+    private final MemoryBudget globalMemoryBudget;
+    private final ToLongFunction<T> sizeEstimator;
+    private final SpillFile<T> spillFile;
+    private long globallyReserved;
+    private boolean globalBudgetReleased;
 
     public DefaultDataPipe(DatabaseCopyScheduler scheduler, DatabaseCopyTaskRepository taskRepository, CopyContext context, CopyContext.DataCopyItem copyItem, int timeoutInSeconds, int capacity) {
+        this(scheduler, taskRepository, context, copyItem, timeoutInSeconds, capacity, new MemoryBudget(0), new MemoryBudget(0), value -> 0, null);
+    }
+
+    /**
+     * @param spillFile the file taking the data sets exceeding the bounds, null to block the reader instead
+     */
+    public DefaultDataPipe(DatabaseCopyScheduler scheduler, DatabaseCopyTaskRepository taskRepository, CopyContext context, CopyContext.DataCopyItem copyItem, int timeoutInSeconds, int capacity, MemoryBudget memoryBudget, MemoryBudget globalMemoryBudget, ToLongFunction<T> sizeEstimator, SpillFile<T> spillFile) {
         this.taskRepository = taskRepository;
         this.scheduler = scheduler;
         this.context = context;
         this.copyItem = copyItem;
-        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.slots = new Semaphore(capacity);
+        this.memoryBudget = memoryBudget;
+        this.globalMemoryBudget = globalMemoryBudget;
+        this.sizeEstimator = sizeEstimator;
+        this.spillFile = spillFile;
         defaultTimeout = timeoutInSeconds;
     }
 
@@ -50,11 +77,12 @@ public class DefaultDataPipe<T> implements DataPipe<T> {
             } catch (Exception e) {
                 LOG.warn("could not update error status!", e);
             }
-            try {
-                this.queue.offer(MaybeFinished.poison(), defaultTimeout, TimeUnit.SECONDS);
-            } catch (InterruptedException e) {
-                LOG.warn("Could not flush pipe with poison", e);
+            // data sets left in the pipe are never taken, the other pipes must not wait for them
+            releaseGlobalBudget();
+            if (spillFile != null) {
+                spillFile.close();
             }
+            this.queue.offer(new Element<>(MaybeFinished.poison(), 0, null));
         }
     }
 
@@ -70,9 +98,54 @@ public class DefaultDataPipe<T> implements DataPipe<T> {
         if (isAborted()) {
             throw new PipeAbortedException("pipe aborted", this.abortException.get());
         }
-        if (!queue.offer(value, defaultTimeout, TimeUnit.SECONDS)) {
+        if (value.isPoison()) {
+            queue.offer(new Element<>(value, 0, null));
+            return;
+        }
+        long size = value.getValue() == null ? 0 : sizeEstimator.applyAsLong(value.getValue());
+        if (spillFile != null) {
+            if (!tryPutInMemory(value, size)) {
+                queue.offer(new Element<>(value.withValue(null), 0, spillFile.write(value.getValue())));
+            }
+            return;
+        }
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(defaultTimeout);
+        if (!slots.tryAcquire(defaultTimeout, TimeUnit.SECONDS)) {
             throw new RuntimeException("cannot put new item in time");
         }
+        if (!memoryBudget.reserve(size, deadline - System.currentTimeMillis())) {
+            slots.release();
+            throw new RuntimeException(String.format("cannot put new item in time, the pipe holds %s bytes. Consider increasing the value of the property '%s'", memoryBudget.getReserved(), CommercemigrationConstants.MIGRATION_DATA_PIPE_MEMORY_BUDGET));
+        }
+        if (!globalMemoryBudget.reserve(size, deadline - System.currentTimeMillis())) {
+            slots.release();
+            memoryBudget.release(size);
+            throw new RuntimeException(String.format("cannot put new item in time, all pipes hold %s bytes. Consider increasing the value of the property '%s'", globalMemoryBudget.getReserved(), CommercemigrationConstants.MIGRATION_DATA_PIPE_MEMORY_HEAP_PERCENT));
+        }
+        trackGlobalBudget(size);
+        queue.offer(new Element<>(value, size, null));
+    }
+
+    /**
+     * Keeps the data set in memory if it fits into the bounds right away. Once data sets have been spilled, the
+     * following ones are spilled as well until the writer caught up, so the writer still takes them in order.
+     */
+    private synchronized boolean tryPutInMemory(MaybeFinished<T> value, long size) throws InterruptedException {
+        if (!spillFile.isEmpty() || !slots.tryAcquire()) {
+            return false;
+        }
+        if (!memoryBudget.reserve(size, 0)) {
+            slots.release();
+            return false;
+        }
+        if (!globalMemoryBudget.reserve(size, 0)) {
+            slots.release();
+            memoryBudget.release(size);
+            return false;
+        }
+        trackGlobalBudget(size);
+        queue.offer(new Element<>(value, size, null));
+        return true;
     }
 
     @Override
@@ -80,13 +153,62 @@ public class DefaultDataPipe<T> implements DataPipe<T> {
         if (isAborted()) {
             throw new PipeAbortedException("pipe aborted", this.abortException.get());
         }
-        MaybeFinished<T> element = queue.poll(defaultTimeout, TimeUnit.SECONDS);
+        Element<T> element = queue.poll(defaultTimeout, TimeUnit.SECONDS);
+        if (element != null && element.segment == null && !element.value.isPoison()) {
+            slots.release();
+            release(element.size);
+        }
         if (isAborted()) {
             throw new PipeAbortedException("pipe aborted", this.abortException.get());
         }
         if (element == null) {
             throw new RuntimeException(String.format("cannot get new item in time. Consider increasing the value of the property '%s' or '%s'", CommercemigrationConstants.MIGRATION_DATA_PIPE_TIMEOUT, CommercemigrationConstants.MIGRATION_DATA_PIPE_CAPACITY));
         }
-        return element;
+        MaybeFinished<T> value = element.value;
+        if (element.segment != null) {
+            value = value.withValue(spillFile.read(element.segment));
+        }
+        if (value.isDone() && spillFile != null) {
+            spillFile.close();
+        }
+        return value;
+    }
+
+    private void release(long size) {
+        memoryBudget.release(size);
+        synchronized (this) {
+            if (!globalBudgetReleased) {
+                globallyReserved -= size;
+                globalMemoryBudget.release(size);
+            }
+        }
+    }
+
+    private synchronized void trackGlobalBudget(long size) {
+        if (globalBudgetReleased) {
+            globalMemoryBudget.release(size);
+        } else {
+            globallyReserved += size;
+        }
+    }
+
+    private synchronized void releaseGlobalBudget() {
+        if (!globalBudgetReleased) {
+            globalBudgetReleased = true;
+            globalMemoryBudget.release(globallyReserved);
+            globallyReserved = 0;
+        }
+    }
+
+    private static class Element<T> {
+        private final MaybeFinished<T> value;
+        private final long size;
+        private final SpillFile.Segment segment;
+
+        private Element(MaybeFinished<T> value, long size, SpillFile.Segment segment) {
+            this.value = value;
+            this.size = size;
+            this.segment = segment;
+        }
     }
 }
@@ -11,9 +11,14 @@ import org.sap.commercemigration.concurrent.RetriableTask;
 import org.sap.commercemigration.context.CopyContext;
 import org.sap.commercemigration.context.MigrationContext;
 import org.sap.commercemigration.dataset.DataSet;
+import org.sap.commercemigration.dataset.DataSetConsumer;
 import org.sap.commercemigration.performance.PerformanceCategory;
+import org.sap.commercemigration.planner.BatchSizePlanner;
+import org.sap.commercemigration.planner.SplitPointPlanner;
 import org.sap.commercemigration.performance.PerformanceRecorder;
 import org.sap.commercemigration.performance.PerformanceUnit;
+import org.sap.commercemigration.repository.DataRepository;
+import org.sap.commercemigration.repository.model.ColumnProjection;
 import org.sap.commercemigration.scheduler.DatabaseCopyScheduler;
 import org.sap.commercemigration.service.DatabaseCopyTaskRepository;
 import org.slf4j.Logger;
@@ -21,33 +26,67 @@ import org.slf4j.LoggerFactory;
 import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 
 public class DefaultDataPipeFactory implements DataPipeFactory<DataSet> {
 
     private static final Logger LOG = LoggerFactory.getLogger(DefaultDataPipeFactory.class);
+    private static final long MEGABYTE = 1024L * 1024L;
 
     private final DatabaseCopyTaskRepository taskRepository;
     private final DatabaseCopyScheduler scheduler;
     private final AsyncTaskExecutor executor;
     private final DataWorkerPoolFactory dataReadWorkerPoolFactory;
+    private final SplitPointPlanner splitPointPlanner;
+    private final BatchSizePlanner batchSizePlanner;
+    private final MemoryBudget globalMemoryBudget = new MemoryBudget(0);
 
-    public DefaultDataPipeFactory(DatabaseCopyScheduler scheduler, DatabaseCopyTaskRepository taskRepository, AsyncTaskExecutor executor, DataWorkerPoolFactory dataReadWorkerPoolFactory) {
+    public DefaultDataPipeFactory(DatabaseCopyScheduler scheduler, DatabaseCopyTaskRepository taskRepository, AsyncTaskExecutor executor, DataWorkerPoolFactory dataReadWorkerPoolFactory, SplitPointPlanner splitPointPlanner, BatchSizePlanner batchSizePlanner) {
         this.scheduler = scheduler;
         this.taskRepository = taskRepository;
         this.executor = executor;
         this.dataReadWorkerPoolFactory = dataReadWorkerPoolFactory;
+        this.splitPointPlanner = splitPointPlanner;
+        this.batchSizePlanner = batchSizePlanner;
     }
 
     @Override
     public DataPipe<DataSet> create(CopyContext context, CopyContext.DataCopyItem item) throws Exception {
         int dataPipeTimeout = context.getMigrationContext().getDataPipeTimeout();
         int dataPipeCapacity = context.getMigrationContext().getDataPipeCapacity();
-        DataPipe<DataSet> pipe = new DefaultDataPipe<>(scheduler, taskRepository, context, item, dataPipeTimeout, dataPipeCapacity);
+        MemoryBudget memoryBudget = new MemoryBudget(MEGABYTE * context.getMigrationContext().getDataPipeMemoryBudget());
+        globalMemoryBudget.setCapacity(Runtime.getRuntime().maxMemory() / 100 * context.getMigrationContext().getDataPipeMemoryHeapPercent());
+        SpillFile<DataSet> spillFile = null;
+        if (context.getMigrationContext().isDataPipeSpillEnabled()) {
+            spillFile = new SpillFile<>(context.getMigrationContext().getDataPipeSpillDirectory(), "migration-" + item.getTargetItem() + "-", new DataSetSpillCodec());
+        }
+        DataPipe<DataSet> pipe = new DefaultDataPipe<>(scheduler, taskRepository, context, item, dataPipeTimeout, dataPipeCapacity, memoryBudget, globalMemoryBudget, DataSet::getEstimatedSize, spillFile);
         ThreadPoolTaskExecutor taskExecutor = dataReadWorkerPoolFactory.create(context);
-        DataWorkerExecutor<Boolean> workerExecutor = new DefaultDataWorkerExecutor<>(taskExecutor);
+        int readerWorkers = context.getMigrationContext().getMaxParallelReaderWorkers();
+        if (context.getMigrationContext().isOrderedWriteEnabled()) {
+            // each lane is fed by a reader of its own, a lane without a running reader would idle
+            readerWorkers = Math.max(readerWorkers, getLaneCount(context));
+            if (taskExecutor.getMaxPoolSize() < readerWorkers) {
+                taskExecutor.setMaxPoolSize(readerWorkers);
+                taskExecutor.setCorePoolSize(readerWorkers);
+            }
+        }
+        // tasks are scheduled while the split points are planned, only a bounded number of them waits for a reader
+        DataWorkerExecutor<Boolean> workerExecutor = new DefaultDataWorkerExecutor<>(taskExecutor, 2 * readerWorkers);
         try {
             executor.submit(() -> {
                 try {
@@ -77,12 +116,15 @@ public class DefaultDataPipeFactory implements DataPipeFactory<DataSet> {
         DataRepositoryAdapter dataRepositoryAdapter = new ContextualDataRepositoryAdapter(context.getMigrationContext().getDataSourceRepository());
         String table = copyItem.getSourceItem();
         long totalRows = copyItem.getRowCount();
-        long pageSize = context.getMigrationContext().getReaderBatchSize();
+        long pageSize = batchSizePlanner.plan(context, copyItem);
+        recordBatchSize(context, copyItem, pageSize);
         try {
             PerformanceRecorder recorder = context.getPerformanceProfiler().createRecorder(PerformanceCategory.DB_READ, table);
             recorder.start();
 
-            PipeTaskContext pipeTaskContext = new PipeTaskContext(context, pipe, table, dataRepositoryAdapter, pageSize, recorder);
+            // in the ordered write mode each reader reads the contiguous key range of one writer lane
+            int laneCount = context.getMigrationContext().isOrderedWriteEnabled() ? getLaneCount(context) : 0;
+            long expectedMarkers = Math.max(1, (totalRows + pageSize - 1) / pageSize);
 
             String batchColumn = "";
             // help.sap.com/viewer/d0224eca81e249cb821f2cdf45a82ace/LATEST/en-US/08a27931a21441b59094c8a6aa2a880e.html
@@ -93,37 +135,60 @@ public class DefaultDataPipeFactory implements DataPipeFactory<DataSet> {
                 batchColumn = "PK";
             }
             LOG.debug("Using batchColumn: {}", batchColumn.isEmpty() ? "NONE" : batchColumn);
+            // trying offset queries with unique index columns if there is no batch column
+            Set<String> batchColumns = batchColumn.isEmpty() ? getUniqueColumnNames(context, table) : Collections.singleton(batchColumn);
+            ColumnProjection projection = createColumnProjection(context, copyItem, batchColumns);
+            PipeTaskContext pipeTaskContext = new PipeTaskContext(context, pipe, table, dataRepositoryAdapter, projection, pageSize, recorder, laneCount);
 
             if (batchColumn.isEmpty()) {
-                // trying offset queries with unique index columns
-                Set<String> batchColumns;
-                DataSet uniqueColumns = context.getMigrationContext().getDataSourceRepository().getUniqueColumns(table);
-                if (uniqueColumns.isNotEmpty()) {
-                    if (uniqueColumns.getColumnCount() == 0) {
-                        throw new IllegalStateException("Corrupt dataset retrieved. Dataset should have information about unique columns");
+                if (!batchColumns.isEmpty()) {
+                    Set<String> nullableColumns = context.getMigrationContext().getDataSourceRepository().getNullableColumnNames(table);
+                    if (batchColumns.stream().noneMatch(nullableColumns::contains)) {
+                        // keyset pagination over the unique key, parallelized by ranges on its leading column
+                        List<String> keyColumns = new ArrayList<>(batchColumns);
+                        long markersPerRange = laneCount > 0 ? (expectedMarkers + laneCount - 1) / laneCount : 1;
+                        RangeScheduler rangeScheduler = new RangeScheduler(workerExecutor, markersPerRange, laneCount,
+                                (lowerValue, upperValue) -> new KeysetDataReaderTask(pipeTaskContext, keyColumns, lowerValue, upperValue));
+                        splitPointPlanner.plan(context, copyItem, keyColumns.get(0), pageSize, rangeScheduler);
+                        rangeScheduler.finish();
+                    } else {
+                        // rows with null key values cannot be sought, fall back to offset pagination
+                        LOG.debug("Using offset pagination for table {} since its unique key {} is nullable", table, batchColumns);
+                        // the scheduled row count may be taken from the statistics, the offsets have to cover every row
+                        long rowCount = dataRepositoryAdapter.getRowCount(context.getMigrationContext(), table);
+                        for (int offset = 0; offset < rowCount; offset += pageSize) {
+                            DataReaderTask dataReaderTask = new BatchOffsetDataReaderTask(pipeTaskContext, offset, batchColumns);
+                            workerExecutor.safelyExecute(dataReaderTask);
+                        }
                     }
-                    batchColumns = uniqueColumns.getAllResults().stream().map(row -> String.valueOf(row.get(0))).collect(Collectors.toSet());
-                    for (int offset = 0; offset < totalRows; offset += pageSize) {
-                        DataReaderTask dataReaderTask = new BatchOffsetDataReaderTask(pipeTaskContext, offset, batchColumns);
+                } else {
+                    //If no unique columns available to do batch sorting, fallback to read all through one cursor per hash partition
+                    int partitionCount = Math.max(1, context.getMigrationContext().getKeylessReaderPartitions());
+                    LOG.warn("Reading all rows through {} reader(s) for table {}. A failed read cannot be retried", partitionCount, table);
+                    for (int partition = 0; partition < partitionCount; partition++) {
+                        DataReaderTask dataReaderTask = new DefaultDataReaderTask(pipeTaskContext, partition, partitionCount);
                         workerExecutor.safelyExecute(dataReaderTask);
                     }
-                } else {
-                    //If no unique columns available to do batch sorting, fallback to read all
-                    LOG.warn("Reading all rows at once without batching for table {}. Memory consumption might be negatively affected", table);
-                    DataReaderTask dataReaderTask = new DefaultDataReaderTask(pipeTaskContext);
-                    workerExecutor.safelyExecute(dataReaderTask);
                 }
             } else {
-                // do the pagination by value comparison
-                DataSet batchMarkers = dataRepositoryAdapter.getBatchMarkersOrderedByColumn(context.getMigrationContext(), table, batchColumn, pageSize);
-                List<List<Object>> batchMarkersList = batchMarkers.getAllResults();
-                if (batchMarkersList.isEmpty()) {
-                    throw new RuntimeException("Could not retrieve batch values for table " + table);
+                // do the pagination by value comparison, reading starts while the split points are still planned
+                String column = batchColumn;
+                RangeScheduler rangeScheduler;
+                if (context.getMigrationContext().isReaderStreamingEnabled() || laneCount > 0) {
+                    // one open cursor per contiguous key range instead of one query per batch
+                    long rangeCount = Math.max(1, Math.min(expectedMarkers, laneCount > 0 ? laneCount : context.getMigrationContext().getMaxParallelReaderWorkers()));
+                    long markersPerRange = (expectedMarkers + rangeCount - 1) / rangeCount;
+                    rangeScheduler = new RangeScheduler(workerExecutor, markersPerRange, laneCount,
+                            (lowerValue, upperValue) -> new StreamingDataReaderTask(pipeTaskContext, column, lowerValue, upperValue));
+                } else {
+                    rangeScheduler = new RangeScheduler(workerExecutor, 1, laneCount,
+                            (lowerValue, upperValue) -> new BatchMarkerDataReaderTask(pipeTaskContext, column, lowerValue, upperValue));
                 }
-                for (List<Object> batchMarkersRow : batchMarkersList) {
-                    DataReaderTask dataReaderTask = new BatchMarkerDataReaderTask(pipeTaskContext, batchColumn, batchMarkersRow);
-                    workerExecutor.safelyExecute(dataReaderTask);
+                splitPointPlanner.plan(context, copyItem, batchColumn, pageSize, rangeScheduler);
+                if (rangeScheduler.getMarkerCount() == 0) {
+                    throw new RuntimeException("Could not retrieve batch values for table " + table);
                 }
+                rangeScheduler.finish();
             }
         } catch (Exception ex) {
             LOG.error("{{}}: Exception while preparing reader tasks", table, ex);
@@ -135,10 +200,70 @@ public class DefaultDataPipeFactory implements DataPipeFactory<DataSet> {
         }
     }
 
-    private static abstract class DataReaderTask extends RetriableTask {
+    private int getLaneCount(CopyContext context) {
+        return Math.max(1, context.getMigrationContext().getMaxParallelWriterWorkers());
+    }
+
+    private void recordBatchSize(CopyContext context, CopyContext.DataCopyItem copyItem, long batchSize) {
+        try {
+            taskRepository.updateTaskBatchSize(context, copyItem, batchSize);
+        } catch (Exception e) {
+            LOG.warn("Could not record batch size", e);
+        }
+    }
+
+    /**
+     * @return the columns of the smallest unique index of the table in index order, empty if there is none
+     */
+    private Set<String> getUniqueColumnNames(CopyContext context, String table) throws Exception {
+        DataSet uniqueColumns = context.getMigrationContext().getDataSourceRepository().getUniqueColumns(table);
+        try {
+            if (uniqueColumns.isNotEmpty() && uniqueColumns.getColumnCount() == 0) {
+                throw new IllegalStateException("Corrupt dataset retrieved. Dataset should have information about unique columns");
+            }
+            return uniqueColumns.getAllResults().stream().map(row -> String.valueOf(row.get(0))).collect(Collectors.toCollection(LinkedHashSet::new));
+        } finally {
+            uniqueColumns.release();
+        }
+    }
+
+    /**
+     * Leaves the excluded and nullified columns of the table out of the reader queries, so their values never leave
+     * the source. The key columns are read anyway since the readers continue from the last key of a batch and the
+     * incremental writer upserts by PK or ID.
+     * <p>
+     * A large object left in the source is inserted as null and transferred afterwards, so the readers keep the large
+     * objects of the columns the target requires a value for inline.
+     */
+    private ColumnProjection createColumnProjection(CopyContext context, CopyContext.DataCopyItem copyItem, Collection<String> keyColumns) throws Exception {
+        MigrationContext migrationContext = context.getMigrationContext();
+        String targetTable = copyItem.getTargetItem();
+        Set<String> skippedColumns = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        skippedColumns.addAll(migrationContext.getExcludedColumns().getOrDefault(targetTable, Collections.emptySet()));
+        skippedColumns.addAll(migrationContext.getNullifyColumns().getOrDefault(targetTable, Collections.emptySet()));
+        keyColumns.forEach(skippedColumns::remove);
+        Arrays.asList("PK", "ID").forEach(skippedColumns::remove);
+
+        List<String> columns = null;
+        if (!skippedColumns.isEmpty()) {
+            columns = migrationContext.getDataSourceRepository().getAllColumnNames(copyItem.getSourceItem()).stream()
+                    .filter(column -> !skippedColumns.contains(column))
+                    .collect(Collectors.toList());
+            LOG.debug("{}: Not reading column(s) {}", copyItem.getSourceItem(), skippedColumns);
+        }
+
+        DataRepository targetRepository = migrationContext.getDataTargetRepository();
+        Set<String> requiredColumns = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        requiredColumns.addAll(targetRepository.getAllColumnNames(targetTable));
+        requiredColumns.removeAll(targetRepository.getNullableColumnNames(targetTable));
+        return new ColumnProjection(columns, requiredColumns);
+    }
+
+    static abstract class DataReaderTask extends RetriableTask {
         private static final Logger LOG = LoggerFactory.getLogger(DataReaderTask.class);
 
         private PipeTaskContext pipeTaskContext;
+        private int lane = -1;
 
         public DataReaderTask(PipeTaskContext pipeTaskContext) {
             super(pipeTaskContext.getContext(), pipeTaskContext.getTable());
@@ -148,25 +273,60 @@ public class DefaultDataPipeFactory implements DataPipeFactory<DataSet> {
         public PipeTaskContext getPipeTaskContext() {
             return pipeTaskContext;
         }
+
+        /**
+         * @return the writer lane of the pages read by this task, -1 if any lane may write them
+         */
+        public int getLane() {
+            return lane;
+        }
+
+        public void setLane(int lane) {
+            this.lane = lane;
+        }
     }
 
+    /**
+     * Streams the whole table, or one hash partition of it, in batch sized data sets, so the heap use is bounded by
+     * the pipe capacity
+     */
     private static class DefaultDataReaderTask extends DataReaderTask {
 
-        public DefaultDataReaderTask(PipeTaskContext pipeTaskContext) {
+        private int partition;
+        private int partitionCount;
+        private long rowsRead;
+
+        public DefaultDataReaderTask(PipeTaskContext pipeTaskContext, int partition, int partitionCount) {
             super(pipeTaskContext);
+            this.partition = partition;
+            this.partitionCount = partitionCount;
         }
 
         @Override
         protected Boolean internalRun() throws Exception {
+            if (rowsRead > 0) {
+                // without a key there is no way to resume after the rows already handed over to the pipe
+                throw new IllegalStateException(String.format("Cannot resume reading table %s after %s rows", getPipeTaskContext().getTable(), rowsRead));
+            }
             process();
             return Boolean.TRUE;
         }
 
         private void process() throws Exception {
             MigrationContext migrationContext = getPipeTaskContext().getContext().getMigrationContext();
-            DataSet all = getPipeTaskContext().getDataRepositoryAdapter().getAll(migrationContext, getPipeTaskContext().getTable());
-            getPipeTaskContext().getRecorder().record(PerformanceUnit.ROWS, all.getAllResults().size());
-            getPipeTaskContext().getPipe().put(MaybeFinished.of(all));
+            long pageSize = getPipeTaskContext().getPageSize();
+            DataSetConsumer consumer = page -> {
+                int rows = page.getRowCount();
+                getPipeTaskContext().getRecorder().record(PerformanceUnit.ROWS, rows);
+                getPipeTaskContext().getPipe().put(MaybeFinished.of(page));
+                rowsRead += rows;
+                return true;
+            };
+            if (partitionCount > 1) {
+                getPipeTaskContext().getDataRepositoryAdapter().streamPartition(migrationContext, getPipeTaskContext().getTable(), getPipeTaskContext().getProjection(), partition, partitionCount, pageSize, consumer);
+            } else {
+                getPipeTaskContext().getDataRepositoryAdapter().streamAll(migrationContext, getPipeTaskContext().getTable(), getPipeTaskContext().getProjection(), pageSize, consumer);
+            }
         }
     }
 
@@ -192,60 +352,380 @@ public class DefaultDataPipeFactory implements DataPipeFactory<DataSet> {
             CopyContext context = getPipeTaskContext().getContext();
             String table = getPipeTaskContext().getTable();
             long pageSize = getPipeTaskContext().getPageSize();
-            DataSet result = adapter.getBatchWithoutIdentifier(context.getMigrationContext(), table, batchColumns, pageSize, offset);
-            getPipeTaskContext().getRecorder().record(PerformanceUnit.ROWS, result.getAllResults().size());
+            DataSet result = adapter.getBatchWithoutIdentifier(context.getMigrationContext(), table, getPipeTaskContext().getProjection(), batchColumns, pageSize, offset);
+            getPipeTaskContext().getRecorder().record(PerformanceUnit.ROWS, result.getRowCount());
             getPipeTaskContext().getPipe().put(MaybeFinished.of(result));
         }
     }
 
-    private static class BatchMarkerDataReaderTask extends DataReaderTask {
+    /**
+     * Reads a range of the leading key column page by page, each page seeks past the last key of the previous one
+     */
+    private static class KeysetDataReaderTask extends DataReaderTask {
+
+        private List<String> keyColumns;
+        private Object lowerValue;
+        private Object upperValue;
+        private List<Object> lastKey;
+
+        public KeysetDataReaderTask(PipeTaskContext pipeTaskContext, List<String> keyColumns, Object lowerValue, Object upperValue) {
+            super(pipeTaskContext);
+            this.keyColumns = keyColumns;
+            this.lowerValue = lowerValue;
+            this.upperValue = upperValue;
+        }
+
+        @Override
+        protected Boolean internalRun() throws Exception {
+            CopyContext ctx = getPipeTaskContext().getContext();
+            DataRepositoryAdapter adapter = getPipeTaskContext().getDataRepositoryAdapter();
+            String table = getPipeTaskContext().getTable();
+            long pageSize = getPipeTaskContext().getPageSize();
+            int rows;
+            do {
+                DataSet page = adapter.getBatchOrderedByColumns(ctx.getMigrationContext(), table, getPipeTaskContext().getProjection(), keyColumns, lowerValue, upperValue, lastKey, pageSize);
+                rows = page.getRowCount();
+                if (rows > 0) {
+                    // a retry continues after the last page handed over to the pipe, the page must not be read once
+                    // it is in the pipe since the writer releases its buffers
+                    int lastRow = rows - 1;
+                    List<Object> pageLastKey = keyColumns.stream().map(column -> page.getValue(lastRow, page.getColumnIndex(column))).collect(Collectors.toList());
+                    getPipeTaskContext().getRecorder().record(PerformanceUnit.ROWS, rows);
+                    getPipeTaskContext().getPipe().put(MaybeFinished.of(page, getLane()));
+                    lastKey = pageLastKey;
+                } else {
+                    page.release();
+                }
+            } while (rows >= pageSize);
+            return Boolean.TRUE;
+        }
+    }
+
+    static class BatchMarkerDataReaderTask extends DataReaderTask {
 
         private String batchColumn;
-        private List<Object> batchMarker;
+        private Object lowerValue;
+        private boolean lowerInclusive = true;
+        private Object upperValue;
 
-        public BatchMarkerDataReaderTask(PipeTaskContext pipeTaskContext, String batchColumn, List<Object> batchMarker) {
+        public BatchMarkerDataReaderTask(PipeTaskContext pipeTaskContext, String batchColumn, Object lowerValue, Object upperValue) {
             super(pipeTaskContext);
             this.batchColumn = batchColumn;
-            this.batchMarker = batchMarker;
+            this.lowerValue = lowerValue;
+            this.upperValue = upperValue;
         }
 
         @Override
         protected Boolean internalRun() throws Exception {
-            if (batchMarker != null && batchMarker.size() == 2) {
-                Object markerValue = batchMarker.get(0);
-                process(markerValue);
-                return Boolean.TRUE;
-            } else {
-                throw new IllegalArgumentException("Invalid batch marker passed to task");
-            }
+            process();
+            return Boolean.TRUE;
         }
 
-        private void process(Object lastValue) throws Exception {
+        private void process() throws Exception {
             CopyContext ctx = getPipeTaskContext().getContext();
             DataRepositoryAdapter adapter = getPipeTaskContext().getDataRepositoryAdapter();
             String table = getPipeTaskContext().getTable();
             long pageSize = getPipeTaskContext().getPageSize();
-            DataSet page = adapter.getBatchOrderedByColumn(ctx.getMigrationContext(), table, batchColumn, lastValue, pageSize);
-            getPipeTaskContext().getRecorder().record(PerformanceUnit.ROWS, pageSize);
-            getPipeTaskContext().getPipe().put(MaybeFinished.of(page));
+            // planned ranges are estimates, a range holding more rows than expected is still handed over in batches
+            adapter.streamBatchesOrderedByColumn(ctx.getMigrationContext(), table, getPipeTaskContext().getProjection(), batchColumn, lowerValue, lowerInclusive, upperValue, pageSize, page -> {
+                int rows = page.getRowCount();
+                if (rows == 0) {
+                    page.release();
+                    return true;
+                }
+                // a retry continues after the last row handed over to the pipe, the page must not be read once it is
+                // in the pipe since the writer releases its buffers
+                Object pageLastValue = page.getValue(rows - 1, page.getColumnIndex(batchColumn));
+                getPipeTaskContext().getRecorder().record(PerformanceUnit.ROWS, rows);
+                getPipeTaskContext().getPipe().put(MaybeFinished.of(page, getLane()));
+                lowerValue = pageLastValue;
+                lowerInclusive = false;
+                return true;
+            });
         }
     }
 
-    private static class PipeTaskContext {
+    /**
+     * Streams the half-open key range [lowerValue, upperValue) through one cursor. Once its own range is exhausted
+     * the task takes over the upper half of the range with the most rows left, so a skewed key distribution does
+     * not leave a single reader behind while the other workers idle.
+     */
+    static class StreamingDataReaderTask extends DataReaderTask {
+
+        private String batchColumn;
+        private Object lowerValue;
+        private boolean lowerInclusive = true;
+        private Object upperValue;
+        private Object firstValue;
+        private long rowsRead;
+
+        public StreamingDataReaderTask(PipeTaskContext pipeTaskContext, String batchColumn, Object lowerValue, Object upperValue) {
+            super(pipeTaskContext);
+            this.batchColumn = batchColumn;
+            this.lowerValue = lowerValue;
+            this.upperValue = upperValue;
+        }
+
+        @Override
+        protected Boolean internalRun() throws Exception {
+            KeyRangeSplitter splitter = getPipeTaskContext().getKeyRangeSplitter();
+            splitter.register(this);
+            try {
+                do {
+                    CopyContext ctx = getPipeTaskContext().getContext();
+                    DataRepositoryAdapter adapter = getPipeTaskContext().getDataRepositoryAdapter();
+                    String table = getPipeTaskContext().getTable();
+                    long pageSize = getPipeTaskContext().getPageSize();
+                    adapter.streamBatchesOrderedByColumn(ctx.getMigrationContext(), table, getPipeTaskContext().getProjection(), batchColumn, lowerValue, lowerInclusive, getUpperValue(), pageSize, this::process);
+                } while (splitter.takeOver(this));
+            } finally {
+                splitter.unregister(this);
+            }
+            return Boolean.TRUE;
+        }
+
+        private boolean process(DataSet slice) throws Exception {
+            int rows = slice.getRowCount();
+            int column = slice.getColumnIndex(batchColumn);
+            int accepted;
+            synchronized (this) {
+                // the range may have been split while the cursor was open
+                accepted = rows;
+                BigDecimal upper = KeyRangeSplitter.toDecimal(upperValue);
+                if (upper != null) {
+                    accepted = 0;
+                    while (accepted < rows && KeyRangeSplitter.toDecimal(slice.getValue(accepted, column)).compareTo(upper) < 0) {
+                        accepted++;
+                    }
+                }
+                if (accepted > 0) {
+                    // a retry or the splitter continues after the last row handed over to the pipe
+                    if (firstValue == null) {
+                        firstValue = slice.getValue(0, column);
+                    }
+                    lowerValue = slice.getValue(accepted - 1, column);
+                    lowerInclusive = false;
+                    rowsRead += accepted;
+                }
+            }
+            if (accepted > 0) {
+                DataSet page = accepted == rows ? slice : slice.subSet(0, accepted);
+                getPipeTaskContext().getRecorder().record(PerformanceUnit.ROWS, accepted);
+                getPipeTaskContext().getPipe().put(MaybeFinished.of(page, getLane()));
+            }
+            return accepted == rows;
+        }
+
+        private synchronized Object getUpperValue() {
+            return upperValue;
+        }
+
+        /**
+         * Estimates the rows left in the range from the key density seen so far, -1 if the range cannot be split.
+         */
+        private synchronized long estimateRemainingRows() {
+            BigDecimal first = KeyRangeSplitter.toDecimal(firstValue);
+            BigDecimal last = KeyRangeSplitter.toDecimal(lowerValue);
+            BigDecimal upper = KeyRangeSplitter.toDecimal(upperValue);
+            if (first == null || last == null || upper == null || lowerInclusive || last.compareTo(first) <= 0) {
+                return -1;
+            }
+            return upper.subtract(last).multiply(BigDecimal.valueOf(rowsRead)).divide(last.subtract(first), RoundingMode.DOWN).longValue();
+        }
+
+        /**
+         * Cuts the range at the middle of the keys not read yet.
+         *
+         * @return the upper half that is no longer part of this range, null if there is nothing left to split
+         */
+        private synchronized Object[] splitRemainingRange() {
+            BigDecimal last = KeyRangeSplitter.toDecimal(lowerValue);
+            BigDecimal upper = KeyRangeSplitter.toDecimal(upperValue);
+            if (last == null || upper == null) {
+                return null;
+            }
+            BigDecimal middle = last.add(upper.subtract(last).divide(BigDecimal.valueOf(2), 0, RoundingMode.DOWN));
+            if (middle.compareTo(last) <= 0) {
+                return null;
+            }
+            Object splitValue = upperValue instanceof Long || upperValue instanceof Integer ? Long.valueOf(middle.longValueExact()) : middle;
+            Object[] upperHalf = new Object[]{splitValue, upperValue};
+            upperValue = splitValue;
+            return upperHalf;
+        }
+
+        private synchronized void resetRange(Object lowerValue, Object upperValue) {
+            this.lowerValue = lowerValue;
+            this.lowerInclusive = true;
+            this.upperValue = upperValue;
+            this.firstValue = null;
+            this.rowsRead = 0;
+        }
+    }
+
+    /**
+     * Turns the ordered split points into reader tasks while they arrive. A range is scheduled as soon as its upper
+     * bound is known and the window of reader tasks has room, so reading starts while planning is still running. The
+     * split points may come from an open cursor, waiting for the window would hold it open while the table is read,
+     * so the ranges not fitting into the window are kept until {@link #finish()}. The first range starts unbounded
+     * since planned split points are not necessarily the minimum of the column, the last range is open ended and
+     * scheduled once planning completed.
+     */
+    private static class RangeScheduler implements DataSetConsumer {
+        private final DataWorkerExecutor<Boolean> workerExecutor;
+        private final long markersPerRange;
+        private final int laneCount;
+        private final BiFunction<Object, Object, DataReaderTask> taskFactory;
+        private final Queue<Object[]> pendingRanges = new ArrayDeque<>();
+        private Object lowerValue;
+        private Object lastValue;
+        private long markerCount;
+        private int plannedRangeCount;
+        private int rangeCount;
+
+        /**
+         * @param laneCount the writer lanes the ranges are assigned to in key order, 0 if the writes are not ordered
+         */
+        public RangeScheduler(DataWorkerExecutor<Boolean> workerExecutor, long markersPerRange, int laneCount, BiFunction<Object, Object, DataReaderTask> taskFactory) {
+            this.workerExecutor = workerExecutor;
+            this.markersPerRange = markersPerRange;
+            this.laneCount = laneCount;
+            this.taskFactory = taskFactory;
+        }
+
+        @Override
+        public boolean accept(DataSet markers) throws Exception {
+            for (List<Object> marker : markers.getAllResults()) {
+                Object value = marker.get(0);
+                if (markerCount > 0 && Objects.equals(lastValue, value)) {
+                    // markers of a non unique leading key column may repeat
+                    continue;
+                }
+                // in the ordered write mode the range of the last lane takes all remaining markers, a surplus range
+                // would be read next to it and mix up the key order of the lane
+                if (markerCount > 0 && markerCount % markersPerRange == 0 && (laneCount == 0 || plannedRangeCount < laneCount - 1)) {
+                    pendingRanges.add(new Object[]{lowerValue, value});
+                    plannedRangeCount++;
+                    lowerValue = value;
+                }
+                lastValue = value;
+                markerCount++;
+            }
+            // the marker values were copied out of the data set
+            markers.release();
+            while (!pendingRanges.isEmpty() && workerExecutor.trySafelyExecute(createTask(pendingRanges.peek())) != null) {
+                pendingRanges.poll();
+                rangeCount++;
+            }
+            return true;
+        }
+
+        /**
+         * Schedules the remaining ranges, waiting for the window of reader tasks. Called once planning completed.
+         */
+        public void finish() throws InterruptedException {
+            pendingRanges.add(new Object[]{lowerValue, null});
+            Object[] range;
+            while ((range = pendingRanges.poll()) != null) {
+                workerExecutor.safelyExecute(createTask(range));
+                rangeCount++;
+            }
+        }
+
+        private DataReaderTask createTask(Object[] range) {
+            DataReaderTask task = taskFactory.apply(range[0], range[1]);
+            if (laneCount > 0) {
+                task.setLane(rangeCount);
+            }
+            return task;
+        }
+
+        public long getMarkerCount() {
+            return markerCount;
+        }
+    }
+
+    /**
+     * Keeps track of the streaming ranges of a table and hands over parts of long running ranges to readers that
+     * completed their own range. Only bounded ranges over numeric keys are split, the last open ended range is not.
+     */
+    static class KeyRangeSplitter {
+        private final long minRowsToSplit;
+        private final List<StreamingDataReaderTask> activeTasks = new ArrayList<>();
+
+        public KeyRangeSplitter(long minRowsToSplit) {
+            this.minRowsToSplit = minRowsToSplit;
+        }
+
+        public synchronized void register(StreamingDataReaderTask task) {
+            if (!activeTasks.contains(task)) {
+                activeTasks.add(task);
+            }
+        }
+
+        public synchronized void unregister(StreamingDataReaderTask task) {
+            activeTasks.remove(task);
+        }
+
+        public synchronized boolean takeOver(StreamingDataReaderTask idleTask) {
+            StreamingDataReaderTask candidate = null;
+            long candidateRows = minRowsToSplit;
+            for (StreamingDataReaderTask task : activeTasks) {
+                if (task == idleTask) {
+                    continue;
+                }
+                long remainingRows = task.estimateRemainingRows();
+                if (remainingRows >= candidateRows) {
+                    candidate = task;
+                    candidateRows = remainingRows;
+                }
+            }
+            if (candidate == null) {
+                return false;
+            }
+            Object[] upperHalf = candidate.splitRemainingRange();
+            if (upperHalf == null) {
+                return false;
+            }
+            LOG.debug("Splitting reader range at {}, about {} rows left", upperHalf[0], candidateRows);
+            idleTask.resetRange(upperHalf[0], upperHalf[1]);
+            return true;
+        }
+
+        private static BigDecimal toDecimal(Object value) {
+            if (value instanceof BigDecimal) {
+                return (BigDecimal) value;
+            }
+            if (value instanceof Long || value instanceof Integer || value instanceof Short) {
+                return BigDecimal.valueOf(((Number) value).longValue());
+            }
+            if (value instanceof Number) {
+                return new BigDecimal(value.toString());
+            }
+            return null;
+        }
+    }
+
+    static class PipeTaskContext {
         private CopyContext context;
         private DataPipe<DataSet> pipe;
         private String table;
         private DataRepositoryAdapter dataRepositoryAdapter;
+        private ColumnProjection projection;
         private long pageSize;
         private PerformanceRecorder recorder;
+        private KeyRangeSplitter keyRangeSplitter;
 
-        public PipeTaskContext(CopyContext context, DataPipe<DataSet> pipe, String table, DataRepositoryAdapter dataRepositoryAdapter, long pageSize, PerformanceRecorder recorder) {
+        public PipeTaskContext(CopyContext context, DataPipe<DataSet> pipe, String table, DataRepositoryAdapter dataRepositoryAdapter, ColumnProjection projection, long pageSize, PerformanceRecorder recorder, int laneCount) {
             this.context = context;
             this.pipe = pipe;
             this.table = table;
             this.dataRepositoryAdapter = dataRepositoryAdapter;
+            this.projection = projection;
             this.pageSize = pageSize;
             this.recorder = recorder;
+            // a split range would be written by two lanes, the ordered write mode keeps the ranges as planned
+            this.keyRangeSplitter = new KeyRangeSplitter(laneCount > 0 ? Long.MAX_VALUE : 2 * pageSize);
         }
 
         public CopyContext getContext() {
@@ -264,6 +744,10 @@ public class DefaultDataPipeFactory implements DataPipeFactory<DataSet> {
             return dataRepositoryAdapter;
         }
 
+        public ColumnProjection getProjection() {
+            return projection;
+        }
+
         public long getPageSize() {
             return pageSize;
         }
@@ -272,6 +756,10 @@ public class DefaultDataPipeFactory implements DataPipeFactory<DataSet> {
             return recorder;
         }
 
+        public KeyRangeSplitter getKeyRangeSplitter() {
+            return keyRangeSplitter;
+        }
+
     }
 
 }
@@ -13,6 +13,7 @@ import java.util.Queue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 
 public class DefaultDataWorkerExecutor<T> implements DataWorkerExecutor<T> {
 
@@ -20,19 +21,92 @@ public class DefaultDataWorkerExecutor<T> implements DataWorkerExecutor<T> {
 
     private AsyncTaskExecutor executor;
     private Queue<Future<T>> futures = new ArrayDeque<>();
+    private Semaphore window;
 
 
     public DefaultDataWorkerExecutor(AsyncTaskExecutor executor) {
+        this(executor, 0);
+    }
+
+    /**
+     * @param maxTasksInFlight the number of submitted tasks that may not have completed yet, submitting
+     *                         blocks until a task completes. 0 means unbounded.
+     */
+    public DefaultDataWorkerExecutor(AsyncTaskExecutor executor, int maxTasksInFlight) {
         this.executor = executor;
+        this.window = maxTasksInFlight > 0 ? new Semaphore(maxTasksInFlight) : null;
     }
 
     @Override
     public Future<T> safelyExecute(Callable<T> callable) throws InterruptedException {
-        Future<T> future = internalSafelyExecute(callable, 0);
+        pruneCompletedFutures();
+        Future<T> future;
+        if (window == null) {
+            future = internalSafelyExecute(callable, 0);
+        } else {
+            window.acquire();
+            try {
+                future = internalSafelyExecute(() -> {
+                    try {
+                        return callable.call();
+                    } finally {
+                        window.release();
+                    }
+                }, 0);
+            } catch (InterruptedException | RuntimeException e) {
+                window.release();
+                throw e;
+            }
+        }
         futures.add(future);
         return future;
     }
 
+    @Override
+    public Future<T> trySafelyExecute(Callable<T> callable) {
+        pruneCompletedFutures();
+        if (window != null && !window.tryAcquire()) {
+            return null;
+        }
+        Future<T> future;
+        try {
+            future = executor.submit(window == null ? callable : () -> {
+                try {
+                    return callable.call();
+                } finally {
+                    window.release();
+                }
+            });
+        } catch (TaskRejectedException e) {
+            if (window != null) {
+                window.release();
+            }
+            return null;
+        }
+        futures.add(future);
+        return future;
+    }
+
+    /**
+     * Forgets about successfully completed tasks, so long running schedules do not keep every future.
+     * Failed tasks are kept to rethrow their exception.
+     */
+    private void pruneCompletedFutures() {
+        futures.removeIf(future -> future.isDone() && !future.isCancelled() && !isFailed(future));
+    }
+
+    private boolean isFailed(Future<T> future) {
+        try {
+            future.get();
+            return false;
+        } catch (ExecutionException e) {
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return true;
+        }
+    }
+
     private Future<T> internalSafelyExecute(Callable<T> callable, int rejections) throws InterruptedException {
         try {
             return executor.submit(callable);
@@ -0,0 +1,53 @@
+package org.sap.commercemigration.concurrent.impl;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Bounds the number of bytes held at the same time. A reservation exceeding the whole budget is granted as soon as
+ * nothing else is reserved, so a single oversized data set cannot block a pipe forever.
+ */
+@ThreadSafe
+public class MemoryBudget {
+
+    private long capacity;
+    private long reserved;
+
+    /**
+     * @param capacity the budget in bytes, 0 or less if unlimited
+     */
+    public MemoryBudget(long capacity) {
+        this.capacity = capacity;
+    }
+
+    public synchronized void setCapacity(long capacity) {
+        this.capacity = capacity;
+        notifyAll();
+    }
+
+    public synchronized long getReserved() {
+        return reserved;
+    }
+
+    /**
+     * Waits until the bytes fit into the budget.
+     *
+     * @return false if the bytes did not fit in time, nothing is reserved then
+     */
+    public synchronized boolean reserve(long bytes, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (capacity > 0 && reserved > 0 && reserved + bytes > capacity) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return false;
+            }
+            wait(remaining);
+        }
+        reserved += bytes;
+        return true;
+    }
+
+    public synchronized void release(long bytes) {
+        reserved -= bytes;
+        notifyAll();
+    }
+}
@@ -0,0 +1,16 @@
+package org.sap.commercemigration.concurrent.impl;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Writes the values of a pipe to a spill file and reads them back
+ *
+ * @param <T>
+ */
+public interface SpillCodec<T> {
+    void write(T value, DataOutput out) throws IOException;
+
+    T read(DataInput in) throws IOException;
+}
@@ -0,0 +1,134 @@
+package org.sap.commercemigration.concurrent.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Keeps the values a pipe cannot hold in memory in a temporary file. Values are appended and read back by their
+ * position through one file channel, the file is emptied whenever all values written have been read and deleted
+ * once the pipe is closed.
+ *
+ * @param <T>
+ */
+@ThreadSafe
+public class SpillFile<T> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SpillFile.class);
+
+    private final String directory;
+    private final String prefix;
+    private final SpillCodec<T> codec;
+    private Path path;
+    private FileChannel channel;
+    private long writePosition;
+    private int pending;
+    private boolean closed;
+
+    /**
+     * @param directory the directory of the file, the default temp directory if empty
+     */
+    public SpillFile(String directory, String prefix, SpillCodec<T> codec) {
+        this.directory = directory;
+        this.prefix = prefix;
+        this.codec = codec;
+    }
+
+    /**
+     * @return the segment of the file holding the value
+     */
+    public Segment write(T value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            codec.write(value, out);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+        synchronized (this) {
+            if (closed) {
+                throw new IOException("Spill file is closed");
+            }
+            FileChannel fileChannel = open();
+            long position = writePosition;
+            while (buffer.hasRemaining()) {
+                writePosition += fileChannel.write(buffer, writePosition);
+            }
+            pending++;
+            return new Segment(position, (int) (writePosition - position));
+        }
+    }
+
+    public T read(Segment segment) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(segment.length);
+        synchronized (this) {
+            if (closed) {
+                throw new IOException("Spill file is closed");
+            }
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, segment.position + buffer.position()) < 0) {
+                    throw new IOException("Unexpected end of spill file " + path);
+                }
+            }
+            if (--pending == 0) {
+                // everything written has been read, the space can be reused
+                channel.truncate(0);
+                writePosition = 0;
+            }
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(buffer.array()))) {
+            return codec.read(in);
+        }
+    }
+
+    public synchronized boolean isEmpty() {
+        return pending == 0;
+    }
+
+    public synchronized long getSize() {
+        return writePosition;
+    }
+
+    public synchronized void close() {
+        closed = true;
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                LOG.warn("Cannot close spill file {}: {}", path, e.getMessage());
+            }
+            channel = null;
+        }
+    }
+
+    private FileChannel open() throws IOException {
+        if (channel == null) {
+            Path dir = directory == null || directory.trim().isEmpty() ? Paths.get(System.getProperty("java.io.tmpdir")) : Paths.get(directory);
+            Files.createDirectories(dir);
+            path = Files.createTempFile(dir, prefix, ".spill");
+            channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+            LOG.info("Spilling pipe to {}", path);
+        }
+        return channel;
+    }
+
+    public static class Segment {
+        private final long position;
+        private final int length;
+
+        private Segment(long position, int length) {
+            this.position = position;
+            this.length = length;
+        }
+    }
+}
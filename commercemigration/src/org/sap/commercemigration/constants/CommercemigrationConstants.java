@@ -25,10 +25,20 @@ public final class CommercemigrationConstants extends GeneratedCommercemigration
     public static final String MIGRATION_TARGET_MAX_STAGE_MIGRATIONS = "migration.ds.target.db.max.stage.migrations";
     public static final String MIGRATION_SCHEMA_AUTOTRIGGER_ENABLED = "migration.schema.autotrigger.enabled";
     public static final String MIGRATION_DATA_READER_BATCHSIZE = "migration.data.reader.batchsize";
+    public static final String MIGRATION_DATA_READER_BATCHSIZE_BYTES = "migration.data.reader.batchsize.bytes";
+    public static final String MIGRATION_DATA_READER_BATCHSIZE_MIN = "migration.data.reader.batchsize.min";
+    public static final String MIGRATION_DATA_READER_BATCHSIZE_MAX = "migration.data.reader.batchsize.max";
+    public static final String MIGRATION_DATA_READER_STREAMING_ENABLED = "migration.data.reader.streaming.enabled";
+    public static final String MIGRATION_DATA_READER_SPLITPOINTS_STRATEGY = "migration.data.reader.splitpoints.strategy";
+    public static final String MIGRATION_DATA_READER_KEYLESS_PARTITIONS = "migration.data.reader.keyless.partitions";
+    public static final String MIGRATION_DATA_ROWCOUNT_EXACT_ENABLED = "migration.data.rowcount.exact.enabled";
     public static final String MIGRATION_DATA_TRUNCATE_ENABLED = "migration.data.truncate.enabled";
     public static final String MIGRATION_DATA_TRUNCATE_EXCLUDED = "migration.data.truncate.excluded";
     public static final String MIGRATION_DATA_WORKERS_READER_MAXTASKS = "migration.data.workers.reader.maxtasks";
     public static final String MIGRATION_DATA_WORKERS_WRITER_MAXTASKS = "migration.data.workers.writer.maxtasks";
+    public static final String MIGRATION_DATA_WORKERS_WRITER_COMMIT_INTERVAL = "migration.data.workers.writer.commit.interval";
+    public static final String MIGRATION_DATA_WORKERS_WRITER_MULTIROW_TABLES = "migration.data.workers.writer.multirow.tables";
+    public static final String MIGRATION_DATA_WORKERS_WRITER_ORDERED_ENABLED = "migration.data.workers.writer.ordered.enabled";
     public static final String MIGRATION_DATA_WORKERS_RETRYATTEMPTS = "migration.data.workers.retryattempts";
     public static final String MIGRATION_DATA_MAXPRALLELTABLECOPY = "migration.data.maxparalleltablecopy";
     public static final String MIGRATION_DATA_FAILONEERROR_ENABLED = "migration.data.failonerror.enabled";
@@ -45,9 +55,15 @@ public final class CommercemigrationConstants extends GeneratedCommercemigration
     public static final String MIGRATION_DATA_INCREMENTAL_ENABLED = "migration.data.incremental.enabled";
     public static final String MIGRATION_DATA_INCREMENTAL_TABLES = "migration.data.incremental.tables";
     public static final String MIGRATION_DATA_INCREMENTAL_TIMESTAMP = "migration.data.incremental.timestamp";
+    public static final String MIGRATION_DATA_INCREMENTAL_STAGING_ENABLED = "migration.data.incremental.staging.enabled";
     public static final String MIGRATION_DATA_BULKCOPY_ENABLED = "migration.data.bulkcopy.enabled";
+    public static final String MIGRATION_DATA_BULKCOPY_DIRECT_ENABLED = "migration.data.bulkcopy.direct.enabled";
     public static final String MIGRATION_DATA_PIPE_TIMEOUT = "migration.data.pipe.timeout";
     public static final String MIGRATION_DATA_PIPE_CAPACITY = "migration.data.pipe.capacity";
+    public static final String MIGRATION_DATA_PIPE_MEMORY_BUDGET = "migration.data.pipe.memory.budget";
+    public static final String MIGRATION_DATA_PIPE_MEMORY_HEAP_PERCENT = "migration.data.pipe.memory.heap.percent";
+    public static final String MIGRATION_DATA_PIPE_SPILL_ENABLED = "migration.data.pipe.spill.enabled";
+    public static final String MIGRATION_DATA_PIPE_SPILL_DIRECTORY = "migration.data.pipe.spill.directory";
     public static final String MIGRATION_STALLED_TIMEOUT = "migration.stalled.timeout";
     public static final String MIGRATION_DATA_REPORT_CONNECTIONSTRING = "migration.data.report.connectionstring";
     public static final String MIGRATION_DATATYPE_CHECK = "migration.datatype.check";
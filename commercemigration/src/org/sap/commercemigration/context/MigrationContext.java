@@ -30,6 +30,23 @@ public interface MigrationContext {
 
     int getReaderBatchSize();
 
+    /**
+     * @return the bytes a batch should hold, 0 if every table uses the fixed reader batch size
+     */
+    int getReaderBatchSizeBytes();
+
+    int getMinReaderBatchSize();
+
+    int getMaxReaderBatchSize();
+
+    boolean isReaderStreamingEnabled();
+
+    String getSplitPointStrategy();
+
+    int getKeylessReaderPartitions();
+
+    boolean isExactRowCountEnabled();
+
     boolean isTruncateEnabled();
 
     boolean isAuditTableMigrationEnabled();
@@ -40,6 +57,21 @@ public interface MigrationContext {
 
     int getMaxParallelWriterWorkers();
 
+    /**
+     * @return the rows a writer session writes before it commits, 0 to commit every batch
+     */
+    int getWriterCommitInterval();
+
+    /**
+     * @return the target tables written with multi row inserts instead of batched single row inserts
+     */
+    Set<String> getMultiRowInsertTables();
+
+    /**
+     * @return true if each writer worker writes one contiguous key range of a table in key order
+     */
+    boolean isOrderedWriteEnabled();
+
     int getMaxParallelTableCopy();
 
     int getMaxWorkerRetryAttempts();
@@ -70,12 +102,39 @@ public interface MigrationContext {
 
     Instant getIncrementalTimestamp();
 
+    /**
+     * @return true if the incremental mode loads each batch into a staging table and merges it with one statement
+     */
+    boolean isIncrementalStagingEnabled();
+
     boolean isBulkCopyEnabled();
 
+    /**
+     * @return true if plain full table copies stream the source cursor into the bulk copy, bypassing the pipe
+     */
+    boolean isDirectBulkCopyEnabled();
+
     int getDataPipeTimeout();
 
     int getDataPipeCapacity();
 
+    /**
+     * @return the megabytes of data sets a single pipe may hold, 0 if unlimited
+     */
+    int getDataPipeMemoryBudget();
+
+    /**
+     * @return the percentage of the max heap all pipes together may hold, 0 if unlimited
+     */
+    int getDataPipeMemoryHeapPercent();
+
+    boolean isDataPipeSpillEnabled();
+
+    /**
+     * @return the directory of the spill files, the default temp directory if empty
+     */
+    String getDataPipeSpillDirectory();
+
     int getStalledTimeout();
 
     String getMigrationReportConnectionString();
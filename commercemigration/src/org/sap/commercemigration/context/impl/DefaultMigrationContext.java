@@ -95,6 +95,41 @@ public class DefaultMigrationContext implements MigrationContext {
         return getNumericProperty(CommercemigrationConstants.MIGRATION_DATA_READER_BATCHSIZE);
     }
 
+    @Override
+    public int getReaderBatchSizeBytes() {
+        return getNumericProperty(CommercemigrationConstants.MIGRATION_DATA_READER_BATCHSIZE_BYTES);
+    }
+
+    @Override
+    public int getMinReaderBatchSize() {
+        return getNumericProperty(CommercemigrationConstants.MIGRATION_DATA_READER_BATCHSIZE_MIN);
+    }
+
+    @Override
+    public int getMaxReaderBatchSize() {
+        return getNumericProperty(CommercemigrationConstants.MIGRATION_DATA_READER_BATCHSIZE_MAX);
+    }
+
+    @Override
+    public boolean isReaderStreamingEnabled() {
+        return getBooleanProperty(CommercemigrationConstants.MIGRATION_DATA_READER_STREAMING_ENABLED);
+    }
+
+    @Override
+    public String getSplitPointStrategy() {
+        return getStringProperty(CommercemigrationConstants.MIGRATION_DATA_READER_SPLITPOINTS_STRATEGY);
+    }
+
+    @Override
+    public int getKeylessReaderPartitions() {
+        return getNumericProperty(CommercemigrationConstants.MIGRATION_DATA_READER_KEYLESS_PARTITIONS);
+    }
+
+    @Override
+    public boolean isExactRowCountEnabled() {
+        return getBooleanProperty(CommercemigrationConstants.MIGRATION_DATA_ROWCOUNT_EXACT_ENABLED);
+    }
+
     @Override
     public boolean isTruncateEnabled() {
         return getBooleanProperty(CommercemigrationConstants.MIGRATION_DATA_TRUNCATE_ENABLED);
@@ -120,6 +155,21 @@ public class DefaultMigrationContext implements MigrationContext {
         return getNumericProperty(CommercemigrationConstants.MIGRATION_DATA_WORKERS_WRITER_MAXTASKS);
     }
 
+    @Override
+    public int getWriterCommitInterval() {
+        return getNumericProperty(CommercemigrationConstants.MIGRATION_DATA_WORKERS_WRITER_COMMIT_INTERVAL);
+    }
+
+    @Override
+    public Set<String> getMultiRowInsertTables() {
+        return getListProperty(CommercemigrationConstants.MIGRATION_DATA_WORKERS_WRITER_MULTIROW_TABLES);
+    }
+
+    @Override
+    public boolean isOrderedWriteEnabled() {
+        return getBooleanProperty(CommercemigrationConstants.MIGRATION_DATA_WORKERS_WRITER_ORDERED_ENABLED);
+    }
+
     @Override
     public int getMaxWorkerRetryAttempts() {
         return getNumericProperty(CommercemigrationConstants.MIGRATION_DATA_WORKERS_RETRYATTEMPTS);
@@ -200,11 +250,21 @@ public class DefaultMigrationContext implements MigrationContext {
         return ZonedDateTime.parse(timeStamp, DateTimeFormatter.ISO_ZONED_DATE_TIME).toInstant();
     }
 
+    @Override
+    public boolean isIncrementalStagingEnabled() {
+        return getBooleanProperty(CommercemigrationConstants.MIGRATION_DATA_INCREMENTAL_STAGING_ENABLED);
+    }
+
     @Override
     public boolean isBulkCopyEnabled() {
         return getBooleanProperty(CommercemigrationConstants.MIGRATION_DATA_BULKCOPY_ENABLED);
     }
 
+    @Override
+    public boolean isDirectBulkCopyEnabled() {
+        return getBooleanProperty(CommercemigrationConstants.MIGRATION_DATA_BULKCOPY_DIRECT_ENABLED);
+    }
+
     @Override
     public int getDataPipeTimeout() {
         return getNumericProperty(CommercemigrationConstants.MIGRATION_DATA_PIPE_TIMEOUT);
@@ -215,6 +275,26 @@ public class DefaultMigrationContext implements MigrationContext {
         return getNumericProperty(CommercemigrationConstants.MIGRATION_DATA_PIPE_CAPACITY);
     }
 
+    @Override
+    public int getDataPipeMemoryBudget() {
+        return getNumericProperty(CommercemigrationConstants.MIGRATION_DATA_PIPE_MEMORY_BUDGET);
+    }
+
+    @Override
+    public int getDataPipeMemoryHeapPercent() {
+        return getNumericProperty(CommercemigrationConstants.MIGRATION_DATA_PIPE_MEMORY_HEAP_PERCENT);
+    }
+
+    @Override
+    public boolean isDataPipeSpillEnabled() {
+        return getBooleanProperty(CommercemigrationConstants.MIGRATION_DATA_PIPE_SPILL_ENABLED);
+    }
+
+    @Override
+    public String getDataPipeSpillDirectory() {
+        return getStringProperty(CommercemigrationConstants.MIGRATION_DATA_PIPE_SPILL_DIRECTORY);
+    }
+
     @Override
     public String getMigrationReportConnectionString() {
         return getStringProperty(CommercemigrationConstants.MIGRATION_DATA_REPORT_CONNECTIONSTRING);
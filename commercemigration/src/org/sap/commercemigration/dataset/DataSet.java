@@ -12,12 +12,39 @@ public interface DataSet {
 
     int getColumnCount();
 
+    List<DataColumn> getColumnOrder();
+
+    int getRowCount();
+
     List<List<Object>> getAllResults();
 
     Object getColumnValue(String column, List<Object> row);
 
+    /**
+     * @return the position of the column in the column order, -1 if the column is not part of the result
+     */
+    int getColumnIndex(String column);
+
+    Object getValue(int row, int column);
+
+    /**
+     * @return the rows from fromRow, inclusive, to toRow, exclusive
+     */
+    DataSet subSet(int fromRow, int toRow);
+
+    /**
+     * @return the approximate number of bytes the values of the data set occupy on the heap
+     */
+    long getEstimatedSize();
+
     boolean isNotEmpty();
 
+    /**
+     * Hands the buffers holding the values back for the following batches. The data set and its subsets must not
+     * be read anymore afterwards.
+     */
+    void release();
+
     boolean hasColumn(String column);
 
     ISQLServerBulkData toSQLServerBulkData();
@@ -0,0 +1,12 @@
+package org.sap.commercemigration.dataset;
+
+/**
+ * Receives the consecutive slices of a result that is streamed from an open cursor
+ */
+@FunctionalInterface
+public interface DataSetConsumer {
+    /**
+     * @return false if the remaining rows of the cursor are not needed anymore
+     */
+    boolean accept(DataSet dataSet) throws Exception;
+}
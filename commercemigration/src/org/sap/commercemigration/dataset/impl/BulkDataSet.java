@@ -3,25 +3,29 @@ package org.sap.commercemigration.dataset.impl;
 import com.microsoft.sqlserver.jdbc.ISQLServerBulkData;
 import org.apache.logging.log4j.util.Strings;
 import org.sap.commercemigration.dataset.DataColumn;
+import org.sap.commercemigration.dataset.DataSet;
 
 import java.sql.SQLException;
 import java.sql.Types;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
-public class BulkDataSet extends DefaultDataSet implements ISQLServerBulkData {
+/**
+ * Feeds the rows of a data set to the bulk copy, the row data is read from the data set cell by cell
+ */
+public class BulkDataSet implements ISQLServerBulkData {
 
     private final Map<Integer, DataColumn> typeMap = new HashMap<>();
+    private final DataSet dataSet;
+    private final Set<Integer> columnOrdinals;
     private int pointer = -1;
-    private Set<Integer> columnOrdinals;
 
-    public BulkDataSet(int columnCount, List<DataColumn> columnOrder, List<List<Object>> result) {
-        super(columnCount, columnOrder, result);
-        this.columnOrdinals = IntStream.range(1, columnOrder.size() + 1).boxed().collect(Collectors.toSet());
+    public BulkDataSet(DataSet dataSet) {
+        this.dataSet = dataSet;
+        this.columnOrdinals = IntStream.range(1, dataSet.getColumnOrder().size() + 1).boxed().collect(Collectors.toSet());
         this.typeMap.put(Types.BLOB, new DefaultDataColumn(Strings.EMPTY, Types.LONGVARBINARY, 0x7FFFFFFF, 0));
     }
 
@@ -32,33 +36,38 @@ public class BulkDataSet extends DefaultDataSet implements ISQLServerBulkData {
 
     @Override
     public String getColumnName(int i) {
-        return getColumnOrder().get(i - 1).getColumnName();
+        return dataSet.getColumnOrder().get(i - 1).getColumnName();
     }
 
     @Override
     public int getColumnType(int i) {
-        return mapColumn(getColumnOrder().get(i - 1)).getColumnType();
+        return mapColumn(dataSet.getColumnOrder().get(i - 1)).getColumnType();
     }
 
     @Override
     public int getPrecision(int i) {
-        return mapColumn(getColumnOrder().get(i - 1)).getPrecision();
+        return mapColumn(dataSet.getColumnOrder().get(i - 1)).getPrecision();
     }
 
     @Override
     public int getScale(int i) {
-        return mapColumn(getColumnOrder().get(i - 1)).getScale();
+        return mapColumn(dataSet.getColumnOrder().get(i - 1)).getScale();
     }
 
     @Override
     public Object[] getRowData() throws SQLException {
-        return getAllResults().get(pointer).toArray();
+        Object[] rowData = new Object[columnOrdinals.size()];
+        for (int column = 0; column < rowData.length; column++) {
+            Object value = dataSet.getValue(pointer, column);
+            rowData[column] = value instanceof LobReference ? null : value;
+        }
+        return rowData;
     }
 
     @Override
     public boolean next() throws SQLException {
         pointer++;
-        return getAllResults().size() > pointer;
+        return dataSet.getRowCount() > pointer;
     }
 
     private DataColumn mapColumn(DataColumn column) {
@@ -0,0 +1,646 @@
+package org.sap.commercemigration.dataset.impl;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps the values of one column of a batch in a typed vector instead of one boxed object per cell. Null values are
+ * tracked in a bitmap. A vector only stores values of the type it was created for, values of any other type make
+ * the builder fall back to a vector accepting more values, finally an {@link ObjectVector} for the column.
+ */
+public abstract class ColumnVector {
+
+    private static final int MIN_CAPACITY = 16;
+    private static final long OBJECT_OVERHEAD = 24;
+
+    private final BitSet nulls = new BitSet();
+    protected int size;
+
+    public static ColumnVector forType(int jdbcType, int capacity) {
+        int initialCapacity = Math.max(MIN_CAPACITY, capacity);
+        switch (jdbcType) {
+            case Types.BIGINT:
+                return new LongVector(initialCapacity);
+            case Types.INTEGER:
+                return new IntVector(initialCapacity);
+            case Types.DOUBLE:
+            case Types.FLOAT:
+                return new DoubleVector(initialCapacity);
+            case Types.CHAR:
+            case Types.VARCHAR:
+            case Types.LONGVARCHAR:
+            case Types.NCHAR:
+            case Types.NVARCHAR:
+            case Types.LONGNVARCHAR:
+            case Types.CLOB:
+            case Types.NCLOB:
+                return new StringVector(initialCapacity);
+            case Types.BINARY:
+            case Types.VARBINARY:
+            case Types.LONGVARBINARY:
+                return new BytesVector(initialCapacity);
+            case Types.TIMESTAMP:
+                return new TimestampVector(initialCapacity);
+            default:
+                return new ObjectVector(initialCapacity);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isNull(int row) {
+        return nulls.get(row);
+    }
+
+    public Object get(int row) {
+        return isNull(row) ? null : getValue(row);
+    }
+
+    /**
+     * @return false if the value is not of the type of the vector, nothing is appended then
+     */
+    public boolean append(Object value) {
+        if (value == null) {
+            ensureCapacity(size + 1);
+            nulls.set(size);
+            size++;
+            return true;
+        }
+        if (!accepts(value)) {
+            return false;
+        }
+        ensureCapacity(size + 1);
+        appendValue(value);
+        size++;
+        return true;
+    }
+
+    /**
+     * Drops the values but keeps the arrays, so the vector can take the rows of another batch
+     */
+    public void clear() {
+        nulls.clear();
+        clearValues();
+        size = 0;
+    }
+
+    /**
+     * @return a vector holding the same values that accepts the values this vector rejects
+     */
+    public ColumnVector fallback() {
+        return toObjectVector();
+    }
+
+    /**
+     * Copies the values into an object vector that accepts any type
+     */
+    public ObjectVector toObjectVector() {
+        ObjectVector vector = new ObjectVector(Math.max(MIN_CAPACITY, size));
+        for (int row = 0; row < size; row++) {
+            vector.append(get(row));
+        }
+        return vector;
+    }
+
+    /**
+     * @return the approximate number of bytes the values of the rows from fromRow, inclusive, to toRow, exclusive
+     * occupy on the heap
+     */
+    public abstract long estimateSize(int fromRow, int toRow);
+
+    /**
+     * @return the approximate number of bytes the value occupies on the heap, including the object header
+     */
+    public static long estimateSize(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof String) {
+            return OBJECT_OVERHEAD + 2L * ((String) value).length();
+        }
+        if (value instanceof byte[]) {
+            return OBJECT_OVERHEAD + ((byte[]) value).length;
+        }
+        if (value instanceof ByteArrayInputStream) {
+            return OBJECT_OVERHEAD + ((ByteArrayInputStream) value).available();
+        }
+        if (value instanceof BigDecimal) {
+            return 3 * OBJECT_OVERHEAD;
+        }
+        return OBJECT_OVERHEAD;
+    }
+
+    /**
+     * @return the approximate number of bytes the arrays of the vector occupy on the heap, no matter how many rows
+     * are in use
+     */
+    public abstract long estimateAllocatedSize();
+
+    protected abstract Object getValue(int row);
+
+    protected abstract boolean accepts(Object value);
+
+    /**
+     * Stores the value at the index {@link #size}
+     */
+    protected abstract void appendValue(Object value);
+
+    protected abstract void ensureCapacity(int capacity);
+
+    /**
+     * Releases the objects the vector refers to, vectors of primitive values have nothing to release
+     */
+    protected void clearValues() {
+    }
+
+    protected static int grow(int length, int capacity) {
+        return Math.max(capacity, length + (length >> 1));
+    }
+
+    public static class LongVector extends ColumnVector {
+        private long[] values;
+
+        public LongVector(int capacity) {
+            this.values = new long[capacity];
+        }
+
+        public long getLong(int row) {
+            return values[row];
+        }
+
+        public void appendLong(long value) {
+            ensureCapacity(size + 1);
+            values[size++] = value;
+        }
+
+        @Override
+        public long estimateAllocatedSize() {
+            return 8L * values.length;
+        }
+
+        @Override
+        public long estimateSize(int fromRow, int toRow) {
+            return 8L * (toRow - fromRow);
+        }
+
+        @Override
+        protected Object getValue(int row) {
+            return values[row];
+        }
+
+        @Override
+        protected boolean accepts(Object value) {
+            return value instanceof Long;
+        }
+
+        @Override
+        protected void appendValue(Object value) {
+            values[size] = (Long) value;
+        }
+
+        @Override
+        protected void ensureCapacity(int capacity) {
+            if (capacity > values.length) {
+                values = Arrays.copyOf(values, grow(values.length, capacity));
+            }
+        }
+    }
+
+    public static class IntVector extends ColumnVector {
+        private int[] values;
+
+        public IntVector(int capacity) {
+            this.values = new int[capacity];
+        }
+
+        public int getInt(int row) {
+            return values[row];
+        }
+
+        public void appendInt(int value) {
+            ensureCapacity(size + 1);
+            values[size++] = value;
+        }
+
+        @Override
+        public long estimateAllocatedSize() {
+            return 4L * values.length;
+        }
+
+        @Override
+        public long estimateSize(int fromRow, int toRow) {
+            return 4L * (toRow - fromRow);
+        }
+
+        @Override
+        protected Object getValue(int row) {
+            return values[row];
+        }
+
+        @Override
+        protected boolean accepts(Object value) {
+            return value instanceof Integer;
+        }
+
+        @Override
+        protected void appendValue(Object value) {
+            values[size] = (Integer) value;
+        }
+
+        @Override
+        protected void ensureCapacity(int capacity) {
+            if (capacity > values.length) {
+                values = Arrays.copyOf(values, grow(values.length, capacity));
+            }
+        }
+    }
+
+    public static class DoubleVector extends ColumnVector {
+        private double[] values;
+
+        public DoubleVector(int capacity) {
+            this.values = new double[capacity];
+        }
+
+        public double getDouble(int row) {
+            return values[row];
+        }
+
+        public void appendDouble(double value) {
+            ensureCapacity(size + 1);
+            values[size++] = value;
+        }
+
+        @Override
+        public long estimateAllocatedSize() {
+            return 8L * values.length;
+        }
+
+        @Override
+        public long estimateSize(int fromRow, int toRow) {
+            return 8L * (toRow - fromRow);
+        }
+
+        @Override
+        protected Object getValue(int row) {
+            return values[row];
+        }
+
+        @Override
+        protected boolean accepts(Object value) {
+            return value instanceof Double;
+        }
+
+        @Override
+        protected void appendValue(Object value) {
+            values[size] = (Double) value;
+        }
+
+        @Override
+        protected void ensureCapacity(int capacity) {
+            if (capacity > values.length) {
+                values = Arrays.copyOf(values, grow(values.length, capacity));
+            }
+        }
+    }
+
+    /**
+     * The characters of all values are kept in one array, the value of a row ends at its offset
+     */
+    public static class StringVector extends ColumnVector {
+        private char[] chars;
+        private int[] ends;
+
+        public StringVector(int capacity) {
+            this.chars = new char[capacity * 8];
+            this.ends = new int[capacity];
+        }
+
+        @Override
+        public long estimateAllocatedSize() {
+            return 2L * chars.length + 4L * ends.length;
+        }
+
+        @Override
+        public long estimateSize(int fromRow, int toRow) {
+            if (toRow <= fromRow) {
+                return 0;
+            }
+            return 2L * (ends[toRow - 1] - start(fromRow)) + 4L * (toRow - fromRow);
+        }
+
+        @Override
+        protected Object getValue(int row) {
+            int start = start(row);
+            return new String(chars, start, ends[row] - start);
+        }
+
+        private int start(int row) {
+            return row == 0 ? 0 : ends[row - 1];
+        }
+
+        @Override
+        public boolean append(Object value) {
+            if (value == null) {
+                ensureCapacity(size + 1);
+                ends[size] = start(size);
+            }
+            return super.append(value);
+        }
+
+        @Override
+        protected boolean accepts(Object value) {
+            return value instanceof String;
+        }
+
+        @Override
+        protected void appendValue(Object value) {
+            String string = (String) value;
+            int start = start(size);
+            int end = start + string.length();
+            if (end > chars.length) {
+                chars = Arrays.copyOf(chars, grow(chars.length, end));
+            }
+            string.getChars(0, string.length(), chars, start);
+            ends[size] = end;
+        }
+
+        @Override
+        protected void ensureCapacity(int capacity) {
+            if (capacity > ends.length) {
+                ends = Arrays.copyOf(ends, grow(ends.length, capacity));
+            }
+        }
+    }
+
+    /**
+     * The bytes of all values are kept in one array, the value of a row ends at its offset
+     */
+    public static class BytesVector extends ColumnVector {
+        private byte[] bytes;
+        private int[] ends;
+
+        public BytesVector(int capacity) {
+            this.bytes = new byte[capacity * 16];
+            this.ends = new int[capacity];
+        }
+
+        @Override
+        public long estimateAllocatedSize() {
+            return bytes.length + 4L * ends.length;
+        }
+
+        @Override
+        public long estimateSize(int fromRow, int toRow) {
+            if (toRow <= fromRow) {
+                return 0;
+            }
+            return (ends[toRow - 1] - start(fromRow)) + 4L * (toRow - fromRow);
+        }
+
+        @Override
+        protected Object getValue(int row) {
+            return Arrays.copyOfRange(bytes, start(row), ends[row]);
+        }
+
+        private int start(int row) {
+            return row == 0 ? 0 : ends[row - 1];
+        }
+
+        @Override
+        public boolean append(Object value) {
+            if (value == null) {
+                ensureCapacity(size + 1);
+                ends[size] = start(size);
+            }
+            return super.append(value);
+        }
+
+        @Override
+        protected boolean accepts(Object value) {
+            return value instanceof byte[];
+        }
+
+        @Override
+        protected void appendValue(Object value) {
+            byte[] array = (byte[]) value;
+            int start = start(size);
+            int end = start + array.length;
+            if (end > bytes.length) {
+                bytes = Arrays.copyOf(bytes, grow(bytes.length, end));
+            }
+            System.arraycopy(array, 0, bytes, start, array.length);
+            ends[size] = end;
+        }
+
+        @Override
+        protected void ensureCapacity(int capacity) {
+            if (capacity > ends.length) {
+                ends = Arrays.copyOf(ends, grow(ends.length, capacity));
+            }
+        }
+    }
+
+    public static class TimestampVector extends ColumnVector {
+        private long[] millis;
+        private int[] nanos;
+
+        public TimestampVector(int capacity) {
+            this.millis = new long[capacity];
+            this.nanos = new int[capacity];
+        }
+
+        @Override
+        public long estimateAllocatedSize() {
+            return 12L * millis.length;
+        }
+
+        @Override
+        public long estimateSize(int fromRow, int toRow) {
+            return 12L * (toRow - fromRow);
+        }
+
+        @Override
+        protected Object getValue(int row) {
+            Timestamp timestamp = new Timestamp(millis[row]);
+            timestamp.setNanos(nanos[row]);
+            return timestamp;
+        }
+
+        @Override
+        protected boolean accepts(Object value) {
+            return value.getClass() == Timestamp.class;
+        }
+
+        @Override
+        protected void appendValue(Object value) {
+            Timestamp timestamp = (Timestamp) value;
+            millis[size] = timestamp.getTime();
+            nanos[size] = timestamp.getNanos();
+        }
+
+        @Override
+        protected void ensureCapacity(int capacity) {
+            if (capacity > millis.length) {
+                millis = Arrays.copyOf(millis, grow(millis.length, capacity));
+                nanos = Arrays.copyOf(nanos, millis.length);
+            }
+        }
+    }
+
+    /**
+     * Keeps every distinct value once and a code per row, so a value repeated across the batch is a single object.
+     * Only values with a value based equals are accepted and no more distinct values than the max size of the
+     * dictionary. Once it is full, the builder falls back to the plain vector of the column type.
+     */
+    public static class DictionaryVector extends ColumnVector {
+        private int jdbcType;
+        private int maxEntries;
+        private final Map<Object, Integer> codes = new HashMap<>();
+        private Object[] entries = new Object[MIN_CAPACITY];
+        private int[] rowCodes;
+
+        public DictionaryVector(int jdbcType, int capacity, int maxEntries) {
+            this.jdbcType = jdbcType;
+            this.maxEntries = maxEntries;
+            this.rowCodes = new int[Math.max(MIN_CAPACITY, capacity)];
+        }
+
+        public int getEntryCount() {
+            return codes.size();
+        }
+
+        /**
+         * Prepares a cleared vector for a column of another type
+         */
+        void configure(int jdbcType, int maxEntries) {
+            this.jdbcType = jdbcType;
+            this.maxEntries = maxEntries;
+        }
+
+        @Override
+        public long estimateAllocatedSize() {
+            return 4L * rowCodes.length + 8L * entries.length;
+        }
+
+        @Override
+        public long estimateSize(int fromRow, int toRow) {
+            long size = 4L * (toRow - fromRow);
+            for (int i = 0; i < codes.size(); i++) {
+                size += 8 + estimateSize(entries[i]);
+            }
+            return size;
+        }
+
+        @Override
+        protected Object getValue(int row) {
+            return entries[rowCodes[row]];
+        }
+
+        @Override
+        protected boolean accepts(Object value) {
+            if (!(value instanceof String || value instanceof Number || value instanceof Boolean)) {
+                return false;
+            }
+            return codes.size() < maxEntries || codes.containsKey(value);
+        }
+
+        @Override
+        protected void appendValue(Object value) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = codes.size();
+                if (code == entries.length) {
+                    entries = Arrays.copyOf(entries, grow(entries.length, code + 1));
+                }
+                entries[code] = value;
+                codes.put(value, code);
+            }
+            rowCodes[size] = code;
+        }
+
+        @Override
+        protected void ensureCapacity(int capacity) {
+            if (capacity > rowCodes.length) {
+                rowCodes = Arrays.copyOf(rowCodes, grow(rowCodes.length, capacity));
+            }
+        }
+
+        @Override
+        protected void clearValues() {
+            Arrays.fill(entries, 0, codes.size(), null);
+            codes.clear();
+        }
+
+        /**
+         * Copies the values into the plain vector of the column type, or an object vector if they are of mixed types
+         */
+        @Override
+        public ColumnVector fallback() {
+            ColumnVector vector = forType(jdbcType, size);
+            for (int row = 0; row < size; row++) {
+                if (!vector.append(get(row))) {
+                    return toObjectVector();
+                }
+            }
+            return vector;
+        }
+    }
+
+    public static class ObjectVector extends ColumnVector {
+        private Object[] values;
+
+        public ObjectVector(int capacity) {
+            this.values = new Object[capacity];
+        }
+
+        @Override
+        public long estimateAllocatedSize() {
+            return 8L * values.length;
+        }
+
+        @Override
+        public long estimateSize(int fromRow, int toRow) {
+            long size = 8L * (toRow - fromRow);
+            for (int row = fromRow; row < toRow; row++) {
+                size += estimateSize(values[row]);
+            }
+            return size;
+        }
+
+        @Override
+        protected Object getValue(int row) {
+            return values[row];
+        }
+
+        @Override
+        protected boolean accepts(Object value) {
+            return true;
+        }
+
+        @Override
+        protected void appendValue(Object value) {
+            values[size] = value;
+        }
+
+        @Override
+        protected void ensureCapacity(int capacity) {
+            if (capacity > values.length) {
+                values = Arrays.copyOf(values, grow(values.length, capacity));
+            }
+        }
+
+        @Override
+        protected void clearValues() {
+            Arrays.fill(values, 0, size, null);
+        }
+    }
+}
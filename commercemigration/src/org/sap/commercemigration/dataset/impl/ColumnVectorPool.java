@@ -0,0 +1,115 @@
+package org.sap.commercemigration.dataset.impl;
+
+import org.sap.commercemigration.dataset.DataColumn;
+import org.sap.commercemigration.performance.PerformanceCategory;
+import org.sap.commercemigration.performance.PerformanceProfiler;
+import org.sap.commercemigration.performance.PerformanceUnit;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the column vectors of written batches for the batches the readers build next, so a long copy does not
+ * allocate the arrays of every batch again. A vector is handed out for any column its type serves, the vectors of
+ * dictionary encoded columns are configured for the column they are handed out for.
+ * <p>
+ * The pool is bounded by the bytes the arrays of the kept vectors occupy, vectors released beyond the bound are left
+ * to the garbage collector.
+ */
+@ThreadSafe
+public class ColumnVectorPool {
+
+    private final Map<Class<? extends ColumnVector>, Deque<ColumnVector>> vectorsByType = new HashMap<>();
+    private final Map<Integer, Class<? extends ColumnVector>> typesByJdbcType = new HashMap<>();
+    private final long capacity;
+    private final PerformanceProfiler performanceProfiler;
+    private final String name;
+    private long allocatedSize;
+
+    /**
+     * @param capacity the bytes the kept vectors may occupy
+     * @param name     the name the hits and misses of the pool are recorded for
+     */
+    public ColumnVectorPool(long capacity, PerformanceProfiler performanceProfiler, String name) {
+        this.capacity = capacity;
+        this.performanceProfiler = performanceProfiler;
+        this.name = name;
+    }
+
+    public boolean isEnabled() {
+        return capacity > 0;
+    }
+
+    /**
+     * @param dictionaryColumns the columns to be dictionary encoded
+     * @return a cleared vector for every column of the column order
+     */
+    public ColumnVector[] acquire(List<DataColumn> columnOrder, boolean[] dictionaryColumns, int expectedRowCount, int maxDictionarySize) {
+        ColumnVector[] vectors = new ColumnVector[columnOrder.size()];
+        int hits = 0;
+        synchronized (this) {
+            for (int i = 0; i < vectors.length; i++) {
+                int jdbcType = columnOrder.get(i).getColumnType();
+                if (dictionaryColumns[i]) {
+                    ColumnVector.DictionaryVector vector = (ColumnVector.DictionaryVector) poll(ColumnVector.DictionaryVector.class);
+                    if (vector != null) {
+                        vector.configure(jdbcType, maxDictionarySize);
+                        vectors[i] = vector;
+                    }
+                } else {
+                    vectors[i] = poll(typesByJdbcType.get(jdbcType));
+                }
+                if (vectors[i] != null) {
+                    hits++;
+                }
+            }
+        }
+        for (int i = 0; i < vectors.length; i++) {
+            if (vectors[i] == null) {
+                int jdbcType = columnOrder.get(i).getColumnType();
+                if (dictionaryColumns[i]) {
+                    vectors[i] = new ColumnVector.DictionaryVector(jdbcType, expectedRowCount, maxDictionarySize);
+                } else {
+                    vectors[i] = ColumnVector.forType(jdbcType, expectedRowCount);
+                    synchronized (this) {
+                        typesByJdbcType.putIfAbsent(jdbcType, vectors[i].getClass());
+                    }
+                }
+            }
+        }
+        performanceProfiler.createRecorder(PerformanceCategory.DB_BUFFER_POOL, name).record(PerformanceUnit.HITS, hits);
+        performanceProfiler.createRecorder(PerformanceCategory.DB_BUFFER_POOL, name).record(PerformanceUnit.MISSES, vectors.length - hits);
+        return vectors;
+    }
+
+    /**
+     * Takes back the vectors of a batch, the values of the batch must not be read anymore.
+     */
+    public void release(ColumnVector[] vectors) {
+        for (ColumnVector vector : vectors) {
+            vector.clear();
+        }
+        synchronized (this) {
+            for (ColumnVector vector : vectors) {
+                long size = vector.estimateAllocatedSize();
+                if (allocatedSize + size <= capacity) {
+                    allocatedSize += size;
+                    vectorsByType.computeIfAbsent(vector.getClass(), type -> new ArrayDeque<>()).push(vector);
+                }
+            }
+        }
+    }
+
+    private ColumnVector poll(Class<? extends ColumnVector> type) {
+        Deque<ColumnVector> vectors = type == null ? null : vectorsByType.get(type);
+        ColumnVector vector = vectors == null ? null : vectors.poll();
+        if (vector != null) {
+            allocatedSize -= vector.estimateAllocatedSize();
+        }
+        return vector;
+    }
+}
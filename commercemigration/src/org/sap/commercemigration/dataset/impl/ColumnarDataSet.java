@@ -0,0 +1,329 @@
+package org.sap.commercemigration.dataset.impl;
+
+import com.github.freva.asciitable.AsciiTable;
+import com.microsoft.sqlserver.jdbc.ISQLServerBulkData;
+import org.sap.commercemigration.dataset.DataColumn;
+import org.sap.commercemigration.dataset.DataSet;
+
+import javax.annotation.concurrent.Immutable;
+import java.sql.Types;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps a batch column by column in typed vectors, so numeric and temporal values are not boxed and string and
+ * binary values share one array per column. Columns with few distinct values per batch are dictionary encoded.
+ * {@link #getAllResults()} is a view that materializes the rows on access, hot paths read the cells with
+ * {@link #getValue(int, int)}.
+ */
+@Immutable
+public class ColumnarDataSet implements DataSet {
+
+    private final List<DataColumn> columnOrder;
+    private final ColumnVector[] columns;
+    private final Map<String, Integer> columnIndexes;
+    private final int rowOffset;
+    private final int rowCount;
+    private final ColumnVectorPool pool;
+    private final AtomicBoolean released;
+
+    private ColumnarDataSet(List<DataColumn> columnOrder, ColumnVector[] columns, Map<String, Integer> columnIndexes, int rowOffset, int rowCount, ColumnVectorPool pool, AtomicBoolean released) {
+        this.columnOrder = columnOrder;
+        this.columns = columns;
+        this.columnIndexes = columnIndexes;
+        this.rowOffset = rowOffset;
+        this.rowCount = rowCount;
+        this.pool = pool;
+        this.released = released;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnOrder.size();
+    }
+
+    @Override
+    public List<DataColumn> getColumnOrder() {
+        return columnOrder;
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public List<List<Object>> getAllResults() {
+        return new AbstractList<List<Object>>() {
+            @Override
+            public List<Object> get(int row) {
+                return new Row(row);
+            }
+
+            @Override
+            public int size() {
+                return rowCount;
+            }
+        };
+    }
+
+    @Override
+    public Object getColumnValue(String column, List<Object> row) {
+        int columnIndex = getColumnIndex(column);
+        if (columnIndex < 0) {
+            throw new IllegalArgumentException(String.format("Column %s is not part of the result", column));
+        }
+        if (row instanceof Row && ((Row) row).getDataSet() == this) {
+            return getValue(((Row) row).row, columnIndex);
+        }
+        return row.get(columnIndex);
+    }
+
+    @Override
+    public int getColumnIndex(String column) {
+        if (column == null) {
+            return -1;
+        }
+        return columnIndexes.getOrDefault(column, -1);
+    }
+
+    @Override
+    public Object getValue(int row, int column) {
+        return columns[column].get(rowOffset + row);
+    }
+
+    /**
+     * @return the vector holding the values of the column, the rows of this data set start at {@link #getRowOffset()}
+     */
+    public ColumnVector getColumn(int column) {
+        return columns[column];
+    }
+
+    public int getRowOffset() {
+        return rowOffset;
+    }
+
+    @Override
+    public DataSet subSet(int fromRow, int toRow) {
+        if (fromRow < 0 || toRow > rowCount || fromRow > toRow) {
+            throw new IndexOutOfBoundsException(String.format("Rows %s to %s are not within 0 to %s", fromRow, toRow, rowCount));
+        }
+        return new ColumnarDataSet(columnOrder, columns, columnIndexes, rowOffset + fromRow, toRow - fromRow, pool, released);
+    }
+
+    /**
+     * Hands the vectors back to the pool of the builder. The subsets share the vectors, releasing any of them
+     * releases all of them.
+     */
+    @Override
+    public void release() {
+        if (pool != null && released.compareAndSet(false, true)) {
+            pool.release(columns);
+        }
+    }
+
+    @Override
+    public long getEstimatedSize() {
+        long size = 0;
+        for (ColumnVector column : columns) {
+            size += column.estimateSize(rowOffset, rowOffset + rowCount);
+        }
+        return size;
+    }
+
+    @Override
+    public boolean isNotEmpty() {
+        return rowCount > 0;
+    }
+
+    @Override
+    public boolean hasColumn(String column) {
+        return getColumnIndex(column) >= 0;
+    }
+
+    @Override
+    public ISQLServerBulkData toSQLServerBulkData() {
+        return new BulkDataSet(this);
+    }
+
+    public String toString() {
+        String[] headers = columnOrder.stream().map(DataColumn::getColumnName).toArray(String[]::new);
+        String[][] data = getAllResults().stream()
+                .map(l -> l.stream().map(v -> String.valueOf(v)).toArray(String[]::new))
+                .toArray(String[][]::new);
+        return AsciiTable.getTable(headers, data);
+    }
+
+    private class Row extends AbstractList<Object> {
+        private final int row;
+
+        private Row(int row) {
+            this.row = row;
+        }
+
+        private ColumnarDataSet getDataSet() {
+            return ColumnarDataSet.this;
+        }
+
+        @Override
+        public Object get(int column) {
+            return getValue(row, column);
+        }
+
+        @Override
+        public int size() {
+            return columns.length;
+        }
+    }
+
+    /**
+     * Collects the rows of a batch into column vectors, a builder can be reused for consecutive batches.
+     * <p>
+     * Short character columns and columns of exact numeric, small integer and boolean types are dictionary encoded
+     * at first. A column whose distinct values exceed the dictionary in a batch is stored plain from then on, the
+     * first batch serves as the sample of the column.
+     * <p>
+     * With a pool, the vectors of every batch are taken from the pool and go back to it once the data set is
+     * released.
+     */
+    public static class Builder {
+
+        private static final int MAX_DICTIONARY_PRECISION = 255;
+
+        private final List<DataColumn> columnOrder;
+        private final Map<String, Integer> columnIndexes = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        private final int expectedRowCount;
+        private final int maxDictionarySize;
+        private final boolean[] dictionaryColumns;
+        private final ColumnVectorPool pool;
+        private ColumnVector[] columns;
+        private int rowCount;
+
+        public Builder(List<DataColumn> columnOrder, int expectedRowCount) {
+            this(columnOrder, expectedRowCount, 0, null);
+        }
+
+        /**
+         * @param maxDictionarySize the max distinct values of a dictionary encoded column, 0 to store all columns plain
+         * @param pool              the pool providing the vectors, null to allocate them for every batch
+         */
+        public Builder(List<DataColumn> columnOrder, int expectedRowCount, int maxDictionarySize, ColumnVectorPool pool) {
+            this.pool = pool;
+            this.columnOrder = Collections.unmodifiableList(new ArrayList<>(columnOrder));
+            this.expectedRowCount = expectedRowCount;
+            this.maxDictionarySize = maxDictionarySize;
+            this.dictionaryColumns = new boolean[columnOrder.size()];
+            for (int i = columnOrder.size() - 1; i >= 0; i--) {
+                columnIndexes.put(columnOrder.get(i).getColumnName(), i);
+                dictionaryColumns[i] = maxDictionarySize > 0 && isDictionaryCandidate(columnOrder.get(i));
+            }
+        }
+
+        private static boolean isDictionaryCandidate(DataColumn column) {
+            switch (column.getColumnType()) {
+                case Types.CHAR:
+                case Types.VARCHAR:
+                case Types.NCHAR:
+                case Types.NVARCHAR:
+                    return column.getPrecision() > 0 && column.getPrecision() <= MAX_DICTIONARY_PRECISION;
+                case Types.NUMERIC:
+                case Types.DECIMAL:
+                case Types.SMALLINT:
+                case Types.TINYINT:
+                case Types.BIT:
+                case Types.BOOLEAN:
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        public void add(int column, Object value) {
+            ColumnVector[] vectors = columns();
+            while (!vectors[column].append(value)) {
+                vectors[column] = vectors[column].fallback();
+            }
+        }
+
+        public void addLong(int column, long value) {
+            ColumnVector vector = columns()[column];
+            if (vector instanceof ColumnVector.LongVector) {
+                ((ColumnVector.LongVector) vector).appendLong(value);
+            } else {
+                add(column, value);
+            }
+        }
+
+        public void addInt(int column, int value) {
+            ColumnVector vector = columns()[column];
+            if (vector instanceof ColumnVector.IntVector) {
+                ((ColumnVector.IntVector) vector).appendInt(value);
+            } else {
+                add(column, value);
+            }
+        }
+
+        public void addDouble(int column, double value) {
+            ColumnVector vector = columns()[column];
+            if (vector instanceof ColumnVector.DoubleVector) {
+                ((ColumnVector.DoubleVector) vector).appendDouble(value);
+            } else {
+                add(column, value);
+            }
+        }
+
+        public void endRow() {
+            rowCount++;
+        }
+
+        public int getRowCount() {
+            return rowCount;
+        }
+
+        /**
+         * @return the data set of the rows added since the last build
+         */
+        public ColumnarDataSet build() {
+            ColumnVector[] vectors = columns();
+            for (int i = 0; i < vectors.length; i++) {
+                if (!(vectors[i] instanceof ColumnVector.DictionaryVector)) {
+                    dictionaryColumns[i] = false;
+                }
+            }
+            ColumnarDataSet dataSet = new ColumnarDataSet(columnOrder, vectors, columnIndexes, 0, rowCount, pool, new AtomicBoolean());
+            columns = null;
+            rowCount = 0;
+            return dataSet;
+        }
+
+        /**
+         * The vectors of a batch are only taken once its first value is added, a builder whose last batch has been
+         * built does not hold any
+         */
+        private ColumnVector[] columns() {
+            if (columns == null) {
+                columns = createColumns();
+            }
+            return columns;
+        }
+
+        private ColumnVector[] createColumns() {
+            if (pool != null) {
+                return pool.acquire(columnOrder, dictionaryColumns, expectedRowCount, maxDictionarySize);
+            }
+            ColumnVector[] vectors = new ColumnVector[columnOrder.size()];
+            for (int i = 0; i < vectors.length; i++) {
+                int columnType = columnOrder.get(i).getColumnType();
+                vectors[i] = dictionaryColumns[i]
+                        ? new ColumnVector.DictionaryVector(columnType, expectedRowCount, maxDictionarySize)
+                        : ColumnVector.forType(columnType, expectedRowCount);
+            }
+            return vectors;
+        }
+    }
+}
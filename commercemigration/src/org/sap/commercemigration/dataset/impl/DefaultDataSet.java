@@ -9,21 +9,28 @@ import org.sap.commercemigration.dataset.DataSet;
 import javax.annotation.concurrent.Immutable;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 @Immutable
 public class DefaultDataSet implements DataSet {
 
+    private static final long ROW_OVERHEAD = 40;
+
     private final int columnCount;
     private final List<DataColumn> columnOrder;
     private final List<List<Object>> result;
+    private final Map<String, Integer> columnIndexes = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
 
     public DefaultDataSet(int columnCount, List<DataColumn> columnOrder, List<List<Object>> result) {
         this.columnCount = columnCount;
         // TODO REVIEW Downgraded from Java8 to Java11
         this.columnOrder = Collections.unmodifiableList(columnOrder);
         this.result = Collections.unmodifiableList(result.stream().map(Collections::unmodifiableList).collect(Collectors.toList()));
+        for (int i = columnOrder.size() - 1; i >= 0; i--) {
+            columnIndexes.put(columnOrder.get(i).getColumnName(), i);
+        }
     }
 
     @Override
@@ -31,6 +38,11 @@ public class DefaultDataSet implements DataSet {
         return columnCount;
     }
 
+    @Override
+    public int getRowCount() {
+        return result.size();
+    }
+
     @Override
     public List<List<Object>> getAllResults() {
         return result;
@@ -41,8 +53,37 @@ public class DefaultDataSet implements DataSet {
         if (columnName == null || !hasColumn(columnName)) {
             throw new IllegalArgumentException(String.format("Column %s is not part of the result", columnName));
         }
-        int idx = IntStream.range(0, columnOrder.size()).filter(i -> columnName.equalsIgnoreCase(columnOrder.get(i).getColumnName())).findFirst().getAsInt();
-        return row.get(idx);
+        return row.get(getColumnIndex(columnName));
+    }
+
+    @Override
+    public int getColumnIndex(String column) {
+        if (StringUtils.isEmpty(column)) {
+            return -1;
+        }
+        return columnIndexes.getOrDefault(column, -1);
+    }
+
+    @Override
+    public Object getValue(int row, int column) {
+        return result.get(row).get(column);
+    }
+
+    @Override
+    public DataSet subSet(int fromRow, int toRow) {
+        return new DefaultDataSet(columnCount, columnOrder, result.subList(fromRow, toRow));
+    }
+
+    @Override
+    public long getEstimatedSize() {
+        long size = 0;
+        for (List<Object> row : result) {
+            size += ROW_OVERHEAD + 8L * row.size();
+            for (Object value : row) {
+                size += ColumnVector.estimateSize(value);
+            }
+        }
+        return size;
     }
 
     @Override
@@ -50,12 +91,14 @@ public class DefaultDataSet implements DataSet {
         return getAllResults() != null && getAllResults().size() > 0;
     }
 
+    @Override
+    public void release() {
+        // the rows are left to the garbage collector
+    }
+
     @Override
     public boolean hasColumn(String column) {
-        if (StringUtils.isEmpty(column)) {
-            return false;
-        }
-        return columnOrder.stream().map(DataColumn::getColumnName).anyMatch(column::equalsIgnoreCase);
+        return getColumnIndex(column) >= 0;
     }
 
     public String toString() {
@@ -66,12 +109,13 @@ public class DefaultDataSet implements DataSet {
         return AsciiTable.getTable(headers, data);
     }
 
-    protected List<DataColumn> getColumnOrder() {
+    @Override
+    public List<DataColumn> getColumnOrder() {
         return columnOrder;
     }
 
     @Override
     public ISQLServerBulkData toSQLServerBulkData() {
-        return new BulkDataSet(columnCount, columnOrder, result);
+        return new BulkDataSet(this);
     }
 }
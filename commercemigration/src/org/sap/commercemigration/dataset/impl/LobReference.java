@@ -0,0 +1,54 @@
+package org.sap.commercemigration.dataset.impl;
+
+import java.io.Serializable;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.SQLException;
+
+/**
+ * Stands in for a large object exceeding the inline threshold of the reader. The value stays in the source table,
+ * the writer inserts the row without it and streams it from the source to the target afterwards, looking the row up
+ * by the key column the reader resolved for the table.
+ */
+public final class LobReference implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int jdbcType;
+    private final long length;
+    private final String keyColumn;
+
+    public LobReference(int jdbcType, long length, String keyColumn) {
+        this.jdbcType = jdbcType;
+        this.length = length;
+        this.keyColumn = keyColumn;
+    }
+
+    /**
+     * @return the length in bytes of a BLOB or in characters of a CLOB, -1 if the value is not a large object
+     */
+    public static long lengthOf(Object value) throws SQLException {
+        if (value instanceof Blob) {
+            return ((Blob) value).length();
+        }
+        if (value instanceof Clob) {
+            return ((Clob) value).length();
+        }
+        return -1;
+    }
+
+    public int getJdbcType() {
+        return jdbcType;
+    }
+
+    public long getLength() {
+        return length;
+    }
+
+    /**
+     * @return the unique column the row of the value is found by in the source and the target
+     */
+    public String getKeyColumn() {
+        return keyColumn;
+    }
+}
@@ -0,0 +1,131 @@
+package org.sap.commercemigration.dataset.impl;
+
+import com.microsoft.sqlserver.jdbc.ISQLServerBulkData;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Set;
+import java.util.function.LongConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Feeds the rows of an open source cursor to the bulk copy one at a time, so the rows are never collected on the
+ * heap. Names, types and the getter of every column are resolved from the metadata once. Large objects are read as
+ * byte arrays or strings and announced as the matching long variable types.
+ */
+public class ResultSetBulkData implements ISQLServerBulkData {
+
+    private final ResultSet resultSet;
+    private final Set<Integer> columnOrdinals;
+    private final String[] columnNames;
+    private final int[] columnTypes;
+    private final int[] precisions;
+    private final int[] scales;
+    private final long progressInterval;
+    private final LongConsumer progressListener;
+    private long rowCount;
+
+    /**
+     * @param progressListener receives the number of rows read so far every progressInterval rows
+     */
+    public ResultSetBulkData(ResultSet resultSet, long progressInterval, LongConsumer progressListener) throws SQLException {
+        this.resultSet = resultSet;
+        this.progressInterval = Math.max(1, progressInterval);
+        this.progressListener = progressListener;
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        int columnCount = metaData.getColumnCount();
+        this.columnOrdinals = IntStream.range(1, columnCount + 1).boxed().collect(Collectors.toSet());
+        this.columnNames = new String[columnCount];
+        this.columnTypes = new int[columnCount];
+        this.precisions = new int[columnCount];
+        this.scales = new int[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            columnNames[i] = metaData.getColumnName(i + 1);
+            columnTypes[i] = metaData.getColumnType(i + 1);
+            precisions[i] = metaData.getPrecision(i + 1);
+            scales[i] = metaData.getScale(i + 1);
+            switch (columnTypes[i]) {
+                case Types.BLOB:
+                    columnTypes[i] = Types.LONGVARBINARY;
+                    precisions[i] = Integer.MAX_VALUE;
+                    break;
+                case Types.CLOB:
+                    columnTypes[i] = Types.LONGVARCHAR;
+                    precisions[i] = Integer.MAX_VALUE;
+                    break;
+                case Types.NCLOB:
+                    columnTypes[i] = Types.LONGNVARCHAR;
+                    precisions[i] = Integer.MAX_VALUE;
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public Set<Integer> getColumnOrdinals() {
+        return columnOrdinals;
+    }
+
+    @Override
+    public String getColumnName(int i) {
+        return columnNames[i - 1];
+    }
+
+    @Override
+    public int getColumnType(int i) {
+        return columnTypes[i - 1];
+    }
+
+    @Override
+    public int getPrecision(int i) {
+        return precisions[i - 1];
+    }
+
+    @Override
+    public int getScale(int i) {
+        return scales[i - 1];
+    }
+
+    @Override
+    public Object[] getRowData() throws SQLException {
+        Object[] rowData = new Object[columnTypes.length];
+        for (int i = 0; i < rowData.length; i++) {
+            switch (columnTypes[i]) {
+                case Types.LONGVARBINARY:
+                    rowData[i] = resultSet.getBytes(i + 1);
+                    break;
+                case Types.LONGVARCHAR:
+                case Types.LONGNVARCHAR:
+                    rowData[i] = resultSet.getString(i + 1);
+                    break;
+                default:
+                    rowData[i] = resultSet.getObject(i + 1);
+            }
+        }
+        return rowData;
+    }
+
+    @Override
+    public boolean next() throws SQLException {
+        if (!resultSet.next()) {
+            if (rowCount % progressInterval != 0) {
+                progressListener.accept(rowCount);
+            }
+            return false;
+        }
+        rowCount++;
+        if (rowCount % progressInterval == 0) {
+            progressListener.accept(rowCount);
+        }
+        return true;
+    }
+}
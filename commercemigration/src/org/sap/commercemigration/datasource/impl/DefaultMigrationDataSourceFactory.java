@@ -2,12 +2,16 @@ package org.sap.commercemigration.datasource.impl;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import org.apache.commons.lang3.StringUtils;
 import org.sap.commercemigration.profile.DataSourceConfiguration;
 
 import javax.sql.DataSource;
 
 public class DefaultMigrationDataSourceFactory extends AbstractMigrationDataSourceFactory {
 
+    // the batch queries list all columns of a table, longer than the default limit of 256 characters
+    private static final int MYSQL_STATEMENT_CACHE_SQL_LIMIT = 8192;
+
     //TODO: resource leak: DataSources are never closed
     @Override
     public DataSource create(DataSourceConfiguration dataSourceConfiguration) {
@@ -21,7 +25,30 @@ public class DefaultMigrationDataSourceFactory extends AbstractMigrationDataSour
 //        dataSource.setMaxIdle(dataSourceConfiguration.getMaxIdle());
         config.setMinimumIdle(dataSourceConfiguration.getMinIdle());
         config.setRegisterMbeans(true);
+        configureStatementCache(config, dataSourceConfiguration);
         return new HikariDataSource(config);
     }
 
+    /**
+     * Turns on the statement cache of the driver, so the batch queries repeating per table are only parsed once per
+     * physical connection. The statements are still prepared and closed through the pool.
+     */
+    protected void configureStatementCache(HikariConfig config, DataSourceConfiguration dataSourceConfiguration) {
+        int cacheSize = dataSourceConfiguration.getStatementCacheSize();
+        String connectionString = StringUtils.lowerCase(dataSourceConfiguration.getConnectionString());
+        if (cacheSize <= 0 || connectionString == null) {
+            return;
+        }
+        if (connectionString.startsWith("jdbc:sqlserver")) {
+            config.addDataSourceProperty("disableStatementPooling", "false");
+            config.addDataSourceProperty("statementPoolingCacheSize", String.valueOf(cacheSize));
+        } else if (connectionString.startsWith("jdbc:mysql")) {
+            config.addDataSourceProperty("cachePrepStmts", "true");
+            config.addDataSourceProperty("prepStmtCacheSize", String.valueOf(cacheSize));
+            config.addDataSourceProperty("prepStmtCacheSqlLimit", String.valueOf(MYSQL_STATEMENT_CACHE_SQL_LIMIT));
+        } else if (connectionString.startsWith("jdbc:oracle")) {
+            config.addDataSourceProperty("oracle.jdbc.implicitStatementCacheSize", String.valueOf(cacheSize));
+        }
+    }
+
 }
@@ -1,5 +1,5 @@
 package org.sap.commercemigration.performance;
 
 public enum PerformanceCategory {
-    DB_READ, DB_WRITE
+    DB_READ, DB_WRITE, DB_LOB, DB_BUFFER_POOL
 }
@@ -14,6 +14,8 @@ public interface PerformanceProfiler {
 
     double getAverageByCategoryAndUnit(PerformanceCategory category, PerformanceUnit unit);
 
+    double getTotalByCategoryAndUnit(PerformanceCategory category, PerformanceUnit unit);
+
     PerformanceRecorder getRecorder(PerformanceCategory category, String name);
 
     void reset();
@@ -50,13 +50,7 @@ public class PerformanceRecorder {
     }
 
     public void record(PerformanceUnit unit, double value) {
-        if (getRecords().containsKey(unit)) {
-            getRecords().get(unit).submit(value);
-        } else {
-            PerformanceAggregation performanceAggregation = new PerformanceAggregation(getTimer(), unit);
-            performanceAggregation.submit(value);
-            getRecords().put(unit, performanceAggregation);
-        }
+        getRecords().computeIfAbsent(unit, key -> new PerformanceAggregation(getTimer(), key)).submit(value);
     }
 
     public ConcurrentHashMap<PerformanceUnit, PerformanceAggregation> getRecords() {
@@ -1,5 +1,5 @@
 package org.sap.commercemigration.performance;
 
 public enum PerformanceUnit {
-    ROWS, MB
+    ROWS, MB, HITS, MISSES
 }
@@ -44,6 +44,14 @@ public class DefaultPerformanceProfiler implements PerformanceProfiler {
         ).average().orElse(0);
     }
 
+    @Override
+    public double getTotalByCategoryAndUnit(PerformanceCategory category, PerformanceUnit unit) {
+        Collection<PerformanceRecorder> recordersByCategory = getRecordersByCategory(category);
+        return recordersByCategory.stream().filter(r -> r.getRecords().get(unit) != null).mapToDouble(r ->
+                r.getRecords().get(unit).getTotalThroughput().get()
+        ).sum();
+    }
+
     @Override
     public PerformanceRecorder getRecorder(PerformanceCategory category, String name) {
         return recorders.get(createRecorderName(category, name));
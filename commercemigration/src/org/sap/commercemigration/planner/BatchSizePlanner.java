@@ -0,0 +1,18 @@
+package org.sap.commercemigration.planner;
+
+import org.sap.commercemigration.context.CopyContext;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Determines the number of rows per batch of a source table
+ */
+@ThreadSafe
+public interface BatchSizePlanner {
+    /**
+     * @param context
+     * @param item
+     * @return the rows per batch, at least 1
+     */
+    long plan(CopyContext context, CopyContext.DataCopyItem item);
+}
@@ -0,0 +1,25 @@
+package org.sap.commercemigration.planner;
+
+import org.sap.commercemigration.context.CopyContext;
+import org.sap.commercemigration.dataset.DataSetConsumer;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Determines the values of the batch column that split a source table into batches of roughly equal size
+ */
+@ThreadSafe
+public interface SplitPointPlanner {
+    /**
+     * Plans the split points of a table. They are handed over as soon as they are known, so the table can be read
+     * while it is still being planned.
+     *
+     * @param context
+     * @param item
+     * @param column    the column the batches are ordered by
+     * @param batchSize
+     * @param consumer  receives ordered rows of (split value, estimated row number of the split value)
+     * @throws Exception
+     */
+    void plan(CopyContext context, CopyContext.DataCopyItem item, String column, long batchSize, DataSetConsumer consumer) throws Exception;
+}
@@ -0,0 +1,20 @@
+package org.sap.commercemigration.planner;
+
+public enum SplitPointStrategy {
+    /**
+     * numbers every row of the table, precise but a full index scan
+     */
+    EXACT,
+    /**
+     * assumes an even distribution between the minimum and maximum of a numeric column
+     */
+    INTERPOLATION,
+    /**
+     * derives the split points from a random sample of the table
+     */
+    SAMPLING,
+    /**
+     * derives the split points from the histogram the database keeps for the column
+     */
+    STATISTICS
+}
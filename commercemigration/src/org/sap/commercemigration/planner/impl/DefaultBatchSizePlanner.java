@@ -0,0 +1,40 @@
+package org.sap.commercemigration.planner.impl;
+
+import org.sap.commercemigration.context.CopyContext;
+import org.sap.commercemigration.context.MigrationContext;
+import org.sap.commercemigration.planner.BatchSizePlanner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Derives the rows per batch from the configured bytes per batch and the average row size of the table, bounded by
+ * the configured min and max rows. Narrow tables get more rows per round trip, wide tables fewer. Whenever no bytes
+ * per batch are configured or the row size is unknown, the fixed reader batch size is used.
+ */
+public class DefaultBatchSizePlanner implements BatchSizePlanner {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DefaultBatchSizePlanner.class);
+
+    @Override
+    public long plan(CopyContext context, CopyContext.DataCopyItem item) {
+        MigrationContext migrationContext = context.getMigrationContext();
+        long batchSize = migrationContext.getReaderBatchSize();
+        long batchBytes = migrationContext.getReaderBatchSizeBytes();
+        if (batchBytes <= 0) {
+            return batchSize;
+        }
+        String table = item.getSourceItem();
+        try {
+            long averageRowSize = migrationContext.getDataSourceRepository().getAverageRowSize(table);
+            if (averageRowSize > 0) {
+                long minBatchSize = Math.max(1, migrationContext.getMinReaderBatchSize());
+                long maxBatchSize = Math.max(minBatchSize, migrationContext.getMaxReaderBatchSize());
+                batchSize = Math.min(maxBatchSize, Math.max(minBatchSize, batchBytes / averageRowSize));
+                LOG.debug("{}: Average row size {} bytes, reading {} rows per batch", table, averageRowSize, batchSize);
+            }
+        } catch (Exception e) {
+            LOG.warn("{}: Cannot estimate the row size, reading {} rows per batch. Cause: {}", table, batchSize, e.getMessage());
+        }
+        return batchSize;
+    }
+}
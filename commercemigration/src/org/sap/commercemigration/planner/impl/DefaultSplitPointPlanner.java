@@ -0,0 +1,239 @@
+package org.sap.commercemigration.planner.impl;
+
+import org.apache.commons.lang3.StringUtils;
+import org.sap.commercemigration.adapter.DataRepositoryAdapter;
+import org.sap.commercemigration.adapter.impl.ContextualDataRepositoryAdapter;
+import org.sap.commercemigration.context.CopyContext;
+import org.sap.commercemigration.context.MigrationContext;
+import org.sap.commercemigration.dataset.DataColumn;
+import org.sap.commercemigration.dataset.DataSet;
+import org.sap.commercemigration.dataset.DataSetConsumer;
+import org.sap.commercemigration.dataset.impl.DefaultDataColumn;
+import org.sap.commercemigration.dataset.impl.DefaultDataSet;
+import org.sap.commercemigration.planner.SplitPointPlanner;
+import org.sap.commercemigration.planner.SplitPointStrategy;
+import org.sap.commercemigration.repository.DataRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Plans the split points with the configured strategy. Whenever the strategy is not applicable to a table, e.g. the
+ * dialect does not support it, the column is not numeric or the database has no statistics, the exact row numbering
+ * is used instead. Incremental migrations always use the exact split points since neither sampling nor statistics
+ * know about the rows modified after the incremental timestamp.
+ */
+public class DefaultSplitPointPlanner implements SplitPointPlanner {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DefaultSplitPointPlanner.class);
+
+    private static final int SAMPLE_ROWS_PER_SPLIT_POINT = 10;
+    private static final double MIN_SAMPLE_PERCENT = 0.000001;
+    private static final double MAX_SAMPLE_PERCENT = 50;
+
+    @Override
+    public void plan(CopyContext context, CopyContext.DataCopyItem item, String column, long batchSize, DataSetConsumer consumer) throws Exception {
+        MigrationContext migrationContext = context.getMigrationContext();
+        DataRepository repository = migrationContext.getDataSourceRepository();
+        String table = item.getSourceItem();
+        long rowCount = item.getRowCount() == null ? 0 : item.getRowCount();
+        SplitPointStrategy strategy = getStrategy(migrationContext);
+        long start = System.currentTimeMillis();
+
+        DataSet splitPoints = null;
+        if (strategy != SplitPointStrategy.EXACT && !migrationContext.isIncrementalModeEnabled() && rowCount > batchSize) {
+            try {
+                splitPoints = planApproximately(strategy, repository, table, column, rowCount, batchSize);
+            } catch (Exception e) {
+                LOG.warn("{}: Cannot plan split points with strategy {}, falling back to {}. Cause: {}", table, strategy, SplitPointStrategy.EXACT, e.getMessage());
+            }
+        }
+        long splitPointCount;
+        if (splitPoints != null && splitPoints.isNotEmpty()) {
+            splitPointCount = splitPoints.getRowCount();
+            consumer.accept(splitPoints);
+        } else {
+            strategy = SplitPointStrategy.EXACT;
+            DataRepositoryAdapter adapter = new ContextualDataRepositoryAdapter(repository);
+            AtomicLong count = new AtomicLong();
+            adapter.streamBatchMarkersOrderedByColumn(migrationContext, table, column, batchSize, markers -> {
+                count.addAndGet(markers.getRowCount());
+                return consumer.accept(markers);
+            });
+            splitPointCount = count.get();
+        }
+        LOG.debug("{}: Planned {} split points with strategy {} in {} ms", table, splitPointCount, strategy, System.currentTimeMillis() - start);
+    }
+
+    protected SplitPointStrategy getStrategy(MigrationContext migrationContext) {
+        String strategy = migrationContext.getSplitPointStrategy();
+        if (StringUtils.isBlank(strategy)) {
+            return SplitPointStrategy.EXACT;
+        }
+        try {
+            return SplitPointStrategy.valueOf(strategy.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            LOG.warn("Unknown split point strategy '{}', falling back to {}. Supported strategies: {}", strategy, SplitPointStrategy.EXACT, Arrays.toString(SplitPointStrategy.values()));
+            return SplitPointStrategy.EXACT;
+        }
+    }
+
+    protected DataSet planApproximately(SplitPointStrategy strategy, DataRepository repository, String table, String column, long rowCount, long batchSize) throws Exception {
+        switch (strategy) {
+            case INTERPOLATION:
+                return planByInterpolation(repository, table, column, rowCount, batchSize);
+            case SAMPLING:
+                return planBySampling(repository, table, column, rowCount, batchSize);
+            case STATISTICS:
+                return planByStatistics(repository, table, column, rowCount, batchSize);
+            default:
+                return null;
+        }
+    }
+
+    private DataSet planByInterpolation(DataRepository repository, String table, String column, long rowCount, long batchSize) throws Exception {
+        List<Object> range = getRange(repository, table, column);
+        if (range == null) {
+            return null;
+        }
+        Object min = range.get(0);
+        BigDecimal lower = toDecimal(min);
+        BigDecimal upper = toDecimal(range.get(1));
+        BigDecimal span = upper.subtract(lower);
+        return toSplitPoints(column, rowCount, batchSize, fraction -> fromDecimal(lower.add(span.multiply(BigDecimal.valueOf(fraction))), min));
+    }
+
+    private DataSet planBySampling(DataRepository repository, String table, String column, long rowCount, long batchSize) throws Exception {
+        long splitPointCount = (rowCount + batchSize - 1) / batchSize;
+        double percent = Math.max(MIN_SAMPLE_PERCENT, 100d * splitPointCount * SAMPLE_ROWS_PER_SPLIT_POINT / rowCount);
+        if (percent > MAX_SAMPLE_PERCENT) {
+            // sampling most of the table is not cheaper than numbering it
+            return null;
+        }
+        DataSet sample = repository.getSampledColumnValues(table, column, percent);
+        try {
+            List<List<Object>> values = sample.getAllResults();
+            if (values.isEmpty()) {
+                return null;
+            }
+            return toSplitPoints(column, rowCount, batchSize, fraction -> values.get(Math.min(values.size() - 1, (int) (fraction * values.size()))).get(0));
+        } finally {
+            sample.release();
+        }
+    }
+
+    /**
+     * Interpolates linearly within the histogram steps, the first step starts at the minimum of the column
+     */
+    private DataSet planByStatistics(DataRepository repository, String table, String column, long rowCount, long batchSize) throws Exception {
+        List<List<Object>> steps = copyResults(repository.getColumnHistogram(table, column));
+        List<Object> range = steps.isEmpty() ? null : getRange(repository, table, column);
+        if (range == null) {
+            return null;
+        }
+        Object min = range.get(0);
+        List<BigDecimal> boundaries = new ArrayList<>(steps.size() + 1);
+        List<BigDecimal> weights = new ArrayList<>(steps.size() + 1);
+        boundaries.add(toDecimal(min));
+        weights.add(BigDecimal.ZERO);
+        for (List<Object> step : steps) {
+            BigDecimal boundary = toDecimal(step.get(0));
+            BigDecimal weight = toDecimal(step.get(1));
+            if (boundary == null || weight == null) {
+                return null;
+            }
+            if (boundary.compareTo(boundaries.get(boundaries.size() - 1)) > 0) {
+                boundaries.add(boundary);
+                weights.add(weight);
+            }
+        }
+        BigDecimal total = weights.get(weights.size() - 1);
+        if (boundaries.size() < 2 || total.signum() <= 0) {
+            return null;
+        }
+        return toSplitPoints(column, rowCount, batchSize, fraction -> {
+            BigDecimal target = total.multiply(BigDecimal.valueOf(fraction));
+            int i = 1;
+            while (i < weights.size() - 1 && weights.get(i).compareTo(target) < 0) {
+                i++;
+            }
+            BigDecimal stepWeight = weights.get(i).subtract(weights.get(i - 1));
+            BigDecimal position = stepWeight.signum() == 0 ? BigDecimal.ZERO : target.subtract(weights.get(i - 1)).max(BigDecimal.ZERO).divide(stepWeight, MathContext.DECIMAL64);
+            BigDecimal value = boundaries.get(i - 1).add(boundaries.get(i).subtract(boundaries.get(i - 1)).multiply(position.min(BigDecimal.ONE)));
+            return fromDecimal(value, min);
+        });
+    }
+
+    private List<Object> getRange(DataRepository repository, String table, String column) throws Exception {
+        List<List<Object>> rows = copyResults(repository.getColumnRange(table, column));
+        if (rows.isEmpty() || toDecimal(rows.get(0).get(0)) == null || toDecimal(rows.get(0).get(1)) == null) {
+            return null;
+        }
+        return rows.get(0);
+    }
+
+    /**
+     * The rows of a data set are read from its buffers, they are copied before the buffers are handed back
+     */
+    private List<List<Object>> copyResults(DataSet dataSet) {
+        try {
+            return dataSet.getAllResults().stream().map(ArrayList::new).collect(Collectors.toList());
+        } finally {
+            dataSet.release();
+        }
+    }
+
+    /**
+     * Creates one split point per batch, skipping estimates that would not advance the previous split point
+     */
+    @SuppressWarnings("unchecked")
+    private DataSet toSplitPoints(String column, long rowCount, long batchSize, DoubleFunction<Object> valueAtFraction) {
+        List<List<Object>> splitPoints = new ArrayList<>();
+        Comparable<Object> previous = null;
+        for (long rownum = 0; rownum < rowCount; rownum += batchSize) {
+            Object value = valueAtFraction.apply((double) rownum / rowCount);
+            if (value != null && (previous == null || previous.compareTo(value) < 0)) {
+                splitPoints.add(Arrays.asList(value, rownum));
+                previous = (Comparable<Object>) value;
+            }
+        }
+        List<DataColumn> columns = Arrays.asList(new DefaultDataColumn(column, Types.JAVA_OBJECT, 0, 0), new DefaultDataColumn("rownum", Types.BIGINT, 0, 0));
+        return new DefaultDataSet(columns.size(), columns, splitPoints);
+    }
+
+    private static BigDecimal toDecimal(Object value) {
+        if (value instanceof BigDecimal) {
+            return (BigDecimal) value;
+        }
+        if (value instanceof Long || value instanceof Integer || value instanceof Short) {
+            return BigDecimal.valueOf(((Number) value).longValue());
+        }
+        if (value instanceof Number) {
+            return new BigDecimal(value.toString());
+        }
+        return null;
+    }
+
+    /**
+     * Converts an estimate back to the type of the column so it compares and binds like the real values
+     */
+    private static Object fromDecimal(BigDecimal value, Object template) {
+        if (template instanceof Long || template instanceof Integer || template instanceof Short) {
+            return value.setScale(0, RoundingMode.DOWN).longValue();
+        }
+        if (template instanceof BigDecimal) {
+            return value.setScale(((BigDecimal) template).scale(), RoundingMode.DOWN);
+        }
+        return value.doubleValue();
+    }
+}
@@ -31,4 +31,17 @@ public interface DataSourceConfiguration {
     int getMinIdle();
 
     boolean isRemoveAbandoned();
+
+    int getFetchSize();
+
+    int getStatementCacheSize();
+
+    int getLobInlineThreshold();
+
+    int getDictionaryMaxSize();
+
+    /**
+     * @return the megabytes of column vectors kept for reuse by the following batches, 0 if they are not reused
+     */
+    int getBufferPoolSize();
 }
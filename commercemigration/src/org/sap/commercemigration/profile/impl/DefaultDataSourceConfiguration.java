@@ -24,6 +24,11 @@ public class DefaultDataSourceConfiguration implements DataSourceConfiguration {
     private int maxIdle;
     private int minIdle;
     private boolean removedAbandoned;
+    private int fetchSize;
+    private int statementCacheSize;
+    private int lobInlineThreshold;
+    private int dictionaryMaxSize;
+    private int bufferPoolSize;
 
     public DefaultDataSourceConfiguration(Configuration configuration, String profile) {
         this.profile = profile;
@@ -100,6 +105,31 @@ public class DefaultDataSourceConfiguration implements DataSourceConfiguration {
         return removedAbandoned;
     }
 
+    @Override
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    @Override
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    @Override
+    public int getLobInlineThreshold() {
+        return lobInlineThreshold;
+    }
+
+    @Override
+    public int getDictionaryMaxSize() {
+        return dictionaryMaxSize;
+    }
+
+    @Override
+    public int getBufferPoolSize() {
+        return bufferPoolSize;
+    }
+
     protected void load(Configuration configuration, String profile) {
         this.driver = getProfileProperty(profile, configuration, "db.driver");
         this.connectionString = getProfileProperty(profile, configuration, "db.url");
@@ -114,6 +144,11 @@ public class DefaultDataSourceConfiguration implements DataSourceConfiguration {
         this.maxIdle = parseInt(getProfileProperty(profile, configuration, "db.connection.pool.size.idle.max"));
         this.minIdle = parseInt(getProfileProperty(profile, configuration, "db.connection.pool.size.idle.min"));
         this.removedAbandoned = Boolean.parseBoolean(getProfileProperty(profile, configuration, "db.connection.removeabandoned"));
+        this.fetchSize = parseInt(getProfileProperty(profile, configuration, "db.fetchsize"));
+        this.statementCacheSize = parseInt(getProfileProperty(profile, configuration, "db.statementcache.size"));
+        this.lobInlineThreshold = parseInt(getProfileProperty(profile, configuration, "db.lob.inline.threshold"));
+        this.dictionaryMaxSize = parseInt(getProfileProperty(profile, configuration, "db.dictionary.maxsize"));
+        this.bufferPoolSize = parseInt(getProfileProperty(profile, configuration, "db.bufferpool.size"));
     }
 
     protected String getNormalProperty(Configuration configuration, String key) {
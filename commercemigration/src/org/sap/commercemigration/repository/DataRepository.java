@@ -5,7 +5,9 @@ import de.hybris.bootstrap.ddl.DataBaseProvider;
 import org.apache.ddlutils.Platform;
 import org.apache.ddlutils.model.Database;
 import org.sap.commercemigration.dataset.DataSet;
+import org.sap.commercemigration.dataset.DataSetConsumer;
 import org.sap.commercemigration.profile.DataSourceConfiguration;
+import org.sap.commercemigration.repository.model.ColumnProjection;
 import org.sap.commercemigration.repository.model.TypeSystemTable;
 import org.springframework.core.io.Resource;
 
@@ -13,6 +15,8 @@ import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.time.Instant;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -31,24 +35,79 @@ public interface DataRepository {
 
     Set<String> getAllColumnNames(String table) throws Exception;
 
-    DataSet getBatchWithoutIdentifier(String table, Set<String> allColumns, long batchSize, long offset) throws Exception;
+    Set<String> getNullableColumnNames(String table) throws Exception;
 
-    DataSet getBatchWithoutIdentifier(String table, Set<String> allColumns, long batchSize, long offset, Instant time) throws Exception;
+    DataSet getBatchWithoutIdentifier(String table, ColumnProjection projection, Set<String> allColumns, long batchSize, long offset) throws Exception;
 
-    DataSet getBatchOrderedByColumn(String table, String column, Object start, long batchSize) throws Exception;
+    DataSet getBatchWithoutIdentifier(String table, ColumnProjection projection, Set<String> allColumns, long batchSize, long offset, Instant time) throws Exception;
 
-    DataSet getBatchOrderedByColumn(String table, String column, Object start, long batchSize, Instant time) throws Exception;
+    DataSet getBatchOrderedByColumn(String table, ColumnProjection projection, String column, Object lowerValue, Object upperValue, long batchSize) throws Exception;
 
-    DataSet getBatchMarkersOrderedByColumn(String table, String column, long batchSize) throws Exception;
+    DataSet getBatchOrderedByColumn(String table, ColumnProjection projection, String column, Object lowerValue, Object upperValue, long batchSize, Instant time) throws Exception;
+
+    /**
+     * Streams the value of every batchSize-th row in column order, as rows of (value, row number)
+     */
+    void streamBatchMarkersOrderedByColumn(String table, String column, long batchSize, DataSetConsumer consumer) throws Exception;
+
+    /**
+     * Reads the next batch of a range on the leading key column, seeking past the last key read so far
+     *
+     * @param projection the columns of the rows read
+     * @param columns    the ordered columns of a unique key
+     * @param lowerValue inclusive lower bound of the leading column, null if unbounded
+     * @param upperValue exclusive upper bound of the leading column, null if unbounded
+     * @param lastKey    the key values of the last row read before, null for the first batch
+     */
+    DataSet getBatchOrderedByColumns(String table, ColumnProjection projection, List<String> columns, Object lowerValue, Object upperValue, List<Object> lastKey, long batchSize) throws Exception;
+
+    DataSet getBatchOrderedByColumns(String table, ColumnProjection projection, List<String> columns, Object lowerValue, Object upperValue, List<Object> lastKey, long batchSize, Instant time) throws Exception;
+
+    void streamBatchesOrderedByColumn(String table, ColumnProjection projection, String column, Object lowerValue, boolean lowerInclusive, Object upperValue, long batchSize, DataSetConsumer consumer) throws Exception;
+
+    void streamBatchesOrderedByColumn(String table, ColumnProjection projection, String column, Object lowerValue, boolean lowerInclusive, Object upperValue, long batchSize, Instant time, DataSetConsumer consumer) throws Exception;
 
     long getRowCount(String table) throws Exception;
 
     long getRowCountModifiedAfter(String table, Instant time) throws SQLException;
 
+    /**
+     * Reads the row counts of all tables of the schema from the statistics of the database. The counts are only as
+     * recent as the statistics, tables without statistics are missing.
+     */
+    Map<String, Long> getApproximateRowCounts() throws Exception;
+
+    /**
+     * Estimates the average bytes a row of the table takes in storage. The statistics of the database are used if
+     * there are any, otherwise the size is estimated from the values of the first rows of the table.
+     *
+     * @return the average row size, 0 if the table is empty
+     */
+    long getAverageRowSize(String table) throws Exception;
+
     DataSet getAll(String table) throws Exception;
 
     DataSet getAllModifiedAfter(String table, Instant time) throws Exception;
 
+    /**
+     * Reads the whole table through one cursor and hands it over in data sets of at most batchSize rows
+     */
+    void streamAll(String table, ColumnProjection projection, long batchSize, DataSetConsumer consumer) throws Exception;
+
+    void streamAllModifiedAfter(String table, ColumnProjection projection, Instant time, long batchSize, DataSetConsumer consumer) throws Exception;
+
+    /**
+     * Hands the open cursor over the whole table to the consumer, the driver fetches fetchSize rows per round trip
+     */
+    void streamAllRows(String table, ColumnProjection projection, long fetchSize, ResultSetConsumer consumer) throws Exception;
+
+    /**
+     * Streams one of partitionCount disjoint partitions of the table, determined by a hash of each row
+     */
+    void streamPartition(String table, ColumnProjection projection, int partition, int partitionCount, long batchSize, DataSetConsumer consumer) throws Exception;
+
+    void streamPartitionModifiedAfter(String table, ColumnProjection projection, int partition, int partitionCount, Instant time, long batchSize, DataSetConsumer consumer) throws Exception;
+
     DataSourceConfiguration getDataSourceConfiguration();
 
     int executeUpdateAndCommit(String updateStatement) throws Exception;
@@ -75,9 +134,25 @@ public interface DataRepository {
 
     DataSource getDataSource();
 
-    DataSet getBatchMarkersOrderedByColumn(String table, String column, long batchSize, Instant time) throws Exception;
+    void streamBatchMarkersOrderedByColumn(String table, String column, long batchSize, Instant time, DataSetConsumer consumer) throws Exception;
 
     DataSet getUniqueColumns(String table) throws Exception;
 
+    /**
+     * @return one row with the minimum and maximum value of the column
+     */
+    DataSet getColumnRange(String table, String column) throws Exception;
+
+    /**
+     * @return the ordered values of the column for a random sample of roughly the given percentage of the table
+     */
+    DataSet getSampledColumnValues(String table, String column, double percent) throws Exception;
+
+    /**
+     * @return the histogram steps the database keeps for the column, as ordered rows of
+     * (upper boundary value, cumulative row weight up to and including the boundary)
+     */
+    DataSet getColumnHistogram(String table, String column) throws Exception;
+
     boolean validateConnection() throws Exception;
 }
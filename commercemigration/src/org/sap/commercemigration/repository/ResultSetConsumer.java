@@ -0,0 +1,11 @@
+package org.sap.commercemigration.repository;
+
+import java.sql.ResultSet;
+
+/**
+ * Receives an open cursor, the result set is closed as soon as the consumer returns
+ */
+@FunctionalInterface
+public interface ResultSetConsumer {
+    void accept(ResultSet resultSet) throws Exception;
+}
@@ -8,14 +8,18 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.ddlutils.Platform;
 import org.apache.ddlutils.model.Database;
 import org.sap.commercemigration.constants.CommercemigrationConstants;
-import org.sap.commercemigration.dataset.DataColumn;
 import org.sap.commercemigration.dataset.DataSet;
-import org.sap.commercemigration.dataset.impl.DefaultDataColumn;
-import org.sap.commercemigration.dataset.impl.DefaultDataSet;
+import org.sap.commercemigration.dataset.DataSetConsumer;
+import org.sap.commercemigration.dataset.impl.ColumnVectorPool;
+import org.sap.commercemigration.dataset.impl.ColumnarDataSet;
+import org.sap.commercemigration.dataset.impl.LobReference;
 import org.sap.commercemigration.datasource.MigrationDataSourceFactory;
 import org.sap.commercemigration.datasource.impl.DefaultMigrationDataSourceFactory;
+import org.sap.commercemigration.performance.PerformanceProfiler;
 import org.sap.commercemigration.profile.DataSourceConfiguration;
 import org.sap.commercemigration.repository.DataRepository;
+import org.sap.commercemigration.repository.ResultSetConsumer;
+import org.sap.commercemigration.repository.model.ColumnProjection;
 import org.sap.commercemigration.repository.model.TypeSystemTable;
 import org.sap.commercemigration.service.DatabaseMigrationDataTypeMapperService;
 import org.slf4j.Logger;
@@ -24,7 +28,10 @@ import org.springframework.core.io.Resource;
 import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
 
 import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
 import java.sql.Connection;
+import java.sql.DatabaseMetaData;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -32,12 +39,14 @@ import java.sql.Statement;
 import java.sql.Timestamp;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -49,23 +58,27 @@ import static org.sap.commercemigration.constants.CommercemigrationConstants.MIG
 public abstract class AbstractDataRepository implements DataRepository {
 
     private static final Logger LOG = LoggerFactory.getLogger(AbstractDataRepository.class);
+    private static final int ROW_SIZE_SAMPLE_ROWS = 100;
+    private static final long MEGABYTE = 1024L * 1024L;
 
     private final Map<String, DataSource> dataSourceHolder = new ConcurrentHashMap<>();
 
     private final DataSourceConfiguration dataSourceConfiguration;
     private final MigrationDataSourceFactory migrationDataSourceFactory;
     private final DatabaseMigrationDataTypeMapperService databaseMigrationDataTypeMapperService;
+    private final ColumnVectorPool vectorPool;
     private Platform platform;
     private Database database;
 
-    public AbstractDataRepository(DataSourceConfiguration dataSourceConfiguration, DatabaseMigrationDataTypeMapperService databaseMigrationDataTypeMapperService) {
-        this(dataSourceConfiguration, databaseMigrationDataTypeMapperService, new DefaultMigrationDataSourceFactory());
+    public AbstractDataRepository(DataSourceConfiguration dataSourceConfiguration, DatabaseMigrationDataTypeMapperService databaseMigrationDataTypeMapperService, PerformanceProfiler performanceProfiler) {
+        this(dataSourceConfiguration, databaseMigrationDataTypeMapperService, performanceProfiler, new DefaultMigrationDataSourceFactory());
     }
 
-    public AbstractDataRepository(DataSourceConfiguration dataSourceConfiguration, DatabaseMigrationDataTypeMapperService databaseMigrationDataTypeMapperService, MigrationDataSourceFactory migrationDataSourceFactory) {
+    public AbstractDataRepository(DataSourceConfiguration dataSourceConfiguration, DatabaseMigrationDataTypeMapperService databaseMigrationDataTypeMapperService, PerformanceProfiler performanceProfiler, MigrationDataSourceFactory migrationDataSourceFactory) {
         this.dataSourceConfiguration = dataSourceConfiguration;
         this.migrationDataSourceFactory = migrationDataSourceFactory;
         this.databaseMigrationDataTypeMapperService = databaseMigrationDataTypeMapperService;
+        this.vectorPool = new ColumnVectorPool(MEGABYTE * dataSourceConfiguration.getBufferPoolSize(), performanceProfiler, dataSourceConfiguration.getProfile());
     }
 
     @Override
@@ -149,6 +162,125 @@ public abstract class AbstractDataRepository implements DataRepository {
         }
     }
 
+    @Override
+    public Map<String, Long> getApproximateRowCounts() throws Exception {
+        Map<String, Long> rowCounts = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        try (Connection connection = getConnection();
+             Statement stmt = connection.createStatement();
+             ResultSet resultSet = stmt.executeQuery(createApproximateRowCountsQuery())
+        ) {
+            while (resultSet.next()) {
+                String table = resultSet.getString(1);
+                long rowCount = resultSet.getLong(2);
+                // the statistics count all rows, also those the default conditions leave out
+                if (!resultSet.wasNull() && getTsCondition(table) == null) {
+                    rowCounts.put(table, rowCount);
+                }
+            }
+        }
+        return rowCounts;
+    }
+
+    /**
+     * @return a query selecting the table name and the row count estimated by the database
+     */
+    protected String createApproximateRowCountsQuery() {
+        throw new UnsupportedOperationException("Approximate row counts are not supported for " + getDatabaseProvider());
+    }
+
+    @Override
+    public long getAverageRowSize(String table) throws Exception {
+        String statisticsQuery = createAverageRowSizeQuery(table);
+        if (statisticsQuery != null) {
+            try (Connection connection = getConnection();
+                 Statement stmt = connection.createStatement();
+                 ResultSet resultSet = stmt.executeQuery(statisticsQuery)
+            ) {
+                if (resultSet.next()) {
+                    long averageRowSize = resultSet.getLong(1);
+                    if (!resultSet.wasNull() && averageRowSize > 0) {
+                        return averageRowSize;
+                    }
+                }
+            }
+        }
+        return sampleAverageRowSize(table);
+    }
+
+    /**
+     * Reads the first rows of the table and averages the bytes their values take in storage, the unit of the average
+     * row size in the statistics of the databases. The same rows take a multiple of that on the heap.
+     */
+    private long sampleAverageRowSize(String table) throws Exception {
+        List<String> conditionsList = new ArrayList<>(1);
+        processDefaultConditions(table, conditionsList);
+        try (Connection connection = getConnection();
+             Statement stmt = connection.createStatement()
+        ) {
+            stmt.setMaxRows(ROW_SIZE_SAMPLE_ROWS);
+            stmt.setFetchSize(ROW_SIZE_SAMPLE_ROWS);
+            try (ResultSet resultSet = stmt.executeQuery(String.format("select * from %s where %s", table, expandConditions(conditionsList.toArray(new String[0]))))) {
+                DataSet sample = convertToDataSet(resultSet);
+                try {
+                    if (sample.getRowCount() == 0) {
+                        return 0;
+                    }
+                    long size = 0;
+                    for (int row = 0; row < sample.getRowCount(); row++) {
+                        for (int column = 0; column < sample.getColumnCount(); column++) {
+                            size += getStoredSize(sample.getValue(row, column));
+                        }
+                    }
+                    return Math.max(1, size / sample.getRowCount());
+                } finally {
+                    sample.release();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the bytes of the value in a row of the table, characters count as one byte
+     */
+    private static long getStoredSize(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof byte[]) {
+            return ((byte[]) value).length;
+        }
+        if (value instanceof CharSequence) {
+            return ((CharSequence) value).length();
+        }
+        if (value instanceof Boolean || value instanceof Byte) {
+            return 1;
+        }
+        if (value instanceof Short) {
+            return 2;
+        }
+        if (value instanceof Integer || value instanceof Float) {
+            return 4;
+        }
+        if (value instanceof BigDecimal) {
+            return 1 + ((BigDecimal) value).precision() / 2;
+        }
+        if (value instanceof ByteArrayInputStream) {
+            return ((ByteArrayInputStream) value).available();
+        }
+        if (value instanceof LobReference) {
+            return ((LobReference) value).getLength();
+        }
+        return 8;
+    }
+
+    /**
+     * @return a query selecting the average row size in bytes the database keeps in its statistics, null if there is
+     * no such statistic
+     */
+    protected String createAverageRowSizeQuery(String table) {
+        return null;
+    }
+
     @Override
     public DataSet getAll(String table) throws Exception {
         List<String> conditionsList = new ArrayList<>(1);
@@ -182,38 +314,113 @@ public abstract class AbstractDataRepository implements DataRepository {
         }
     }
 
-    protected DefaultDataSet convertToDataSet(ResultSet resultSet) throws Exception {
-        return convertToDataSet(resultSet, Collections.emptySet());
+    @Override
+    public void streamAll(String table, ColumnProjection projection, long batchSize, DataSetConsumer consumer) throws Exception {
+        streamAllModifiedAfter(table, projection, null, batchSize, consumer);
     }
 
-    protected DefaultDataSet convertToDataSet(ResultSet resultSet, Set<String> ignoreColumns) throws Exception {
-        int realColumnCount = resultSet.getMetaData().getColumnCount();
-        List<DataColumn> columnOrder = new ArrayList<>();
-        int columnCount = 0;
-        for (int i = 1; i <= realColumnCount; i++) {
-            String columnName = resultSet.getMetaData().getColumnName(i);
-            int columnType = resultSet.getMetaData().getColumnType(i);
-            int precision = resultSet.getMetaData().getPrecision(i);
-            int scale = resultSet.getMetaData().getScale(i);
-            if (ignoreColumns.stream().anyMatch(columnName::equalsIgnoreCase)) {
-                continue;
+    @Override
+    public void streamAllModifiedAfter(String table, ColumnProjection projection, Instant time, long batchSize, DataSetConsumer consumer) throws Exception {
+        streamAll(table, projection, null, time, batchSize, consumer);
+    }
+
+    @Override
+    public void streamPartition(String table, ColumnProjection projection, int partition, int partitionCount, long batchSize, DataSetConsumer consumer) throws Exception {
+        streamPartitionModifiedAfter(table, projection, partition, partitionCount, null, batchSize, consumer);
+    }
+
+    @Override
+    public void streamPartitionModifiedAfter(String table, ColumnProjection projection, int partition, int partitionCount, Instant time, long batchSize, DataSetConsumer consumer) throws Exception {
+        streamAll(table, projection, buildPartitionCondition(table, partition, partitionCount), time, batchSize, consumer);
+    }
+
+    @Override
+    public void streamAllRows(String table, ColumnProjection projection, long fetchSize, ResultSetConsumer consumer) throws Exception {
+        queryAll(table, projection, null, null, fetchSize, consumer);
+    }
+
+    private void streamAll(String table, ColumnProjection projection, String partitionCondition, Instant time, long batchSize, DataSetConsumer consumer) throws Exception {
+        queryAll(table, projection, partitionCondition, time, batchSize, resultSet -> streamToBatchDataSets(projection, resultSet, batchSize, consumer));
+    }
+
+    private void queryAll(String table, ColumnProjection projection, String partitionCondition, Instant time, long batchSize, ResultSetConsumer consumer) throws Exception {
+        List<String> conditionsList = new ArrayList<>(3);
+        processDefaultConditions(table, conditionsList);
+        if (partitionCondition != null) {
+            conditionsList.add(partitionCondition);
+        }
+        if (time != null) {
+            conditionsList.add("modifiedts > ?");
+        }
+        String[] conditions = null;
+        if (conditionsList.size() > 0) {
+            conditions = conditionsList.toArray(new String[conditionsList.size()]);
+        }
+        try (Connection connection = getConnection();
+             PreparedStatement stmt = connection.prepareStatement(String.format("select %s from %s where %s", projection.toSelectList(), table, expandConditions(conditions)), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            configureStreamingStatement(stmt, batchSize);
+            if (time != null) {
+                stmt.setTimestamp(1, Timestamp.from(time));
+            }
+            try (ResultSet resultSet = stmt.executeQuery()) {
+                consumer.accept(resultSet);
             }
-            columnCount += 1;
-            columnOrder.add(new DefaultDataColumn(columnName, columnType, precision, scale));
         }
-        List<List<Object>> results = new ArrayList<>();
+    }
+
+    protected DataSet convertToDataSet(ResultSet resultSet) throws Exception {
+        return convertToDataSet(resultSet, Collections.emptySet());
+    }
+
+    protected DataSet convertToDataSet(ResultSet resultSet, Set<String> ignoreColumns) throws Exception {
+        return convertToDataSet(resultSet, ignoreColumns, Collections.emptySet());
+    }
+
+    /**
+     * @param inlineLobColumns the columns whose large objects are read inline regardless of the inline threshold
+     */
+    protected DataSet convertToDataSet(ResultSet resultSet, Set<String> ignoreColumns, Set<String> inlineLobColumns) throws Exception {
+        ResultSetExtractionPlan extractionPlan = createExtractionPlan(resultSet, ignoreColumns, inlineLobColumns);
+        ColumnarDataSet.Builder builder = createBuilder(extractionPlan, 0);
+        while (resultSet.next()) {
+            extractionPlan.readRow(resultSet, builder);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Slices the rows of an open cursor into data sets of at most batchSize rows and hands them
+     * over to the consumer while the cursor is still being fetched
+     */
+    protected void streamToDataSets(ResultSet resultSet, Set<String> ignoreColumns, Set<String> inlineLobColumns, long batchSize, DataSetConsumer consumer) throws Exception {
+        ResultSetExtractionPlan extractionPlan = createExtractionPlan(resultSet, ignoreColumns, inlineLobColumns);
+        ColumnarDataSet.Builder builder = createBuilder(extractionPlan, (int) Math.min(batchSize, Integer.MAX_VALUE));
         while (resultSet.next()) {
-            List<Object> row = new ArrayList<>();
-            for (DataColumn dataColumn : columnOrder) {
-                int idx = resultSet.findColumn(dataColumn.getColumnName());
-                Object object = resultSet.getObject(idx);
-                //TODO: improve CLOB/BLOB handling
-                Object mappedValue = databaseMigrationDataTypeMapperService.dataTypeMapper(object, resultSet.getMetaData().getColumnType(idx));
-                row.add(mappedValue);
+            extractionPlan.readRow(resultSet, builder);
+            if (builder.getRowCount() >= batchSize) {
+                if (!consumer.accept(builder.build())) {
+                    return;
+                }
             }
-            results.add(row);
         }
-        return new DefaultDataSet(columnCount, columnOrder, results);
+        if (builder.getRowCount() > 0) {
+            consumer.accept(builder.build());
+        }
+    }
+
+    private ColumnarDataSet.Builder createBuilder(ResultSetExtractionPlan extractionPlan, int expectedRowCount) {
+        return new ColumnarDataSet.Builder(extractionPlan.getColumnOrder(), expectedRowCount, dataSourceConfiguration.getDictionaryMaxSize(), vectorPool.isEnabled() ? vectorPool : null);
+    }
+
+    private ResultSetExtractionPlan createExtractionPlan(ResultSet resultSet, Set<String> ignoreColumns, Set<String> inlineLobColumns) throws SQLException {
+        return ResultSetExtractionPlan.compile(resultSet, ignoreColumns, inlineLobColumns, isIntegralNumberNarrowingEnabled(), dataSourceConfiguration.getLobInlineThreshold(), databaseMigrationDataTypeMapperService);
+    }
+
+    /**
+     * @return true if NUMBER columns with a scale of 0 are read as long, for databases without dedicated integer types
+     */
+    protected boolean isIntegralNumberNarrowingEnabled() {
+        return false;
     }
 
     @Override
@@ -411,75 +618,206 @@ public abstract class AbstractDataRepository implements DataRepository {
         return allColumnNames;
     }
 
+    @Override
+    public Set<String> getNullableColumnNames(String table) throws Exception {
+        Set<String> nullableColumnNames = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        try (Connection connection = getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            String schema = getDataSourceConfiguration().getSchema();
+            String tableName = table;
+            if (metaData.storesUpperCaseIdentifiers()) {
+                schema = StringUtils.upperCase(schema);
+                tableName = StringUtils.upperCase(table);
+            } else if (metaData.storesLowerCaseIdentifiers()) {
+                schema = StringUtils.lowerCase(schema);
+                tableName = StringUtils.lowerCase(table);
+            }
+            try (ResultSet resultSet = metaData.getColumns(null, schema, tableName, null)) {
+                while (resultSet.next()) {
+                    if (resultSet.getInt("NULLABLE") != DatabaseMetaData.columnNoNulls) {
+                        nullableColumnNames.add(resultSet.getString("COLUMN_NAME"));
+                    }
+                }
+            }
+        }
+        return nullableColumnNames;
+    }
+
     protected abstract String createAllColumnNamesQuery(String table);
 
     @Override
-    public DataSet getBatchWithoutIdentifier(String table, Set<String> allColumns, long batchSize, long offset) throws Exception {
-        return getBatchWithoutIdentifier(table, allColumns, batchSize, offset, null);
+    public DataSet getBatchWithoutIdentifier(String table, ColumnProjection projection, Set<String> allColumns, long batchSize, long offset) throws Exception {
+        return getBatchWithoutIdentifier(table, projection, allColumns, batchSize, offset, null);
     }
 
     @Override
-    public DataSet getBatchWithoutIdentifier(String table, Set<String> allColumns, long batchSize, long offset, Instant time) throws Exception {
+    public DataSet getBatchWithoutIdentifier(String table, ColumnProjection projection, Set<String> allColumns, long batchSize, long offset, Instant time) throws Exception {
         //get batches with modifiedts >= configured time for incremental migration
         List<String> conditionsList = new ArrayList<>(1);
+        List<Object> parameters = new ArrayList<>(3);
         processDefaultConditions(table, conditionsList);
         if (time != null) {
             conditionsList.add("modifiedts > ?");
+            parameters.add(Timestamp.from(time));
         }
         String[] conditions = null;
         if (conditionsList.size() > 0) {
             conditions = conditionsList.toArray(new String[conditionsList.size()]);
         }
-        try (Connection connection = getConnection();
-             PreparedStatement stmt = connection.prepareStatement(buildOffsetBatchQuery(table, allColumns, batchSize, offset, conditions))) {
-            stmt.setFetchSize(Long.valueOf(batchSize).intValue());
-            if (time != null) {
-                stmt.setTimestamp(1, Timestamp.from(time));
+        String query = buildOffsetBatchQuery(table, projection, allColumns, batchSize, offset, parameters, conditions);
+        return executeBatchQuery(query, parameters, batchSize, false, resultSet -> convertToBatchDataSet(projection, resultSet));
+    }
+
+    @Override
+    public DataSet getBatchOrderedByColumn(String table, ColumnProjection projection, String column, Object lowerValue, Object upperValue, long batchSize) throws Exception {
+        return getBatchOrderedByColumn(table, projection, column, lowerValue, upperValue, batchSize, null);
+    }
+
+    @Override
+    public DataSet getBatchOrderedByColumn(String table, ColumnProjection projection, String column, Object lowerValue, Object upperValue, long batchSize, Instant time) throws Exception {
+        List<Object> parameters = new ArrayList<>(3);
+        String[] conditions = buildRangeConditions(table, column, lowerValue, true, upperValue, time, parameters);
+        return executeBatchQuery(buildValueRangeQuery(table, projection, column, conditions), parameters, batchSize, false, resultSet -> convertToBatchDataSet(projection, resultSet));
+    }
+
+    @Override
+    public DataSet getBatchOrderedByColumns(String table, ColumnProjection projection, List<String> columns, Object lowerValue, Object upperValue, List<Object> lastKey, long batchSize) throws Exception {
+        return getBatchOrderedByColumns(table, projection, columns, lowerValue, upperValue, lastKey, batchSize, null);
+    }
+
+    @Override
+    public DataSet getBatchOrderedByColumns(String table, ColumnProjection projection, List<String> columns, Object lowerValue, Object upperValue, List<Object> lastKey, long batchSize, Instant time) throws Exception {
+        List<Object> parameters = new ArrayList<>();
+        List<String> conditionsList = new ArrayList<>();
+        String[] rangeConditions = buildRangeConditions(table, columns.get(0), lowerValue, true, upperValue, time, parameters);
+        if (rangeConditions != null) {
+            conditionsList.addAll(Arrays.asList(rangeConditions));
+        }
+        if (lastKey != null) {
+            conditionsList.add(buildKeysetCondition(columns, lastKey, parameters));
+        }
+        String[] conditions = null;
+        if (conditionsList.size() > 0) {
+            conditions = conditionsList.toArray(new String[conditionsList.size()]);
+        }
+        String query = buildValueBatchQuery(table, projection, Joiner.on(',').join(columns), batchSize, conditions);
+        return executeBatchQuery(query, parameters, batchSize, false, resultSet -> convertToBatchDataSet(projection, resultSet));
+    }
+
+    /**
+     * Builds the predicate selecting all keys after the given one in key order, expanded to
+     * c1 >= ? and (c1 > ? or (c1 = ? and c2 > ?) or ...) for dialects without row value comparisons.
+     * The redundant leading bound lets the database seek on the index.
+     */
+    protected String buildKeysetCondition(List<String> columns, List<Object> lastKey, List<Object> parameters) {
+        List<String> alternatives = new ArrayList<>(columns.size());
+        parameters.add(lastKey.get(0));
+        for (int i = 0; i < columns.size(); i++) {
+            List<String> terms = new ArrayList<>(i + 1);
+            for (int j = 0; j < i; j++) {
+                terms.add(String.format("%s = ?", columns.get(j)));
+                parameters.add(lastKey.get(j));
             }
-            ResultSet resultSet = stmt.executeQuery();
-            return convertToBatchDataSet(resultSet);
+            terms.add(String.format("%s > ?", columns.get(i)));
+            parameters.add(lastKey.get(i));
+            alternatives.add(String.format("(%s)", Joiner.on(" and ").join(terms)));
         }
+        return String.format("%s >= ? and (%s)", columns.get(0), Joiner.on(" or ").join(alternatives));
     }
 
     @Override
-    public DataSet getBatchOrderedByColumn(String table, String column, Object lastColumnValue, long batchSize) throws Exception {
-        return getBatchOrderedByColumn(table, column, lastColumnValue, batchSize, null);
+    public void streamBatchesOrderedByColumn(String table, ColumnProjection projection, String column, Object lowerValue, boolean lowerInclusive, Object upperValue, long batchSize, DataSetConsumer consumer) throws Exception {
+        streamBatchesOrderedByColumn(table, projection, column, lowerValue, lowerInclusive, upperValue, batchSize, null, consumer);
     }
 
     @Override
-    public DataSet getBatchOrderedByColumn(String table, String column, Object lastColumnValue, long batchSize, Instant time) throws Exception {
+    public void streamBatchesOrderedByColumn(String table, ColumnProjection projection, String column, Object lowerValue, boolean lowerInclusive, Object upperValue, long batchSize, Instant time, DataSetConsumer consumer) throws Exception {
+        List<Object> parameters = new ArrayList<>(3);
+        String[] conditions = buildRangeConditions(table, column, lowerValue, lowerInclusive, upperValue, time, parameters);
+        executeBatchQuery(buildValueRangeQuery(table, projection, column, conditions), parameters, batchSize, true, resultSet -> {
+            streamToBatchDataSets(projection, resultSet, batchSize, consumer);
+            return null;
+        });
+    }
+
+    /**
+     * Runs a batch query with bound parameters. Every batch of a table has the same query text, so the statement
+     * cache of the driver hands out the statement prepared for the previous batch.
+     *
+     * @param streaming whether the result is read through a forward-only cursor instead of being fetched at once
+     */
+    protected <T> T executeBatchQuery(String query, List<Object> parameters, long batchSize, boolean streaming, ResultSetReader<T> reader) throws Exception {
+        try (Connection connection = getConnection();
+             PreparedStatement stmt = connection.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            if (streaming) {
+                configureStreamingStatement(stmt, batchSize);
+            } else {
+                stmt.setFetchSize(Long.valueOf(batchSize).intValue());
+            }
+            bindParameters(stmt, parameters);
+            try (ResultSet resultSet = stmt.executeQuery()) {
+                return reader.read(resultSet);
+            }
+        }
+    }
+
+    /**
+     * Builds the conditions for the half-open key range [lowerValue, upperValue). A missing bound leaves the range
+     * open on that side. The values to bind are collected in the given parameter list.
+     */
+    private String[] buildRangeConditions(String table, String column, Object lowerValue, boolean lowerInclusive, Object upperValue, Instant time, List<Object> parameters) {
         //get batches with modifiedts >= configured time for incremental migration
-        List<String> conditionsList = new ArrayList<>(2);
+        List<String> conditionsList = new ArrayList<>(3);
         processDefaultConditions(table, conditionsList);
         if (time != null) {
             conditionsList.add("modifiedts > ?");
+            parameters.add(Timestamp.from(time));
+        }
+        if (lowerValue != null) {
+            conditionsList.add(String.format("%s %s ?", column, lowerInclusive ? ">=" : ">"));
+            parameters.add(lowerValue);
         }
-        if (lastColumnValue != null) {
-            conditionsList.add(String.format("%s >= %s", column, lastColumnValue));
+        if (upperValue != null) {
+            conditionsList.add(String.format("%s < ?", column));
+            parameters.add(upperValue);
         }
         String[] conditions = null;
         if (conditionsList.size() > 0) {
             conditions = conditionsList.toArray(new String[conditionsList.size()]);
         }
-        try (Connection connection = getConnection();
-             PreparedStatement stmt = connection.prepareStatement(buildValueBatchQuery(table, column, batchSize, conditions))) {
-            stmt.setFetchSize(Long.valueOf(batchSize).intValue());
-            if (time != null) {
-                stmt.setTimestamp(1, Timestamp.from(time));
-            }
-            ResultSet resultSet = stmt.executeQuery();
-            return convertToBatchDataSet(resultSet);
+        return conditions;
+    }
+
+    private void bindParameters(PreparedStatement stmt, List<Object> parameters) throws SQLException {
+        for (int i = 0; i < parameters.size(); i++) {
+            stmt.setObject(i + 1, parameters.get(i));
         }
     }
 
+    /**
+     * Prepares a statement to be read through a forward-only cursor. The fetch size defaults to the batch size
+     * unless it is tuned for the data source.
+     */
+    protected void configureStreamingStatement(PreparedStatement stmt, long batchSize) throws SQLException {
+        stmt.setFetchSize(getStreamingFetchSize(batchSize));
+    }
+
+    protected int getStreamingFetchSize(long batchSize) {
+        int fetchSize = getDataSourceConfiguration().getFetchSize();
+        return fetchSize > 0 ? fetchSize : Long.valueOf(batchSize).intValue();
+    }
 
     @Override
-    public DataSet getBatchMarkersOrderedByColumn(String table, String column, long batchSize) throws Exception {
-        return getBatchMarkersOrderedByColumn(table, column, batchSize, null);
+    public void streamBatchMarkersOrderedByColumn(String table, String column, long batchSize, DataSetConsumer consumer) throws Exception {
+        streamBatchMarkersOrderedByColumn(table, column, batchSize, null, consumer);
     }
 
+    /**
+     * The markers are handed over in slices of the fetch size while the query is still running, so reading can
+     * start before the whole table is planned.
+     */
     @Override
-    public DataSet getBatchMarkersOrderedByColumn(String table, String column, long batchSize, Instant time) throws Exception {
+    public void streamBatchMarkersOrderedByColumn(String table, String column, long batchSize, Instant time, DataSetConsumer consumer) throws Exception {
         //get batches with modifiedts >= configured time for incremental migration
         List<String> conditionsList = new ArrayList<>(2);
         processDefaultConditions(table, conditionsList);
@@ -491,13 +829,14 @@ public abstract class AbstractDataRepository implements DataRepository {
             conditions = conditionsList.toArray(new String[conditionsList.size()]);
         }
         try (Connection connection = getConnection();
-             PreparedStatement stmt = connection.prepareStatement(buildBatchMarkersQuery(table, column, batchSize, conditions))) {
-            stmt.setFetchSize(Long.valueOf(batchSize).intValue());
+             PreparedStatement stmt = connection.prepareStatement(buildBatchMarkersQuery(table, column, batchSize, conditions), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            configureStreamingStatement(stmt, batchSize);
             if (time != null) {
                 stmt.setTimestamp(1, Timestamp.from(time));
             }
-            ResultSet resultSet = stmt.executeQuery();
-            return convertToBatchDataSet(resultSet);
+            try (ResultSet resultSet = stmt.executeQuery()) {
+                streamToBatchDataSets(ColumnProjection.ALL_COLUMNS, resultSet, getStreamingFetchSize(batchSize), consumer);
+            }
         }
     }
 
@@ -510,9 +849,69 @@ public abstract class AbstractDataRepository implements DataRepository {
         }
     }
 
-    protected abstract String buildOffsetBatchQuery(String table, Set<String> columns, long batchSize, long offset, String... conditions);
+    @Override
+    public DataSet getColumnRange(String table, String column) throws Exception {
+        List<String> conditionsList = new ArrayList<>(1);
+        processDefaultConditions(table, conditionsList);
+        String[] conditions = conditionsList.toArray(new String[conditionsList.size()]);
+        try (Connection connection = getConnection();
+             Statement stmt = connection.createStatement()) {
+            ResultSet resultSet = stmt.executeQuery(buildColumnRangeQuery(table, column, conditions));
+            return convertToDataSet(resultSet);
+        }
+    }
 
-    protected abstract String buildValueBatchQuery(String table, String column, long batchSize, String... conditions);
+    @Override
+    public DataSet getSampledColumnValues(String table, String column, double percent) throws Exception {
+        List<String> conditionsList = new ArrayList<>(1);
+        processDefaultConditions(table, conditionsList);
+        String[] conditions = conditionsList.toArray(new String[conditionsList.size()]);
+        try (Connection connection = getConnection();
+             Statement stmt = connection.createStatement()) {
+            ResultSet resultSet = stmt.executeQuery(buildSampledValuesQuery(table, column, percent, conditions));
+            return convertToDataSet(resultSet);
+        }
+    }
+
+    @Override
+    public DataSet getColumnHistogram(String table, String column) throws Exception {
+        try (Connection connection = getConnection();
+             Statement stmt = connection.createStatement()) {
+            ResultSet resultSet = stmt.executeQuery(createColumnHistogramQuery(table, column));
+            return convertToDataSet(resultSet);
+        }
+    }
+
+    protected String buildColumnRangeQuery(String table, String column, String... conditions) {
+        return String.format("select min(%s), max(%s) from %s where %s", column, column, table, expandConditions(conditions));
+    }
+
+    /**
+     * Builds a predicate that assigns every row to exactly one of partitionCount partitions
+     */
+    protected String buildPartitionCondition(String table, int partition, int partitionCount) throws Exception {
+        throw new UnsupportedOperationException("Hash partitioning is not supported for " + getDatabaseProvider());
+    }
+
+    protected String buildSampledValuesQuery(String table, String column, double percent, String... conditions) {
+        throw new UnsupportedOperationException("Sampling is not supported for " + getDatabaseProvider());
+    }
+
+    protected String createColumnHistogramQuery(String table, String column) {
+        throw new UnsupportedOperationException("Column histograms are not supported for " + getDatabaseProvider());
+    }
+
+    /**
+     * Builds the query for the batch at the given offset. The paging values are bound as parameters and added after
+     * the parameters of the conditions.
+     */
+    protected abstract String buildOffsetBatchQuery(String table, ColumnProjection projection, Set<String> columns, long batchSize, long offset, List<Object> parameters, String... conditions);
+
+    protected abstract String buildValueBatchQuery(String table, ColumnProjection projection, String column, long batchSize, String... conditions);
+
+    protected String buildValueRangeQuery(String table, ColumnProjection projection, String column, String... conditions) {
+        return String.format("select %s from %s where %s order by %s", projection.toSelectList(), table, expandConditions(conditions), column);
+    }
 
     protected abstract String buildBatchMarkersQuery(String table, String column, long batchSize, String... conditions);
 
@@ -542,8 +941,12 @@ public abstract class AbstractDataRepository implements DataRepository {
         }
     }
 
-    protected DataSet convertToBatchDataSet(ResultSet resultSet) throws Exception {
-        return convertToDataSet(resultSet);
+    protected DataSet convertToBatchDataSet(ColumnProjection projection, ResultSet resultSet) throws Exception {
+        return convertToDataSet(resultSet, Collections.emptySet(), projection.getInlineLobColumns());
+    }
+
+    protected void streamToBatchDataSets(ColumnProjection projection, ResultSet resultSet, long batchSize, DataSetConsumer consumer) throws Exception {
+        streamToDataSets(resultSet, Collections.emptySet(), projection.getInlineLobColumns(), batchSize, consumer);
     }
 
     @Override
@@ -553,4 +956,8 @@ public abstract class AbstractDataRepository implements DataRepository {
         }
     }
 
+    @FunctionalInterface
+    protected interface ResultSetReader<T> {
+        T read(ResultSet resultSet) throws Exception;
+    }
 }
@@ -5,26 +5,30 @@ import de.hybris.bootstrap.ddl.DataBaseProvider;
 import de.hybris.bootstrap.ddl.DatabaseSettings;
 import de.hybris.bootstrap.ddl.HybrisPlatform;
 import org.apache.ddlutils.Platform;
+import org.sap.commercemigration.performance.PerformanceProfiler;
 import org.sap.commercemigration.profile.DataSourceConfiguration;
+import org.sap.commercemigration.repository.model.ColumnProjection;
 import org.sap.commercemigration.repository.platform.MigrationHybrisMSSqlPlatform;
 import org.sap.commercemigration.service.DatabaseMigrationDataTypeMapperService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.sql.DataSource;
+import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Types;
+import java.util.List;
 import java.util.Set;
 
 public class AzureDataRepository extends AbstractDataRepository {
 
     private static final Logger LOG = LoggerFactory.getLogger(AzureDataRepository.class);
 
-    public AzureDataRepository(DataSourceConfiguration dataSourceConfiguration, DatabaseMigrationDataTypeMapperService databaseMigrationDataTypeMapperService) {
-        super(dataSourceConfiguration, databaseMigrationDataTypeMapperService);
+    public AzureDataRepository(DataSourceConfiguration dataSourceConfiguration, DatabaseMigrationDataTypeMapperService databaseMigrationDataTypeMapperService, PerformanceProfiler performanceProfiler) {
+        super(dataSourceConfiguration, databaseMigrationDataTypeMapperService, performanceProfiler);
     }
 
     @Override
@@ -41,14 +45,16 @@ public class AzureDataRepository extends AbstractDataRepository {
     }
 
     @Override
-    protected String buildOffsetBatchQuery(String table, Set<String> columns, long batchSize, long offset, String... conditions) {
+    protected String buildOffsetBatchQuery(String table, ColumnProjection projection, Set<String> columns, long batchSize, long offset, List<Object> parameters, String... conditions) {
         String orderBy = Joiner.on(',').join(columns);
-        return String.format("SELECT * FROM %s WHERE %s ORDER BY %s OFFSET %s ROWS FETCH NEXT %s ROWS ONLY", table, expandConditions(conditions), orderBy, offset, batchSize);
+        parameters.add(offset);
+        parameters.add(batchSize);
+        return String.format("SELECT %s FROM %s WHERE %s ORDER BY %s OFFSET ? ROWS FETCH NEXT ? ROWS ONLY", projection.toSelectList(), table, expandConditions(conditions), orderBy);
     }
 
     @Override
-    protected String buildValueBatchQuery(String table, String column, long batchSize, String... conditions) {
-        return String.format("select top %s * from %s where %s order by %s", batchSize, table, expandConditions(conditions), column);
+    protected String buildValueBatchQuery(String table, ColumnProjection projection, String column, long batchSize, String... conditions) {
+        return String.format("select top %s %s from %s where %s order by %s", batchSize, projection.toSelectList(), table, expandConditions(conditions), column);
     }
 
     @Override
@@ -63,6 +69,59 @@ public class AzureDataRepository extends AbstractDataRepository {
                 "ORDER BY t.%s", column, column, column, table, expandConditions(conditions), batchSize, column);
     }
 
+    /**
+     * CHECKSUM(*) skips columns of noncomparable types, the cast avoids the overflow of ABS on the int minimum
+     */
+    @Override
+    protected String buildPartitionCondition(String table, int partition, int partitionCount) {
+        return String.format("ABS(CAST(CHECKSUM(*) AS BIGINT)) %% %s = %s", partitionCount, partition);
+    }
+
+    @Override
+    protected String buildSampledValuesQuery(String table, String column, double percent, String... conditions) {
+        return String.format("SELECT %s FROM %s TABLESAMPLE SYSTEM (%s PERCENT) WHERE %s ORDER BY %s", column, table, BigDecimal.valueOf(percent).toPlainString(), expandConditions(conditions), column);
+    }
+
+    /**
+     * Reads the histogram of the first statistics object that leads with the column, usually the one of the
+     * primary key index. Steps are summed up to cumulative row counts.
+     */
+    @Override
+    protected String createColumnHistogramQuery(String table, String column) {
+        String objectName = String.format("%s.%s", getDataSourceConfiguration().getSchema(), table);
+        return String.format("SELECT CAST(h.range_high_key AS BIGINT) AS boundary,\n" +
+                "       SUM(h.range_rows + h.equal_rows) OVER (ORDER BY h.step_number ROWS UNBOUNDED PRECEDING) AS cumulative\n" +
+                "FROM sys.dm_db_stats_histogram(OBJECT_ID('%s'), (\n" +
+                "    SELECT TOP (1) s.stats_id\n" +
+                "    FROM sys.stats s\n" +
+                "    INNER JOIN sys.stats_columns sc ON sc.object_id = s.object_id AND sc.stats_id = s.stats_id\n" +
+                "    WHERE s.object_id = OBJECT_ID('%s') AND sc.stats_column_id = 1 AND COL_NAME(sc.object_id, sc.column_id) = '%s'\n" +
+                "    ORDER BY s.stats_id)) h\n" +
+                "ORDER BY h.step_number", objectName, objectName, column);
+    }
+
+    /**
+     * Counts the rows of the heap or clustered index of each table, the other indexes hold the same rows again.
+     */
+    @Override
+    protected String createApproximateRowCountsQuery() {
+        return String.format("SELECT t.name, SUM(p.row_count)\n" +
+                "FROM sys.dm_db_partition_stats p\n" +
+                "INNER JOIN sys.tables t ON t.object_id = p.object_id\n" +
+                "WHERE SCHEMA_NAME(t.schema_id) = '%s' AND p.index_id IN (0, 1)\n" +
+                "GROUP BY t.name", getDataSourceConfiguration().getSchema());
+    }
+
+    /**
+     * The pages of the heap or clustered index include the LOB and row overflow pages of the table
+     */
+    @Override
+    protected String createAverageRowSizeQuery(String table) {
+        return String.format("SELECT SUM(p.used_page_count) * 8192 / NULLIF(SUM(p.row_count), 0)\n" +
+                "FROM sys.dm_db_partition_stats p\n" +
+                "WHERE p.object_id = OBJECT_ID('%s.%s') AND p.index_id IN (0, 1)", getDataSourceConfiguration().getSchema(), table);
+    }
+
     @Override
     protected String createAllTableNamesQuery() {
         return String.format(
@@ -144,7 +203,9 @@ public class AzureDataRepository extends AbstractDataRepository {
                 "INNER JOIN \n" +
                 "     sys.index_columns ic ON  t1.ObjectId = ic.object_id and t1.IndexId = ic.index_id \n" +
                 "INNER JOIN \n" +
-                "     sys.columns col ON ic.object_id = col.object_id and ic.column_id = col.column_id ", tableName, getDataSourceConfiguration().getSchema());
+                "     sys.columns col ON ic.object_id = col.object_id and ic.column_id = col.column_id \n" +
+                "WHERE ic.is_included_column = 0\n" +
+                "ORDER BY ic.key_ordinal", tableName, getDataSourceConfiguration().getSchema());
     }
 
     @Override
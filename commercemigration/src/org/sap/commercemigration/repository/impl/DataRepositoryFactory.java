@@ -1,6 +1,7 @@
 package org.sap.commercemigration.repository.impl;
 
 import com.google.common.base.Strings;
+import org.sap.commercemigration.performance.PerformanceProfiler;
 import org.sap.commercemigration.profile.DataSourceConfiguration;
 import org.sap.commercemigration.repository.DataRepository;
 import org.sap.commercemigration.service.DatabaseMigrationDataTypeMapperService;
@@ -8,9 +9,11 @@ import org.sap.commercemigration.service.DatabaseMigrationDataTypeMapperService;
 public class DataRepositoryFactory {
 
     private final DatabaseMigrationDataTypeMapperService databaseMigrationDataTypeMapperService;
+    private final PerformanceProfiler performanceProfiler;
 
-    public DataRepositoryFactory(DatabaseMigrationDataTypeMapperService databaseMigrationDataTypeMapperService) {
+    public DataRepositoryFactory(DatabaseMigrationDataTypeMapperService databaseMigrationDataTypeMapperService, PerformanceProfiler performanceProfiler) {
         this.databaseMigrationDataTypeMapperService = databaseMigrationDataTypeMapperService;
+        this.performanceProfiler = performanceProfiler;
     }
 
     public DataRepository create(DataSourceConfiguration dataSourceConfiguration)
@@ -21,15 +24,15 @@ public class DataRepositoryFactory {
         } else {
             String connectionStringLower = connectionString.toLowerCase();
             if (connectionStringLower.startsWith("jdbc:mysql")) {
-                return new MySQLDataRepository(dataSourceConfiguration, databaseMigrationDataTypeMapperService);
+                return new MySQLDataRepository(dataSourceConfiguration, databaseMigrationDataTypeMapperService, performanceProfiler);
             } else if (connectionStringLower.startsWith("jdbc:sqlserver")) {
-                return new AzureDataRepository(dataSourceConfiguration, databaseMigrationDataTypeMapperService);
+                return new AzureDataRepository(dataSourceConfiguration, databaseMigrationDataTypeMapperService, performanceProfiler);
             } else if (connectionStringLower.startsWith("jdbc:oracle")) {
-                return new OracleDataRepository(dataSourceConfiguration, databaseMigrationDataTypeMapperService);
+                return new OracleDataRepository(dataSourceConfiguration, databaseMigrationDataTypeMapperService, performanceProfiler);
             } else if (connectionStringLower.startsWith("jdbc:sap")) {
-                return new HanaDataRepository(dataSourceConfiguration, databaseMigrationDataTypeMapperService);
+                return new HanaDataRepository(dataSourceConfiguration, databaseMigrationDataTypeMapperService, performanceProfiler);
             } else if (connectionStringLower.startsWith("jdbc:hsqldb")) {
-                return new HsqlRepository(dataSourceConfiguration, databaseMigrationDataTypeMapperService);
+                return new HsqlRepository(dataSourceConfiguration, databaseMigrationDataTypeMapperService, performanceProfiler);
             }
         }
         throw new RuntimeException("Cannot handle connection string for " + connectionString);
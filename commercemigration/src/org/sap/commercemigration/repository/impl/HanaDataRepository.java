@@ -2,26 +2,37 @@ package org.sap.commercemigration.repository.impl;
 
 import com.google.common.base.Joiner;
 import de.hybris.bootstrap.ddl.DataBaseProvider;
+import org.sap.commercemigration.performance.PerformanceProfiler;
 import org.sap.commercemigration.profile.DataSourceConfiguration;
+import org.sap.commercemigration.repository.model.ColumnProjection;
 import org.sap.commercemigration.service.DatabaseMigrationDataTypeMapperService;
 
+import java.math.BigDecimal;
+import java.util.List;
 import java.util.Set;
 
 public class HanaDataRepository extends AbstractDataRepository {
 
-    public HanaDataRepository(DataSourceConfiguration dataSourceConfiguration, DatabaseMigrationDataTypeMapperService databaseMigrationDataTypeMapperService) {
-        super(dataSourceConfiguration, databaseMigrationDataTypeMapperService);
+    public HanaDataRepository(DataSourceConfiguration dataSourceConfiguration, DatabaseMigrationDataTypeMapperService databaseMigrationDataTypeMapperService, PerformanceProfiler performanceProfiler) {
+        super(dataSourceConfiguration, databaseMigrationDataTypeMapperService, performanceProfiler);
     }
 
     @Override
-    protected String buildOffsetBatchQuery(String table, Set<String> columns, long batchSize, long offset, String... conditions) {
+    protected boolean isIntegralNumberNarrowingEnabled() {
+        return true;
+    }
+
+    @Override
+    protected String buildOffsetBatchQuery(String table, ColumnProjection projection, Set<String> columns, long batchSize, long offset, List<Object> parameters, String... conditions) {
         String orderBy = Joiner.on(',').join(columns);
-        return String.format("select * from %s where %s order by %s limit %s offset %s", table, expandConditions(conditions), orderBy, batchSize, offset);
+        parameters.add(batchSize);
+        parameters.add(offset);
+        return String.format("select %s from %s where %s order by %s limit ? offset ?", projection.toSelectList(), table, expandConditions(conditions), orderBy);
     }
 
     @Override
-    protected String buildValueBatchQuery(String table, String column, long batchSize, String... conditions) {
-        return String.format("select * from %s where %s order by %s limit %s", table, expandConditions(conditions), column, batchSize);
+    protected String buildValueBatchQuery(String table, ColumnProjection projection, String column, long batchSize, String... conditions) {
+        return String.format("select %s from %s where %s order by %s limit %s", projection.toSelectList(), table, expandConditions(conditions), column, batchSize);
     }
 
     @Override
@@ -36,6 +47,24 @@ public class HanaDataRepository extends AbstractDataRepository {
                 "ORDER BY t.%s", column, column, column, table, expandConditions(conditions), batchSize, column);
     }
 
+    /**
+     * The internal row id of column tables is unique, which is cheaper than hashing the row content
+     */
+    @Override
+    protected String buildPartitionCondition(String table, int partition, int partitionCount) {
+        return String.format("MOD(\"$rowid$\", %s) = %s", partitionCount, partition);
+    }
+
+    @Override
+    protected String buildSampledValuesQuery(String table, String column, double percent, String... conditions) {
+        return String.format("SELECT %s FROM %s TABLESAMPLE SYSTEM (%s) WHERE %s ORDER BY %s", column, table, BigDecimal.valueOf(percent).toPlainString(), expandConditions(conditions), column);
+    }
+
+    @Override
+    protected String createApproximateRowCountsQuery() {
+        return String.format("select TABLE_NAME, RECORD_COUNT from M_TABLES where lower(SCHEMA_NAME) = lower('%s')", getDataSourceConfiguration().getSchema());
+    }
+
     @Override
     protected String createAllTableNamesQuery() {
         return String.format("select distinct table_name from table_columns where lower(schema_name) = lower('%s') order by table_name", getDataSourceConfiguration().getSchema());
@@ -69,7 +98,8 @@ public class HanaDataRepository extends AbstractDataRepository {
                 "  LIMIT 1\n" +
                 ") t1\n" +
                 "INNER JOIN INDEX_COLUMNS t2\n" +
-                "ON t1.\"INDEX_NAME\" = t2.\"INDEX_NAME\" AND t1.\"SCHEMA_NAME\" = t2.\"SCHEMA_NAME\" AND t1.\"TABLE_NAME\" = t2.\"TABLE_NAME\"", getDataSourceConfiguration().getSchema(), tableName);
+                "ON t1.\"INDEX_NAME\" = t2.\"INDEX_NAME\" AND t1.\"SCHEMA_NAME\" = t2.\"SCHEMA_NAME\" AND t1.\"TABLE_NAME\" = t2.\"TABLE_NAME\"\n" +
+                "ORDER BY t2.\"POSITION\"", getDataSourceConfiguration().getSchema(), tableName);
     }
 
     @Override
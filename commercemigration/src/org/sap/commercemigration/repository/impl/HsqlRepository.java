@@ -1,24 +1,27 @@
 package org.sap.commercemigration.repository.impl;
 
 import de.hybris.bootstrap.ddl.DataBaseProvider;
+import org.sap.commercemigration.performance.PerformanceProfiler;
 import org.sap.commercemigration.profile.DataSourceConfiguration;
+import org.sap.commercemigration.repository.model.ColumnProjection;
 import org.sap.commercemigration.service.DatabaseMigrationDataTypeMapperService;
 
+import java.util.List;
 import java.util.Set;
 
 public class HsqlRepository extends AbstractDataRepository {
 
-    public HsqlRepository(DataSourceConfiguration dataSourceConfiguration, DatabaseMigrationDataTypeMapperService databaseMigrationDataTypeMapperService) {
-        super(dataSourceConfiguration, databaseMigrationDataTypeMapperService);
+    public HsqlRepository(DataSourceConfiguration dataSourceConfiguration, DatabaseMigrationDataTypeMapperService databaseMigrationDataTypeMapperService, PerformanceProfiler performanceProfiler) {
+        super(dataSourceConfiguration, databaseMigrationDataTypeMapperService, performanceProfiler);
     }
 
     @Override
-    protected String buildOffsetBatchQuery(String table, Set<String> columns, long batchSize, long offset, String... conditions) {
+    protected String buildOffsetBatchQuery(String table, ColumnProjection projection, Set<String> columns, long batchSize, long offset, List<Object> parameters, String... conditions) {
         throw new UnsupportedOperationException("not implemented");
     }
 
     @Override
-    protected String buildValueBatchQuery(String table, String column, long batchSize, String... conditions) {
+    protected String buildValueBatchQuery(String table, ColumnProjection projection, String column, long batchSize, String... conditions) {
         throw new UnsupportedOperationException("not implemented");
     }
 
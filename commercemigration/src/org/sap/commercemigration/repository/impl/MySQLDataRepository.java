@@ -1,26 +1,57 @@
 package org.sap.commercemigration.repository.impl;
 
 import com.google.common.base.Joiner;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import de.hybris.bootstrap.ddl.DataBaseProvider;
+import org.apache.commons.lang3.StringUtils;
+import org.sap.commercemigration.dataset.DataColumn;
+import org.sap.commercemigration.dataset.DataSet;
+import org.sap.commercemigration.dataset.impl.DefaultDataColumn;
+import org.sap.commercemigration.dataset.impl.DefaultDataSet;
+import org.sap.commercemigration.performance.PerformanceProfiler;
 import org.sap.commercemigration.profile.DataSourceConfiguration;
+import org.sap.commercemigration.repository.model.ColumnProjection;
 import org.sap.commercemigration.service.DatabaseMigrationDataTypeMapperService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class MySQLDataRepository extends AbstractDataRepository {
-    public MySQLDataRepository(DataSourceConfiguration dataSourceConfiguration, DatabaseMigrationDataTypeMapperService databaseMigrationDataTypeMapperService) {
-        super(dataSourceConfiguration, databaseMigrationDataTypeMapperService);
+
+    private static final Logger LOG = LoggerFactory.getLogger(MySQLDataRepository.class);
+
+    private final AtomicBoolean rowStreamingWarned = new AtomicBoolean();
+
+    public MySQLDataRepository(DataSourceConfiguration dataSourceConfiguration, DatabaseMigrationDataTypeMapperService databaseMigrationDataTypeMapperService, PerformanceProfiler performanceProfiler) {
+        super(dataSourceConfiguration, databaseMigrationDataTypeMapperService, performanceProfiler);
     }
 
     @Override
-    protected String buildOffsetBatchQuery(String table, Set<String> columns, long batchSize, long offset, String... conditions) {
+    protected String buildOffsetBatchQuery(String table, ColumnProjection projection, Set<String> columns, long batchSize, long offset, List<Object> parameters, String... conditions) {
         String orderBy = Joiner.on(',').join(columns);
-        return String.format("select * from %s where %s order by %s limit %s,%s", table, expandConditions(conditions), orderBy, offset, batchSize);
+        parameters.add(offset);
+        parameters.add(batchSize);
+        return String.format("select %s from %s where %s order by %s limit ?,?", projection.toSelectList(), table, expandConditions(conditions), orderBy);
     }
 
     @Override
-    protected String buildValueBatchQuery(String table, String column, long batchSize, String... conditions) {
-        return String.format("select * from %s where %s order by %s limit %s", table, expandConditions(conditions), column, batchSize);
+    protected String buildValueBatchQuery(String table, ColumnProjection projection, String column, long batchSize, String... conditions) {
+        return String.format("select %s from %s where %s order by %s limit %s", projection.toSelectList(), table, expandConditions(conditions), column, batchSize);
     }
 
     @Override
@@ -33,6 +64,93 @@ public class MySQLDataRepository extends AbstractDataRepository {
                 "WHERE rownum %% %s = 0 ", column, column, table, expandConditions(conditions), column, batchSize);
     }
 
+    /**
+     * MySQL has no row id, the partition is derived from a checksum over all column values
+     */
+    @Override
+    protected String buildPartitionCondition(String table, int partition, int partitionCount) throws Exception {
+        String columns = Joiner.on(',').join(getAllColumnNames(table));
+        return String.format("MOD(CRC32(CONCAT_WS('|', %s)), %s) = %s", columns, partitionCount, partition);
+    }
+
+    /**
+     * MySQL compares row values lexicographically and can use them for index range scans
+     */
+    @Override
+    protected String buildKeysetCondition(List<String> columns, List<Object> lastKey, List<Object> parameters) {
+        parameters.addAll(lastKey);
+        return String.format("(%s) > (%s)", Joiner.on(',').join(columns), Joiner.on(',').join(Collections.nCopies(columns.size(), "?")));
+    }
+
+    /**
+     * MySQL keeps histograms as JSON documents, only available after ANALYZE TABLE ... UPDATE HISTOGRAM.
+     * Equi-height buckets are [lower, upper, cumulative frequency, distinct values], singleton buckets are
+     * [value, cumulative frequency].
+     */
+    @Override
+    public DataSet getColumnHistogram(String table, String column) throws Exception {
+        List<List<Object>> steps = new ArrayList<>();
+        try (Connection connection = getConnection();
+             Statement stmt = connection.createStatement()) {
+            ResultSet resultSet = stmt.executeQuery(createColumnHistogramQuery(table, column));
+            if (resultSet.next()) {
+                JsonObject histogram = JsonParser.parseString(resultSet.getString(1)).getAsJsonObject();
+                for (JsonElement element : histogram.getAsJsonArray("buckets")) {
+                    JsonArray bucket = element.getAsJsonArray();
+                    if (bucket.size() == 4) {
+                        steps.add(Arrays.asList(bucket.get(1).getAsBigDecimal(), bucket.get(2).getAsBigDecimal()));
+                    } else {
+                        steps.add(Arrays.asList(bucket.get(0).getAsBigDecimal(), bucket.get(1).getAsBigDecimal()));
+                    }
+                }
+            }
+        }
+        List<DataColumn> columns = Arrays.asList(new DefaultDataColumn("boundary", Types.DECIMAL, 0, 0), new DefaultDataColumn("cumulative", Types.DECIMAL, 0, 0));
+        return new DefaultDataSet(columns.size(), columns, steps);
+    }
+
+    @Override
+    protected String createColumnHistogramQuery(String table, String column) {
+        return String.format(
+                "SELECT HISTOGRAM FROM information_schema.COLUMN_STATISTICS WHERE SCHEMA_NAME = '%s' AND TABLE_NAME = '%s' AND COLUMN_NAME = '%s'",
+                getDataSourceConfiguration().getSchema(), table, column);
+    }
+
+    /**
+     * Connector/J buffers the complete result unless a server side cursor is requested (useCursorFetch=true)
+     * or the result is streamed row by row. A row by row stream leaves the server waiting while the reader blocks on
+     * a full pipe, the server aborts the query once net_write_timeout has passed.
+     */
+    @Override
+    protected void configureStreamingStatement(PreparedStatement stmt, long batchSize) throws SQLException {
+        if (StringUtils.containsIgnoreCase(getDataSourceConfiguration().getConnectionString(), "useCursorFetch=true")) {
+            super.configureStreamingStatement(stmt, batchSize);
+        } else {
+            if (rowStreamingWarned.compareAndSet(false, true)) {
+                LOG.warn("Streaming rows one by one, add useCursorFetch=true to the source connection url to avoid running into net_write_timeout while the pipe is full");
+            }
+            stmt.setFetchSize(Integer.MIN_VALUE);
+        }
+    }
+
+    /**
+     * InnoDB estimates the row count from a few sampled pages, it may be off by a large factor for tables that have
+     * changed a lot since they were analyzed.
+     */
+    @Override
+    protected String createApproximateRowCountsQuery() {
+        return String.format(
+                "select TABLE_NAME, TABLE_ROWS from information_schema.tables where table_schema = '%s' and TABLE_TYPE = 'BASE TABLE'",
+                getDataSourceConfiguration().getSchema());
+    }
+
+    @Override
+    protected String createAverageRowSizeQuery(String table) {
+        return String.format(
+                "select AVG_ROW_LENGTH from information_schema.tables where table_schema = '%s' and TABLE_NAME = '%s'",
+                getDataSourceConfiguration().getSchema(), table);
+    }
+
     @Override
     protected String createAllTableNamesQuery() {
         return String.format(
@@ -61,6 +179,7 @@ public class MySQLDataRepository extends AbstractDataRepository {
                         "LIMIT 1\n" +
                         ") t2\n" +
                         "ON t1.TABLE_SCHEMA = t2.TABLE_SCHEMA AND t1.TABLE_NAME = t2.TABLE_NAME AND t1.INDEX_NAME = t2.INDEX_NAME\n" +
+                        "ORDER BY t1.SEQ_IN_INDEX\n" +
                         ";\n",
                 getDataSourceConfiguration().getSchema(), tableName);
     }
@@ -7,17 +7,22 @@ import de.hybris.bootstrap.ddl.HybrisOraclePlatform;
 import de.hybris.bootstrap.ddl.HybrisPlatform;
 import org.apache.ddlutils.Platform;
 import org.sap.commercemigration.dataset.DataSet;
+import org.sap.commercemigration.dataset.DataSetConsumer;
+import org.sap.commercemigration.performance.PerformanceProfiler;
 import org.sap.commercemigration.profile.DataSourceConfiguration;
+import org.sap.commercemigration.repository.model.ColumnProjection;
 import org.sap.commercemigration.service.DatabaseMigrationDataTypeMapperService;
 
 import javax.sql.DataSource;
+import java.math.BigDecimal;
 import java.sql.ResultSet;
 import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 
 public class OracleDataRepository extends AbstractDataRepository {
-    public OracleDataRepository(DataSourceConfiguration dataSourceConfiguration, DatabaseMigrationDataTypeMapperService databaseMigrationDataTypeMapperService) {
-        super(dataSourceConfiguration, databaseMigrationDataTypeMapperService);
+    public OracleDataRepository(DataSourceConfiguration dataSourceConfiguration, DatabaseMigrationDataTypeMapperService databaseMigrationDataTypeMapperService, PerformanceProfiler performanceProfiler) {
+        super(dataSourceConfiguration, databaseMigrationDataTypeMapperService, performanceProfiler);
         ensureJdbcCompliance();
     }
 
@@ -27,39 +32,51 @@ public class OracleDataRepository extends AbstractDataRepository {
     }
 
     @Override
-    protected DataSet convertToBatchDataSet(ResultSet resultSet) throws Exception {
-        return convertToDataSet(resultSet, Collections.singleton("rn"));
+    protected boolean isIntegralNumberNarrowingEnabled() {
+        return true;
     }
 
     @Override
-    protected String buildOffsetBatchQuery(String table, Set<String> columns, long batchSize, long offset, String... conditions) {
+    protected DataSet convertToBatchDataSet(ColumnProjection projection, ResultSet resultSet) throws Exception {
+        return convertToDataSet(resultSet, Collections.singleton("rn"), projection.getInlineLobColumns());
+    }
+
+    @Override
+    protected void streamToBatchDataSets(ColumnProjection projection, ResultSet resultSet, long batchSize, DataSetConsumer consumer) throws Exception {
+        streamToDataSets(resultSet, Collections.singleton("rn"), projection.getInlineLobColumns(), batchSize, consumer);
+    }
+
+    @Override
+    protected String buildOffsetBatchQuery(String table, ColumnProjection projection, Set<String> columns, long batchSize, long offset, List<Object> parameters, String... conditions) {
         String orderBy = Joiner.on(',').join(columns);
+        parameters.add(offset + 1);
+        parameters.add(offset + batchSize);
         return String.format(
                 "select * " +
                         " from ( " +
                         " select /*+ first_rows(%s) */ " +
-                        "  t.*, " +
+                        "  %s, " +
                         "  row_number() " +
                         "  over (order by %s) rn " +
                         " from %s t where %s) " +
-                        "where rn between %s and %s " +
-                        "order by rn", batchSize, orderBy, table, expandConditions(conditions), offset + 1, offset + batchSize);
+                        "where rn between ? and ? " +
+                        "order by rn", batchSize, projection.toSelectList("t"), orderBy, table, expandConditions(conditions));
     }
 
     // https://blogs.oracle.com/oraclemagazine/on-top-n-and-pagination-queries
     // "Pagination in Getting Rows N Through M"
     @Override
-    protected String buildValueBatchQuery(String table, String column, long batchSize, String... conditions) {
+    protected String buildValueBatchQuery(String table, ColumnProjection projection, String column, long batchSize, String... conditions) {
         return String.format(
                 "select * " +
                         " from ( " +
                         " select /*+ first_rows(%s) */ " +
-                        "  t.*, " +
+                        "  %s, " +
                         "  row_number() " +
                         "  over (order by t.%s) rn " +
                         " from %s t where %s) " +
                         "where rn <= %s " +
-                        "order by rn", batchSize, column, table, expandConditions(conditions), batchSize);
+                        "order by rn", batchSize, projection.toSelectList("t"), column, table, expandConditions(conditions), batchSize);
     }
 
     @Override
@@ -74,6 +91,47 @@ public class OracleDataRepository extends AbstractDataRepository {
                 "ORDER BY t.%s", column, column, column, table, expandConditions(conditions), batchSize, column);
     }
 
+    @Override
+    protected String buildPartitionCondition(String table, int partition, int partitionCount) {
+        return String.format("ORA_HASH(ROWID, %s) = %s", partitionCount - 1, partition);
+    }
+
+    @Override
+    protected String buildSampledValuesQuery(String table, String column, double percent, String... conditions) {
+        return String.format("SELECT %s FROM %s SAMPLE BLOCK (%s) WHERE %s ORDER BY %s", column, table, BigDecimal.valueOf(percent).toPlainString(), expandConditions(conditions), column);
+    }
+
+    /**
+     * Endpoint numbers are cumulative for frequency, height balanced and hybrid histograms alike.
+     */
+    @Override
+    protected String createColumnHistogramQuery(String table, String column) {
+        return String.format("SELECT ENDPOINT_VALUE, ENDPOINT_NUMBER\n" +
+                "FROM ALL_TAB_HISTOGRAMS\n" +
+                "WHERE lower(OWNER) = lower('%s') AND lower(TABLE_NAME) = lower('%s') AND lower(COLUMN_NAME) = lower('%s')\n" +
+                "ORDER BY ENDPOINT_NUMBER", getDataSourceConfiguration().getSchema(), table, column);
+    }
+
+    /**
+     * NUM_ROWS is null for tables that have never been analyzed.
+     */
+    @Override
+    protected String createApproximateRowCountsQuery() {
+        return String.format(
+                "select TABLE_NAME, NUM_ROWS from ALL_TABLES where lower(OWNER) = lower('%s')",
+                getDataSourceConfiguration().getSchema());
+    }
+
+    /**
+     * AVG_ROW_LEN is null for tables that have never been analyzed, LOBs stored out of line are not included.
+     */
+    @Override
+    protected String createAverageRowSizeQuery(String table) {
+        return String.format(
+                "select AVG_ROW_LEN from ALL_TABLES where lower(OWNER) = lower('%s') AND lower(TABLE_NAME) = lower('%s')",
+                getDataSourceConfiguration().getSchema(), table);
+    }
+
     @Override
     protected String createAllTableNamesQuery() {
         return String.format(
@@ -110,7 +168,8 @@ public class OracleDataRepository extends AbstractDataRepository {
                 "  WHERE ROWNUM = 1\n" +
                 ") t1\n" +
                 "INNER JOIN ALL_IND_COLUMNS t2\n" +
-                "ON t1.\"INDEX_NAME\" = t2.\"INDEX_NAME\" AND t1.\"OWNER\" = t2.\"INDEX_OWNER\" AND t1.\"TABLE_NAME\" = t2.\"TABLE_NAME\"", getDataSourceConfiguration().getSchema(), tableName);
+                "ON t1.\"INDEX_NAME\" = t2.\"INDEX_NAME\" AND t1.\"OWNER\" = t2.\"INDEX_OWNER\" AND t1.\"TABLE_NAME\" = t2.\"TABLE_NAME\"\n" +
+                "ORDER BY t2.\"COLUMN_POSITION\"", getDataSourceConfiguration().getSchema(), tableName);
     }
 
     @Override
@@ -0,0 +1,188 @@
+package org.sap.commercemigration.repository.impl;
+
+import org.sap.commercemigration.dataset.DataColumn;
+import org.sap.commercemigration.dataset.impl.ColumnarDataSet;
+import org.sap.commercemigration.dataset.impl.DefaultDataColumn;
+import org.sap.commercemigration.dataset.impl.LobReference;
+import org.sap.commercemigration.service.DatabaseMigrationDataTypeMapperService;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reads the rows of a result set into a data set builder. The plan is compiled once from the metadata of the result
+ * set: every column gets the getter matching its JDBC type, only large objects are passed to the data type mapper.
+ * <p>
+ * Integral NUMBER columns, i.e. a precision of at most 18 digits and a scale of 0, can be narrowed to long. Oracle and
+ * HANA report every integer column that way and would otherwise return a BigDecimal per cell. FLOAT columns are read as
+ * double only if their precision fits into one, i.e. at most 53 binary digits. Oracle FLOAT holds up to 126 binary
+ * digits and is read as BigDecimal.
+ * <p>
+ * Large objects longer than the inline threshold are not read but replaced by a {@link LobReference}, provided the
+ * rows can be found again by a key column, the PK or else the ID of audit tables. Tables without either keep their
+ * large objects inline, so do the columns the target requires a value for.
+ */
+public class ResultSetExtractionPlan {
+
+    private static final int MAX_LONG_PRECISION = 18;
+    private static final int MAX_DOUBLE_PRECISION = 53;
+    private static final List<String> KEY_COLUMNS = Arrays.asList("PK", "ID");
+
+    private final List<DataColumn> columnOrder;
+    private final int[] resultSetIndexes;
+    private final ColumnReader[] readers;
+
+    private ResultSetExtractionPlan(List<DataColumn> columnOrder, int[] resultSetIndexes, ColumnReader[] readers) {
+        this.columnOrder = columnOrder;
+        this.resultSetIndexes = resultSetIndexes;
+        this.readers = readers;
+    }
+
+    /**
+     * @param inlineLobColumns   the columns whose large objects are read inline regardless of the threshold
+     * @param lobInlineThreshold the max length of large objects read inline, 0 or less to read all of them inline
+     */
+    public static ResultSetExtractionPlan compile(ResultSet resultSet, Set<String> ignoreColumns, Set<String> inlineLobColumns, boolean narrowIntegralNumbers, long lobInlineThreshold, DatabaseMigrationDataTypeMapperService databaseMigrationDataTypeMapperService) throws SQLException {
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        int realColumnCount = metaData.getColumnCount();
+        String keyColumn = resolveKeyColumn(metaData, ignoreColumns);
+        long lobThreshold = lobInlineThreshold > 0 && keyColumn != null ? lobInlineThreshold : 0;
+        List<DataColumn> columnOrder = new ArrayList<>(realColumnCount);
+        List<Integer> resultSetIndexes = new ArrayList<>(realColumnCount);
+        List<ColumnReader> readers = new ArrayList<>(realColumnCount);
+        for (int i = 1; i <= realColumnCount; i++) {
+            String columnName = metaData.getColumnName(i);
+            if (ignoreColumns.stream().anyMatch(columnName::equalsIgnoreCase)) {
+                continue;
+            }
+            int columnType = metaData.getColumnType(i);
+            int precision = metaData.getPrecision(i);
+            int scale = metaData.getScale(i);
+            if (narrowIntegralNumbers && isIntegralNumber(columnType, precision, scale)) {
+                columnType = Types.BIGINT;
+            }
+            columnOrder.add(new DefaultDataColumn(columnName, columnType, precision, scale));
+            resultSetIndexes.add(i);
+            boolean inline = inlineLobColumns.stream().anyMatch(columnName::equalsIgnoreCase);
+            readers.add(createReader(columnType, precision, inline ? 0 : lobThreshold, keyColumn, databaseMigrationDataTypeMapperService));
+        }
+        return new ResultSetExtractionPlan(Collections.unmodifiableList(columnOrder),
+                resultSetIndexes.stream().mapToInt(Integer::intValue).toArray(),
+                readers.toArray(new ColumnReader[0]));
+    }
+
+    public List<DataColumn> getColumnOrder() {
+        return columnOrder;
+    }
+
+    /**
+     * Adds the current row of the result set to the builder
+     */
+    public void readRow(ResultSet resultSet, ColumnarDataSet.Builder builder) throws Exception {
+        for (int i = 0; i < readers.length; i++) {
+            readers[i].read(resultSet, resultSetIndexes[i], builder, i);
+        }
+        builder.endRow();
+    }
+
+    /**
+     * @return the column of the result set deferred large objects are looked up by, null if there is none
+     */
+    private static String resolveKeyColumn(ResultSetMetaData metaData, Set<String> ignoreColumns) throws SQLException {
+        for (String keyColumn : KEY_COLUMNS) {
+            for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                String columnName = metaData.getColumnName(i);
+                if (keyColumn.equalsIgnoreCase(columnName) && ignoreColumns.stream().noneMatch(columnName::equalsIgnoreCase)) {
+                    return columnName;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean isIntegralNumber(int columnType, int precision, int scale) {
+        return (columnType == Types.NUMERIC || columnType == Types.DECIMAL) && scale == 0 && precision > 0 && precision <= MAX_LONG_PRECISION;
+    }
+
+    private static boolean isDoubleFloat(int columnType, int precision) {
+        return columnType == Types.DOUBLE || (columnType == Types.FLOAT && precision > 0 && precision <= MAX_DOUBLE_PRECISION);
+    }
+
+    private static ColumnReader createReader(int columnType, int precision, long lobThreshold, String keyColumn, DatabaseMigrationDataTypeMapperService databaseMigrationDataTypeMapperService) {
+        switch (columnType) {
+            case Types.BIGINT:
+                return (resultSet, index, builder, column) -> {
+                    long value = resultSet.getLong(index);
+                    if (resultSet.wasNull()) {
+                        builder.add(column, null);
+                    } else {
+                        builder.addLong(column, value);
+                    }
+                };
+            case Types.INTEGER:
+                return (resultSet, index, builder, column) -> {
+                    int value = resultSet.getInt(index);
+                    if (resultSet.wasNull()) {
+                        builder.add(column, null);
+                    } else {
+                        builder.addInt(column, value);
+                    }
+                };
+            case Types.DOUBLE:
+            case Types.FLOAT:
+                if (!isDoubleFloat(columnType, precision)) {
+                    return (resultSet, index, builder, column) -> builder.add(column, resultSet.getBigDecimal(index));
+                }
+                return (resultSet, index, builder, column) -> {
+                    double value = resultSet.getDouble(index);
+                    if (resultSet.wasNull()) {
+                        builder.add(column, null);
+                    } else {
+                        builder.addDouble(column, value);
+                    }
+                };
+            case Types.CHAR:
+            case Types.VARCHAR:
+            case Types.LONGVARCHAR:
+            case Types.NCHAR:
+            case Types.NVARCHAR:
+            case Types.LONGNVARCHAR:
+                return (resultSet, index, builder, column) -> builder.add(column, resultSet.getString(index));
+            case Types.BINARY:
+            case Types.VARBINARY:
+            case Types.LONGVARBINARY:
+                return (resultSet, index, builder, column) -> builder.add(column, resultSet.getBytes(index));
+            case Types.TIMESTAMP:
+                return (resultSet, index, builder, column) -> builder.add(column, resultSet.getTimestamp(index));
+            case Types.BLOB:
+            case Types.CLOB:
+            case Types.NCLOB:
+                if (lobThreshold > 0) {
+                    return (resultSet, index, builder, column) -> {
+                        Object value = resultSet.getObject(index);
+                        long length = LobReference.lengthOf(value);
+                        if (length > lobThreshold) {
+                            builder.add(column, new LobReference(columnType, length, keyColumn));
+                        } else {
+                            builder.add(column, databaseMigrationDataTypeMapperService.dataTypeMapper(value, columnType));
+                        }
+                    };
+                }
+                return (resultSet, index, builder, column) -> builder.add(column, databaseMigrationDataTypeMapperService.dataTypeMapper(resultSet.getObject(index), columnType));
+            default:
+                return (resultSet, index, builder, column) -> builder.add(column, resultSet.getObject(index));
+        }
+    }
+
+    @FunctionalInterface
+    private interface ColumnReader {
+        void read(ResultSet resultSet, int index, ColumnarDataSet.Builder builder, int column) throws Exception;
+    }
+}
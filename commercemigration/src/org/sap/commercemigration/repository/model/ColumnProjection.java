@@ -0,0 +1,69 @@
+package org.sap.commercemigration.repository.model;
+
+import com.google.common.base.Joiner;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * The columns the reader queries of a table fetch, no columns select all of them. The large objects of the inline
+ * columns are read with the rows regardless of the inline threshold.
+ */
+public final class ColumnProjection {
+
+    public static final ColumnProjection ALL_COLUMNS = new ColumnProjection(null);
+
+    private final List<String> columns;
+    private final Set<String> inlineLobColumns;
+
+    public ColumnProjection(Collection<String> columns) {
+        this(columns, null);
+    }
+
+    public ColumnProjection(Collection<String> columns, Collection<String> inlineLobColumns) {
+        this.columns = columns == null ? Collections.emptyList() : Collections.unmodifiableList(new ArrayList<>(columns));
+        Set<String> inlineColumns = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        if (inlineLobColumns != null) {
+            inlineColumns.addAll(inlineLobColumns);
+        }
+        this.inlineLobColumns = Collections.unmodifiableSet(inlineColumns);
+    }
+
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    /**
+     * @return the columns whose large objects are read inline, matched case insensitively
+     */
+    public Set<String> getInlineLobColumns() {
+        return inlineLobColumns;
+    }
+
+    public boolean isAllColumns() {
+        return columns.isEmpty();
+    }
+
+    /**
+     * @return the select list of a query on the table
+     */
+    public String toSelectList() {
+        return isAllColumns() ? "*" : Joiner.on(',').join(columns);
+    }
+
+    /**
+     * @return the select list of a query on the table selected with an alias
+     */
+    public String toSelectList(String alias) {
+        return isAllColumns() ? alias + ".*" : Joiner.on(',').join(columns);
+    }
+
+    @Override
+    public String toString() {
+        return toSelectList();
+    }
+}
@@ -13,7 +13,11 @@ import org.sap.commercemigration.MigrationProgress;
 import org.sap.commercemigration.MigrationStatus;
 import org.sap.commercemigration.adapter.DataRepositoryAdapter;
 import org.sap.commercemigration.adapter.impl.ContextualDataRepositoryAdapter;
+import org.sap.commercemigration.concurrent.DataWorkerExecutor;
+import org.sap.commercemigration.concurrent.DataWorkerPoolFactory;
+import org.sap.commercemigration.concurrent.impl.DefaultDataWorkerExecutor;
 import org.sap.commercemigration.context.CopyContext;
+import org.sap.commercemigration.context.MigrationContext;
 import org.sap.commercemigration.events.CopyCompleteEvent;
 import org.sap.commercemigration.events.CopyDatabaseTableEvent;
 import org.sap.commercemigration.scheduler.DatabaseCopyScheduler;
@@ -23,6 +27,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.time.Duration;
 import java.time.Instant;
@@ -36,6 +41,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 import static org.sap.commercemigration.constants.CommercemigrationConstants.MDC_CLUSTERID;
@@ -54,6 +61,8 @@ public class CustomClusterDatabaseCopyScheduler implements DatabaseCopyScheduler
 
     private DatabaseCopyTaskRepository databaseCopyTaskRepository;
 
+    private DataWorkerPoolFactory rowCountWorkerPoolFactory;
+
     /**
      * Schedules a Data Copy Task for each table across all the available nodes
      *
@@ -91,15 +100,50 @@ public class CustomClusterDatabaseCopyScheduler implements DatabaseCopyScheduler
         }
     }
 
+    /**
+     * Determines the row count of every table. Unless exact counts are enabled, the counts are taken from the
+     * statistics of the source database. Tables without statistics or estimated to be empty are counted exactly,
+     * as are all tables of an incremental migration. The exact counts run in parallel.
+     */
     private List<Pair<CopyContext.DataCopyItem, Long>> generateSchedulerItemList(CopyContext context, DataRepositoryAdapter dataRepositoryAdapter) throws Exception {
+        MigrationContext migrationContext = context.getMigrationContext();
+        Map<String, Long> approximateRowCounts = getApproximateRowCounts(migrationContext);
+        List<Pair<CopyContext.DataCopyItem, Future<Long>>> rowCounts = new ArrayList<>();
+        ThreadPoolTaskExecutor taskExecutor = rowCountWorkerPoolFactory.create(context);
+        DataWorkerExecutor<Long> workerExecutor = new DefaultDataWorkerExecutor<>(taskExecutor);
+        try {
+            for (CopyContext.DataCopyItem copyItem : context.getCopyItems()) {
+                Long approximateRowCount = approximateRowCounts.get(copyItem.getSourceItem());
+                if (approximateRowCount != null && approximateRowCount > 0) {
+                    rowCounts.add(Pair.of(copyItem, CompletableFuture.completedFuture(approximateRowCount)));
+                } else {
+                    rowCounts.add(Pair.of(copyItem, workerExecutor.safelyExecute(() -> dataRepositoryAdapter.getRowCount(migrationContext, copyItem.getSourceItem()))));
+                }
+            }
+            workerExecutor.waitAndRethrowUncaughtExceptions();
+        } finally {
+            taskExecutor.shutdown();
+        }
         List<Pair<CopyContext.DataCopyItem, Long>> pairs = new ArrayList<>();
-        for (CopyContext.DataCopyItem copyItem : context.getCopyItems()) {
-            pairs.add(Pair.of(copyItem, dataRepositoryAdapter.getRowCount(context.getMigrationContext(), copyItem.getSourceItem())));
+        for (Pair<CopyContext.DataCopyItem, Future<Long>> rowCount : rowCounts) {
+            pairs.add(Pair.of(rowCount.getLeft(), rowCount.getRight().get()));
         }
         //we sort the items to make sure big tables are assigned to nodes in a fair way
         return pairs.stream().sorted((p1, p2) -> Long.compare(p1.getRight(), p2.getRight())).collect(Collectors.toList());
     }
 
+    private Map<String, Long> getApproximateRowCounts(MigrationContext migrationContext) {
+        if (migrationContext.isExactRowCountEnabled() || migrationContext.isIncrementalModeEnabled()) {
+            return Collections.emptyMap();
+        }
+        try {
+            return migrationContext.getDataSourceRepository().getApproximateRowCounts();
+        } catch (Exception e) {
+            LOG.warn("Cannot read row counts from the database statistics, counting all rows exactly. Cause: {}", e.getMessage());
+            return Collections.emptyMap();
+        }
+    }
+
     /**
      * Starts a thread to monitor the migration
      *
@@ -175,6 +219,10 @@ public class CustomClusterDatabaseCopyScheduler implements DatabaseCopyScheduler
         this.eventService = eventService;
     }
 
+    public void setRowCountWorkerPoolFactory(DataWorkerPoolFactory rowCountWorkerPoolFactory) {
+        this.rowCountWorkerPoolFactory = rowCountWorkerPoolFactory;
+    }
+
     /**
      * Thread to monitor the Migration
      */
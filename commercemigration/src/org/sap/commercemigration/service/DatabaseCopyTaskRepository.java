@@ -90,6 +90,16 @@ public interface DatabaseCopyTaskRepository {
      */
     void updateTaskProgress(CopyContext context, CopyContext.DataCopyItem copyItem, long itemCount) throws Exception;
 
+    /**
+     * Records the rows per batch a Task reads
+     *
+     * @param context
+     * @param copyItem
+     * @param batchSize
+     * @throws Exception
+     */
+    void updateTaskBatchSize(CopyContext context, CopyContext.DataCopyItem copyItem, long batchSize) throws Exception;
+
     /**
      * Marks the Task as Completed
      *
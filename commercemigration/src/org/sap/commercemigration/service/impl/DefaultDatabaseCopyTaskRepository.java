@@ -193,6 +193,24 @@ public class DefaultDatabaseCopyTaskRepository implements DatabaseCopyTaskReposi
         }
     }
 
+    @Override
+    public void updateTaskBatchSize(CopyContext context, CopyContext.DataCopyItem copyItem, long batchSize) throws Exception {
+        String sql = "UPDATE MIGRATIONTOOLKIT_TABLECOPYTASKS " +
+                "SET batchsize=? " +
+                "WHERE targetnodeid=? " +
+                "AND migrationid=? " +
+                "AND pipelinename=?";
+        try (Connection connection = getConnection(context);
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setObject(1, batchSize);
+            stmt.setObject(2, getTargetNodeId());
+            stmt.setObject(3, context.getMigrationId());
+            stmt.setObject(4, copyItem.getPipelineName());
+            stmt.executeUpdate();
+            connection.commit();
+        }
+    }
+
     protected void setTimestamp(PreparedStatement stmt, int i, Timestamp ts) throws SQLException {
         stmt.setTimestamp(i, ts, Calendar.getInstance(TimeZone.getTimeZone("UTC")));
     }
@@ -311,6 +329,7 @@ public class DefaultDatabaseCopyTaskRepository implements DatabaseCopyTaskReposi
             copyTask.setLastUpdate(getDateTime(rs, "lastupdate"));
             copyTask.setAvgReaderRowThroughput(rs.getDouble("avgreaderrowthroughput"));
             copyTask.setAvgWriterRowThroughput(rs.getDouble("avgwriterrowthroughput"));
+            copyTask.setBatchsize(rs.getLong("batchsize"));
             copyTasks.add(copyTask);
         }
         return copyTasks;
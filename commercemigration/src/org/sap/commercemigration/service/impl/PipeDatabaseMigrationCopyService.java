@@ -9,6 +9,7 @@ import org.sap.commercemigration.dataset.DataSet;
 import org.sap.commercemigration.scheduler.DatabaseCopyScheduler;
 import org.sap.commercemigration.service.DatabaseCopyTaskRepository;
 import org.sap.commercemigration.service.DatabaseMigrationCopyService;
+import org.sap.commercemigration.strategy.DirectCopyStrategy;
 import org.sap.commercemigration.strategy.PipeWriterStrategy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -41,14 +42,16 @@ public class PipeDatabaseMigrationCopyService implements DatabaseMigrationCopySe
     private final AsyncTaskExecutor executor;
     private final DatabaseCopyTaskRepository databaseCopyTaskRepository;
     private final DatabaseCopyScheduler scheduler;
+    private final DirectCopyStrategy directCopyStrategy;
 
 
-    public PipeDatabaseMigrationCopyService(DataPipeFactory<DataSet> pipeFactory, PipeWriterStrategy<DataSet> writerStrategy, AsyncTaskExecutor executor, DatabaseCopyTaskRepository databaseCopyTaskRepository, DatabaseCopyScheduler scheduler) {
+    public PipeDatabaseMigrationCopyService(DataPipeFactory<DataSet> pipeFactory, PipeWriterStrategy<DataSet> writerStrategy, AsyncTaskExecutor executor, DatabaseCopyTaskRepository databaseCopyTaskRepository, DatabaseCopyScheduler scheduler, DirectCopyStrategy directCopyStrategy) {
         this.pipeFactory = pipeFactory;
         this.writerStrategy = writerStrategy;
         this.executor = executor;
         this.databaseCopyTaskRepository = databaseCopyTaskRepository;
         this.scheduler = scheduler;
+        this.directCopyStrategy = directCopyStrategy;
     }
 
     @Override
@@ -91,6 +94,10 @@ public class PipeDatabaseMigrationCopyService implements DatabaseMigrationCopySe
      * @throws Exception
      */
     private void copy(CopyContext copyContext, CopyContext.DataCopyItem item) throws Exception {
+        if (directCopyStrategy.isApplicable(copyContext, item)) {
+            copyDirectly(copyContext, item);
+            return;
+        }
         DataPipe<DataSet> dataPipe = null;
         try {
             dataPipe = pipeFactory.create(copyContext, item);
@@ -103,6 +110,33 @@ public class PipeDatabaseMigrationCopyService implements DatabaseMigrationCopySe
         }
     }
 
+    /**
+     * Copies an item without a data pipe, failures are recorded the way the pipe records them on abort
+     *
+     * @param copyContext
+     * @param item
+     * @throws Exception
+     */
+    private void copyDirectly(CopyContext copyContext, CopyContext.DataCopyItem item) throws Exception {
+        try {
+            directCopyStrategy.copy(copyContext, item);
+        } catch (Exception e) {
+            if (copyContext.getMigrationContext().isFailOnErrorEnabled()) {
+                try {
+                    scheduler.abort(copyContext);
+                } catch (Exception ex) {
+                    LOG.warn("could not abort", ex);
+                }
+            }
+            try {
+                databaseCopyTaskRepository.markTaskFailed(copyContext, item, e);
+            } catch (Exception ex) {
+                LOG.warn("could not update error status!", ex);
+            }
+            throw e;
+        }
+    }
+
     /**
      * Adds the tasks to the executor
      *
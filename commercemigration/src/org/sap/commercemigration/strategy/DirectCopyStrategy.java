@@ -0,0 +1,25 @@
+package org.sap.commercemigration.strategy;
+
+import org.sap.commercemigration.context.CopyContext;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Strategy to copy a table from the source cursor straight into the target, without a pipe in between
+ */
+@ThreadSafe
+public interface DirectCopyStrategy {
+    /**
+     * @return true if the item can be copied without transforming its rows
+     */
+    boolean isApplicable(CopyContext context, CopyContext.DataCopyItem item);
+
+    /**
+     * Performs the actual copying of the item
+     *
+     * @param context
+     * @param item
+     * @throws Exception
+     */
+    void copy(CopyContext context, CopyContext.DataCopyItem item) throws Exception;
+}
@@ -5,6 +5,7 @@ import com.google.common.base.Stopwatch;
 import com.microsoft.sqlserver.jdbc.SQLServerBulkCopy;
 import com.microsoft.sqlserver.jdbc.SQLServerBulkCopyOptions;
 import com.microsoft.sqlserver.jdbc.SQLServerConnection;
+import de.hybris.bootstrap.ddl.DataBaseProvider;
 import org.apache.commons.collections.MapUtils;
 import org.sap.commercemigration.concurrent.DataPipe;
 import org.sap.commercemigration.concurrent.DataWorkerExecutor;
@@ -16,11 +17,15 @@ import org.sap.commercemigration.constants.CommercemigrationConstants;
 import org.sap.commercemigration.context.CopyContext;
 import org.sap.commercemigration.context.MigrationContext;
 import org.sap.commercemigration.dataset.DataSet;
+import org.sap.commercemigration.dataset.impl.ResultSetBulkData;
 import org.sap.commercemigration.performance.PerformanceCategory;
+import org.sap.commercemigration.planner.BatchSizePlanner;
 import org.sap.commercemigration.performance.PerformanceRecorder;
 import org.sap.commercemigration.performance.PerformanceUnit;
+import org.sap.commercemigration.repository.model.ColumnProjection;
 import org.sap.commercemigration.service.DatabaseCopyTaskRepository;
 import org.sap.commercemigration.service.DatabaseMigrationDataTypeMapperService;
+import org.sap.commercemigration.strategy.DirectCopyStrategy;
 import org.sap.commercemigration.strategy.PipeWriterStrategy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,7 +38,10 @@ import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.TreeSet;
@@ -42,19 +50,33 @@ import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 
-public class CopyPipeWriterStrategy implements PipeWriterStrategy<DataSet> {
+public class CopyPipeWriterStrategy implements PipeWriterStrategy<DataSet>, DirectCopyStrategy {
     private static final Logger LOG = LoggerFactory.getLogger(CopyPipeWriterStrategy.class);
 
+    // a table value constructor of MSSQL takes at most 1000 rows
+    private static final int MULTI_ROW_MAX_ROWS = 1000;
+    // MSSQL supports 2100 parameters per request, the driver may use one of them itself
+    private static final int MULTI_ROW_MAX_PARAMETERS_MSSQL = 2099;
+    private static final int MULTI_ROW_MAX_PARAMETERS = 65535;
+
+    private static final long MEGABYTE = 1024L * 1024L;
+
     private final DatabaseMigrationDataTypeMapperService databaseMigrationDataTypeMapperService;
 
     private final DatabaseCopyTaskRepository taskRepository;
 
     private final DataWorkerPoolFactory dataWriteWorkerPoolFactory;
 
-    public CopyPipeWriterStrategy(DatabaseMigrationDataTypeMapperService databaseMigrationDataTypeMapperService, DatabaseCopyTaskRepository taskRepository, DataWorkerPoolFactory dataWriteWorkerPoolFactory) {
+    private final DataWorkerPoolFactory dataLobWorkerPoolFactory;
+
+    private final BatchSizePlanner batchSizePlanner;
+
+    public CopyPipeWriterStrategy(DatabaseMigrationDataTypeMapperService databaseMigrationDataTypeMapperService, DatabaseCopyTaskRepository taskRepository, DataWorkerPoolFactory dataWriteWorkerPoolFactory, DataWorkerPoolFactory dataLobWorkerPoolFactory, BatchSizePlanner batchSizePlanner) {
         this.databaseMigrationDataTypeMapperService = databaseMigrationDataTypeMapperService;
         this.taskRepository = taskRepository;
         this.dataWriteWorkerPoolFactory = dataWriteWorkerPoolFactory;
+        this.dataLobWorkerPoolFactory = dataLobWorkerPoolFactory;
+        this.batchSizePlanner = batchSizePlanner;
     }
 
     @Override
@@ -62,45 +84,49 @@ public class CopyPipeWriterStrategy implements PipeWriterStrategy<DataSet> {
         String targetTableName = item.getTargetItem();
         PerformanceRecorder performanceRecorder = context.getPerformanceProfiler().createRecorder(PerformanceCategory.DB_WRITE, targetTableName);
         performanceRecorder.start();
-        Set<String> excludedColumns = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
-        if (context.getMigrationContext().getExcludedColumns().containsKey(targetTableName)) {
-            excludedColumns.addAll(context.getMigrationContext().getExcludedColumns().get(targetTableName));
-            LOG.info("Ignoring excluded column(s): {}", excludedColumns);
-        }
+        List<String> columnsToCopy = getColumnsToCopy(context, item);
         Set<String> nullifyColumns = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
         if (context.getMigrationContext().getNullifyColumns().containsKey(targetTableName)) {
             nullifyColumns.addAll(context.getMigrationContext().getNullifyColumns().get(targetTableName));
             LOG.info("Nullify column(s): {}", nullifyColumns);
         }
 
-        List<String> columnsToCopy = new ArrayList<>();
-        try (Connection sourceConnection = context.getMigrationContext().getDataSourceRepository().getConnection();
-             Statement stmt = sourceConnection.createStatement();
-             ResultSet metaResult = stmt.executeQuery(String.format("select * from %s where 0 = 1", item.getSourceItem()));
-        ) {
-            ResultSetMetaData sourceMeta = metaResult.getMetaData();
-            int columnCount = sourceMeta.getColumnCount();
-            for (int i = 1; i <= columnCount; i++) {
-                String column = sourceMeta.getColumnName(i);
-                if (!excludedColumns.contains(column)) {
-                    columnsToCopy.add(column);
-                }
-            }
-        }
-
-        if (columnsToCopy.isEmpty()) {
-            throw new IllegalStateException(String.format("%s: source has no columns or all columns excluded", item.getPipelineName()));
-        }
         ThreadPoolTaskExecutor taskExecutor = dataWriteWorkerPoolFactory.create(context);
         DataWorkerExecutor<Boolean> workerExecutor = new DefaultDataWorkerExecutor<>(taskExecutor);
+        ThreadPoolTaskExecutor lobTaskExecutor = dataLobWorkerPoolFactory.create(context);
+        PerformanceRecorder lobRecorder = context.getPerformanceProfiler().createRecorder(PerformanceCategory.DB_LOB, targetTableName);
+        LobTransferLane lobTransferLane = new LobTransferLane(context, item, new DefaultDataWorkerExecutor<>(lobTaskExecutor), lobRecorder);
         Connection targetConnection = null;
+        WriterSessionPool sessionPool = null;
+        OrderedWriterLanes writerLanes = null;
         AtomicLong totalCount = new AtomicLong(0);
         Optional<String> upsertId = Optional.empty();
         try {
             targetConnection = context.getMigrationContext().getDataTargetRepository().getConnection();
             boolean requiresIdentityInsert = requiresIdentityInsert(item.getTargetItem(), targetConnection);
+            RowBindingPlan bindingPlan = RowBindingPlan.compile(targetConnection, item.getTargetItem(), columnsToCopy, nullifyColumns, getColumnOverrides(context, item, columnsToCopy));
+            // there are at most as many sessions as writer workers, together they keep at most the memory budget of the pipe
+            int writerCount = Math.max(1, Math.min(context.getMigrationContext().getMaxParallelWriterWorkers(), taskExecutor.getMaxPoolSize()));
+            long maxPendingBytes = MEGABYTE * context.getMigrationContext().getDataPipeMemoryBudget() / writerCount;
+            sessionPool = new WriterSessionPool(() -> openWriterSession(context, item, columnsToCopy, requiresIdentityInsert), context.getMigrationContext().getWriterCommitInterval(), maxPendingBytes, committed -> {
+                long rows = 0;
+                for (DataSet dataSet : committed) {
+                    lobTransferLane.submit(dataSet);
+                    rows += dataSet.getRowCount();
+                    // the readers reuse the buffers of the batch once it is committed
+                    dataSet.release();
+                }
+                performanceRecorder.record(PerformanceUnit.ROWS, rows);
+                updateProgress(context, item, totalCount.addAndGet(rows));
+            });
+            if (context.getMigrationContext().isOrderedWriteEnabled()) {
+                // every lane keeps a worker for the whole table
+                writerLanes = new OrderedWriterLanes(writerCount);
+                writerLanes.start(workerExecutor);
+            }
             MaybeFinished<DataSet> sourcePage;
             boolean firstPage = true;
+            boolean tableLock = false;
             do {
                 sourcePage = pipe.get();
                 if (sourcePage.isPoison()) {
@@ -113,19 +139,40 @@ public class CopyPipeWriterStrategy implements PipeWriterStrategy<DataSet> {
                     if (context.getMigrationContext().isIncrementalModeEnabled()) {
                         upsertId = determineUpsertId(dataSet);
                     }
+                    if (writerLanes != null) {
+                        tableLock = isTableLockApplicable(context.getMigrationContext(), targetConnection, targetTableName, columnsToCopy.size(), writerLanes.getLaneCount());
+                    }
                     firstPage = false;
                 }
                 if (dataSet.isNotEmpty()) {
-                    DataWriterContext dataWriterContext = new DataWriterContext(context, item, dataSet, columnsToCopy, nullifyColumns, performanceRecorder, totalCount, upsertId, requiresIdentityInsert);
+                    DataWriterContext dataWriterContext = new DataWriterContext(context, item, dataSet, columnsToCopy, nullifyColumns, bindingPlan, sessionPool, upsertId, requiresIdentityInsert, tableLock);
                     RetriableTask writerTask = createWriterTask(dataWriterContext);
-                    workerExecutor.safelyExecute(writerTask);
+                    if (writerLanes != null) {
+                        writerLanes.submit(sourcePage.getLane(), writerTask);
+                    } else {
+                        workerExecutor.safelyExecute(writerTask);
+                    }
+                } else {
+                    dataSet.release();
                 }
             } while (!sourcePage.isDone());
+            if (writerLanes != null) {
+                writerLanes.finish();
+            }
             workerExecutor.waitAndRethrowUncaughtExceptions();
             if (taskExecutor != null) {
                 taskExecutor.shutdown();
             }
+            sessionPool.close();
+            lobTransferLane.await();
+            lobTaskExecutor.shutdown();
         } catch (Exception e) {
+            if (writerLanes != null) {
+                writerLanes.abort();
+            }
+            if (sessionPool != null) {
+                sessionPool.abort();
+            }
             pipe.requestAbort(e);
             if (e instanceof InterruptedException) {
                 Thread.currentThread().interrupt();
@@ -140,6 +187,101 @@ public class CopyPipeWriterStrategy implements PipeWriterStrategy<DataSet> {
         }
     }
 
+    @Override
+    public boolean isApplicable(CopyContext context, CopyContext.DataCopyItem item) {
+        MigrationContext migrationContext = context.getMigrationContext();
+        return migrationContext.isBulkCopyEnabled()
+                && migrationContext.isDirectBulkCopyEnabled()
+                && !migrationContext.isIncrementalModeEnabled()
+                && !migrationContext.getNullifyColumns().containsKey(item.getTargetItem())
+                && !isColumnOverride(context, item)
+                && migrationContext.getDataTargetRepository().getDatabaseProvider() == DataBaseProvider.MSSQL;
+    }
+
+    /**
+     * Streams the rows of the source cursor into the bulk copy of the target. The bulk copy commits every batch size
+     * rows, there is no retry since the cursor cannot be resumed.
+     */
+    @Override
+    public void copy(CopyContext context, CopyContext.DataCopyItem item) throws Exception {
+        MigrationContext migrationContext = context.getMigrationContext();
+        String targetTableName = item.getTargetItem();
+        PerformanceRecorder readRecorder = context.getPerformanceProfiler().createRecorder(PerformanceCategory.DB_READ, item.getSourceItem());
+        PerformanceRecorder writeRecorder = context.getPerformanceProfiler().createRecorder(PerformanceCategory.DB_WRITE, targetTableName);
+        readRecorder.start();
+        writeRecorder.start();
+        List<String> columnsToCopy = getColumnsToCopy(context, item);
+        long batchSize = batchSizePlanner.plan(context, item);
+        try {
+            taskRepository.updateTaskBatchSize(context, item, batchSize);
+        } catch (Exception e) {
+            LOG.warn("Could not record batch size", e);
+        }
+        AtomicLong totalCount = new AtomicLong(0);
+        LOG.info("Copying {} directly from the source cursor", item.getPipelineName());
+        try (Connection targetConnection = migrationContext.getDataTargetRepository().getConnection()) {
+            RowBindingPlan bindingPlan = RowBindingPlan.compile(targetConnection, targetTableName, columnsToCopy, Collections.emptySet(), null);
+            SQLServerBulkCopyOptions copyOptions = new SQLServerBulkCopyOptions();
+            copyOptions.setBulkCopyTimeout(0);
+            copyOptions.setBatchSize((int) batchSize);
+            copyOptions.setKeepIdentity(requiresIdentityInsert(targetTableName, targetConnection));
+            doTruncateIfNecessary(context, targetTableName);
+            doTurnOnOffIndicesIfNecessary(context, targetTableName, false);
+            try {
+                migrationContext.getDataSourceRepository().streamAllRows(item.getSourceItem(), new ColumnProjection(columnsToCopy), batchSize, resultSet -> {
+                    ResultSetBulkData bulkData = new ResultSetBulkData(resultSet, batchSize, rows -> {
+                        long batchCount = rows - totalCount.getAndSet(rows);
+                        readRecorder.record(PerformanceUnit.ROWS, batchCount);
+                        writeRecorder.record(PerformanceUnit.ROWS, batchCount);
+                        updateProgress(context, item, rows);
+                    });
+                    SQLServerBulkCopy bulkCopy = new SQLServerBulkCopy(targetConnection.unwrap(SQLServerConnection.class));
+                    try {
+                        bulkCopy.setBulkCopyOptions(copyOptions);
+                        bulkCopy.setDestinationTableName(targetTableName);
+                        for (int i = 0; i < bindingPlan.getColumnCount(); i++) {
+                            bulkCopy.addColumnMapping(bindingPlan.getColumnName(i), bindingPlan.getTargetColumnIndex(i));
+                        }
+                        bulkCopy.writeToServer(bulkData);
+                    } finally {
+                        bulkCopy.close();
+                    }
+                });
+            } finally {
+                doTurnOnOffIndicesIfNecessary(context, targetTableName, true);
+                updateProgress(context, item, totalCount.get());
+            }
+        }
+    }
+
+    private List<String> getColumnsToCopy(CopyContext context, CopyContext.DataCopyItem item) throws Exception {
+        String targetTableName = item.getTargetItem();
+        Set<String> excludedColumns = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        if (context.getMigrationContext().getExcludedColumns().containsKey(targetTableName)) {
+            excludedColumns.addAll(context.getMigrationContext().getExcludedColumns().get(targetTableName));
+            LOG.info("Ignoring excluded column(s): {}", excludedColumns);
+        }
+        List<String> columnsToCopy = new ArrayList<>();
+        try (Connection sourceConnection = context.getMigrationContext().getDataSourceRepository().getConnection();
+             Statement stmt = sourceConnection.createStatement();
+             ResultSet metaResult = stmt.executeQuery(String.format("select * from %s where 0 = 1", item.getSourceItem()));
+        ) {
+            ResultSetMetaData sourceMeta = metaResult.getMetaData();
+            int columnCount = sourceMeta.getColumnCount();
+            for (int i = 1; i <= columnCount; i++) {
+                String column = sourceMeta.getColumnName(i);
+                if (!excludedColumns.contains(column)) {
+                    columnsToCopy.add(column);
+                }
+            }
+        }
+
+        if (columnsToCopy.isEmpty()) {
+            throw new IllegalStateException(String.format("%s: source has no columns or all columns excluded", item.getPipelineName()));
+        }
+        return columnsToCopy;
+    }
+
     private void switchIdentityInsert(Connection connection, final String tableName, boolean on) {
         try (Statement stmt = connection.createStatement()) {
             String onOff = on ? "ON" : "OFF";
@@ -149,12 +291,11 @@ public class CopyPipeWriterStrategy implements PipeWriterStrategy<DataSet> {
         }
     }
 
-    protected void executeBatch(CopyContext.DataCopyItem item, PreparedStatement preparedStatement, long batchCount, PerformanceRecorder recorder) throws SQLException {
+    protected void executeBatch(CopyContext.DataCopyItem item, PreparedStatement preparedStatement, long batchCount) throws SQLException {
         final Stopwatch timer = Stopwatch.createStarted();
         preparedStatement.executeBatch();
         preparedStatement.clearBatch();
         LOG.debug("Batch written ({} items) for table '{}' in {}", batchCount, item.getTargetItem(), timer.stop().toString());
-        recorder.record(PerformanceUnit.ROWS, batchCount);
     }
 
     private void updateProgress(CopyContext context, CopyContext.DataCopyItem item, long totalCount) {
@@ -211,15 +352,25 @@ public class CopyPipeWriterStrategy implements PipeWriterStrategy<DataSet> {
         return MapUtils.isNotEmpty(item.getColumnMap());
     }
 
-    private PreparedStatement createPreparedStatement(CopyContext context, String targetTableName, List<String> columnsToCopy, Optional<String> upsertId, Connection targetConnection) throws Exception {
+    private Map<String, Object> getColumnOverrides(CopyContext context, CopyContext.DataCopyItem item, List<String> columnsToCopy) {
+        Map<String, Object> columnOverrides = new HashMap<>();
+        for (String column : columnsToCopy) {
+            if (isColumnOverride(context, item, column)) {
+                columnOverrides.put(column, item.getColumnMap().get(column));
+            }
+        }
+        return columnOverrides;
+    }
+
+    private String getWriterStatement(CopyContext context, String targetTableName, List<String> columnsToCopy, Optional<String> upsertId) {
         if (context.getMigrationContext().isIncrementalModeEnabled()) {
             if (upsertId.isPresent()) {
-                return targetConnection.prepareStatement(getBulkUpsertStatement(targetTableName, columnsToCopy, upsertId.get()));
+                return getBulkUpsertStatement(targetTableName, columnsToCopy, upsertId.get());
             } else {
                 throw new RuntimeException("The incremental approach can only be used on tables that have a valid identifier like PK or ID");
             }
         } else {
-            return targetConnection.prepareStatement(getBulkInsertStatement(targetTableName, columnsToCopy, columnsToCopy.stream().map(column -> "?").collect(Collectors.toList())));
+            return getBulkInsertStatement(targetTableName, columnsToCopy, columnsToCopy.stream().map(column -> "?").collect(Collectors.toList()));
         }
     }
 
@@ -227,6 +378,11 @@ public class CopyPipeWriterStrategy implements PipeWriterStrategy<DataSet> {
         return "INSERT INTO " + targetTableName + " " + getBulkInsertStatementParamList(columnsToCopy, columnsToCopyValues);
     }
 
+    private String getMultiRowInsertStatement(String targetTableName, List<String> columnsToCopy, int rowCount) {
+        String row = "(" + columnsToCopy.stream().map(column -> "?").collect(Collectors.joining(", ")) + ")";
+        return "INSERT INTO " + targetTableName + " (" + String.join(", ", columnsToCopy) + ") VALUES " + String.join(", ", Collections.nCopies(rowCount, row));
+    }
+
     private String getBulkInsertStatementParamList(List<String> columnsToCopy, List<String> columnsToCopyValues) {
         return "("
                 + String.join(", ", columnsToCopy) + ") VALUES ("
@@ -250,6 +406,10 @@ public class CopyPipeWriterStrategy implements PipeWriterStrategy<DataSet> {
     }
 
     private String getBulkUpsertStatement(String targetTableName, List<String> columnsToCopy, String columnId) {
+        return getMergeStatement(targetTableName, String.format("(SELECT %s)", Joiner.on(',').join(columnsToCopy.stream().map(column -> "? " + column).collect(Collectors.toList()))), columnsToCopy, columnId);
+    }
+
+    private String getMergeStatement(String targetTableName, String source, List<String> columnsToCopy, String columnId) {
         /*
          * https://michaeljswart.com/2017/07/sql-server-upsert-patterns-and-antipatterns/
          * We are not using a stored procedure here as CCv2 does not grant sp exec permission to the default db user
@@ -257,7 +417,7 @@ public class CopyPipeWriterStrategy implements PipeWriterStrategy<DataSet> {
         StringBuilder sqlBuilder = new StringBuilder();
         sqlBuilder.append(String.format("MERGE %s WITH (HOLDLOCK) AS t", targetTableName));
         sqlBuilder.append("\n");
-        sqlBuilder.append(String.format("USING (SELECT %s) AS s ON t.%s = s.%s", Joiner.on(',').join(columnsToCopy.stream().map(column -> "? " + column).collect(Collectors.toList())), columnId, columnId));
+        sqlBuilder.append(String.format("USING %s AS s ON t.%s = s.%s", source, columnId, columnId));
         sqlBuilder.append("\n");
         sqlBuilder.append("WHEN MATCHED THEN UPDATE"); //update
         sqlBuilder.append("\n");
@@ -270,6 +430,20 @@ public class CopyPipeWriterStrategy implements PipeWriterStrategy<DataSet> {
         return sqlBuilder.toString();
     }
 
+    private String getStagingTableName(String targetTableName) {
+        return "#stage_" + targetTableName.replaceAll("\\W", "_");
+    }
+
+    /**
+     * The staging table is a session scoped temp table with the columns of the target. Selecting from a union keeps
+     * an identity column of the target from being copied as an identity column.
+     */
+    private String getCreateStagingTableStatement(String targetTableName, String stagingTableName, List<String> columnsToCopy) {
+        String columns = String.join(", ", columnsToCopy);
+        return String.format("IF OBJECT_ID('tempdb..%s') IS NOT NULL DROP TABLE %s;\n", stagingTableName, stagingTableName)
+                + String.format("SELECT %s INTO %s FROM %s WHERE 1 = 0 UNION ALL SELECT %s FROM %s WHERE 1 = 0;", columns, stagingTableName, targetTableName, columns, targetTableName);
+    }
+
     private boolean requiresIdentityInsert(String targetTableName, Connection targetConnection) {
         StringBuilder sqlBuilder = new StringBuilder();
         sqlBuilder.append("SELECT \n");
@@ -294,44 +468,150 @@ public class CopyPipeWriterStrategy implements PipeWriterStrategy<DataSet> {
         }
     }
 
+    /**
+     * Opens a session of the target for the writers of the table. The staging table and the identity insert are set
+     * up once per session.
+     */
+    private WriterSession openWriterSession(CopyContext context, CopyContext.DataCopyItem item, List<String> columnsToCopy, boolean requiresIdentityInsert) throws Exception {
+        MigrationContext migrationContext = context.getMigrationContext();
+        String targetTableName = item.getTargetItem();
+        WriterSession session = new WriterSession(migrationContext.getDataTargetRepository().getConnection());
+        try {
+            if (migrationContext.isIncrementalModeEnabled() && migrationContext.isIncrementalStagingEnabled()) {
+                String stagingTableName = getStagingTableName(targetTableName);
+                session.execute(getCreateStagingTableStatement(targetTableName, stagingTableName, columnsToCopy));
+                // committed right away, a rolled back batch must not take the staging table with it
+                session.commit();
+                session.executeOnClose(String.format("DROP TABLE %s", stagingTableName));
+            }
+            // the bulk copy keeps the identity values on its own
+            if (requiresIdentityInsert && !usesBulkCopy(migrationContext, targetTableName, columnsToCopy.size())) {
+                switchIdentityInsert(session.getConnection(), targetTableName, true);
+                session.executeOnClose(String.format("SET IDENTITY_INSERT %s OFF", targetTableName));
+            }
+        } catch (Exception e) {
+            session.close();
+            throw e;
+        }
+        return session;
+    }
+
     private RetriableTask createWriterTask(DataWriterContext dwc) {
         MigrationContext ctx = dwc.getContext().getMigrationContext();
-        if (!ctx.isBulkCopyEnabled()) {
-            return new DataWriterTask(dwc);
-        } else {
-            boolean noNullification = dwc.getNullifyColumns().isEmpty();
-            boolean noIncremental = !ctx.isIncrementalModeEnabled();
-            boolean noColumnOverride = !isColumnOverride(dwc.getContext(), dwc.getCopyItem());
-            if (noNullification && noIncremental && noColumnOverride) {
-                LOG.warn("EXPERIMENTAL: Using bulk copy for {}", dwc.getCopyItem().getTargetItem());
-                return new DataBulkWriterTask(dwc);
-            } else {
-                return new DataWriterTask(dwc);
+        if (ctx.isIncrementalModeEnabled()) {
+            return ctx.isIncrementalStagingEnabled() ? new DataStagingWriterTask(dwc) : new DataWriterTask(dwc);
+        }
+        String targetTableName = dwc.getCopyItem().getTargetItem();
+        int multiRowChunkSize = getMultiRowChunkSize(ctx, targetTableName, dwc.getColumnsToCopy().size());
+        if (multiRowChunkSize > 1) {
+            return new DataMultiRowWriterTask(dwc, multiRowChunkSize);
+        }
+        return isBulkCopyApplicable(ctx) ? new DataBulkWriterTask(dwc) : new DataWriterTask(dwc);
+    }
+
+    private boolean usesBulkCopy(MigrationContext migrationContext, String targetTableName, int columnCount) {
+        return !migrationContext.isIncrementalModeEnabled()
+                && getMultiRowChunkSize(migrationContext, targetTableName, columnCount) <= 1
+                && isBulkCopyApplicable(migrationContext);
+    }
+
+    /**
+     * @return the rows of a multi row insert of the table, sized to the parameter limit of the target, 0 if the
+     * table is not written with multi row inserts or the target does not support them
+     */
+    private int getMultiRowChunkSize(MigrationContext migrationContext, String targetTableName, int columnCount) {
+        if (migrationContext.isIncrementalModeEnabled() || !migrationContext.getMultiRowInsertTables().contains(targetTableName)) {
+            return 0;
+        }
+        int maxParameters;
+        switch (migrationContext.getDataTargetRepository().getDatabaseProvider()) {
+            case MSSQL:
+                maxParameters = MULTI_ROW_MAX_PARAMETERS_MSSQL;
+                break;
+            case MYSQL:
+            case HSQL:
+                maxParameters = MULTI_ROW_MAX_PARAMETERS;
+                break;
+            default:
+                // no multi row VALUES clause
+                return 0;
+        }
+        return Math.min(MULTI_ROW_MAX_ROWS, maxParameters / columnCount);
+    }
+
+    /**
+     * Nullified and overridden columns are applied by the binding plan, so the bulk copy serves every table of a
+     * MSSQL target
+     */
+    private boolean isBulkCopyApplicable(MigrationContext migrationContext) {
+        return migrationContext.isBulkCopyEnabled() && migrationContext.getDataTargetRepository().getDatabaseProvider() == DataBaseProvider.MSSQL;
+    }
+
+    /**
+     * The bulk copy of the ordered write mode takes the table lock if the target is empty, so the load is minimally
+     * logged. Other sessions wait for the lock until the batch is committed, so a lock held by an idle session that
+     * has not reached the commit interval yet would block the other lanes for good.
+     */
+    private boolean isTableLockApplicable(MigrationContext migrationContext, Connection targetConnection, String targetTableName, int columnCount, int laneCount) throws SQLException {
+        if (!usesBulkCopy(migrationContext, targetTableName, columnCount)) {
+            return false;
+        }
+        if (migrationContext.getWriterCommitInterval() > 0 && laneCount > 1) {
+            return false;
+        }
+        try (Statement stmt = targetConnection.createStatement();
+             ResultSet resultSet = stmt.executeQuery(String.format("SELECT TOP 1 1 FROM %s", targetTableName))
+        ) {
+            return !resultSet.next();
+        }
+    }
+
+    private void bulkCopy(Connection connection, String tableName, RowBindingPlan bindingPlan, DataSet dataSet, boolean keepIdentity, boolean tableLock, boolean mapByName) throws SQLException {
+        SQLServerBulkCopy bulkCopy = new SQLServerBulkCopy(connection.unwrap(SQLServerConnection.class));
+        try {
+            SQLServerBulkCopyOptions copyOptions = new SQLServerBulkCopyOptions();
+            copyOptions.setBulkCopyTimeout(0);
+            copyOptions.setBatchSize(dataSet.getRowCount());
+            copyOptions.setKeepIdentity(keepIdentity);
+            copyOptions.setTableLock(tableLock);
+            bulkCopy.setBulkCopyOptions(copyOptions);
+            bulkCopy.setDestinationTableName(tableName);
+            for (int i = 0; i < bindingPlan.getColumnCount(); i++) {
+                if (mapByName) {
+                    bulkCopy.addColumnMapping(i + 1, bindingPlan.getColumnName(i));
+                } else {
+                    bulkCopy.addColumnMapping(i + 1, bindingPlan.getTargetColumnIndex(i));
+                }
             }
+            bulkCopy.writeToServer(bindingPlan.toBulkData(dataSet));
+        } finally {
+            bulkCopy.close();
         }
     }
 
-    private static class DataWriterContext {
+    static class DataWriterContext {
         private CopyContext context;
         private CopyContext.DataCopyItem copyItem;
         private DataSet dataSet;
         private List<String> columnsToCopy;
         private Set<String> nullifyColumns;
-        private PerformanceRecorder performanceRecorder;
-        private AtomicLong totalCount;
+        private RowBindingPlan bindingPlan;
+        private WriterSessionPool sessionPool;
         private Optional<String> upsertId;
         private boolean requiresIdentityInsert;
+        private boolean tableLock;
 
-        public DataWriterContext(CopyContext context, CopyContext.DataCopyItem copyItem, DataSet dataSet, List<String> columnsToCopy, Set<String> nullifyColumns, PerformanceRecorder performanceRecorder, AtomicLong totalCount, Optional<String> upsertId, boolean requiresIdentityInsert) {
+        public DataWriterContext(CopyContext context, CopyContext.DataCopyItem copyItem, DataSet dataSet, List<String> columnsToCopy, Set<String> nullifyColumns, RowBindingPlan bindingPlan, WriterSessionPool sessionPool, Optional<String> upsertId, boolean requiresIdentityInsert, boolean tableLock) {
             this.context = context;
             this.copyItem = copyItem;
             this.dataSet = dataSet;
             this.columnsToCopy = columnsToCopy;
             this.nullifyColumns = nullifyColumns;
-            this.performanceRecorder = performanceRecorder;
-            this.totalCount = totalCount;
+            this.bindingPlan = bindingPlan;
+            this.sessionPool = sessionPool;
             this.upsertId = upsertId;
             this.requiresIdentityInsert = requiresIdentityInsert;
+            this.tableLock = tableLock;
         }
 
         public CopyContext getContext() {
@@ -354,12 +634,12 @@ public class CopyPipeWriterStrategy implements PipeWriterStrategy<DataSet> {
             return nullifyColumns;
         }
 
-        public PerformanceRecorder getPerformanceRecorder() {
-            return performanceRecorder;
+        public RowBindingPlan getBindingPlan() {
+            return bindingPlan;
         }
 
-        public AtomicLong getTotalCount() {
-            return totalCount;
+        public WriterSessionPool getSessionPool() {
+            return sessionPool;
         }
 
         public Optional<String> getUpsertId() {
@@ -369,23 +649,32 @@ public class CopyPipeWriterStrategy implements PipeWriterStrategy<DataSet> {
         public boolean isRequiresIdentityInsert() {
             return requiresIdentityInsert;
         }
+
+        public boolean isTableLock() {
+            return tableLock;
+        }
     }
 
-    private class DataWriterTask extends RetriableTask {
+    /**
+     * Writes a batch in a writer session of the table, the session commits once the commit interval is reached. A
+     * failed session is rolled back together with the batches other workers wrote in it since its last commit, a
+     * retry writes all of them again in another session.
+     */
+    abstract static class SessionWriterTask extends RetriableTask {
 
-        private DataWriterContext ctx;
+        protected final DataWriterContext ctx;
+        private List<DataSet> dataSets;
 
-        public DataWriterTask(DataWriterContext ctx) {
+        protected SessionWriterTask(DataWriterContext ctx) {
             super(ctx.getContext(), ctx.getCopyItem().getTargetItem());
             this.ctx = ctx;
+            this.dataSets = Collections.singletonList(ctx.getDataSet());
         }
 
         @Override
         protected Boolean internalRun() {
             try {
-                if (!ctx.getDataSet().getAllResults().isEmpty()) {
-                    process();
-                }
+                process();
                 return Boolean.TRUE;
             } catch (Exception e) {
                 //LOG.error("Error while executing table task " + ctx.getCopyItem().getTargetItem(),e);
@@ -394,134 +683,128 @@ public class CopyPipeWriterStrategy implements PipeWriterStrategy<DataSet> {
         }
 
         private void process() throws Exception {
-            Connection connection = null;
-            Boolean originalAutoCommit = null;
-            boolean requiresIdentityInsert = ctx.isRequiresIdentityInsert();
+            WriterSessionPool sessionPool = ctx.getSessionPool();
+            WriterSession session = sessionPool.acquire();
+            List<DataSet> unwritten = new ArrayList<>(dataSets);
             try {
-                connection = ctx.getContext().getMigrationContext().getDataTargetRepository().getConnection();
-                originalAutoCommit = connection.getAutoCommit();
-                try (PreparedStatement bulkWriterStatement = createPreparedStatement(ctx.getContext(), ctx.getCopyItem().getTargetItem(), ctx.getColumnsToCopy(), ctx.getUpsertId(), connection);
-                     Statement tempStmt = connection.createStatement();
-                     ResultSet tempTargetRs = tempStmt.executeQuery(String.format("select * from %s where 0 = 1", ctx.getCopyItem().getTargetItem()))) {
-                    connection.setAutoCommit(false);
-                    if (requiresIdentityInsert) {
-                        switchIdentityInsert(connection, ctx.getCopyItem().getTargetItem(), true);
-                    }
-                    for (List<Object> row : ctx.getDataSet().getAllResults()) {
-                        int paramIdx = 1;
-                        for (String sourceColumnName : ctx.getColumnsToCopy()) {
-                            int targetColumnIdx = tempTargetRs.findColumn(sourceColumnName);
-                            int targetColumnType = tempTargetRs.getMetaData().getColumnType(targetColumnIdx);
-                            if (ctx.getNullifyColumns().contains(sourceColumnName)) {
-                                bulkWriterStatement.setNull(paramIdx, targetColumnType);
-                                LOG.trace("Column {} is nullified. Setting NULL value...", sourceColumnName);
-                            } else {
-                                if (isColumnOverride(ctx.getContext(), ctx.getCopyItem(), sourceColumnName)) {
-                                    bulkWriterStatement.setObject(paramIdx, ctx.getCopyItem().getColumnMap().get(sourceColumnName), targetColumnType);
-                                } else {
-                                    Object sourceColumnValue = ctx.getDataSet().getColumnValue(sourceColumnName, row);
-                                    if (sourceColumnValue != null) {
-                                        bulkWriterStatement.setObject(paramIdx, sourceColumnValue, targetColumnType);
-                                    } else {
-                                        bulkWriterStatement.setNull(paramIdx, targetColumnType);
-                                    }
-                                }
-                            }
-                            paramIdx += 1;
-                        }
-                        bulkWriterStatement.addBatch();
-                    }
-                    int batchCount = ctx.getDataSet().getAllResults().size();
-                    executeBatch(ctx.getCopyItem(), bulkWriterStatement, batchCount, ctx.getPerformanceRecorder());
-                    bulkWriterStatement.clearParameters();
-                    bulkWriterStatement.clearBatch();
-                    connection.commit();
-                    long totalCount = ctx.getTotalCount().addAndGet(batchCount);
-                    updateProgress(ctx.getContext(), ctx.getCopyItem(), totalCount);
+                while (!unwritten.isEmpty()) {
+                    DataSet dataSet = unwritten.get(0);
+                    write(session, dataSet);
+                    session.addPending(dataSet);
+                    unwritten.remove(0);
                 }
+                sessionPool.release(session);
             } catch (Exception e) {
-                if (connection != null) {
-                    connection.rollback();
-                }
-                throw e;
-            } finally {
-                if (connection != null && originalAutoCommit != null) {
-                    connection.setAutoCommit(originalAutoCommit);
-                }
-                if (connection != null && ctx != null) {
-                    if (requiresIdentityInsert) {
-                        switchIdentityInsert(connection, ctx.getCopyItem().getTargetItem(), false);
+                List<DataSet> rolledBack = sessionPool.discard(session);
+                for (DataSet dataSet : unwritten) {
+                    if (!rolledBack.contains(dataSet)) {
+                        rolledBack.add(dataSet);
                     }
-                    connection.close();
                 }
+                dataSets = rolledBack;
+                throw e;
             }
         }
+
+        protected abstract void write(WriterSession session, DataSet dataSet) throws Exception;
     }
 
-    private class DataBulkWriterTask extends RetriableTask {
+    private class DataWriterTask extends SessionWriterTask {
 
-        private DataWriterContext ctx;
+        public DataWriterTask(DataWriterContext ctx) {
+            super(ctx);
+        }
+
+        @Override
+        protected void write(WriterSession session, DataSet dataSet) throws Exception {
+            PreparedStatement bulkWriterStatement = session.prepare(getWriterStatement(ctx.getContext(), ctx.getCopyItem().getTargetItem(), ctx.getColumnsToCopy(), ctx.getUpsertId()));
+            ctx.getBindingPlan().addBatch(bulkWriterStatement, dataSet);
+            executeBatch(ctx.getCopyItem(), bulkWriterStatement, dataSet.getRowCount());
+            bulkWriterStatement.clearParameters();
+        }
+    }
+
+    private class DataBulkWriterTask extends SessionWriterTask {
 
         public DataBulkWriterTask(DataWriterContext ctx) {
-            super(ctx.getContext(), ctx.getCopyItem().getTargetItem());
-            this.ctx = ctx;
+            super(ctx);
         }
 
         @Override
-        protected Boolean internalRun() {
-            try {
-                if (!ctx.getDataSet().getAllResults().isEmpty()) {
-                    process();
+        protected void write(WriterSession session, DataSet dataSet) throws Exception {
+            final Stopwatch timer = Stopwatch.createStarted();
+            bulkCopy(session.getConnection(), ctx.getCopyItem().getTargetItem(), ctx.getBindingPlan(), dataSet, ctx.isRequiresIdentityInsert(), ctx.isTableLock(), false);
+            LOG.debug("Bulk written ({} items) for table '{}' in {}", dataSet.getRowCount(), ctx.getCopyItem().getTargetItem(), timer.stop().toString());
+        }
+    }
+
+    /**
+     * Inserts a batch with multi row statements, each chunk of rows is sent as one statement instead of one statement
+     * per row. All chunks but the last one have the same shape, so a session prepares the statement of the full chunk
+     * and the statement of the remaining rows once and sends the full chunks as a batch.
+     */
+    private class DataMultiRowWriterTask extends SessionWriterTask {
+
+        private final int chunkSize;
+
+        public DataMultiRowWriterTask(DataWriterContext ctx, int chunkSize) {
+            super(ctx);
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected void write(WriterSession session, DataSet dataSet) throws Exception {
+            String targetTableName = ctx.getCopyItem().getTargetItem();
+            RowBindingPlan bindingPlan = ctx.getBindingPlan();
+            int rowCount = dataSet.getRowCount();
+            int remainder = rowCount % chunkSize;
+            int fullChunkRows = rowCount - remainder;
+            if (fullChunkRows > 0) {
+                PreparedStatement chunkStatement = session.prepare(getMultiRowInsertStatement(targetTableName, ctx.getColumnsToCopy(), chunkSize));
+                for (int row = 0; row < fullChunkRows; row += chunkSize) {
+                    bindingPlan.addMultiRowBatch(chunkStatement, dataSet, row, row + chunkSize);
                 }
-                return Boolean.TRUE;
-            } catch (Exception e) {
-                //LOG.error("Error while executing table task " + ctx.getCopyItem().getTargetItem(),e);
-                throw new RuntimeException("Error processing writer task for " + ctx.getCopyItem().getTargetItem(), e);
+                executeBatch(ctx.getCopyItem(), chunkStatement, fullChunkRows);
+            }
+            if (remainder > 0) {
+                PreparedStatement remainderStatement = session.prepare(getMultiRowInsertStatement(targetTableName, ctx.getColumnsToCopy(), remainder));
+                bindingPlan.addMultiRowBatch(remainderStatement, dataSet, fullChunkRows, rowCount);
+                executeBatch(ctx.getCopyItem(), remainderStatement, remainder);
             }
         }
+    }
 
-        private void process() throws Exception {
-            Connection connection = null;
-            Boolean originalAutoCommit = null;
-            try {
-                connection = ctx.getContext().getMigrationContext().getDataTargetRepository().getConnection();
-                originalAutoCommit = connection.getAutoCommit();
-                connection.setAutoCommit(false);
-                SQLServerBulkCopy bulkCopy = new SQLServerBulkCopy(connection.unwrap(SQLServerConnection.class));
-                SQLServerBulkCopyOptions copyOptions = new SQLServerBulkCopyOptions();
-                copyOptions.setBulkCopyTimeout(0);
-                copyOptions.setBatchSize(ctx.getContext().getMigrationContext().getReaderBatchSize());
-                bulkCopy.setBulkCopyOptions(copyOptions);
-                bulkCopy.setDestinationTableName(ctx.getCopyItem().getTargetItem());
-
-                try (Statement tempStmt = connection.createStatement();
-                     ResultSet tempTargetRs = tempStmt.executeQuery(String.format("select * from %s where 0 = 1", ctx.getCopyItem().getTargetItem()))) {
-                    for (String column : ctx.getColumnsToCopy()) {
-                        int targetColumnIdx = tempTargetRs.findColumn(column);
-                        bulkCopy.addColumnMapping(column, targetColumnIdx);
-                    }
-                }
-                bulkCopy.writeToServer(ctx.getDataSet().toSQLServerBulkData());
-                connection.commit();
-                final Stopwatch timer = Stopwatch.createStarted();
-                int bulkCount = ctx.getDataSet().getAllResults().size();
-                LOG.debug("Bulk written ({} items) for table '{}' in {}", bulkCount, ctx.getCopyItem().getTargetItem(), timer.stop().toString());
-                ctx.getPerformanceRecorder().record(PerformanceUnit.ROWS, bulkCount);
-                long totalCount = ctx.getTotalCount().addAndGet(bulkCount);
-                updateProgress(ctx.getContext(), ctx.getCopyItem(), totalCount);
-            } catch (Exception e) {
-                if (connection != null) {
-                    connection.rollback();
-                }
-                throw e;
-            } finally {
-                if (connection != null && originalAutoCommit != null) {
-                    connection.setAutoCommit(originalAutoCommit);
-                }
-                if (connection != null && ctx != null) {
-                    connection.close();
-                }
+    /**
+     * Upserts a batch of the incremental mode with a single statement. The batch is inserted into the staging table
+     * of the writer session, by the bulk copy if enabled, and merged into the target table, so the target is locked
+     * once per batch instead of once per row.
+     */
+    private class DataStagingWriterTask extends SessionWriterTask {
+
+        public DataStagingWriterTask(DataWriterContext ctx) {
+            super(ctx);
+        }
+
+        @Override
+        protected void write(WriterSession session, DataSet dataSet) throws Exception {
+            if (!ctx.getUpsertId().isPresent()) {
+                throw new RuntimeException("The incremental approach can only be used on tables that have a valid identifier like PK or ID");
+            }
+            String targetTableName = ctx.getCopyItem().getTargetItem();
+            String stagingTableName = getStagingTableName(targetTableName);
+            List<String> columnsToCopy = ctx.getColumnsToCopy();
+            final Stopwatch timer = Stopwatch.createStarted();
+            if (isBulkCopyApplicable(ctx.getContext().getMigrationContext())) {
+                bulkCopy(session.getConnection(), stagingTableName, ctx.getBindingPlan(), dataSet, false, false, true);
+            } else {
+                PreparedStatement stagingStatement = session.prepare(getBulkInsertStatement(stagingTableName, columnsToCopy, columnsToCopy.stream().map(column -> "?").collect(Collectors.toList())));
+                ctx.getBindingPlan().addBatch(stagingStatement, dataSet);
+                stagingStatement.executeBatch();
+                stagingStatement.clearBatch();
             }
+            session.execute(getMergeStatement(targetTableName, stagingTableName, columnsToCopy, ctx.getUpsertId().get()));
+            session.execute(String.format("TRUNCATE TABLE %s", stagingTableName));
+            LOG.debug("Batch merged ({} items) for table '{}' in {}", dataSet.getRowCount(), targetTableName, timer.stop().toString());
         }
     }
 
@@ -0,0 +1,188 @@
+package org.sap.commercemigration.strategy.impl;
+
+import org.sap.commercemigration.concurrent.DataWorkerExecutor;
+import org.sap.commercemigration.concurrent.RetriableTask;
+import org.sap.commercemigration.context.CopyContext;
+import org.sap.commercemigration.dataset.DataSet;
+import org.sap.commercemigration.dataset.impl.LobReference;
+import org.sap.commercemigration.performance.PerformanceRecorder;
+import org.sap.commercemigration.performance.PerformanceUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.io.InputStream;
+import java.io.Reader;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+
+/**
+ * Transfers the large objects a reader left in the source table. Each value is selected by the key of its row and
+ * streamed into an update of the target row, neither side holds the whole value. The lane uses its own connections
+ * and workers, the writers only hand over the data sets they have committed.
+ */
+@ThreadSafe
+public class LobTransferLane {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LobTransferLane.class);
+    private static final double MEGABYTE = 1024d * 1024d;
+
+    private final CopyContext context;
+    private final CopyContext.DataCopyItem item;
+    private final DataWorkerExecutor<Boolean> workerExecutor;
+    private final PerformanceRecorder performanceRecorder;
+
+    public LobTransferLane(CopyContext context, CopyContext.DataCopyItem item, DataWorkerExecutor<Boolean> workerExecutor, PerformanceRecorder performanceRecorder) {
+        this.context = context;
+        this.item = item;
+        this.workerExecutor = workerExecutor;
+        this.performanceRecorder = performanceRecorder;
+    }
+
+    /**
+     * Schedules the transfer of the large objects referenced by the data set. The rows must have been committed.
+     */
+    public synchronized void submit(DataSet dataSet) throws InterruptedException {
+        List<LobTransfer> transfers = collectTransfers(dataSet);
+        if (!transfers.isEmpty()) {
+            workerExecutor.safelyExecute(new LobTransferTask(transfers));
+        }
+    }
+
+    /**
+     * Waits for all scheduled transfers and rethrows the first failure
+     */
+    public synchronized void await() throws ExecutionException, InterruptedException {
+        workerExecutor.waitAndRethrowUncaughtExceptions();
+    }
+
+    private List<LobTransfer> collectTransfers(DataSet dataSet) {
+        List<LobTransfer> transfers = new ArrayList<>();
+        List<Integer> lobColumns = new ArrayList<>();
+        for (int column = 0; column < dataSet.getColumnCount(); column++) {
+            int columnType = dataSet.getColumnOrder().get(column).getColumnType();
+            if (columnType == Types.BLOB || columnType == Types.CLOB || columnType == Types.NCLOB) {
+                lobColumns.add(column);
+            }
+        }
+        if (lobColumns.isEmpty()) {
+            return transfers;
+        }
+        for (int row = 0; row < dataSet.getRowCount(); row++) {
+            for (int column : lobColumns) {
+                Object value = dataSet.getValue(row, column);
+                if (value instanceof LobReference) {
+                    LobReference reference = (LobReference) value;
+                    // the reader defers large objects only if the key column it resolved is part of the row
+                    int keyColumn = dataSet.getColumnIndex(reference.getKeyColumn());
+                    if (keyColumn < 0) {
+                        throw new IllegalStateException(String.format("Large objects of %s cannot be transferred without the %s column", item.getPipelineName(), reference.getKeyColumn()));
+                    }
+                    transfers.add(new LobTransfer(dataSet.getValue(row, keyColumn), dataSet.getColumnOrder().get(column).getColumnName(), reference));
+                }
+            }
+        }
+        return transfers;
+    }
+
+    private static class LobTransfer {
+        private final Object key;
+        private final String column;
+        private final LobReference reference;
+
+        LobTransfer(Object key, String column, LobReference reference) {
+            this.key = key;
+            this.column = column;
+            this.reference = reference;
+        }
+    }
+
+    private class LobTransferTask extends RetriableTask {
+
+        private final List<LobTransfer> transfers;
+
+        LobTransferTask(List<LobTransfer> transfers) {
+            super(context, item.getTargetItem());
+            this.transfers = transfers;
+        }
+
+        @Override
+        protected Boolean internalRun() {
+            try {
+                process();
+                return Boolean.TRUE;
+            } catch (Exception e) {
+                throw new RuntimeException("Error transferring large objects for " + item.getTargetItem(), e);
+            }
+        }
+
+        /**
+         * The transfers of a column share one select and one update, only the key is bound per large object
+         */
+        private void process() throws Exception {
+            Map<List<String>, List<LobTransfer>> transfersByColumn = transfers.stream()
+                    .collect(Collectors.groupingBy(transfer -> Arrays.asList(transfer.column, transfer.reference.getKeyColumn()), LinkedHashMap::new, Collectors.toList()));
+            try (Connection sourceConnection = context.getMigrationContext().getDataSourceRepository().getConnection();
+                 Connection targetConnection = context.getMigrationContext().getDataTargetRepository().getConnection()) {
+                for (Map.Entry<List<String>, List<LobTransfer>> columnTransfers : transfersByColumn.entrySet()) {
+                    String column = columnTransfers.getKey().get(0);
+                    String keyColumn = columnTransfers.getKey().get(1);
+                    String selectStatement = String.format("SELECT %s FROM %s WHERE %s = ?", column, item.getSourceItem(), keyColumn);
+                    String updateStatement = String.format("UPDATE %s SET %s = ? WHERE %s = ?", item.getTargetItem(), column, keyColumn);
+                    try (PreparedStatement select = sourceConnection.prepareStatement(selectStatement);
+                         PreparedStatement update = targetConnection.prepareStatement(updateStatement)) {
+                        for (LobTransfer transfer : columnTransfers.getValue()) {
+                            transfer(select, update, transfer);
+                        }
+                    }
+                }
+            }
+            LOG.debug("Transferred {} large objects for table '{}'", transfers.size(), item.getTargetItem());
+        }
+
+        private void transfer(PreparedStatement select, PreparedStatement update, LobTransfer transfer) throws Exception {
+            select.setObject(1, transfer.key);
+            try (ResultSet resultSet = select.executeQuery()) {
+                if (!resultSet.next()) {
+                    LOG.warn("Row {} of {} disappeared before its column {} was transferred", transfer.key, item.getSourceItem(), transfer.column);
+                    return;
+                }
+                long bytes;
+                if (transfer.reference.getJdbcType() == Types.BLOB) {
+                    Blob blob = resultSet.getBlob(1);
+                    try (InputStream in = blob.getBinaryStream()) {
+                        update.setBinaryStream(1, in, blob.length());
+                        update.setObject(2, transfer.key);
+                        update.executeUpdate();
+                    }
+                    bytes = blob.length();
+                } else {
+                    Clob clob = resultSet.getClob(1);
+                    try (Reader in = clob.getCharacterStream()) {
+                        if (transfer.reference.getJdbcType() == Types.NCLOB) {
+                            update.setNCharacterStream(1, in, clob.length());
+                        } else {
+                            update.setCharacterStream(1, in, clob.length());
+                        }
+                        update.setObject(2, transfer.key);
+                        update.executeUpdate();
+                    }
+                    bytes = 2 * clob.length();
+                }
+                performanceRecorder.record(PerformanceUnit.ROWS, 1);
+                performanceRecorder.record(PerformanceUnit.MB, bytes / MEGABYTE);
+            }
+        }
+    }
+}
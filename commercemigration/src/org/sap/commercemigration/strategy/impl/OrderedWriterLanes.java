@@ -0,0 +1,93 @@
+package org.sap.commercemigration.strategy.impl;
+
+import org.sap.commercemigration.concurrent.DataWorkerExecutor;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs the writer tasks of a table in a fixed number of lanes. Each lane runs its tasks one after the other in the
+ * order they were submitted, so the batches a reader hands over in key order are inserted in key order. A lane holds
+ * at most one waiting task, submitting blocks until the lane took it.
+ */
+@ThreadSafe
+public class OrderedWriterLanes {
+
+    private static final long POLL_INTERVAL_MILLIS = 500;
+
+    private final List<BlockingQueue<Callable<Boolean>>> lanes = new ArrayList<>();
+    private final AtomicReference<Exception> failure = new AtomicReference<>();
+    private volatile boolean finished;
+    private volatile boolean aborted;
+    private int nextLane;
+
+    public OrderedWriterLanes(int laneCount) {
+        for (int i = 0; i < laneCount; i++) {
+            lanes.add(new ArrayBlockingQueue<>(1));
+        }
+    }
+
+    public int getLaneCount() {
+        return lanes.size();
+    }
+
+    /**
+     * Starts one worker per lane, the executor must be able to run all of them at the same time
+     */
+    public void start(DataWorkerExecutor<Boolean> workerExecutor) throws InterruptedException {
+        for (BlockingQueue<Callable<Boolean>> lane : lanes) {
+            workerExecutor.safelyExecute(() -> drain(lane));
+        }
+    }
+
+    /**
+     * @param lane the lane of the task, negative to hand the task to the lanes in turn
+     */
+    public void submit(int lane, Callable<Boolean> task) throws InterruptedException {
+        BlockingQueue<Callable<Boolean>> queue = lanes.get(Math.floorMod(lane >= 0 ? lane : nextLane++, lanes.size()));
+        while (!queue.offer(task, POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+            if (failure.get() != null) {
+                throw new IllegalStateException("A writer lane failed", failure.get());
+            }
+        }
+    }
+
+    /**
+     * Lets the lanes complete once they ran the tasks submitted so far
+     */
+    public void finish() {
+        finished = true;
+    }
+
+    /**
+     * Stops the lanes after their current task
+     */
+    public void abort() {
+        aborted = true;
+    }
+
+    private Boolean drain(BlockingQueue<Callable<Boolean>> lane) throws Exception {
+        try {
+            while (!aborted) {
+                // read before polling, an empty lane after the last submit is done
+                boolean last = finished;
+                Callable<Boolean> task = lane.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                if (task != null) {
+                    task.call();
+                } else if (last) {
+                    return Boolean.TRUE;
+                }
+            }
+            return Boolean.FALSE;
+        } catch (Exception e) {
+            failure.compareAndSet(null, e);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,362 @@
+package org.sap.commercemigration.strategy.impl;
+
+import com.microsoft.sqlserver.jdbc.ISQLServerBulkData;
+import org.sap.commercemigration.dataset.DataColumn;
+import org.sap.commercemigration.dataset.DataSet;
+import org.sap.commercemigration.dataset.impl.ColumnVector;
+import org.sap.commercemigration.dataset.impl.ColumnarDataSet;
+import org.sap.commercemigration.dataset.impl.LobReference;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Binds the rows of a data set to the parameters of the writer statement. The plan is compiled once per table from
+ * the target metadata, the parameter at index i + 1 is bound from the column at index i of the columns to copy.
+ * <p>
+ * Nullified and overridden columns are resolved when compiling, the remaining columns are looked up in the column
+ * order of each batch once, so binding a batch is a loop over the rows and the precomputed arrays. The same plan
+ * feeds the bulk copy, see {@link #toBulkData(DataSet)}.
+ */
+public class RowBindingPlan {
+
+    private static final byte COPY = 0;
+    private static final byte NULLIFY = 1;
+    private static final byte OVERRIDE = 2;
+
+    private final String[] columns;
+    private final int[] targetColumnIndexes;
+    private final int[] targetTypes;
+    private final int[] targetPrecisions;
+    private final int[] targetScales;
+    private final boolean[] targetNullables;
+    private final byte[] actions;
+    private final Object[] overrideValues;
+
+    private RowBindingPlan(String[] columns, int[] targetColumnIndexes, int[] targetTypes, int[] targetPrecisions, int[] targetScales, boolean[] targetNullables, byte[] actions, Object[] overrideValues) {
+        this.columns = columns;
+        this.targetColumnIndexes = targetColumnIndexes;
+        this.targetTypes = targetTypes;
+        this.targetPrecisions = targetPrecisions;
+        this.targetScales = targetScales;
+        this.targetNullables = targetNullables;
+        this.actions = actions;
+        this.overrideValues = overrideValues;
+    }
+
+    /**
+     * @param nullifyColumns  the columns to be written as null, case insensitive
+     * @param overrideColumns the constant values replacing the values of the source, may be null
+     */
+    public static RowBindingPlan compile(Connection targetConnection, String targetTable, List<String> columnsToCopy, Set<String> nullifyColumns, Map<String, ?> overrideColumns) throws SQLException {
+        int columnCount = columnsToCopy.size();
+        String[] columns = columnsToCopy.toArray(new String[0]);
+        int[] targetColumnIndexes = new int[columnCount];
+        int[] targetTypes = new int[columnCount];
+        int[] targetPrecisions = new int[columnCount];
+        int[] targetScales = new int[columnCount];
+        boolean[] targetNullables = new boolean[columnCount];
+        byte[] actions = new byte[columnCount];
+        Object[] overrideValues = new Object[columnCount];
+        try (Statement stmt = targetConnection.createStatement();
+             ResultSet targetRs = stmt.executeQuery(String.format("select * from %s where 0 = 1", targetTable))) {
+            ResultSetMetaData targetMeta = targetRs.getMetaData();
+            for (int i = 0; i < columnCount; i++) {
+                targetColumnIndexes[i] = targetRs.findColumn(columns[i]);
+                targetTypes[i] = targetMeta.getColumnType(targetColumnIndexes[i]);
+                targetPrecisions[i] = targetMeta.getPrecision(targetColumnIndexes[i]);
+                targetScales[i] = targetMeta.getScale(targetColumnIndexes[i]);
+                targetNullables[i] = targetMeta.isNullable(targetColumnIndexes[i]) != ResultSetMetaData.columnNoNulls;
+                if (nullifyColumns.contains(columns[i])) {
+                    actions[i] = NULLIFY;
+                } else if (overrideColumns != null && overrideColumns.containsKey(columns[i])) {
+                    actions[i] = OVERRIDE;
+                    overrideValues[i] = overrideColumns.get(columns[i]);
+                } else {
+                    actions[i] = COPY;
+                }
+            }
+        }
+        return new RowBindingPlan(columns, targetColumnIndexes, targetTypes, targetPrecisions, targetScales, targetNullables, actions, overrideValues);
+    }
+
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    public String getColumnName(int column) {
+        return columns[column];
+    }
+
+    /**
+     * @return the 1-based index of the column in the target table
+     */
+    public int getTargetColumnIndex(int column) {
+        return targetColumnIndexes[column];
+    }
+
+    /**
+     * Adds every row of the data set to the batch of the statement
+     */
+    public void addBatch(PreparedStatement statement, DataSet dataSet) throws SQLException {
+        int[] sourceColumnIndexes = resolveSourceColumns(dataSet);
+        ColumnVector[] vectors = resolveVectors(dataSet, sourceColumnIndexes);
+        int rowOffset = getRowOffset(dataSet);
+        int rowCount = dataSet.getRowCount();
+        for (int row = 0; row < rowCount; row++) {
+            bindRow(statement, 0, dataSet, sourceColumnIndexes, vectors, rowOffset, row);
+            statement.addBatch();
+        }
+    }
+
+    /**
+     * Adds the rows from fromRow, inclusive, to toRow, exclusive, to the batch of a multi row statement as a single
+     * parameter set. The parameters of a row follow the parameters of the previous row.
+     */
+    public void addMultiRowBatch(PreparedStatement statement, DataSet dataSet, int fromRow, int toRow) throws SQLException {
+        int[] sourceColumnIndexes = resolveSourceColumns(dataSet);
+        ColumnVector[] vectors = resolveVectors(dataSet, sourceColumnIndexes);
+        int rowOffset = getRowOffset(dataSet);
+        for (int row = fromRow; row < toRow; row++) {
+            bindRow(statement, (row - fromRow) * columns.length, dataSet, sourceColumnIndexes, vectors, rowOffset, row);
+        }
+        statement.addBatch();
+    }
+
+    private void bindRow(PreparedStatement statement, int paramOffset, DataSet dataSet, int[] sourceColumnIndexes, ColumnVector[] vectors, int rowOffset, int row) throws SQLException {
+        for (int i = 0; i < columns.length; i++) {
+            int paramIdx = paramOffset + i + 1;
+            switch (actions[i]) {
+                case NULLIFY:
+                    statement.setNull(paramIdx, targetTypes[i]);
+                    break;
+                case OVERRIDE:
+                    statement.setObject(paramIdx, overrideValues[i], targetTypes[i]);
+                    break;
+                default:
+                    if (vectors[i] != null) {
+                        bind(statement, paramIdx, i, vectors[i], rowOffset + row);
+                    } else {
+                        bind(statement, paramIdx, i, dataSet.getValue(row, sourceColumnIndexes[i]));
+                    }
+            }
+        }
+    }
+
+    /**
+     * @return the vectors of the copied columns if the data set is columnar, otherwise an array of nulls
+     */
+    private ColumnVector[] resolveVectors(DataSet dataSet, int[] sourceColumnIndexes) {
+        ColumnVector[] vectors = new ColumnVector[columns.length];
+        if (dataSet instanceof ColumnarDataSet) {
+            ColumnarDataSet columnarDataSet = (ColumnarDataSet) dataSet;
+            for (int i = 0; i < columns.length; i++) {
+                if (sourceColumnIndexes[i] >= 0) {
+                    vectors[i] = columnarDataSet.getColumn(sourceColumnIndexes[i]);
+                }
+            }
+        }
+        return vectors;
+    }
+
+    private int getRowOffset(DataSet dataSet) {
+        return dataSet instanceof ColumnarDataSet ? ((ColumnarDataSet) dataSet).getRowOffset() : 0;
+    }
+
+    /**
+     * @return the rows of the data set for the bulk copy, the column at ordinal i + 1 is the column at index i of
+     * the columns to copy
+     */
+    public ISQLServerBulkData toBulkData(DataSet dataSet) {
+        return new BoundBulkData(dataSet, resolveSourceColumns(dataSet));
+    }
+
+    private int[] resolveSourceColumns(DataSet dataSet) {
+        int[] sourceColumnIndexes = new int[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            sourceColumnIndexes[i] = -1;
+            if (actions[i] == COPY) {
+                sourceColumnIndexes[i] = dataSet.getColumnIndex(columns[i]);
+                if (sourceColumnIndexes[i] < 0) {
+                    throw new IllegalArgumentException(String.format("Column %s is not part of the result", columns[i]));
+                }
+            }
+        }
+        return sourceColumnIndexes;
+    }
+
+    /**
+     * Binds primitive values without boxing whenever the vector holds the type of the target column
+     */
+    private void bind(PreparedStatement statement, int paramIdx, int column, ColumnVector vector, int row) throws SQLException {
+        int targetType = targetTypes[column];
+        if (vector.isNull(row)) {
+            statement.setNull(paramIdx, targetType);
+        } else if (targetType == Types.BIGINT && vector instanceof ColumnVector.LongVector) {
+            statement.setLong(paramIdx, ((ColumnVector.LongVector) vector).getLong(row));
+        } else if (targetType == Types.INTEGER && vector instanceof ColumnVector.IntVector) {
+            statement.setInt(paramIdx, ((ColumnVector.IntVector) vector).getInt(row));
+        } else if ((targetType == Types.DOUBLE || targetType == Types.FLOAT) && vector instanceof ColumnVector.DoubleVector) {
+            statement.setDouble(paramIdx, ((ColumnVector.DoubleVector) vector).getDouble(row));
+        } else {
+            bind(statement, paramIdx, column, vector.get(row));
+        }
+    }
+
+    /**
+     * Large objects left in the source are written as null, they are transferred once the row exists
+     */
+    private void bind(PreparedStatement statement, int paramIdx, int column, Object value) throws SQLException {
+        if (value != null && !(value instanceof LobReference)) {
+            statement.setObject(paramIdx, rewind(value), targetTypes[column]);
+        } else {
+            checkDeferrable(column, value);
+            statement.setNull(paramIdx, targetTypes[column]);
+        }
+    }
+
+    /**
+     * The reader keeps the large objects of columns the target requires a value for inline, a reference reaching
+     * such a column would fail the insert with a constraint violation
+     */
+    private void checkDeferrable(int column, Object value) {
+        if (value instanceof LobReference && !targetNullables[column]) {
+            throw new IllegalStateException(String.format("Large object of column %s was left in the source but the target column is not nullable", columns[column]));
+        }
+    }
+
+    /**
+     * Binary large objects are held as streams, a batch written again after its session was rolled back must not
+     * send the stream consumed by the first write
+     */
+    private static Object rewind(Object value) {
+        if (value instanceof ByteArrayInputStream) {
+            ((ByteArrayInputStream) value).reset();
+        }
+        return value;
+    }
+
+    /**
+     * Nullified and overridden columns are announced with the type of the target column, copied columns with the
+     * type of the source column. Large objects are announced as the matching long variable types.
+     */
+    private class BoundBulkData implements ISQLServerBulkData {
+
+        private final DataSet dataSet;
+        private final int[] sourceColumnIndexes;
+        private final Set<Integer> columnOrdinals;
+        private final int[] columnTypes;
+        private final int[] precisions;
+        private final int[] scales;
+        private int row = -1;
+
+        private BoundBulkData(DataSet dataSet, int[] sourceColumnIndexes) {
+            this.dataSet = dataSet;
+            this.sourceColumnIndexes = sourceColumnIndexes;
+            this.columnOrdinals = IntStream.range(1, columns.length + 1).boxed().collect(Collectors.toSet());
+            this.columnTypes = new int[columns.length];
+            this.precisions = new int[columns.length];
+            this.scales = new int[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                if (actions[i] == COPY) {
+                    DataColumn sourceColumn = dataSet.getColumnOrder().get(sourceColumnIndexes[i]);
+                    columnTypes[i] = sourceColumn.getColumnType();
+                    precisions[i] = sourceColumn.getPrecision();
+                    scales[i] = sourceColumn.getScale();
+                } else {
+                    columnTypes[i] = targetTypes[i];
+                    precisions[i] = targetPrecisions[i];
+                    scales[i] = targetScales[i];
+                }
+                switch (columnTypes[i]) {
+                    case Types.BLOB:
+                        columnTypes[i] = Types.LONGVARBINARY;
+                        precisions[i] = Integer.MAX_VALUE;
+                        break;
+                    case Types.CLOB:
+                        columnTypes[i] = Types.LONGVARCHAR;
+                        precisions[i] = Integer.MAX_VALUE;
+                        break;
+                    case Types.NCLOB:
+                        columnTypes[i] = Types.LONGNVARCHAR;
+                        precisions[i] = Integer.MAX_VALUE;
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+
+        @Override
+        public Set<Integer> getColumnOrdinals() {
+            return columnOrdinals;
+        }
+
+        @Override
+        public String getColumnName(int i) {
+            return columns[i - 1];
+        }
+
+        @Override
+        public int getColumnType(int i) {
+            return columnTypes[i - 1];
+        }
+
+        @Override
+        public int getPrecision(int i) {
+            return precisions[i - 1];
+        }
+
+        @Override
+        public int getScale(int i) {
+            return scales[i - 1];
+        }
+
+        @Override
+        public Object[] getRowData() {
+            Object[] rowData = new Object[columns.length];
+            for (int i = 0; i < rowData.length; i++) {
+                switch (actions[i]) {
+                    case NULLIFY:
+                        break;
+                    case OVERRIDE:
+                        rowData[i] = overrideValues[i];
+                        break;
+                    default:
+                        Object value = dataSet.getValue(row, sourceColumnIndexes[i]);
+                        checkDeferrable(i, value);
+                        rowData[i] = value instanceof LobReference ? null : rewind(toBulkValue(columnTypes[i], value));
+                }
+            }
+            return rowData;
+        }
+
+        /**
+         * Wide FLOAT columns are read as BigDecimal, the bulk copy only takes double for them
+         */
+        private Object toBulkValue(int columnType, Object value) {
+            if (value instanceof BigDecimal && (columnType == Types.FLOAT || columnType == Types.DOUBLE || columnType == Types.REAL)) {
+                return ((BigDecimal) value).doubleValue();
+            }
+            return value;
+        }
+
+        @Override
+        public boolean next() {
+            row++;
+            return row < dataSet.getRowCount();
+        }
+    }
+}
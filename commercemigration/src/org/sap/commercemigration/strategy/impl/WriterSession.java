@@ -0,0 +1,152 @@
+package org.sap.commercemigration.strategy.impl;
+
+import org.sap.commercemigration.dataset.DataSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A connection of the target kept by a writer worker across batches. Statements are prepared once per session, the
+ * session settings of the table are applied once when it is opened and the batches written since the last commit
+ * are kept, so they can be handed over to the LOB lane once committed or be written again once rolled back.
+ */
+@NotThreadSafe
+public class WriterSession {
+
+    private static final Logger LOG = LoggerFactory.getLogger(WriterSession.class);
+
+    private final Connection connection;
+    private final boolean originalAutoCommit;
+    private final Map<String, PreparedStatement> statements = new HashMap<>();
+    private final List<String> closeStatements = new ArrayList<>();
+    private final List<DataSet> pendingDataSets = new ArrayList<>();
+    private long pendingRows;
+    private long pendingBytes;
+
+    public WriterSession(Connection connection) throws SQLException {
+        this.connection = connection;
+        this.originalAutoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+    }
+
+    public Connection getConnection() {
+        return connection;
+    }
+
+    /**
+     * @return the statement prepared for the query in this session, the caller must not close it
+     */
+    public PreparedStatement prepare(String query) throws SQLException {
+        PreparedStatement statement = statements.get(query);
+        if (statement == null) {
+            statement = connection.prepareStatement(query);
+            statements.put(query, statement);
+        }
+        return statement;
+    }
+
+    public void execute(String statement) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate(statement);
+        }
+    }
+
+    /**
+     * Runs the statement once the session is closed, e.g. to revert a session setting
+     */
+    public void executeOnClose(String statement) {
+        closeStatements.add(statement);
+    }
+
+    /**
+     * Marks the data set as written in the current transaction
+     */
+    public void addPending(DataSet dataSet) {
+        pendingDataSets.add(dataSet);
+        pendingRows += dataSet.getRowCount();
+        pendingBytes += dataSet.getEstimatedSize();
+    }
+
+    public List<DataSet> getPendingDataSets() {
+        return pendingDataSets;
+    }
+
+    public long getPendingRows() {
+        return pendingRows;
+    }
+
+    /**
+     * @return the estimated heap the data sets written since the last commit take
+     */
+    public long getPendingBytes() {
+        return pendingBytes;
+    }
+
+    /**
+     * @return the data sets committed
+     */
+    public List<DataSet> commit() throws SQLException {
+        connection.commit();
+        return takePending();
+    }
+
+    /**
+     * @return the data sets rolled back
+     */
+    public List<DataSet> rollback() {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            LOG.debug("Cannot roll back writer session: {}", e.getMessage());
+        }
+        return takePending();
+    }
+
+    private List<DataSet> takePending() {
+        List<DataSet> dataSets = new ArrayList<>(pendingDataSets);
+        pendingDataSets.clear();
+        pendingRows = 0;
+        pendingBytes = 0;
+        return dataSets;
+    }
+
+    /**
+     * Closes the session without committing, pending data sets are rolled back.
+     */
+    public void close() {
+        for (PreparedStatement statement : statements.values()) {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                LOG.debug("Cannot close statement of writer session: {}", e.getMessage());
+            }
+        }
+        statements.clear();
+        try {
+            if (!pendingDataSets.isEmpty()) {
+                rollback();
+            }
+            for (String statement : closeStatements) {
+                execute(statement);
+            }
+            connection.setAutoCommit(originalAutoCommit);
+        } catch (SQLException e) {
+            LOG.debug("Cannot reset writer session: {}", e.getMessage());
+        } finally {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                LOG.debug("Cannot close writer session: {}", e.getMessage());
+            }
+        }
+    }
+}
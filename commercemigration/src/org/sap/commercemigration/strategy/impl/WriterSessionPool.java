@@ -0,0 +1,129 @@
+package org.sap.commercemigration.strategy.impl;
+
+import org.sap.commercemigration.dataset.DataSet;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Keeps the writer sessions of a table while it is copied. A writer worker takes a session for each batch and hands
+ * it back afterwards, so there are never more sessions than workers writing at the same time. A session is
+ * committed once it holds the rows of the commit interval or its pending data sets reach their share of the memory
+ * budget, the remaining sessions are committed when the pool is closed.
+ */
+@ThreadSafe
+public class WriterSessionPool {
+
+    private final SessionFactory sessionFactory;
+    private final long commitInterval;
+    private final long maxPendingBytes;
+    private final CommitListener commitListener;
+    private final Deque<WriterSession> idleSessions = new ArrayDeque<>();
+    private boolean aborted;
+
+    /**
+     * @param commitInterval  the rows a session writes before it commits, 0 to commit every batch
+     * @param maxPendingBytes the estimated bytes of data sets a session keeps before it commits regardless of the
+     *                        commit interval, 0 or less if unlimited
+     */
+    public WriterSessionPool(SessionFactory sessionFactory, long commitInterval, long maxPendingBytes, CommitListener commitListener) {
+        this.sessionFactory = sessionFactory;
+        this.commitInterval = commitInterval;
+        this.maxPendingBytes = maxPendingBytes;
+        this.commitListener = commitListener;
+    }
+
+    public WriterSession acquire() throws Exception {
+        synchronized (idleSessions) {
+            if (!idleSessions.isEmpty()) {
+                return idleSessions.pop();
+            }
+        }
+        return sessionFactory.open();
+    }
+
+    /**
+     * Hands back a session after a batch was written, committing it if the commit interval or the pending bytes are
+     * reached
+     */
+    public void release(WriterSession session) throws Exception {
+        if (session.getPendingRows() >= commitInterval || (maxPendingBytes > 0 && session.getPendingBytes() >= maxPendingBytes)) {
+            commit(session);
+        }
+        synchronized (idleSessions) {
+            if (!aborted) {
+                idleSessions.push(session);
+                return;
+            }
+        }
+        // a worker still running when the copy failed
+        session.close();
+    }
+
+    /**
+     * Rolls back and closes a failed session
+     *
+     * @return the data sets written in the session since its last commit, they have to be written again
+     */
+    public List<DataSet> discard(WriterSession session) {
+        List<DataSet> dataSets = session.rollback();
+        session.close();
+        return dataSets;
+    }
+
+    /**
+     * Commits and closes all sessions, to be called once all batches of the table are written
+     */
+    public void close() throws Exception {
+        WriterSession session;
+        try {
+            while ((session = poll()) != null) {
+                try {
+                    commit(session);
+                } finally {
+                    session.close();
+                }
+            }
+        } finally {
+            abort();
+        }
+    }
+
+    /**
+     * Rolls back and closes all sessions
+     */
+    public void abort() {
+        synchronized (idleSessions) {
+            aborted = true;
+        }
+        WriterSession session;
+        while ((session = poll()) != null) {
+            session.close();
+        }
+    }
+
+    private WriterSession poll() {
+        synchronized (idleSessions) {
+            return idleSessions.poll();
+        }
+    }
+
+    private void commit(WriterSession session) throws Exception {
+        if (!session.getPendingDataSets().isEmpty()) {
+            commitListener.committed(session.commit());
+        }
+    }
+
+    public interface SessionFactory {
+        WriterSession open() throws Exception;
+    }
+
+    public interface CommitListener {
+        /**
+         * @param dataSets the data sets committed by a session
+         */
+        void committed(List<DataSet> dataSets) throws Exception;
+    }
+}
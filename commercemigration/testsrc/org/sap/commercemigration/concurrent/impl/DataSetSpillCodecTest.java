@@ -0,0 +1,196 @@
+package org.sap.commercemigration.concurrent.impl;
+
+import de.hybris.bootstrap.annotations.UnitTest;
+import org.junit.Test;
+import org.sap.commercemigration.dataset.DataColumn;
+import org.sap.commercemigration.dataset.DataSet;
+import org.sap.commercemigration.dataset.impl.ColumnarDataSet;
+import org.sap.commercemigration.dataset.impl.DefaultDataColumn;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test for {@link DataSetSpillCodec}.
+ */
+@UnitTest
+public class DataSetSpillCodecTest {
+
+    private final DataSetSpillCodec codec = new DataSetSpillCodec();
+
+    @Test
+    public void testColumnOrderRoundTrip() throws IOException {
+        List<DataColumn> columns = Arrays.asList(
+                new DefaultDataColumn("PK", Types.BIGINT, 20, 0),
+                new DefaultDataColumn("p_amount", Types.DECIMAL, 30, 2));
+        ColumnarDataSet.Builder builder = new ColumnarDataSet.Builder(columns, 0);
+
+        DataSet dataSet = roundTrip(builder.build());
+
+        assertEquals(0, dataSet.getRowCount());
+        assertEquals(2, dataSet.getColumnCount());
+        DataColumn column = dataSet.getColumnOrder().get(1);
+        assertEquals("p_amount", column.getColumnName());
+        assertEquals(Types.DECIMAL, column.getColumnType());
+        assertEquals(30, column.getPrecision());
+        assertEquals(2, column.getScale());
+    }
+
+    @Test
+    public void testNull() throws IOException {
+        assertNull(roundTripValue(Types.VARCHAR, null));
+    }
+
+    @Test
+    public void testLong() throws IOException {
+        assertEquals(Long.MIN_VALUE, roundTripValue(Types.BIGINT, Long.MIN_VALUE));
+    }
+
+    @Test
+    public void testInt() throws IOException {
+        assertEquals(Integer.MAX_VALUE, roundTripValue(Types.INTEGER, Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void testDouble() throws IOException {
+        assertEquals(-0.1d, roundTripValue(Types.DOUBLE, -0.1d));
+    }
+
+    @Test
+    public void testString() throws IOException {
+        assertEquals("\u00e4\u20ac\ud83d\ude00", roundTripValue(Types.NVARCHAR, "\u00e4\u20ac\ud83d\ude00"));
+        assertEquals("", roundTripValue(Types.NVARCHAR, ""));
+    }
+
+    @Test
+    public void testBytes() throws IOException {
+        assertArrayEquals(new byte[]{0, -1, 127}, (byte[]) roundTripValue(Types.VARBINARY, new byte[]{0, -1, 127}));
+    }
+
+    @Test
+    public void testTimestampKeepsNanos() throws IOException {
+        Timestamp timestamp = Timestamp.valueOf("1999-12-31 23:59:59.999999999");
+        Object value = roundTripValue(Types.TIMESTAMP, timestamp);
+
+        assertEquals(timestamp, value);
+        assertEquals(999999999, ((Timestamp) value).getNanos());
+    }
+
+    @Test
+    public void testDecimalKeepsScale() throws IOException {
+        assertEquals(new BigDecimal("-12345678901234567890.1200"), roundTripValue(Types.DECIMAL, new BigDecimal("-12345678901234567890.1200")));
+        assertEquals(new BigDecimal("1E+10"), roundTripValue(Types.DECIMAL, new BigDecimal("1E+10")));
+    }
+
+    @Test
+    public void testBoolean() throws IOException {
+        assertEquals(Boolean.TRUE, roundTripValue(Types.BIT, Boolean.TRUE));
+    }
+
+    @Test
+    public void testDate() throws IOException {
+        assertEquals(Date.valueOf("2020-02-29"), roundTripValue(Types.DATE, Date.valueOf("2020-02-29")));
+    }
+
+    @Test
+    public void testTime() throws IOException {
+        assertEquals(Time.valueOf("13:14:15"), roundTripValue(Types.TIME, Time.valueOf("13:14:15")));
+    }
+
+    @Test
+    public void testStream() throws IOException {
+        Object value = roundTripValue(Types.BLOB, new ByteArrayInputStream(new byte[]{1, 2, 3}));
+
+        assertTrue(value instanceof ByteArrayInputStream);
+        byte[] bytes = new byte[3];
+        assertEquals(3, ((ByteArrayInputStream) value).read(bytes, 0, 3));
+        assertArrayEquals(new byte[]{1, 2, 3}, bytes);
+    }
+
+    @Test
+    public void testShort() throws IOException {
+        assertEquals((short) -2, roundTripValue(Types.SMALLINT, (short) -2));
+    }
+
+    @Test
+    public void testFloat() throws IOException {
+        assertEquals(1.5f, roundTripValue(Types.REAL, 1.5f));
+    }
+
+    @Test
+    public void testSerializableFallsBackToJavaSerialization() throws IOException {
+        UUID uuid = UUID.randomUUID();
+
+        assertEquals(uuid, roundTripValue(Types.OTHER, uuid));
+        assertEquals(LocalDate.of(2020, 2, 29), roundTripValue(Types.OTHER, LocalDate.of(2020, 2, 29)));
+    }
+
+    @Test(expected = IOException.class)
+    public void testNotSerializableValueCannotBeSpilled() throws IOException {
+        roundTripValue(Types.OTHER, new Object());
+    }
+
+    @Test
+    public void testRowsOfMixedTypesRoundTrip() throws IOException {
+        List<DataColumn> columns = Arrays.asList(
+                new DefaultDataColumn("PK", Types.BIGINT, 20, 0),
+                new DefaultDataColumn("p_code", Types.NVARCHAR, 255, 0),
+                new DefaultDataColumn("modifiedTS", Types.TIMESTAMP, 23, 3));
+        ColumnarDataSet.Builder builder = new ColumnarDataSet.Builder(columns, 3);
+        for (int row = 0; row < 3; row++) {
+            builder.addLong(0, row);
+            builder.add(1, row == 1 ? null : "code-" + row);
+            builder.add(2, new Timestamp(row));
+            builder.endRow();
+        }
+
+        DataSet dataSet = roundTrip(builder.build().subSet(1, 3));
+
+        assertEquals(2, dataSet.getRowCount());
+        assertEquals(1L, dataSet.getValue(0, 0));
+        assertNull(dataSet.getValue(0, 1));
+        assertEquals(new Timestamp(1), dataSet.getValue(0, 2));
+        assertEquals(2L, dataSet.getValue(1, 0));
+        assertEquals("code-2", dataSet.getValue(1, 1));
+    }
+
+    private Object roundTripValue(int columnType, Object value) throws IOException {
+        List<DataColumn> columns = Collections.singletonList(new DefaultDataColumn("p_value", columnType, 0, 0));
+        ColumnarDataSet.Builder builder = new ColumnarDataSet.Builder(columns, 1);
+        builder.add(0, value);
+        builder.endRow();
+
+        DataSet dataSet = roundTrip(builder.build());
+
+        assertEquals(1, dataSet.getRowCount());
+        return dataSet.getValue(0, 0);
+    }
+
+    private DataSet roundTrip(DataSet dataSet) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            codec.write(dataSet, out);
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return codec.read(in);
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package org.sap.commercemigration.concurrent.impl;
+
+import de.hybris.bootstrap.annotations.UnitTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.sap.commercemigration.adapter.DataRepositoryAdapter;
+import org.sap.commercemigration.concurrent.DataPipe;
+import org.sap.commercemigration.concurrent.MaybeFinished;
+import org.sap.commercemigration.context.CopyContext;
+import org.sap.commercemigration.context.MigrationContext;
+import org.sap.commercemigration.dataset.DataColumn;
+import org.sap.commercemigration.dataset.DataSet;
+import org.sap.commercemigration.dataset.DataSetConsumer;
+import org.sap.commercemigration.dataset.impl.DefaultDataColumn;
+import org.sap.commercemigration.dataset.impl.DefaultDataSet;
+import org.sap.commercemigration.performance.PerformanceCategory;
+import org.sap.commercemigration.performance.impl.DefaultPerformanceProfiler;
+import org.sap.commercemigration.repository.model.ColumnProjection;
+
+import java.lang.reflect.Proxy;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test for the range readers of {@link DefaultDataPipeFactory}. The source is a table of the keys 0 to 999, read by
+ * a stubbed adapter in slices of the page size. The adapter records the bounds of every cursor it opens.
+ */
+@UnitTest
+public class DefaultDataPipeFactoryTest {
+
+    private static final long ROWS = 1000;
+    private static final int PAGE_SIZE = 100;
+    private static final List<DataColumn> COLUMNS = Collections.singletonList(new DefaultDataColumn("PK", Types.BIGINT, 20, 0));
+
+    private List<String> cursors;
+    private List<Long> keys;
+    private SliceListener sliceListener;
+    private int retryAttempts;
+
+    @Before
+    public void setup() {
+        cursors = new ArrayList<>();
+        keys = new ArrayList<>();
+        sliceListener = (cursor, slice) -> {
+        };
+        retryAttempts = 0;
+    }
+
+    @Test
+    public void testStreamingReaderReadsItsRangeOnce() {
+        DefaultDataPipeFactory.PipeTaskContext context = pipeTaskContext(0);
+
+        assertTrue(new DefaultDataPipeFactory.StreamingDataReaderTask(context, "PK", 200L, 500L).call());
+
+        assertEquals(Collections.singletonList("[200, 500)"), cursors);
+        assertEquals(range(200, 500), keys);
+    }
+
+    @Test
+    public void testStreamingReaderResumesAfterTheLastRowHandedOver() {
+        retryAttempts = 1;
+        sliceListener = (cursor, slice) -> {
+            if (cursor == 0 && slice == 1) {
+                throw new SQLException("connection reset");
+            }
+        };
+        DefaultDataPipeFactory.PipeTaskContext context = pipeTaskContext(0);
+
+        assertTrue(new DefaultDataPipeFactory.StreamingDataReaderTask(context, "PK", null, 500L).call());
+
+        // the second slice was in the pipe before the cursor failed
+        assertEquals(Arrays.asList("[null, 500)", "(199, 500)"), cursors);
+        assertEquals(range(0, 500), keys);
+    }
+
+    @Test
+    public void testIdleReaderTakesOverTheUpperHalfOfARunningRange() {
+        DefaultDataPipeFactory.PipeTaskContext context = pipeTaskContext(0);
+        DefaultDataPipeFactory.StreamingDataReaderTask running = new DefaultDataPipeFactory.StreamingDataReaderTask(context, "PK", null, ROWS);
+        DefaultDataPipeFactory.StreamingDataReaderTask idle = new DefaultDataPipeFactory.StreamingDataReaderTask(context, "PK", ROWS, ROWS);
+        sliceListener = (cursor, slice) -> {
+            // the idle reader completes its empty range once the running one read 200 rows
+            if (cursor == 0 && slice == 1) {
+                assertTrue(idle.call());
+            }
+        };
+
+        assertTrue(running.call());
+
+        // the remaining keys (199, 1000) are halved until fewer than two pages are left
+        assertEquals(Arrays.asList("[null, 1000)", "[1000, 1000)", "[599, 1000)", "[399, 599)", "[299, 399)"), cursors);
+        List<Long> sorted = new ArrayList<>(keys);
+        Collections.sort(sorted);
+        assertEquals(range(0, ROWS), sorted);
+        // the running reader stops at the split point in the middle of its open cursor
+        assertEquals(range(0, 200), keys.subList(0, 200));
+        assertEquals(range(200, 299), keys.subList(keys.size() - 99, keys.size()));
+    }
+
+    @Test
+    public void testRangeIsNotSplitBelowTwoPages() {
+        DefaultDataPipeFactory.PipeTaskContext context = pipeTaskContext(0);
+        DefaultDataPipeFactory.StreamingDataReaderTask running = new DefaultDataPipeFactory.StreamingDataReaderTask(context, "PK", null, 300L);
+        DefaultDataPipeFactory.StreamingDataReaderTask idle = new DefaultDataPipeFactory.StreamingDataReaderTask(context, "PK", 300L, 300L);
+        sliceListener = (cursor, slice) -> {
+            if (cursor == 0 && slice == 1) {
+                assertTrue(idle.call());
+            }
+        };
+
+        assertTrue(running.call());
+
+        assertEquals(Arrays.asList("[null, 300)", "[300, 300)"), cursors);
+        assertEquals(range(0, 300), keys);
+    }
+
+    @Test
+    public void testOpenEndedRangeIsNotSplit() {
+        DefaultDataPipeFactory.PipeTaskContext context = pipeTaskContext(0);
+        DefaultDataPipeFactory.KeyRangeSplitter splitter = context.getKeyRangeSplitter();
+        DefaultDataPipeFactory.StreamingDataReaderTask running = new DefaultDataPipeFactory.StreamingDataReaderTask(context, "PK", null, null);
+        DefaultDataPipeFactory.StreamingDataReaderTask idle = new DefaultDataPipeFactory.StreamingDataReaderTask(context, "PK", ROWS, ROWS);
+        List<Boolean> takenOver = new ArrayList<>();
+        sliceListener = (cursor, slice) -> {
+            if (cursor == 0 && slice == 1) {
+                takenOver.add(splitter.takeOver(idle));
+            }
+        };
+
+        assertTrue(running.call());
+
+        assertEquals(Collections.singletonList(Boolean.FALSE), takenOver);
+        assertEquals(range(0, ROWS), keys);
+    }
+
+    @Test
+    public void testOrderedRangesAreNotSplit() {
+        DefaultDataPipeFactory.PipeTaskContext context = pipeTaskContext(2);
+        DefaultDataPipeFactory.StreamingDataReaderTask running = new DefaultDataPipeFactory.StreamingDataReaderTask(context, "PK", null, ROWS);
+        DefaultDataPipeFactory.StreamingDataReaderTask idle = new DefaultDataPipeFactory.StreamingDataReaderTask(context, "PK", ROWS, ROWS);
+        sliceListener = (cursor, slice) -> {
+            if (cursor == 0 && slice == 1) {
+                assertTrue(idle.call());
+            }
+        };
+
+        assertTrue(running.call());
+
+        assertEquals(Arrays.asList("[null, 1000)", "[1000, 1000)"), cursors);
+        assertEquals(range(0, ROWS), keys);
+    }
+
+    @Test
+    public void testBatchMarkerReaderResumesAfterTheLastPageHandedOver() {
+        retryAttempts = 1;
+        sliceListener = (cursor, slice) -> {
+            if (cursor == 0 && slice == 2) {
+                throw new SQLException("connection reset");
+            }
+        };
+        DefaultDataPipeFactory.PipeTaskContext context = pipeTaskContext(0);
+
+        assertTrue(new DefaultDataPipeFactory.BatchMarkerDataReaderTask(context, "PK", 100L, 600L).call());
+
+        assertEquals(Arrays.asList("[100, 600)", "(399, 600)"), cursors);
+        assertEquals(range(100, 600), keys);
+    }
+
+    @Test
+    public void testBatchMarkerReaderFailsWithoutRetry() {
+        sliceListener = (cursor, slice) -> {
+            throw new SQLException("connection reset");
+        };
+        DefaultDataPipeFactory.PipeTaskContext context = pipeTaskContext(0);
+
+        try {
+            new DefaultDataPipeFactory.BatchMarkerDataReaderTask(context, "PK", 100L, 600L).call();
+            fail("the failed read has to be rethrown");
+        } catch (RuntimeException e) {
+            assertEquals(Collections.singletonList("[100, 600)"), cursors);
+            assertEquals(range(100, 200), keys);
+        }
+    }
+
+    private DefaultDataPipeFactory.PipeTaskContext pipeTaskContext(int laneCount) {
+        MigrationContext migrationContext = proxy(MigrationContext.class, (method, args) -> {
+            if ("getMaxWorkerRetryAttempts".equals(method)) {
+                return retryAttempts;
+            }
+            throw new UnsupportedOperationException(method);
+        });
+        CopyContext context = new CopyContext("migration", migrationContext, Collections.emptySet(), new DefaultPerformanceProfiler());
+        @SuppressWarnings("unchecked")
+        DataPipe<DataSet> pipe = proxy(DataPipe.class, (method, args) -> {
+            if ("put".equals(method)) {
+                DataSet page = ((MaybeFinished<DataSet>) args[0]).getValue();
+                for (int row = 0; row < page.getRowCount(); row++) {
+                    keys.add((Long) page.getValue(row, 0));
+                }
+                return null;
+            }
+            throw new UnsupportedOperationException(method);
+        });
+        return new DefaultDataPipeFactory.PipeTaskContext(context, pipe, "products", adapter(), ColumnProjection.ALL_COLUMNS, PAGE_SIZE,
+                context.getPerformanceProfiler().createRecorder(PerformanceCategory.DB_READ, "products"), laneCount);
+    }
+
+    /**
+     * @return an adapter streaming the keys of the bounds its cursor was opened with, regardless of later splits
+     */
+    private DataRepositoryAdapter adapter() {
+        return proxy(DataRepositoryAdapter.class, (method, args) -> {
+            if (!"streamBatchesOrderedByColumn".equals(method)) {
+                throw new UnsupportedOperationException(method);
+            }
+            Long lowerValue = (Long) args[4];
+            boolean lowerInclusive = (Boolean) args[5];
+            Long upperValue = (Long) args[6];
+            DataSetConsumer consumer = (DataSetConsumer) args[8];
+            int cursor = cursors.size();
+            cursors.add((lowerInclusive ? "[" : "(") + lowerValue + ", " + upperValue + ")");
+            long from = lowerValue == null ? 0 : lowerInclusive ? lowerValue : lowerValue + 1;
+            long to = upperValue == null ? ROWS : Math.min(upperValue, ROWS);
+            int slice = 0;
+            for (long key = from; key < to; key += PAGE_SIZE) {
+                List<List<Object>> rows = new ArrayList<>();
+                for (long value = key; value < Math.min(key + PAGE_SIZE, to); value++) {
+                    rows.add(Collections.singletonList(value));
+                }
+                if (!consumer.accept(new DefaultDataSet(1, COLUMNS, rows))) {
+                    return null;
+                }
+                sliceListener.sliceRead(cursor, slice++);
+            }
+            return null;
+        });
+    }
+
+    private static List<Long> range(long from, long to) {
+        List<Long> values = new ArrayList<>();
+        for (long value = from; value < to; value++) {
+            values.add(value);
+        }
+        return values;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return (T) Proxy.newProxyInstance(DefaultDataPipeFactoryTest.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> handler.handle(method.getName(), args));
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object handle(String method, Object[] args) throws Exception;
+    }
+
+    @FunctionalInterface
+    private interface SliceListener {
+        /**
+         * Called once the consumer accepted a slice of a cursor, both counted from 0
+         */
+        void sliceRead(int cursor, int slice) throws Exception;
+    }
+}
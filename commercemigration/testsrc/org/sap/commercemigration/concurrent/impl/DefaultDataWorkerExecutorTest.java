@@ -0,0 +1,73 @@
+package org.sap.commercemigration.concurrent.impl;
+
+import de.hybris.bootstrap.annotations.UnitTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Test for {@link DefaultDataWorkerExecutor}.
+ */
+@UnitTest
+public class DefaultDataWorkerExecutorTest {
+
+    private ThreadPoolTaskExecutor taskExecutor;
+
+    @Before
+    public void setup() {
+        taskExecutor = new ThreadPoolTaskExecutor();
+        taskExecutor.setCorePoolSize(2);
+        taskExecutor.setMaxPoolSize(2);
+        taskExecutor.initialize();
+    }
+
+    @After
+    public void tearDown() {
+        taskExecutor.shutdown();
+    }
+
+    @Test
+    public void testTryDoesNotSubmitWhileTheWindowIsFull() throws Exception {
+        DefaultDataWorkerExecutor<Boolean> executor = new DefaultDataWorkerExecutor<>(taskExecutor, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<Boolean> running = executor.trySafelyExecute(() -> {
+            release.await();
+            return Boolean.TRUE;
+        });
+        assertNotNull(running);
+
+        assertNull(executor.trySafelyExecute(() -> Boolean.TRUE));
+
+        release.countDown();
+        running.get();
+        Future<Boolean> next = null;
+        for (int attempt = 0; next == null && attempt < 100; attempt++) {
+            // the window is released right after the task returned
+            next = executor.trySafelyExecute(() -> Boolean.FALSE);
+            if (next == null) {
+                Thread.sleep(10);
+            }
+        }
+        assertNotNull(next);
+        assertEquals(Boolean.FALSE, next.get());
+        executor.waitAndRethrowUncaughtExceptions();
+    }
+
+    @Test
+    public void testTryAlwaysSubmitsWithoutWindow() throws Exception {
+        DefaultDataWorkerExecutor<Boolean> executor = new DefaultDataWorkerExecutor<>(taskExecutor);
+
+        for (int i = 0; i < 10; i++) {
+            assertNotNull(executor.trySafelyExecute(() -> Boolean.TRUE));
+        }
+        executor.waitAndRethrowUncaughtExceptions();
+    }
+}
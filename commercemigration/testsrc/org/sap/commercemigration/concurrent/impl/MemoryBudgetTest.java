@@ -0,0 +1,63 @@
+package org.sap.commercemigration.concurrent.impl;
+
+import de.hybris.bootstrap.annotations.UnitTest;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test for {@link MemoryBudget}.
+ */
+@UnitTest
+public class MemoryBudgetTest {
+
+    @Test
+    public void testReservesWithinCapacity() throws InterruptedException {
+        MemoryBudget budget = new MemoryBudget(100);
+
+        assertTrue(budget.reserve(60, 0));
+        assertTrue(budget.reserve(40, 0));
+        assertEquals(100, budget.getReserved());
+        assertFalse(budget.reserve(1, 10));
+        assertEquals(100, budget.getReserved());
+    }
+
+    @Test
+    public void testOversizedReservationIsGrantedWhenNothingIsReserved() throws InterruptedException {
+        MemoryBudget budget = new MemoryBudget(100);
+
+        assertTrue(budget.reserve(500, 0));
+        assertFalse(budget.reserve(1, 10));
+        budget.release(500);
+        assertTrue(budget.reserve(1, 0));
+    }
+
+    @Test
+    public void testReleaseWakesUpWaitingReservation() throws Exception {
+        MemoryBudget budget = new MemoryBudget(100);
+        budget.reserve(100, 0);
+        Thread releaser = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            budget.release(50);
+        });
+        releaser.start();
+
+        assertTrue(budget.reserve(50, 10000));
+        releaser.join();
+        assertEquals(100, budget.getReserved());
+    }
+
+    @Test
+    public void testUnlimitedBudget() throws InterruptedException {
+        MemoryBudget budget = new MemoryBudget(0);
+
+        assertTrue(budget.reserve(Long.MAX_VALUE / 2, 0));
+        assertTrue(budget.reserve(Long.MAX_VALUE / 2, 0));
+    }
+}
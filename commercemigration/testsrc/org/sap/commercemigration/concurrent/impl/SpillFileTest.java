@@ -0,0 +1,122 @@
+package org.sap.commercemigration.concurrent.impl;
+
+import de.hybris.bootstrap.annotations.UnitTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.sap.commercemigration.dataset.DataSet;
+import org.sap.commercemigration.dataset.impl.ColumnarDataSet;
+import org.sap.commercemigration.dataset.impl.DefaultDataColumn;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Types;
+import java.util.Collections;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test for {@link SpillFile}.
+ */
+@UnitTest
+public class SpillFileTest {
+
+    private static final SpillCodec<String> CODEC = new SpillCodec<String>() {
+        @Override
+        public void write(String value, DataOutput out) throws IOException {
+            out.writeUTF(value);
+        }
+
+        @Override
+        public String read(DataInput in) throws IOException {
+            return in.readUTF();
+        }
+    };
+
+    private Path directory;
+    private SpillFile<String> spillFile;
+
+    @Before
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("spillfiletest");
+        spillFile = new SpillFile<>(directory.toString(), "test", CODEC);
+    }
+
+    @After
+    public void teardown() throws IOException {
+        spillFile.close();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> file.toFile().delete());
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    public void testValuesAreReadBackInAnyOrder() throws IOException {
+        SpillFile.Segment first = spillFile.write("first");
+        SpillFile.Segment second = spillFile.write("second");
+        SpillFile.Segment third = spillFile.write("third");
+
+        assertFalse(spillFile.isEmpty());
+        assertEquals("second", spillFile.read(second));
+        assertEquals("third", spillFile.read(third));
+        assertEquals("first", spillFile.read(first));
+        assertTrue(spillFile.isEmpty());
+    }
+
+    @Test
+    public void testFileIsEmptiedOnceEverythingWasRead() throws IOException {
+        SpillFile.Segment segment = spillFile.write("value");
+        assertTrue(spillFile.getSize() > 0);
+
+        assertEquals("value", spillFile.read(segment));
+        assertEquals(0, spillFile.getSize());
+
+        SpillFile.Segment next = spillFile.write("next");
+        assertEquals("next", spillFile.read(next));
+    }
+
+    @Test
+    public void testNoFileIsLeftAfterClose() throws IOException {
+        spillFile.write("value");
+
+        spillFile.close();
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testClosedFileCannotBeWritten() throws IOException {
+        spillFile.close();
+        spillFile.write("value");
+    }
+
+    @Test
+    public void testDataSetRoundTripThroughFile() throws IOException {
+        SpillFile<DataSet> dataSetFile = new SpillFile<>(directory.toString(), "test", new DataSetSpillCodec());
+        try {
+            ColumnarDataSet.Builder builder = new ColumnarDataSet.Builder(Collections.singletonList(new DefaultDataColumn("PK", Types.BIGINT, 20, 0)), 2);
+            builder.addLong(0, 1L);
+            builder.endRow();
+            builder.add(0, null);
+            builder.endRow();
+
+            DataSet dataSet = dataSetFile.read(dataSetFile.write(builder.build()));
+
+            assertEquals(2, dataSet.getRowCount());
+            assertEquals(1L, dataSet.getValue(0, 0));
+            assertNull(dataSet.getValue(1, 0));
+        } finally {
+            dataSetFile.close();
+        }
+    }
+}
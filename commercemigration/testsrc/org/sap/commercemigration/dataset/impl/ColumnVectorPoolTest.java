@@ -0,0 +1,135 @@
+package org.sap.commercemigration.dataset.impl;
+
+import de.hybris.bootstrap.annotations.UnitTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.sap.commercemigration.dataset.DataColumn;
+import org.sap.commercemigration.dataset.DataSet;
+import org.sap.commercemigration.performance.impl.DefaultPerformanceProfiler;
+
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test for {@link ColumnVectorPool}.
+ */
+@UnitTest
+public class ColumnVectorPoolTest {
+
+    private static final List<DataColumn> COLUMNS = Arrays.asList(
+            new DefaultDataColumn("PK", Types.BIGINT, 20, 0),
+            new DefaultDataColumn("p_code", Types.NVARCHAR, 255, 0));
+
+    private ColumnVectorPool pool;
+
+    @Before
+    public void setup() {
+        pool = new ColumnVectorPool(1024 * 1024, new DefaultPerformanceProfiler(), "test");
+    }
+
+    @Test
+    public void testReleasedVectorsAreHandedOutCleared() {
+        ColumnarDataSet.Builder builder = new ColumnarDataSet.Builder(COLUMNS, 4, 0, pool);
+        addRow(builder, 1L, null);
+        addRow(builder, 2L, "code-2");
+        ColumnarDataSet first = builder.build();
+        ColumnVector longVector = first.getColumn(0);
+        ColumnVector stringVector = first.getColumn(1);
+
+        first.release();
+        addRow(builder, 3L, "code-3");
+        ColumnarDataSet second = builder.build();
+
+        assertSame(longVector, second.getColumn(0));
+        assertSame(stringVector, second.getColumn(1));
+        assertEquals(1, second.getColumn(0).size());
+        assertEquals(3L, second.getValue(0, 0));
+        assertEquals("code-3", second.getValue(0, 1));
+        assertFalse(second.getColumn(1).isNull(0));
+    }
+
+    @Test
+    public void testReleasingASubSetReleasesTheVectorsOnce() {
+        ColumnarDataSet.Builder builder = new ColumnarDataSet.Builder(COLUMNS, 4, 0, pool);
+        addRow(builder, 1L, "code-1");
+        addRow(builder, 2L, "code-2");
+        ColumnarDataSet dataSet = builder.build();
+        DataSet subSet = dataSet.subSet(1, 2);
+
+        subSet.release();
+        dataSet.release();
+        addRow(builder, 3L, "code-3");
+        ColumnarDataSet first = builder.build();
+        addRow(builder, 4L, "code-4");
+        ColumnarDataSet second = builder.build();
+
+        assertSame(dataSet.getColumn(0), first.getColumn(0));
+        assertNotSame(first.getColumn(0), second.getColumn(0));
+    }
+
+    @Test
+    public void testVectorsAreNotKeptBeyondCapacity() {
+        ColumnVectorPool smallPool = new ColumnVectorPool(1, new DefaultPerformanceProfiler(), "test");
+        ColumnarDataSet.Builder builder = new ColumnarDataSet.Builder(COLUMNS, 4, 0, smallPool);
+        addRow(builder, 1L, "code-1");
+        ColumnarDataSet first = builder.build();
+
+        first.release();
+        addRow(builder, 2L, "code-2");
+
+        assertNotSame(first.getColumn(0), builder.build().getColumn(0));
+    }
+
+    @Test
+    public void testDictionaryVectorIsConfiguredForTheColumnItIsHandedOutFor() {
+        List<DataColumn> columns = Arrays.asList(new DefaultDataColumn("p_status", Types.VARCHAR, 10, 0));
+        ColumnarDataSet.Builder builder = new ColumnarDataSet.Builder(columns, 4, 1, pool);
+        addValue(builder, "open");
+        ColumnarDataSet first = builder.build();
+        ColumnVector dictionary = first.getColumn(0);
+        assertTrue(dictionary instanceof ColumnVector.DictionaryVector);
+        first.release();
+
+        List<DataColumn> otherColumns = Arrays.asList(new DefaultDataColumn("p_number", Types.NUMERIC, 10, 0));
+        ColumnarDataSet.Builder otherBuilder = new ColumnarDataSet.Builder(otherColumns, 4, 1, pool);
+        addValue(otherBuilder, 1L);
+        addValue(otherBuilder, null);
+        ColumnarDataSet second = otherBuilder.build();
+
+        assertSame(dictionary, second.getColumn(0));
+        assertEquals(1, ((ColumnVector.DictionaryVector) second.getColumn(0)).getEntryCount());
+        assertEquals(1L, second.getValue(0, 0));
+        assertNull(second.getValue(1, 0));
+    }
+
+    @Test
+    public void testDataSetWithoutPoolIgnoresRelease() {
+        ColumnarDataSet.Builder builder = new ColumnarDataSet.Builder(COLUMNS, 4);
+        addRow(builder, 1L, "code-1");
+        ColumnarDataSet dataSet = builder.build();
+
+        dataSet.release();
+
+        assertEquals(1L, dataSet.getValue(0, 0));
+        assertEquals("code-1", dataSet.getValue(0, 1));
+    }
+
+    private static void addRow(ColumnarDataSet.Builder builder, long pk, String code) {
+        builder.addLong(0, pk);
+        builder.add(1, code);
+        builder.endRow();
+    }
+
+    private static void addValue(ColumnarDataSet.Builder builder, Object value) {
+        builder.add(0, value);
+        builder.endRow();
+    }
+}
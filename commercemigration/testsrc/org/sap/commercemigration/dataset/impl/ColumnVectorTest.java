@@ -0,0 +1,188 @@
+package org.sap.commercemigration.dataset.impl;
+
+import de.hybris.bootstrap.annotations.UnitTest;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.sql.Types;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test for {@link ColumnVector}.
+ */
+@UnitTest
+public class ColumnVectorTest {
+
+    @Test
+    public void testLongVectorRoundTrip() {
+        ColumnVector.LongVector vector = (ColumnVector.LongVector) ColumnVector.forType(Types.BIGINT, 1);
+        for (long i = 0; i < 100; i++) {
+            vector.appendLong(i * 1000);
+        }
+        assertEquals(100, vector.size());
+        assertEquals(99000L, vector.getLong(99));
+        assertEquals(99000L, vector.get(99));
+    }
+
+    @Test
+    public void testIntVectorRoundTrip() {
+        ColumnVector vector = ColumnVector.forType(Types.INTEGER, 4);
+        assertTrue(vector.append(Integer.MIN_VALUE));
+        assertTrue(vector.append(Integer.MAX_VALUE));
+        assertEquals(Integer.MIN_VALUE, vector.get(0));
+        assertEquals(Integer.MAX_VALUE, ((ColumnVector.IntVector) vector).getInt(1));
+    }
+
+    @Test
+    public void testDoubleVectorRoundTrip() {
+        ColumnVector vector = ColumnVector.forType(Types.DOUBLE, 4);
+        assertTrue(vector.append(0.1d));
+        assertTrue(vector.append(-Double.MAX_VALUE));
+        assertEquals(0.1d, vector.get(0));
+        assertEquals(-Double.MAX_VALUE, ((ColumnVector.DoubleVector) vector).getDouble(1), 0d);
+    }
+
+    @Test
+    public void testStringVectorRoundTrip() {
+        ColumnVector vector = ColumnVector.forType(Types.NVARCHAR, 1);
+        String longValue = new String(new char[1000]).replace('\0', 'x');
+        assertTrue(vector.append("first"));
+        assertTrue(vector.append(""));
+        assertTrue(vector.append(null));
+        assertTrue(vector.append(longValue));
+        assertTrue(vector.append("\u00e4\u00f6\u00fc"));
+        assertEquals("first", vector.get(0));
+        assertEquals("", vector.get(1));
+        assertNull(vector.get(2));
+        assertEquals(longValue, vector.get(3));
+        assertEquals("\u00e4\u00f6\u00fc", vector.get(4));
+    }
+
+    @Test
+    public void testBytesVectorRoundTrip() {
+        ColumnVector vector = ColumnVector.forType(Types.VARBINARY, 1);
+        byte[] longValue = new byte[1000];
+        longValue[999] = 42;
+        assertTrue(vector.append(new byte[]{1, 2, 3}));
+        assertTrue(vector.append(null));
+        assertTrue(vector.append(new byte[0]));
+        assertTrue(vector.append(longValue));
+        assertArrayEquals(new byte[]{1, 2, 3}, (byte[]) vector.get(0));
+        assertNull(vector.get(1));
+        assertArrayEquals(new byte[0], (byte[]) vector.get(2));
+        assertArrayEquals(longValue, (byte[]) vector.get(3));
+    }
+
+    @Test
+    public void testTimestampVectorKeepsNanos() {
+        ColumnVector vector = ColumnVector.forType(Types.TIMESTAMP, 1);
+        Timestamp timestamp = Timestamp.valueOf("2020-02-29 23:59:59.123456789");
+        assertTrue(vector.append(timestamp));
+        assertEquals(timestamp, vector.get(0));
+        assertEquals(123456789, ((Timestamp) vector.get(0)).getNanos());
+    }
+
+    @Test
+    public void testNullBitmapOfPrimitiveVector() {
+        ColumnVector vector = ColumnVector.forType(Types.BIGINT, 1);
+        for (long i = 0; i < 40; i++) {
+            assertTrue(vector.append(i % 3 == 0 ? null : i));
+        }
+        for (int row = 0; row < 40; row++) {
+            assertEquals(row % 3 == 0, vector.isNull(row));
+            assertEquals(row % 3 == 0 ? null : (long) row, vector.get(row));
+        }
+    }
+
+    @Test
+    public void testClearResetsNullBitmap() {
+        ColumnVector vector = ColumnVector.forType(Types.INTEGER, 1);
+        vector.append(null);
+        vector.append(1);
+        vector.clear();
+        assertEquals(0, vector.size());
+        vector.append(2);
+        assertFalse(vector.isNull(0));
+        assertEquals(2, vector.get(0));
+    }
+
+    @Test
+    public void testRejectsValueOfOtherTypeAndFallsBackToObjectVector() {
+        ColumnVector vector = ColumnVector.forType(Types.BIGINT, 1);
+        vector.append(1L);
+        vector.append(null);
+        assertFalse(vector.append(BigDecimal.TEN));
+        assertEquals(2, vector.size());
+
+        ColumnVector fallback = vector.fallback();
+        assertTrue(fallback instanceof ColumnVector.ObjectVector);
+        assertTrue(fallback.append(BigDecimal.TEN));
+        assertEquals(1L, fallback.get(0));
+        assertTrue(fallback.isNull(1));
+        assertEquals(BigDecimal.TEN, fallback.get(2));
+    }
+
+    @Test
+    public void testTimestampVectorRejectsSubclasses() {
+        ColumnVector vector = ColumnVector.forType(Types.TIMESTAMP, 1);
+        assertFalse(vector.append(new Timestamp(0) {
+        }));
+    }
+
+    @Test
+    public void testDictionaryVectorKeepsDistinctValuesOnce() {
+        ColumnVector.DictionaryVector vector = new ColumnVector.DictionaryVector(Types.VARCHAR, 4, 2);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(vector.append(i % 2 == 0 ? "even" : "odd"));
+        }
+        assertTrue(vector.append(null));
+        assertEquals(2, vector.getEntryCount());
+        assertEquals(11, vector.size());
+        assertEquals("even", vector.get(8));
+        assertEquals("odd", vector.get(9));
+        assertTrue(vector.isNull(10));
+        assertTrue(vector.get(0) == vector.get(2));
+    }
+
+    @Test
+    public void testFullDictionaryFallsBackToVectorOfColumnType() {
+        ColumnVector.DictionaryVector vector = new ColumnVector.DictionaryVector(Types.VARCHAR, 4, 2);
+        vector.append("a");
+        vector.append(null);
+        vector.append("b");
+        assertFalse(vector.append("c"));
+
+        ColumnVector fallback = vector.fallback();
+        assertTrue(fallback instanceof ColumnVector.StringVector);
+        assertTrue(fallback.append("c"));
+        assertEquals("a", fallback.get(0));
+        assertTrue(fallback.isNull(1));
+        assertEquals("b", fallback.get(2));
+        assertEquals("c", fallback.get(3));
+    }
+
+    @Test
+    public void testDictionaryOfMixedTypesFallsBackToObjectVector() {
+        ColumnVector.DictionaryVector vector = new ColumnVector.DictionaryVector(Types.VARCHAR, 4, 2);
+        vector.append("a");
+        vector.append(1L);
+        assertFalse(vector.append("b"));
+
+        ColumnVector fallback = vector.fallback();
+        assertTrue(fallback instanceof ColumnVector.ObjectVector);
+        assertEquals("a", fallback.get(0));
+        assertEquals(1L, fallback.get(1));
+    }
+
+    @Test
+    public void testDictionaryRejectsValuesWithoutValueEquality() {
+        ColumnVector.DictionaryVector vector = new ColumnVector.DictionaryVector(Types.VARCHAR, 4, 10);
+        assertFalse(vector.append(new byte[]{1}));
+    }
+}
@@ -0,0 +1,264 @@
+package org.sap.commercemigration.dataset.impl;
+
+import de.hybris.bootstrap.annotations.UnitTest;
+import org.junit.Test;
+import org.sap.commercemigration.dataset.DataColumn;
+import org.sap.commercemigration.dataset.DataSet;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test for {@link ColumnarDataSet}.
+ */
+@UnitTest
+public class ColumnarDataSetTest {
+
+    private static final List<DataColumn> COLUMNS = Arrays.asList(
+            new DefaultDataColumn("PK", Types.BIGINT, 20, 0),
+            new DefaultDataColumn("p_count", Types.INTEGER, 10, 0),
+            new DefaultDataColumn("p_price", Types.DOUBLE, 53, 0),
+            new DefaultDataColumn("p_code", Types.NVARCHAR, 255, 0),
+            new DefaultDataColumn("p_data", Types.VARBINARY, 1000, 0),
+            new DefaultDataColumn("modifiedTS", Types.TIMESTAMP, 23, 3),
+            new DefaultDataColumn("p_amount", Types.DECIMAL, 30, 2));
+
+    @Test
+    public void testRoundTripOfEveryVectorType() {
+        ColumnarDataSet dataSet = build(10);
+
+        assertEquals(10, dataSet.getRowCount());
+        assertEquals(COLUMNS.size(), dataSet.getColumnCount());
+        for (int row = 0; row < 10; row++) {
+            assertRow(dataSet, row, row);
+        }
+    }
+
+    @Test
+    public void testTypedVectorsAreUsed() {
+        ColumnarDataSet dataSet = build(2);
+
+        assertTrue(dataSet.getColumn(0) instanceof ColumnVector.LongVector);
+        assertTrue(dataSet.getColumn(1) instanceof ColumnVector.IntVector);
+        assertTrue(dataSet.getColumn(2) instanceof ColumnVector.DoubleVector);
+        assertTrue(dataSet.getColumn(3) instanceof ColumnVector.StringVector);
+        assertTrue(dataSet.getColumn(4) instanceof ColumnVector.BytesVector);
+        assertTrue(dataSet.getColumn(5) instanceof ColumnVector.TimestampVector);
+        assertTrue(dataSet.getColumn(6) instanceof ColumnVector.ObjectVector);
+    }
+
+    @Test
+    public void testNullsInEveryColumn() {
+        ColumnarDataSet.Builder builder = new ColumnarDataSet.Builder(COLUMNS, 4);
+        for (int row = 0; row < 4; row++) {
+            for (int column = 0; column < COLUMNS.size(); column++) {
+                builder.add(column, null);
+            }
+            builder.endRow();
+        }
+        ColumnarDataSet dataSet = builder.build();
+
+        for (int row = 0; row < 4; row++) {
+            for (int column = 0; column < COLUMNS.size(); column++) {
+                assertNull(dataSet.getValue(row, column));
+                assertTrue(dataSet.getColumn(column).isNull(row));
+            }
+        }
+    }
+
+    @Test
+    public void testValueOfOtherTypeFallsBackToObjectVector() {
+        ColumnarDataSet.Builder builder = new ColumnarDataSet.Builder(COLUMNS.subList(0, 1), 4);
+        builder.addLong(0, 1L);
+        builder.endRow();
+        builder.add(0, new BigDecimal("12345678901234567890"));
+        builder.endRow();
+        builder.addLong(0, 3L);
+        builder.endRow();
+        ColumnarDataSet dataSet = builder.build();
+
+        assertTrue(dataSet.getColumn(0) instanceof ColumnVector.ObjectVector);
+        assertEquals(1L, dataSet.getValue(0, 0));
+        assertEquals(new BigDecimal("12345678901234567890"), dataSet.getValue(1, 0));
+        assertEquals(3L, dataSet.getValue(2, 0));
+    }
+
+    @Test
+    public void testColumnsAreFoundCaseInsensitive() {
+        ColumnarDataSet dataSet = build(1);
+
+        assertEquals(0, dataSet.getColumnIndex("pk"));
+        assertEquals(5, dataSet.getColumnIndex("MODIFIEDTS"));
+        assertEquals(-1, dataSet.getColumnIndex("p_unknown"));
+        assertEquals(-1, dataSet.getColumnIndex(null));
+        assertTrue(dataSet.hasColumn("P_CODE"));
+        assertFalse(dataSet.hasColumn("p_unknown"));
+    }
+
+    @Test
+    public void testAllResultsAreRowViews() {
+        ColumnarDataSet dataSet = build(3);
+
+        List<List<Object>> rows = dataSet.getAllResults();
+        assertEquals(3, rows.size());
+        assertEquals(COLUMNS.size(), rows.get(2).size());
+        assertEquals(2L, rows.get(2).get(0));
+        assertEquals("code-2", dataSet.getColumnValue("p_code", rows.get(2)));
+        assertEquals("code-1", dataSet.getColumnValue("p_code", Arrays.asList(null, null, null, "code-1")));
+    }
+
+    @Test
+    public void testSubSetReadsTheRowsOfItsRange() {
+        ColumnarDataSet dataSet = build(10);
+
+        DataSet subSet = dataSet.subSet(3, 7);
+        assertEquals(4, subSet.getRowCount());
+        for (int row = 0; row < 4; row++) {
+            assertRow(subSet, row, row + 3);
+        }
+        DataSet nested = subSet.subSet(1, 2);
+        assertEquals(1, nested.getRowCount());
+        assertRow(nested, 0, 4);
+        assertEquals(4L, nested.getAllResults().get(0).get(0));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testSubSetBeyondRowCount() {
+        build(2).subSet(1, 3);
+    }
+
+    @Test
+    public void testBuilderStartsNewBatchAfterBuild() {
+        ColumnarDataSet.Builder builder = new ColumnarDataSet.Builder(COLUMNS, 4);
+        addRows(builder, 0, 3);
+        ColumnarDataSet first = builder.build();
+        assertEquals(0, builder.getRowCount());
+        addRows(builder, 3, 5);
+        ColumnarDataSet second = builder.build();
+
+        assertEquals(3, first.getRowCount());
+        assertEquals(2, second.getRowCount());
+        assertRow(first, 2, 2);
+        assertRow(second, 0, 3);
+        assertRow(second, 1, 4);
+    }
+
+    @Test
+    public void testEstimatedSizeCoversTheRowsOfTheSubSet() {
+        ColumnarDataSet dataSet = build(10);
+
+        long size = dataSet.getEstimatedSize();
+        assertTrue(size > 0);
+        assertEquals(size, dataSet.subSet(0, 5).getEstimatedSize() + dataSet.subSet(5, 10).getEstimatedSize());
+        assertEquals(0, dataSet.subSet(3, 3).getEstimatedSize());
+    }
+
+    @Test
+    public void testEstimatedSizeGrowsWithTheLengthOfTheValues() {
+        List<DataColumn> columns = Arrays.asList(new DefaultDataColumn("p_text", Types.NVARCHAR, 4000, 0));
+        ColumnarDataSet.Builder builder = new ColumnarDataSet.Builder(columns, 2);
+        builder.add(0, "short");
+        builder.endRow();
+        builder.add(0, new String(new char[1000]));
+        builder.endRow();
+        ColumnarDataSet dataSet = builder.build();
+
+        assertTrue(dataSet.subSet(1, 2).getEstimatedSize() >= 2000);
+        assertTrue(dataSet.subSet(0, 1).getEstimatedSize() < 100);
+    }
+
+    @Test
+    public void testDictionaryColumnIsStoredPlainOnceItsDictionaryOverflowed() {
+        List<DataColumn> columns = Arrays.asList(new DefaultDataColumn("p_status", Types.VARCHAR, 10, 0));
+        ColumnarDataSet.Builder builder = new ColumnarDataSet.Builder(columns, 4, 2, null);
+
+        addValues(builder, "open", "closed", "open", null);
+        ColumnarDataSet first = builder.build();
+        assertTrue(first.getColumn(0) instanceof ColumnVector.DictionaryVector);
+        assertEquals(Arrays.asList("open", "closed", "open", null), values(first));
+
+        addValues(builder, "open", "closed", "pending");
+        ColumnarDataSet second = builder.build();
+        assertTrue(second.getColumn(0) instanceof ColumnVector.StringVector);
+        assertEquals(Arrays.asList("open", "closed", "pending"), values(second));
+
+        addValues(builder, "open");
+        assertTrue(builder.build().getColumn(0) instanceof ColumnVector.StringVector);
+    }
+
+    @Test
+    public void testOnlyShortCharacterAndExactNumericColumnsAreDictionaryEncoded() {
+        List<DataColumn> columns = Arrays.asList(
+                new DefaultDataColumn("p_code", Types.NVARCHAR, 255, 0),
+                new DefaultDataColumn("p_text", Types.NVARCHAR, 4000, 0),
+                new DefaultDataColumn("p_flag", Types.BIT, 1, 0),
+                new DefaultDataColumn("PK", Types.BIGINT, 20, 0));
+        ColumnarDataSet.Builder builder = new ColumnarDataSet.Builder(columns, 1, 16, null);
+        builder.add(0, "code");
+        builder.add(1, "text");
+        builder.add(2, Boolean.TRUE);
+        builder.addLong(3, 1L);
+        builder.endRow();
+        ColumnarDataSet dataSet = builder.build();
+
+        assertTrue(dataSet.getColumn(0) instanceof ColumnVector.DictionaryVector);
+        assertTrue(dataSet.getColumn(1) instanceof ColumnVector.StringVector);
+        assertTrue(dataSet.getColumn(2) instanceof ColumnVector.DictionaryVector);
+        assertTrue(dataSet.getColumn(3) instanceof ColumnVector.LongVector);
+        assertEquals(Boolean.TRUE, dataSet.getValue(0, 2));
+    }
+
+    private static void addValues(ColumnarDataSet.Builder builder, String... values) {
+        for (String value : values) {
+            builder.add(0, value);
+            builder.endRow();
+        }
+    }
+
+    private static List<Object> values(DataSet dataSet) {
+        List<Object> values = new ArrayList<>();
+        for (int row = 0; row < dataSet.getRowCount(); row++) {
+            values.add(dataSet.getValue(row, 0));
+        }
+        return values;
+    }
+
+    private static ColumnarDataSet build(int rowCount) {
+        ColumnarDataSet.Builder builder = new ColumnarDataSet.Builder(COLUMNS, rowCount);
+        addRows(builder, 0, rowCount);
+        return builder.build();
+    }
+
+    private static void addRows(ColumnarDataSet.Builder builder, int fromRow, int toRow) {
+        for (int row = fromRow; row < toRow; row++) {
+            builder.addLong(0, row);
+            builder.addInt(1, row * 2);
+            builder.addDouble(2, row / 4d);
+            builder.add(3, "code-" + row);
+            builder.add(4, new byte[]{(byte) row, 1});
+            builder.add(5, new Timestamp(1000L * row));
+            builder.add(6, BigDecimal.valueOf(row, 2));
+            builder.endRow();
+        }
+    }
+
+    private static void assertRow(DataSet dataSet, int row, int expectedRow) {
+        assertEquals((long) expectedRow, dataSet.getValue(row, 0));
+        assertEquals(expectedRow * 2, dataSet.getValue(row, 1));
+        assertEquals(expectedRow / 4d, dataSet.getValue(row, 2));
+        assertEquals("code-" + expectedRow, dataSet.getValue(row, 3));
+        assertArrayEquals(new byte[]{(byte) expectedRow, 1}, (byte[]) dataSet.getValue(row, 4));
+        assertEquals(new Timestamp(1000L * expectedRow), dataSet.getValue(row, 5));
+        assertEquals(BigDecimal.valueOf(expectedRow, 2), dataSet.getValue(row, 6));
+    }
+}
@@ -0,0 +1,115 @@
+package org.sap.commercemigration.dataset.impl;
+
+import de.hybris.bootstrap.annotations.UnitTest;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test for {@link ResultSetBulkData}. The cursor is stubbed by a proxy over a list of rows.
+ */
+@UnitTest
+public class ResultSetBulkDataTest {
+
+    private static final String[] NAMES = {"PK", "p_code", "p_data", "p_text"};
+    private static final int[] TYPES = {Types.BIGINT, Types.NVARCHAR, Types.BLOB, Types.NCLOB};
+
+    @Test
+    public void testAnnouncesColumnsOfTheCursor() throws SQLException {
+        ResultSetBulkData bulkData = new ResultSetBulkData(cursor(new ArrayList<>()), 10, rows -> {
+        });
+
+        assertEquals(4, bulkData.getColumnOrdinals().size());
+        assertEquals("PK", bulkData.getColumnName(1));
+        assertEquals(Types.BIGINT, bulkData.getColumnType(1));
+        assertEquals(19, bulkData.getPrecision(1));
+        assertEquals(Types.NVARCHAR, bulkData.getColumnType(2));
+        assertEquals(Types.LONGVARBINARY, bulkData.getColumnType(3));
+        assertEquals(Integer.MAX_VALUE, bulkData.getPrecision(3));
+        assertEquals(Types.LONGNVARCHAR, bulkData.getColumnType(4));
+        assertEquals(Integer.MAX_VALUE, bulkData.getPrecision(4));
+    }
+
+    @Test
+    public void testReadsLargeObjectsAsBytesAndStrings() throws SQLException {
+        ResultSetBulkData bulkData = new ResultSetBulkData(cursor(Arrays.asList(
+                Arrays.asList(1L, "code-1", new byte[]{1, 2}, "text-1"),
+                Arrays.asList(2L, null, null, null))), 10, rows -> {
+        });
+
+        assertTrue(bulkData.next());
+        Object[] first = bulkData.getRowData();
+        assertEquals(1L, first[0]);
+        assertEquals("code-1", first[1]);
+        assertArrayEquals(new byte[]{1, 2}, (byte[]) first[2]);
+        assertEquals("text-1", first[3]);
+        assertTrue(bulkData.next());
+        assertArrayEquals(new Object[]{2L, null, null, null}, bulkData.getRowData());
+        assertFalse(bulkData.next());
+        assertEquals(2, bulkData.getRowCount());
+    }
+
+    @Test
+    public void testReportsProgressEveryIntervalAndAtTheEnd() throws SQLException {
+        List<List<Object>> rows = new ArrayList<>();
+        for (long pk = 0; pk < 5; pk++) {
+            rows.add(Arrays.asList(pk, null, null, null));
+        }
+        List<Long> progress = new ArrayList<>();
+        ResultSetBulkData bulkData = new ResultSetBulkData(cursor(rows), 2, progress::add);
+
+        while (bulkData.next()) {
+            bulkData.getRowData();
+        }
+
+        assertEquals(Arrays.asList(2L, 4L, 5L), progress);
+    }
+
+    private static ResultSet cursor(List<List<Object>> rows) {
+        ResultSetMetaData metaData = (ResultSetMetaData) Proxy.newProxyInstance(ResultSetBulkDataTest.class.getClassLoader(), new Class<?>[]{ResultSetMetaData.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getColumnCount":
+                            return NAMES.length;
+                        case "getColumnName":
+                            return NAMES[(Integer) args[0] - 1];
+                        case "getColumnType":
+                            return TYPES[(Integer) args[0] - 1];
+                        case "getPrecision":
+                            return 19;
+                        case "getScale":
+                            return 0;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+        int[] row = {-1};
+        return (ResultSet) Proxy.newProxyInstance(ResultSetBulkDataTest.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getMetaData":
+                            return metaData;
+                        case "next":
+                            return ++row[0] < rows.size();
+                        case "getObject":
+                        case "getBytes":
+                        case "getString":
+                            return rows.get(row[0]).get((Integer) args[0] - 1);
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+}
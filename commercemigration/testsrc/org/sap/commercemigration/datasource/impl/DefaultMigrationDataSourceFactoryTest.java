@@ -0,0 +1,72 @@
+package org.sap.commercemigration.datasource.impl;
+
+import com.zaxxer.hikari.HikariConfig;
+import de.hybris.bootstrap.annotations.UnitTest;
+import org.junit.Test;
+import org.sap.commercemigration.profile.DataSourceConfiguration;
+
+import java.lang.reflect.Proxy;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test for the statement cache settings of {@link DefaultMigrationDataSourceFactory}.
+ */
+@UnitTest
+public class DefaultMigrationDataSourceFactoryTest {
+
+    private final DefaultMigrationDataSourceFactory factory = new DefaultMigrationDataSourceFactory();
+
+    @Test
+    public void testEnablesStatementPoolingOfSqlServer() {
+        Properties properties = configure("jdbc:sqlserver://localhost:1433;databaseName=commerce", 32);
+
+        assertEquals("false", properties.getProperty("disableStatementPooling"));
+        assertEquals("32", properties.getProperty("statementPoolingCacheSize"));
+    }
+
+    @Test
+    public void testEnablesPreparedStatementCacheOfMySql() {
+        Properties properties = configure("jdbc:mysql://localhost:3306/commerce?useCursorFetch=true", 16);
+
+        assertEquals("true", properties.getProperty("cachePrepStmts"));
+        assertEquals("16", properties.getProperty("prepStmtCacheSize"));
+        assertEquals("8192", properties.getProperty("prepStmtCacheSqlLimit"));
+    }
+
+    @Test
+    public void testEnablesImplicitStatementCacheOfOracle() {
+        Properties properties = configure("jdbc:oracle:thin:@localhost:1521:commerce", 8);
+
+        assertEquals("8", properties.getProperty("oracle.jdbc.implicitStatementCacheSize"));
+    }
+
+    @Test
+    public void testKeepsDriverDefaultsWithoutCacheSize() {
+        assertTrue(configure("jdbc:sqlserver://localhost:1433", 0).isEmpty());
+    }
+
+    @Test
+    public void testKeepsDriverDefaultsOfOtherDatabases() {
+        assertTrue(configure("jdbc:hsqldb:mem:commerce", 32).isEmpty());
+    }
+
+    private Properties configure(String connectionString, int statementCacheSize) {
+        DataSourceConfiguration configuration = (DataSourceConfiguration) Proxy.newProxyInstance(DefaultMigrationDataSourceFactoryTest.class.getClassLoader(), new Class<?>[]{DataSourceConfiguration.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getConnectionString":
+                            return connectionString;
+                        case "getStatementCacheSize":
+                            return statementCacheSize;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+        HikariConfig config = new HikariConfig();
+        factory.configureStatementCache(config, configuration);
+        return config.getDataSourceProperties();
+    }
+}
@@ -0,0 +1,101 @@
+package org.sap.commercemigration.planner.impl;
+
+import de.hybris.bootstrap.annotations.UnitTest;
+import org.junit.Test;
+import org.sap.commercemigration.context.CopyContext;
+import org.sap.commercemigration.context.MigrationContext;
+import org.sap.commercemigration.performance.impl.DefaultPerformanceProfiler;
+import org.sap.commercemigration.repository.DataRepository;
+
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test for {@link DefaultBatchSizePlanner}. The migration context and the source repository are stubbed by proxies.
+ */
+@UnitTest
+public class DefaultBatchSizePlannerTest {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int MIN_BATCH_SIZE = 100;
+    private static final int MAX_BATCH_SIZE = 50000;
+
+    private final DefaultBatchSizePlanner planner = new DefaultBatchSizePlanner();
+
+    @Test
+    public void testFixedBatchSizeWithoutBatchBytes() {
+        assertEquals(BATCH_SIZE, plan(0, 100, MIN_BATCH_SIZE, MAX_BATCH_SIZE));
+    }
+
+    @Test
+    public void testDividesBatchBytesByAverageRowSize() {
+        assertEquals(2000, plan(1000000, 500, MIN_BATCH_SIZE, MAX_BATCH_SIZE));
+    }
+
+    @Test
+    public void testNarrowRowsAreBoundedByMaxBatchSize() {
+        assertEquals(MAX_BATCH_SIZE, plan(1000000, 1, MIN_BATCH_SIZE, MAX_BATCH_SIZE));
+    }
+
+    @Test
+    public void testWideRowsAreBoundedByMinBatchSize() {
+        assertEquals(MIN_BATCH_SIZE, plan(1000000, 1000000, MIN_BATCH_SIZE, MAX_BATCH_SIZE));
+    }
+
+    @Test
+    public void testMaxBelowMinIsRaisedToMin() {
+        assertEquals(500, plan(1000000, 1, 500, 200));
+    }
+
+    @Test
+    public void testNonPositiveMinIsRaisedToOne() {
+        assertEquals(1, plan(1000, 1000000, 0, MAX_BATCH_SIZE));
+    }
+
+    @Test
+    public void testFixedBatchSizeForUnknownRowSize() {
+        assertEquals(BATCH_SIZE, plan(1000000, 0, MIN_BATCH_SIZE, MAX_BATCH_SIZE));
+    }
+
+    @Test
+    public void testFixedBatchSizeIfRowSizeCannotBeRead() {
+        assertEquals(BATCH_SIZE, plan(1000000, -1, MIN_BATCH_SIZE, MAX_BATCH_SIZE));
+    }
+
+    /**
+     * @param averageRowSize the row size of the source table, negative if reading it fails
+     */
+    private long plan(int batchBytes, long averageRowSize, int minBatchSize, int maxBatchSize) {
+        DataRepository repository = (DataRepository) Proxy.newProxyInstance(DefaultBatchSizePlannerTest.class.getClassLoader(), new Class<?>[]{DataRepository.class},
+                (proxy, method, args) -> {
+                    if ("getAverageRowSize".equals(method.getName())) {
+                        if (averageRowSize < 0) {
+                            throw new IllegalStateException("no statistics");
+                        }
+                        return averageRowSize;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        MigrationContext migrationContext = (MigrationContext) Proxy.newProxyInstance(DefaultBatchSizePlannerTest.class.getClassLoader(), new Class<?>[]{MigrationContext.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getReaderBatchSize":
+                            return BATCH_SIZE;
+                        case "getReaderBatchSizeBytes":
+                            return batchBytes;
+                        case "getMinReaderBatchSize":
+                            return minBatchSize;
+                        case "getMaxReaderBatchSize":
+                            return maxBatchSize;
+                        case "getDataSourceRepository":
+                            return repository;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+        CopyContext context = new CopyContext("migration", migrationContext, Collections.emptySet(), new DefaultPerformanceProfiler());
+        return planner.plan(context, new CopyContext.DataCopyItem("products", "products"));
+    }
+}
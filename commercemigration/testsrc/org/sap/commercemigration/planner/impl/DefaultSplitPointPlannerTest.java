@@ -0,0 +1,173 @@
+package org.sap.commercemigration.planner.impl;
+
+import de.hybris.bootstrap.annotations.UnitTest;
+import org.junit.Test;
+import org.sap.commercemigration.context.MigrationContext;
+import org.sap.commercemigration.dataset.DataColumn;
+import org.sap.commercemigration.dataset.DataSet;
+import org.sap.commercemigration.dataset.impl.DefaultDataColumn;
+import org.sap.commercemigration.dataset.impl.DefaultDataSet;
+import org.sap.commercemigration.planner.SplitPointStrategy;
+import org.sap.commercemigration.repository.DataRepository;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Test for {@link DefaultSplitPointPlanner}. The source repository is stubbed by a proxy answering the range, sample
+ * and histogram queries with fixed data sets.
+ */
+@UnitTest
+public class DefaultSplitPointPlannerTest {
+
+    private final DefaultSplitPointPlanner planner = new DefaultSplitPointPlanner();
+
+    @Test
+    public void testParsesTheConfiguredStrategy() {
+        assertEquals(SplitPointStrategy.EXACT, planner.getStrategy(context(null)));
+        assertEquals(SplitPointStrategy.EXACT, planner.getStrategy(context(" ")));
+        assertEquals(SplitPointStrategy.SAMPLING, planner.getStrategy(context(" sampling ")));
+        assertEquals(SplitPointStrategy.STATISTICS, planner.getStrategy(context("STATISTICS")));
+    }
+
+    @Test
+    public void testUnknownStrategyFallsBackToExact() {
+        assertEquals(SplitPointStrategy.EXACT, planner.getStrategy(context("interpolate")));
+    }
+
+    @Test
+    public void testInterpolatesEvenlyBetweenMinimumAndMaximum() throws Exception {
+        DataRepository repository = repository(rows(Arrays.asList(0L, 1000L)), null, null);
+
+        DataSet splitPoints = planner.planApproximately(SplitPointStrategy.INTERPOLATION, repository, "products", "PK", 1000, 250);
+
+        assertEquals(Arrays.asList(
+                Arrays.asList(0L, 0L), Arrays.asList(250L, 250L), Arrays.asList(500L, 500L), Arrays.asList(750L, 750L)), splitPoints.getAllResults());
+    }
+
+    @Test
+    public void testInterpolationKeepsTheScaleOfDecimalColumns() throws Exception {
+        DataRepository repository = repository(rows(Arrays.asList(new BigDecimal("0.00"), new BigDecimal("1.00"))), null, null);
+
+        DataSet splitPoints = planner.planApproximately(SplitPointStrategy.INTERPOLATION, repository, "products", "p_weight", 300, 100);
+
+        assertEquals(Arrays.asList(
+                Arrays.asList(new BigDecimal("0.00"), 0L), Arrays.asList(new BigDecimal("0.33"), 100L), Arrays.asList(new BigDecimal("0.66"), 200L)), splitPoints.getAllResults());
+    }
+
+    @Test
+    public void testSplitPointsThatDoNotAdvanceAreSkipped() throws Exception {
+        DataRepository repository = repository(rows(Arrays.asList(0L, 2L)), null, null);
+
+        DataSet splitPoints = planner.planApproximately(SplitPointStrategy.INTERPOLATION, repository, "products", "PK", 1000, 100);
+
+        assertEquals(Arrays.asList(Arrays.asList(0L, 0L), Arrays.asList(1L, 500L)), splitPoints.getAllResults());
+    }
+
+    @Test
+    public void testNonNumericRangeCannotBeInterpolated() throws Exception {
+        DataRepository repository = repository(rows(Arrays.asList("a", "z")), null, null);
+
+        assertNull(planner.planApproximately(SplitPointStrategy.INTERPOLATION, repository, "products", "p_code", 1000, 100));
+    }
+
+    @Test
+    public void testPicksSplitPointsAtTheQuantilesOfTheSample() throws Exception {
+        List<List<Object>> sample = new ArrayList<>();
+        for (long value = 0; value < 100; value++) {
+            sample.add(Collections.singletonList(value * 10));
+        }
+        double[] percent = new double[1];
+        DataRepository repository = repository(null, requestedPercent -> {
+            percent[0] = requestedPercent;
+            return dataSet(sample);
+        }, null);
+
+        DataSet splitPoints = planner.planApproximately(SplitPointStrategy.SAMPLING, repository, "products", "PK", 1000, 250);
+
+        assertEquals(4d, percent[0], 0d);
+        assertEquals(Arrays.asList(
+                Arrays.asList(0L, 0L), Arrays.asList(250L, 250L), Arrays.asList(500L, 500L), Arrays.asList(750L, 750L)), splitPoints.getAllResults());
+    }
+
+    @Test
+    public void testDoesNotSampleMostOfTheTable() throws Exception {
+        DataRepository repository = repository(null, percent -> {
+            throw new AssertionError("sampled " + percent + "%");
+        }, null);
+
+        assertNull(planner.planApproximately(SplitPointStrategy.SAMPLING, repository, "products", "PK", 100, 10));
+    }
+
+    @Test
+    public void testInterpolatesWithinTheHistogramSteps() throws Exception {
+        List<List<Object>> histogram = Arrays.asList(
+                Arrays.asList(new BigDecimal("100"), new BigDecimal("500")),
+                Arrays.asList(new BigDecimal("1000"), new BigDecimal("1000")));
+        DataRepository repository = repository(rows(Arrays.asList(0L, 1000L)), null, histogram);
+
+        DataSet splitPoints = planner.planApproximately(SplitPointStrategy.STATISTICS, repository, "products", "PK", 1000, 250);
+
+        assertEquals(Arrays.asList(
+                Arrays.asList(0L, 0L), Arrays.asList(50L, 250L), Arrays.asList(100L, 500L), Arrays.asList(550L, 750L)), splitPoints.getAllResults());
+    }
+
+    @Test
+    public void testEmptyHistogramCannotBeUsed() throws Exception {
+        DataRepository repository = repository(rows(Arrays.asList(0L, 1000L)), null, Collections.emptyList());
+
+        assertNull(planner.planApproximately(SplitPointStrategy.STATISTICS, repository, "products", "PK", 1000, 250));
+    }
+
+    private static List<List<Object>> rows(List<Object> row) {
+        return Collections.singletonList(row);
+    }
+
+    private static DataSet dataSet(List<List<Object>> rows) {
+        List<DataColumn> columns = new ArrayList<>();
+        int columnCount = rows.isEmpty() ? 2 : rows.get(0).size();
+        for (int i = 0; i < columnCount; i++) {
+            columns.add(new DefaultDataColumn("c" + i, Types.JAVA_OBJECT, 0, 0));
+        }
+        return new DefaultDataSet(columnCount, columns, rows);
+    }
+
+    private static DataRepository repository(List<List<Object>> range, Sampler sampler, List<List<Object>> histogram) {
+        return (DataRepository) Proxy.newProxyInstance(DefaultSplitPointPlannerTest.class.getClassLoader(), new Class<?>[]{DataRepository.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getColumnRange":
+                            return dataSet(range);
+                        case "getSampledColumnValues":
+                            return sampler.sample((Double) args[2]);
+                        case "getColumnHistogram":
+                            return dataSet(histogram);
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    private static MigrationContext context(String strategy) {
+        return (MigrationContext) Proxy.newProxyInstance(DefaultSplitPointPlannerTest.class.getClassLoader(), new Class<?>[]{MigrationContext.class},
+                (proxy, method, args) -> {
+                    if ("getSplitPointStrategy".equals(method.getName())) {
+                        return strategy;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    @FunctionalInterface
+    private interface Sampler {
+        DataSet sample(double percent);
+    }
+}
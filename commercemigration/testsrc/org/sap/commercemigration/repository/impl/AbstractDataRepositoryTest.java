@@ -0,0 +1,109 @@
+package org.sap.commercemigration.repository.impl;
+
+import de.hybris.bootstrap.annotations.UnitTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.sap.commercemigration.performance.impl.DefaultPerformanceProfiler;
+import org.sap.commercemigration.profile.DataSourceConfiguration;
+import org.sap.commercemigration.repository.model.ColumnProjection;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test for the column projection of {@link AbstractDataRepository}.
+ */
+@UnitTest
+public class AbstractDataRepositoryTest {
+
+    private MySQLDataRepository repository;
+
+    @Before
+    public void setup() {
+        repository = new MySQLDataRepository(configuration(), null, new DefaultPerformanceProfiler());
+    }
+
+    @Test
+    public void testSelectsAllColumnsWithoutProjection() {
+        assertEquals("*", ColumnProjection.ALL_COLUMNS.toSelectList());
+        assertEquals("t.*", ColumnProjection.ALL_COLUMNS.toSelectList("t"));
+        assertEquals("select * from products where 1=1 order by PK limit 10",
+                repository.buildValueBatchQuery("products", ColumnProjection.ALL_COLUMNS, "PK", 10));
+        assertEquals("select * from products where 1=1 order by PK",
+                repository.buildValueRangeQuery("products", ColumnProjection.ALL_COLUMNS, "PK"));
+    }
+
+    @Test
+    public void testSelectsTheProjectedColumns() {
+        ColumnProjection projection = new ColumnProjection(Arrays.asList("PK", "p_code", "modifiedTS"));
+
+        assertEquals("PK,p_code,modifiedTS", projection.toSelectList());
+        assertEquals("PK,p_code,modifiedTS", projection.toSelectList("t"));
+        assertEquals("select PK,p_code,modifiedTS from products where p_code is not null order by PK limit 10",
+                repository.buildValueBatchQuery("products", projection, "PK", 10, "p_code is not null"));
+        assertEquals("select PK,p_code,modifiedTS from products where p_code is not null order by PK",
+                repository.buildValueRangeQuery("products", projection, "PK", "p_code is not null"));
+    }
+
+    @Test
+    public void testProjectionsOfTheSameTableDoNotInterfere() {
+        ColumnProjection pipeProjection = new ColumnProjection(Arrays.asList("PK", "p_code"));
+        ColumnProjection directProjection = new ColumnProjection(Arrays.asList("PK", "p_name"));
+
+        assertEquals("select PK,p_code from products where 1=1 order by PK limit 10",
+                repository.buildValueBatchQuery("products", pipeProjection, "PK", 10));
+        assertEquals("select PK,p_name from products where 1=1 order by PK limit 10",
+                repository.buildValueBatchQuery("products", directProjection, "PK", 10));
+        assertEquals("select * from products where 1=1 order by PK limit 10",
+                repository.buildValueBatchQuery("products", ColumnProjection.ALL_COLUMNS, "PK", 10));
+    }
+
+    @Test
+    public void testEmptyProjectionSelectsAllColumns() {
+        assertTrue(new ColumnProjection(Collections.emptyList()).isAllColumns());
+        assertEquals("*", new ColumnProjection(Collections.emptyList()).toSelectList());
+        assertTrue(new ColumnProjection(null).isAllColumns());
+        assertEquals("*", new ColumnProjection(null).toSelectList());
+    }
+
+    @Test
+    public void testProjectionIsNotChangedByItsSourceCollection() {
+        List<String> columns = new ArrayList<>(Arrays.asList("PK", "p_code"));
+        ColumnProjection projection = new ColumnProjection(columns);
+        columns.add("p_name");
+
+        assertEquals("PK,p_code", projection.toSelectList());
+    }
+
+    @Test
+    public void testInlineLobColumnsAreMatchedCaseInsensitively() {
+        ColumnProjection projection = new ColumnProjection(null, Arrays.asList("p_data", "P_Description"));
+
+        assertTrue(projection.isAllColumns());
+        assertTrue(projection.getInlineLobColumns().contains("P_DATA"));
+        assertTrue(projection.getInlineLobColumns().contains("p_description"));
+        assertFalse(projection.getInlineLobColumns().contains("p_code"));
+        assertTrue(ColumnProjection.ALL_COLUMNS.getInlineLobColumns().isEmpty());
+    }
+
+    private static DataSourceConfiguration configuration() {
+        return (DataSourceConfiguration) Proxy.newProxyInstance(AbstractDataRepositoryTest.class.getClassLoader(), new Class<?>[]{DataSourceConfiguration.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getBufferPoolSize":
+                            return 1;
+                        case "getProfile":
+                            return "source";
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+}
@@ -0,0 +1,132 @@
+package org.sap.commercemigration.repository.impl;
+
+import de.hybris.bootstrap.annotations.UnitTest;
+import org.junit.Test;
+import org.sap.commercemigration.dataset.impl.ColumnVector;
+import org.sap.commercemigration.dataset.impl.ColumnarDataSet;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test for {@link ResultSetExtractionPlan}. The cursor is stubbed by a proxy over a list of rows, the getters of the
+ * proxy only answer for values of their own type.
+ */
+@UnitTest
+public class ResultSetExtractionPlanTest {
+
+    private static final String[] NAMES = {"PK", "p_price", "p_ratio", "p_weight", "p_amount"};
+    private static final int[] TYPES = {Types.NUMERIC, Types.DOUBLE, Types.FLOAT, Types.FLOAT, Types.NUMERIC};
+    private static final int[] PRECISIONS = {18, 15, 53, 126, 30};
+
+    @Test
+    public void testNarrowsIntegralNumbersAndReadsFloatsAsDoubles() throws Exception {
+        ColumnarDataSet dataSet = read(true, Arrays.asList(
+                Arrays.asList(1L, 0.5d, 0.25d, new BigDecimal("0.1"), BigDecimal.TEN),
+                Arrays.asList(2L, null, null, null, null)));
+
+        assertEquals(Types.BIGINT, dataSet.getColumnOrder().get(0).getColumnType());
+        assertTrue(dataSet.getColumn(0) instanceof ColumnVector.LongVector);
+        assertTrue(dataSet.getColumn(1) instanceof ColumnVector.DoubleVector);
+        assertTrue(dataSet.getColumn(2) instanceof ColumnVector.DoubleVector);
+        assertEquals(1L, dataSet.getValue(0, 0));
+        assertEquals(0.5d, dataSet.getValue(0, 1));
+        assertEquals(0.25d, dataSet.getValue(0, 2));
+        assertNull(dataSet.getValue(1, 1));
+        assertNull(dataSet.getValue(1, 2));
+    }
+
+    @Test
+    public void testReadsFloatBeyondDoublePrecisionAsBigDecimal() throws Exception {
+        BigDecimal value = new BigDecimal("0.1234567890123456789012345678901234567890");
+        ColumnarDataSet dataSet = read(true, Collections.singletonList(Arrays.asList(1L, 0.5d, 0.25d, value, BigDecimal.TEN)));
+
+        assertEquals(Types.FLOAT, dataSet.getColumnOrder().get(3).getColumnType());
+        assertEquals(value, dataSet.getValue(0, 3));
+    }
+
+    @Test
+    public void testKeepsNumbersWithoutNarrowing() throws Exception {
+        ColumnarDataSet dataSet = read(false, Collections.singletonList(Arrays.asList(BigDecimal.ONE, 0.5d, 0.25d, null, BigDecimal.TEN)));
+
+        assertEquals(Types.NUMERIC, dataSet.getColumnOrder().get(0).getColumnType());
+        assertEquals(BigDecimal.ONE, dataSet.getValue(0, 0));
+        assertEquals(BigDecimal.TEN, dataSet.getValue(0, 4));
+    }
+
+    @Test
+    public void testSkipsIgnoredColumns() throws Exception {
+        ResultSet cursor = cursor(Collections.singletonList(Arrays.asList(1L, 0.5d, 0.25d, null, BigDecimal.TEN)));
+        ResultSetExtractionPlan plan = ResultSetExtractionPlan.compile(cursor, Collections.singleton("P_PRICE"), Collections.emptySet(), true, 0, null);
+
+        assertEquals(4, plan.getColumnOrder().size());
+        assertEquals("p_ratio", plan.getColumnOrder().get(1).getColumnName());
+    }
+
+    private static ColumnarDataSet read(boolean narrowIntegralNumbers, List<List<Object>> rows) throws Exception {
+        ResultSet cursor = cursor(rows);
+        ResultSetExtractionPlan plan = ResultSetExtractionPlan.compile(cursor, Collections.emptySet(), Collections.emptySet(), narrowIntegralNumbers, 0, null);
+        ColumnarDataSet.Builder builder = new ColumnarDataSet.Builder(plan.getColumnOrder(), rows.size());
+        while (cursor.next()) {
+            plan.readRow(cursor, builder);
+        }
+        return builder.build();
+    }
+
+    private static ResultSet cursor(List<List<Object>> rows) {
+        ResultSetMetaData metaData = (ResultSetMetaData) Proxy.newProxyInstance(ResultSetExtractionPlanTest.class.getClassLoader(), new Class<?>[]{ResultSetMetaData.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getColumnCount":
+                            return NAMES.length;
+                        case "getColumnName":
+                            return NAMES[(Integer) args[0] - 1];
+                        case "getColumnType":
+                            return TYPES[(Integer) args[0] - 1];
+                        case "getPrecision":
+                            return PRECISIONS[(Integer) args[0] - 1];
+                        case "getScale":
+                            return 0;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+        int[] row = {-1};
+        Object[] last = {null};
+        return (ResultSet) Proxy.newProxyInstance(ResultSetExtractionPlanTest.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getMetaData":
+                            return metaData;
+                        case "next":
+                            return ++row[0] < rows.size();
+                        case "wasNull":
+                            return last[0] == null;
+                        case "getLong":
+                            last[0] = rows.get(row[0]).get((Integer) args[0] - 1);
+                            return last[0] == null ? 0L : (Long) last[0];
+                        case "getDouble":
+                            last[0] = rows.get(row[0]).get((Integer) args[0] - 1);
+                            return last[0] == null ? 0d : (Double) last[0];
+                        case "getBigDecimal":
+                            last[0] = rows.get(row[0]).get((Integer) args[0] - 1);
+                            return (BigDecimal) last[0];
+                        case "getObject":
+                            last[0] = rows.get(row[0]).get((Integer) args[0] - 1);
+                            return last[0];
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+}
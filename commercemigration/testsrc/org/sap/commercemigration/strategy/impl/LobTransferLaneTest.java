@@ -0,0 +1,265 @@
+package org.sap.commercemigration.strategy.impl;
+
+import de.hybris.bootstrap.annotations.UnitTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.sap.commercemigration.concurrent.DataWorkerExecutor;
+import org.sap.commercemigration.context.CopyContext;
+import org.sap.commercemigration.context.MigrationContext;
+import org.sap.commercemigration.dataset.DataColumn;
+import org.sap.commercemigration.dataset.DataSet;
+import org.sap.commercemigration.dataset.impl.ColumnarDataSet;
+import org.sap.commercemigration.dataset.impl.DefaultDataColumn;
+import org.sap.commercemigration.dataset.impl.LobReference;
+import org.sap.commercemigration.performance.PerformanceCategory;
+import org.sap.commercemigration.performance.impl.DefaultPerformanceProfiler;
+import org.sap.commercemigration.repository.DataRepository;
+
+import javax.sql.rowset.serial.SerialBlob;
+import javax.sql.rowset.serial.SerialClob;
+import java.io.InputStream;
+import java.io.Reader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test for {@link LobTransferLane}. The connections are stubbed by proxies recording the prepared statements and
+ * the values bound to them, the transfers run on the calling thread.
+ */
+@UnitTest
+public class LobTransferLaneTest {
+
+    private static final List<DataColumn> COLUMNS = Arrays.asList(
+            new DefaultDataColumn("PK", Types.BIGINT, 20, 0),
+            new DefaultDataColumn("p_data", Types.BLOB, 0, 0),
+            new DefaultDataColumn("p_text", Types.CLOB, 0, 0));
+
+    private List<String> prepared;
+    private List<String> updates;
+    private LobTransferLane lane;
+
+    @Before
+    public void setup() {
+        prepared = new ArrayList<>();
+        updates = new ArrayList<>();
+        DataRepository source = repository(sourceConnection());
+        DataRepository target = repository(targetConnection());
+        MigrationContext migrationContext = RowBindingPlanTest.proxy(MigrationContext.class, (method, args) -> {
+            switch (method) {
+                case "getDataSourceRepository":
+                    return source;
+                case "getDataTargetRepository":
+                    return target;
+                case "getMaxWorkerRetryAttempts":
+                    return 0;
+                default:
+                    throw new UnsupportedOperationException(method);
+            }
+        });
+        CopyContext context = new CopyContext("migration", migrationContext, Collections.emptySet(), new DefaultPerformanceProfiler());
+        CopyContext.DataCopyItem item = new CopyContext.DataCopyItem("medias", "medias");
+        lane = new LobTransferLane(context, item, new CallerRunsExecutor(), context.getPerformanceProfiler().createRecorder(PerformanceCategory.DB_LOB, "medias"));
+    }
+
+    @Test
+    public void testPreparesTheStatementsOncePerColumn() throws Exception {
+        lane.submit(lobRows(1L, 2L, 3L));
+        lane.await();
+
+        assertEquals(Arrays.asList(
+                "source: SELECT p_data FROM medias WHERE PK = ?",
+                "target: UPDATE medias SET p_data = ? WHERE PK = ?",
+                "source: SELECT p_text FROM medias WHERE PK = ?",
+                "target: UPDATE medias SET p_text = ? WHERE PK = ?"), prepared);
+    }
+
+    @Test
+    public void testRebindsTheKeyForEveryLargeObject() throws Exception {
+        lane.submit(lobRows(1L, 2L, 3L));
+        lane.await();
+
+        assertEquals(Arrays.asList(
+                "UPDATE medias SET p_data = blob-1 WHERE PK = 1",
+                "UPDATE medias SET p_data = blob-2 WHERE PK = 2",
+                "UPDATE medias SET p_data = blob-3 WHERE PK = 3",
+                "UPDATE medias SET p_text = clob-1 WHERE PK = 1",
+                "UPDATE medias SET p_text = clob-2 WHERE PK = 2",
+                "UPDATE medias SET p_text = clob-3 WHERE PK = 3"), updates);
+    }
+
+    @Test
+    public void testInlineLargeObjectsAreNotTransferred() throws Exception {
+        ColumnarDataSet.Builder builder = new ColumnarDataSet.Builder(COLUMNS, 1);
+        builder.addLong(0, 1L);
+        builder.add(1, new byte[]{1});
+        builder.add(2, "text");
+        builder.endRow();
+        lane.submit(builder.build());
+        lane.await();
+
+        assertEquals(Collections.emptyList(), prepared);
+    }
+
+    /**
+     * @return rows of which both large objects were left in the source
+     */
+    private static DataSet lobRows(long... keys) {
+        ColumnarDataSet.Builder builder = new ColumnarDataSet.Builder(COLUMNS, keys.length);
+        for (long key : keys) {
+            builder.addLong(0, key);
+            builder.add(1, new LobReference(Types.BLOB, 6, "PK"));
+            builder.add(2, new LobReference(Types.CLOB, 6, "PK"));
+            builder.endRow();
+        }
+        return builder.build();
+    }
+
+    private static DataRepository repository(Connection connection) {
+        return RowBindingPlanTest.proxy(DataRepository.class, (method, args) -> {
+            if ("getConnection".equals(method)) {
+                return connection;
+            }
+            throw new UnsupportedOperationException(method);
+        });
+    }
+
+    /**
+     * @return a connection whose selects return the values "blob-" or "clob-" followed by the bound key
+     */
+    private Connection sourceConnection() {
+        return RowBindingPlanTest.proxy(Connection.class, (method, args) -> {
+            switch (method) {
+                case "prepareStatement":
+                    String sql = (String) args[0];
+                    prepared.add("source: " + sql);
+                    Object[] key = new Object[1];
+                    return RowBindingPlanTest.proxy(PreparedStatement.class, (statementMethod, statementArgs) -> {
+                        switch (statementMethod) {
+                            case "setObject":
+                                key[0] = statementArgs[1];
+                                return null;
+                            case "executeQuery":
+                                return resultSet(key[0]);
+                            case "close":
+                                return null;
+                            default:
+                                throw new UnsupportedOperationException(statementMethod);
+                        }
+                    });
+                case "close":
+                    return null;
+                default:
+                    throw new UnsupportedOperationException(method);
+            }
+        });
+    }
+
+    private static ResultSet resultSet(Object key) {
+        boolean[] read = new boolean[1];
+        return RowBindingPlanTest.proxy(ResultSet.class, (method, args) -> {
+            switch (method) {
+                case "next":
+                    boolean hasNext = !read[0];
+                    read[0] = true;
+                    return hasNext;
+                case "getBlob":
+                    return new SerialBlob(("blob-" + key).getBytes());
+                case "getClob":
+                    return new SerialClob(("clob-" + key).toCharArray());
+                case "close":
+                    return null;
+                default:
+                    throw new UnsupportedOperationException(method);
+            }
+        });
+    }
+
+    /**
+     * @return a connection whose updates are recorded with their bound values
+     */
+    private Connection targetConnection() {
+        return RowBindingPlanTest.proxy(Connection.class, (method, args) -> {
+            switch (method) {
+                case "prepareStatement":
+                    String sql = (String) args[0];
+                    prepared.add("target: " + sql);
+                    Object[] values = new Object[2];
+                    return RowBindingPlanTest.proxy(PreparedStatement.class, (statementMethod, statementArgs) -> {
+                        switch (statementMethod) {
+                            case "setBinaryStream":
+                                values[0] = new String(readAll((InputStream) statementArgs[1]));
+                                return null;
+                            case "setCharacterStream":
+                                values[0] = readAll((Reader) statementArgs[1]);
+                                return null;
+                            case "setObject":
+                                values[1] = statementArgs[1];
+                                return null;
+                            case "executeUpdate":
+                                updates.add(sql.replaceFirst("\\?", String.valueOf(values[0])).replaceFirst("\\?", String.valueOf(values[1])));
+                                return 1;
+                            case "close":
+                                return null;
+                            default:
+                                throw new UnsupportedOperationException(statementMethod);
+                        }
+                    });
+                case "close":
+                    return null;
+                default:
+                    throw new UnsupportedOperationException(method);
+            }
+        });
+    }
+
+    private static byte[] readAll(InputStream in) throws Exception {
+        byte[] buffer = new byte[64];
+        int length = in.read(buffer);
+        return Arrays.copyOf(buffer, Math.max(0, length));
+    }
+
+    private static String readAll(Reader in) throws Exception {
+        char[] buffer = new char[64];
+        int length = in.read(buffer);
+        return new String(buffer, 0, Math.max(0, length));
+    }
+
+    /**
+     * Runs every task on the calling thread
+     */
+    private static class CallerRunsExecutor implements DataWorkerExecutor<Boolean> {
+        private final List<Future<Boolean>> futures = new ArrayList<>();
+
+        @Override
+        public Future<Boolean> safelyExecute(Callable<Boolean> callable) {
+            FutureTask<Boolean> future = new FutureTask<>(callable);
+            future.run();
+            futures.add(future);
+            return future;
+        }
+
+        @Override
+        public Future<Boolean> trySafelyExecute(Callable<Boolean> callable) {
+            return safelyExecute(callable);
+        }
+
+        @Override
+        public void waitAndRethrowUncaughtExceptions() throws ExecutionException, InterruptedException {
+            for (Future<Boolean> future : futures) {
+                future.get();
+            }
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package org.sap.commercemigration.strategy.impl;
+
+import de.hybris.bootstrap.annotations.UnitTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.sap.commercemigration.concurrent.DataWorkerExecutor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test for {@link OrderedWriterLanes}. The lanes run on plain threads, one per lane.
+ */
+@UnitTest
+public class OrderedWriterLanesTest {
+
+    private LaneExecutor executor;
+    private List<String> ran;
+    private Map<String, Thread> threads;
+
+    @Before
+    public void setup() {
+        executor = new LaneExecutor();
+        ran = new CopyOnWriteArrayList<>();
+        threads = new ConcurrentHashMap<>();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void testTasksOfALaneRunInSubmitOrderOnOneThread() throws Exception {
+        OrderedWriterLanes lanes = new OrderedWriterLanes(2);
+        lanes.start(executor);
+        for (int i = 0; i < 5; i++) {
+            lanes.submit(0, task("a" + i));
+            lanes.submit(1, task("b" + i));
+        }
+        lanes.finish();
+        executor.waitAndRethrowUncaughtExceptions();
+
+        assertEquals(Arrays.asList("a0", "a1", "a2", "a3", "a4"), ranWith("a"));
+        assertEquals(Arrays.asList("b0", "b1", "b2", "b3", "b4"), ranWith("b"));
+        for (int i = 1; i < 5; i++) {
+            assertSame(threads.get("a0"), threads.get("a" + i));
+            assertSame(threads.get("b0"), threads.get("b" + i));
+        }
+        assertTrue(threads.get("a0") != threads.get("b0"));
+    }
+
+    @Test
+    public void testTasksWithoutLaneAreHandedToTheLanesInTurn() throws Exception {
+        OrderedWriterLanes lanes = new OrderedWriterLanes(2);
+        lanes.start(executor);
+        for (int i = 0; i < 4; i++) {
+            lanes.submit(-1, task("t" + i));
+        }
+        lanes.finish();
+        executor.waitAndRethrowUncaughtExceptions();
+
+        assertEquals(4, ran.size());
+        assertSame(threads.get("t0"), threads.get("t2"));
+        assertSame(threads.get("t1"), threads.get("t3"));
+        assertTrue(threads.get("t0") != threads.get("t1"));
+    }
+
+    @Test
+    public void testLanesBeyondTheLaneCountWrapAround() throws Exception {
+        OrderedWriterLanes lanes = new OrderedWriterLanes(2);
+        lanes.start(executor);
+        lanes.submit(0, task("t0"));
+        lanes.submit(1, task("t1"));
+        lanes.submit(2, task("t2"));
+        lanes.submit(3, task("t3"));
+        lanes.finish();
+        executor.waitAndRethrowUncaughtExceptions();
+
+        assertSame(threads.get("t0"), threads.get("t2"));
+        assertSame(threads.get("t1"), threads.get("t3"));
+    }
+
+    @Test
+    public void testFinishDrainsTheSubmittedTasks() throws Exception {
+        OrderedWriterLanes lanes = new OrderedWriterLanes(1);
+        CountDownLatch release = new CountDownLatch(1);
+        lanes.start(executor);
+        lanes.submit(0, () -> {
+            release.await();
+            ran.add("first");
+            return Boolean.TRUE;
+        });
+        lanes.submit(0, task("second"));
+        lanes.finish();
+        release.countDown();
+
+        assertEquals(Collections.singletonList(Boolean.TRUE), executor.results());
+        assertEquals(Arrays.asList("first", "second"), ran);
+    }
+
+    @Test
+    public void testAbortStopsTheLanesAfterTheirCurrentTask() throws Exception {
+        OrderedWriterLanes lanes = new OrderedWriterLanes(1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        lanes.start(executor);
+        lanes.submit(0, () -> {
+            started.countDown();
+            release.await();
+            ran.add("running");
+            return Boolean.TRUE;
+        });
+        started.await();
+        lanes.submit(0, task("waiting"));
+        lanes.abort();
+        release.countDown();
+
+        assertEquals(Collections.singletonList(Boolean.FALSE), executor.results());
+        assertEquals(Collections.singletonList("running"), ran);
+    }
+
+    @Test
+    public void testSubmitRethrowsTheFailureOfALane() throws Exception {
+        OrderedWriterLanes lanes = new OrderedWriterLanes(1);
+        IllegalStateException failure = new IllegalStateException("write failed");
+        lanes.start(executor);
+        lanes.submit(0, () -> {
+            throw failure;
+        });
+        try {
+            // the failed lane takes no more tasks, a submit blocks once the lane is full
+            for (int i = 0; i < 3; i++) {
+                lanes.submit(0, task("t" + i));
+            }
+            fail("the failure of the lane has to be rethrown");
+        } catch (IllegalStateException e) {
+            assertSame(failure, e.getCause());
+        }
+        try {
+            executor.waitAndRethrowUncaughtExceptions();
+            fail("the failure of the lane has to be rethrown");
+        } catch (ExecutionException e) {
+            assertSame(failure, e.getCause());
+        }
+        assertTrue(ran.isEmpty());
+    }
+
+    @Test
+    public void testOtherLanesCompleteWhenOneFails() throws Exception {
+        OrderedWriterLanes lanes = new OrderedWriterLanes(2);
+        lanes.start(executor);
+        lanes.submit(0, () -> {
+            throw new IllegalStateException("write failed");
+        });
+        lanes.submit(1, task("b0"));
+        lanes.finish();
+
+        List<Object> results = executor.results();
+        assertTrue(results.get(0) instanceof ExecutionException);
+        assertEquals(Boolean.TRUE, results.get(1));
+        assertEquals(Collections.singletonList("b0"), ran);
+    }
+
+    private Callable<Boolean> task(String name) {
+        return () -> {
+            threads.put(name, Thread.currentThread());
+            ran.add(name);
+            return Boolean.TRUE;
+        };
+    }
+
+    private List<String> ranWith(String prefix) {
+        List<String> names = new ArrayList<>();
+        for (String name : ran) {
+            if (name.startsWith(prefix)) {
+                names.add(name);
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Runs every task on its own thread
+     */
+    private static class LaneExecutor implements DataWorkerExecutor<Boolean> {
+        private final ExecutorService executorService = Executors.newCachedThreadPool();
+        private final List<Future<Boolean>> futures = new ArrayList<>();
+
+        @Override
+        public Future<Boolean> safelyExecute(Callable<Boolean> callable) {
+            Future<Boolean> future = executorService.submit(callable);
+            futures.add(future);
+            return future;
+        }
+
+        @Override
+        public Future<Boolean> trySafelyExecute(Callable<Boolean> callable) {
+            return safelyExecute(callable);
+        }
+
+        @Override
+        public void waitAndRethrowUncaughtExceptions() throws ExecutionException, InterruptedException {
+            for (Future<Boolean> future : futures) {
+                future.get();
+            }
+        }
+
+        /**
+         * @return the results of the lane workers in start order, the exception of a failed one
+         */
+        List<Object> results() throws InterruptedException {
+            List<Object> results = new ArrayList<>();
+            for (Future<Boolean> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    results.add(e);
+                }
+            }
+            return results;
+        }
+
+        void shutdown() {
+            executorService.shutdownNow();
+            try {
+                executorService.awaitTermination(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
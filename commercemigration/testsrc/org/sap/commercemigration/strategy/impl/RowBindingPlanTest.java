@@ -0,0 +1,417 @@
+package org.sap.commercemigration.strategy.impl;
+
+import com.microsoft.sqlserver.jdbc.ISQLServerBulkData;
+import de.hybris.bootstrap.annotations.UnitTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.sap.commercemigration.dataset.DataColumn;
+import org.sap.commercemigration.dataset.DataSet;
+import org.sap.commercemigration.dataset.impl.ColumnarDataSet;
+import org.sap.commercemigration.dataset.impl.DefaultDataColumn;
+import org.sap.commercemigration.dataset.impl.DefaultDataSet;
+import org.sap.commercemigration.dataset.impl.LobReference;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test for {@link RowBindingPlan}. The target table and the statements are stubbed by proxies, the statements record
+ * the parameters bound to them.
+ */
+@UnitTest
+public class RowBindingPlanTest {
+
+    private static final List<DataColumn> TARGET_COLUMNS = Arrays.asList(
+            new DefaultDataColumn("PK", Types.BIGINT, 20, 0),
+            new DefaultDataColumn("p_code", Types.NVARCHAR, 255, 0),
+            new DefaultDataColumn("p_count", Types.INTEGER, 10, 0),
+            new DefaultDataColumn("p_version", Types.BIGINT, 20, 0));
+    private static final List<DataColumn> SOURCE_COLUMNS = Arrays.asList(
+            new DefaultDataColumn("p_code", Types.NVARCHAR, 255, 0),
+            new DefaultDataColumn("p_count", Types.INTEGER, 10, 0),
+            new DefaultDataColumn("PK", Types.BIGINT, 20, 0),
+            new DefaultDataColumn("p_version", Types.BIGINT, 20, 0));
+    private static final List<String> COLUMNS_TO_COPY = Arrays.asList("PK", "p_code", "p_count", "p_version");
+
+    private List<String> calls;
+    private PreparedStatement statement;
+
+    @Before
+    public void setup() {
+        calls = new ArrayList<>();
+        statement = recordingStatement(calls);
+    }
+
+    @Test
+    public void testCopiesColumnsByName() throws SQLException {
+        RowBindingPlan plan = compile(TARGET_COLUMNS, Collections.emptySet(), null);
+
+        plan.addBatch(statement, columnarSource());
+
+        assertEquals(Arrays.asList(
+                "setLong(1, 1)", "setObject(2, code-1, -9)", "setInt(3, 10)", "setLong(4, 7)", "addBatch",
+                "setLong(1, 2)", "setNull(2, -9)", "setNull(3, 4)", "setLong(4, 7)", "addBatch"), calls);
+    }
+
+    @Test
+    public void testCopiesColumnsOfRowDataSet() throws SQLException {
+        RowBindingPlan plan = compile(TARGET_COLUMNS, Collections.emptySet(), null);
+
+        plan.addBatch(statement, rowSource());
+
+        assertEquals(Arrays.asList(
+                "setObject(1, 1, -5)", "setObject(2, code-1, -9)", "setObject(3, 10, 4)", "setObject(4, 7, -5)", "addBatch",
+                "setObject(1, 2, -5)", "setNull(2, -9)", "setNull(3, 4)", "setObject(4, 7, -5)", "addBatch"), calls);
+    }
+
+    @Test
+    public void testNullifiesColumns() throws SQLException {
+        RowBindingPlan plan = compile(TARGET_COLUMNS, caseInsensitive("P_CODE"), null);
+
+        plan.addBatch(statement, columnarSource().subSet(0, 1));
+
+        assertEquals(Arrays.asList("setLong(1, 1)", "setNull(2, -9)", "setInt(3, 10)", "setLong(4, 7)", "addBatch"), calls);
+    }
+
+    @Test
+    public void testOverridesColumns() throws SQLException {
+        Map<String, Object> overrides = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        overrides.put("p_version", 0L);
+        RowBindingPlan plan = compile(TARGET_COLUMNS, Collections.emptySet(), overrides);
+
+        plan.addBatch(statement, columnarSource().subSet(1, 2));
+
+        assertEquals(Arrays.asList("setLong(1, 2)", "setNull(2, -9)", "setNull(3, 4)", "setObject(4, 0, -5)", "addBatch"), calls);
+    }
+
+    @Test
+    public void testMultiRowBatchBindsRowsAfterEachOther() throws SQLException {
+        RowBindingPlan plan = compile(TARGET_COLUMNS, caseInsensitive("p_count"), null);
+
+        plan.addMultiRowBatch(statement, columnarSource(), 0, 2);
+
+        assertEquals(Arrays.asList(
+                "setLong(1, 1)", "setObject(2, code-1, -9)", "setNull(3, 4)", "setLong(4, 7)",
+                "setLong(5, 2)", "setNull(6, -9)", "setNull(7, 4)", "setLong(8, 7)", "addBatch"), calls);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCopiedColumnMissingInSource() throws SQLException {
+        RowBindingPlan plan = compile(TARGET_COLUMNS, Collections.emptySet(), null);
+
+        plan.addBatch(statement, new DefaultDataSet(1, SOURCE_COLUMNS.subList(0, 1), Collections.singletonList(Collections.singletonList("code"))));
+    }
+
+    @Test
+    public void testTargetColumnIndexes() throws SQLException {
+        RowBindingPlan plan = RowBindingPlan.compile(targetConnection(TARGET_COLUMNS, Collections.emptySet()), "products",
+                Arrays.asList("p_version", "PK"), Collections.emptySet(), null);
+
+        assertEquals(2, plan.getColumnCount());
+        assertEquals("p_version", plan.getColumnName(0));
+        assertEquals(4, plan.getTargetColumnIndex(0));
+        assertEquals(1, plan.getTargetColumnIndex(1));
+    }
+
+    @Test
+    public void testBulkDataAnnouncesCopiedColumnsWithSourceTypes() throws SQLException {
+        List<DataColumn> targetColumns = Arrays.asList(
+                new DefaultDataColumn("PK", Types.NUMERIC, 20, 0),
+                new DefaultDataColumn("p_code", Types.NVARCHAR, 100, 0),
+                new DefaultDataColumn("p_count", Types.BIGINT, 20, 0),
+                new DefaultDataColumn("p_version", Types.NUMERIC, 19, 0));
+        Map<String, Object> overrides = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        overrides.put("p_version", 0L);
+        RowBindingPlan plan = compile(targetColumns, caseInsensitive("p_count"), overrides);
+
+        ISQLServerBulkData bulkData = plan.toBulkData(columnarSource());
+
+        assertEquals(new TreeSet<>(Arrays.asList(1, 2, 3, 4)), bulkData.getColumnOrdinals());
+        assertEquals("PK", bulkData.getColumnName(1));
+        assertEquals(Types.BIGINT, bulkData.getColumnType(1));
+        assertEquals(Types.NVARCHAR, bulkData.getColumnType(2));
+        assertEquals(255, bulkData.getPrecision(2));
+        assertEquals(Types.BIGINT, bulkData.getColumnType(3));
+        assertEquals(Types.NUMERIC, bulkData.getColumnType(4));
+        assertEquals(19, bulkData.getPrecision(4));
+    }
+
+    @Test
+    public void testBulkDataRowsWithNullifiedAndOverriddenColumns() throws SQLException {
+        Map<String, Object> overrides = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        overrides.put("p_version", 0L);
+        RowBindingPlan plan = compile(TARGET_COLUMNS, caseInsensitive("p_count"), overrides);
+
+        ISQLServerBulkData bulkData = plan.toBulkData(columnarSource().subSet(1, 2));
+
+        assertTrue(bulkData.next());
+        assertArrayEquals(new Object[]{2L, null, null, 0L}, bulkData.getRowData());
+        assertFalse(bulkData.next());
+    }
+
+    @Test
+    public void testBulkDataRowsOfRowDataSet() throws SQLException {
+        RowBindingPlan plan = compile(TARGET_COLUMNS, Collections.emptySet(), null);
+
+        ISQLServerBulkData bulkData = plan.toBulkData(rowSource());
+
+        assertTrue(bulkData.next());
+        assertArrayEquals(new Object[]{1L, "code-1", 10, 7L}, bulkData.getRowData());
+        assertTrue(bulkData.next());
+        assertArrayEquals(new Object[]{2L, null, null, 7L}, bulkData.getRowData());
+        assertFalse(bulkData.next());
+    }
+
+    @Test
+    public void testDeferredLargeObjectIsBoundAsNull() throws SQLException {
+        RowBindingPlan plan = compileLobPlan(Collections.emptySet());
+
+        plan.addBatch(statement, lobSource(new LobReference(Types.BLOB, 1000, "PK")));
+
+        assertEquals(Arrays.asList("setLong(1, 1)", "setNull(2, 2004)", "addBatch"), calls);
+    }
+
+    @Test
+    public void testInlineLargeObjectIsBound() throws SQLException {
+        RowBindingPlan plan = compileLobPlan(Collections.emptySet());
+
+        plan.addBatch(statement, lobSource("small"));
+
+        assertEquals(Arrays.asList("setLong(1, 1)", "setObject(2, small, 2004)", "addBatch"), calls);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testDeferredLargeObjectOfNotNullColumnIsRejected() throws SQLException {
+        RowBindingPlan plan = compileLobPlan(Collections.singleton("p_data"));
+
+        plan.addBatch(statement, lobSource(new LobReference(Types.BLOB, 1000, "PK")));
+    }
+
+    @Test
+    public void testBulkDataAnnouncesLargeObjectsAsLongVariableTypes() throws SQLException {
+        RowBindingPlan plan = compileLobPlan(Collections.emptySet());
+
+        ISQLServerBulkData bulkData = plan.toBulkData(lobSource(new LobReference(Types.BLOB, 1000, "PK")));
+
+        assertEquals(Types.LONGVARBINARY, bulkData.getColumnType(2));
+        assertEquals(Integer.MAX_VALUE, bulkData.getPrecision(2));
+        assertTrue(bulkData.next());
+        assertArrayEquals(new Object[]{1L, null}, bulkData.getRowData());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testBulkDataRejectsDeferredLargeObjectOfNotNullColumn() throws SQLException {
+        RowBindingPlan plan = compileLobPlan(Collections.singleton("p_data"));
+
+        ISQLServerBulkData bulkData = plan.toBulkData(lobSource(new LobReference(Types.BLOB, 1000, "PK")));
+
+        assertTrue(bulkData.next());
+        bulkData.getRowData();
+    }
+
+    @Test
+    public void testBinaryStreamIsRewoundWhenTheBatchIsWrittenAgain() throws SQLException {
+        RowBindingPlan plan = compileLobPlan(Collections.emptySet());
+        DataSet source = lobSource(new ByteArrayInputStream(new byte[]{1, 2, 3}));
+        List<byte[]> written = new ArrayList<>();
+        PreparedStatement consumingStatement = proxy(PreparedStatement.class, (method, args) -> {
+            if ("setObject".equals(method)) {
+                written.add(readFully((ByteArrayInputStream) args[1]));
+            }
+            return null;
+        });
+
+        plan.addBatch(consumingStatement, source);
+        plan.addBatch(consumingStatement, source);
+
+        assertEquals(2, written.size());
+        assertArrayEquals(new byte[]{1, 2, 3}, written.get(0));
+        assertArrayEquals(new byte[]{1, 2, 3}, written.get(1));
+    }
+
+    @Test
+    public void testBulkDataRewindsBinaryStream() throws SQLException {
+        RowBindingPlan plan = compileLobPlan(Collections.emptySet());
+        DataSet source = lobSource(new ByteArrayInputStream(new byte[]{1, 2, 3}));
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            ISQLServerBulkData bulkData = plan.toBulkData(source);
+            assertTrue(bulkData.next());
+            assertArrayEquals(new byte[]{1, 2, 3}, readFully((ByteArrayInputStream) bulkData.getRowData()[1]));
+        }
+    }
+
+    @Test
+    public void testBulkDataConvertsWideFloatToDouble() throws SQLException {
+        List<DataColumn> columns = Arrays.asList(
+                new DefaultDataColumn("PK", Types.BIGINT, 20, 0),
+                new DefaultDataColumn("p_weight", Types.FLOAT, 126, 0));
+        RowBindingPlan plan = RowBindingPlan.compile(targetConnection(columns, Collections.emptySet()), "products", Arrays.asList("PK", "p_weight"), Collections.emptySet(), null);
+        ColumnarDataSet.Builder builder = new ColumnarDataSet.Builder(columns, 1);
+        builder.addLong(0, 1L);
+        builder.add(1, new BigDecimal("0.1234567890123456789012345678901234567890"));
+        builder.endRow();
+
+        ISQLServerBulkData bulkData = plan.toBulkData(builder.build());
+
+        assertTrue(bulkData.next());
+        assertArrayEquals(new Object[]{1L, 0.12345678901234568d}, bulkData.getRowData());
+    }
+
+    private static RowBindingPlan compileLobPlan(Set<String> notNullColumns) throws SQLException {
+        List<DataColumn> columns = Arrays.asList(
+                new DefaultDataColumn("PK", Types.BIGINT, 20, 0),
+                new DefaultDataColumn("p_data", Types.BLOB, 0, 0));
+        return RowBindingPlan.compile(targetConnection(columns, notNullColumns), "medias", Arrays.asList("PK", "p_data"), Collections.emptySet(), null);
+    }
+
+    private static DataSet lobSource(Object value) {
+        List<DataColumn> columns = Arrays.asList(
+                new DefaultDataColumn("PK", Types.BIGINT, 20, 0),
+                new DefaultDataColumn("p_data", Types.BLOB, 0, 0));
+        ColumnarDataSet.Builder builder = new ColumnarDataSet.Builder(columns, 1);
+        builder.addLong(0, 1L);
+        builder.add(1, value);
+        builder.endRow();
+        return builder.build();
+    }
+
+    private static byte[] readFully(ByteArrayInputStream stream) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        int value;
+        while ((value = stream.read()) >= 0) {
+            bytes.write(value);
+        }
+        return bytes.toByteArray();
+    }
+
+    static RowBindingPlan compile(List<DataColumn> targetColumns, Set<String> nullifyColumns, Map<String, ?> overrideColumns) throws SQLException {
+        return RowBindingPlan.compile(targetConnection(targetColumns, Collections.emptySet()), "products", COLUMNS_TO_COPY, nullifyColumns, overrideColumns);
+    }
+
+    static Set<String> caseInsensitive(String... values) {
+        Set<String> set = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        set.addAll(Arrays.asList(values));
+        return set;
+    }
+
+    /**
+     * Two rows, the second one without code and count
+     */
+    static DataSet columnarSource() {
+        ColumnarDataSet.Builder builder = new ColumnarDataSet.Builder(SOURCE_COLUMNS, 2);
+        builder.add(0, "code-1");
+        builder.addInt(1, 10);
+        builder.addLong(2, 1L);
+        builder.addLong(3, 7L);
+        builder.endRow();
+        builder.add(0, null);
+        builder.add(1, null);
+        builder.addLong(2, 2L);
+        builder.addLong(3, 7L);
+        builder.endRow();
+        return builder.build();
+    }
+
+    static DataSet rowSource() {
+        List<List<Object>> rows = Arrays.asList(Arrays.asList("code-1", 10, 1L, 7L), Arrays.asList(null, null, 2L, 7L));
+        return new DefaultDataSet(SOURCE_COLUMNS.size(), SOURCE_COLUMNS, rows);
+    }
+
+    /**
+     * @param notNullColumns the target columns declared NOT NULL
+     */
+    static Connection targetConnection(List<DataColumn> targetColumns, Set<String> notNullColumns) {
+        ResultSetMetaData metaData = proxy(ResultSetMetaData.class, (method, args) -> {
+            DataColumn column = targetColumns.get((Integer) args[0] - 1);
+            switch (method) {
+                case "getColumnType":
+                    return column.getColumnType();
+                case "getPrecision":
+                    return column.getPrecision();
+                case "getScale":
+                    return column.getScale();
+                case "isNullable":
+                    return notNullColumns.contains(column.getColumnName()) ? ResultSetMetaData.columnNoNulls : ResultSetMetaData.columnNullable;
+                default:
+                    throw new UnsupportedOperationException(method);
+            }
+        });
+        ResultSet resultSet = proxy(ResultSet.class, (method, args) -> {
+            switch (method) {
+                case "getMetaData":
+                    return metaData;
+                case "findColumn":
+                    for (int i = 0; i < targetColumns.size(); i++) {
+                        if (targetColumns.get(i).getColumnName().equalsIgnoreCase((String) args[0])) {
+                            return i + 1;
+                        }
+                    }
+                    throw new SQLException("Unknown column " + args[0]);
+                case "close":
+                    return null;
+                default:
+                    throw new UnsupportedOperationException(method);
+            }
+        });
+        Statement statement = proxy(Statement.class, (method, args) -> {
+            switch (method) {
+                case "executeQuery":
+                    return resultSet;
+                case "close":
+                    return null;
+                default:
+                    throw new UnsupportedOperationException(method);
+            }
+        });
+        return proxy(Connection.class, (method, args) -> {
+            if ("createStatement".equals(method)) {
+                return statement;
+            }
+            throw new UnsupportedOperationException(method);
+        });
+    }
+
+    /**
+     * @return a statement adding every call to the list, values are recorded by their string representation
+     */
+    static PreparedStatement recordingStatement(List<String> calls) {
+        return proxy(PreparedStatement.class, (method, args) -> {
+            calls.add(args == null ? method : method + "(" + String.join(", ", Arrays.stream(args).map(String::valueOf).toArray(String[]::new)) + ")");
+            return null;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> T proxy(Class<T> type, Handler handler) {
+        return (T) Proxy.newProxyInstance(RowBindingPlanTest.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> handler.handle(method.getName(), args));
+    }
+
+    @FunctionalInterface
+    interface Handler {
+        Object handle(String method, Object[] args) throws Exception;
+    }
+}
@@ -0,0 +1,170 @@
+package org.sap.commercemigration.strategy.impl;
+
+import de.hybris.bootstrap.annotations.UnitTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.sap.commercemigration.context.CopyContext;
+import org.sap.commercemigration.context.MigrationContext;
+import org.sap.commercemigration.dataset.DataSet;
+import org.sap.commercemigration.performance.impl.DefaultPerformanceProfiler;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test for the replay of the batches of a failed writer session by {@link CopyPipeWriterStrategy.SessionWriterTask}.
+ * The connections of the sessions are stubbed by proxies recording the transaction calls.
+ */
+@UnitTest
+public class SessionWriterTaskTest {
+
+    private List<String> calls;
+    private List<List<DataSet>> committed;
+    private Map<DataSet, String> names;
+    private Map<WriterSession, Integer> sessions;
+    private List<String> writes;
+    private Set<String> failingWrites;
+
+    @Before
+    public void setup() {
+        calls = new ArrayList<>();
+        committed = new ArrayList<>();
+        names = new IdentityHashMap<>();
+        sessions = new IdentityHashMap<>();
+        writes = new ArrayList<>();
+        failingWrites = new HashSet<>();
+    }
+
+    @Test
+    public void testCommitsTheBatchOnRelease() {
+        WriterSessionPool pool = pool(0);
+        DataSet batch = batch("a");
+
+        assertTrue(task(pool, batch, 0).call());
+
+        assertEquals(Collections.singletonList("1:a"), writes);
+        assertEquals(Collections.singletonList(Collections.singletonList(batch)), committed);
+    }
+
+    @Test
+    public void testRetryWritesTheBatchesOfOtherWorkersAgain() throws Exception {
+        WriterSessionPool pool = pool(1000);
+        DataSet a = batch("a");
+        DataSet b = batch("b");
+        failingWrites.add("1:b");
+
+        assertTrue(task(pool, a, 1).call());
+        assertTrue(task(pool, b, 1).call());
+        pool.close();
+
+        // the first session is rolled back with the batch of the first worker, the retry writes both in a new one
+        assertEquals(Arrays.asList("1:a", "1:b", "2:a", "2:b"), writes);
+        assertEquals(Arrays.asList("open-1", "rollback-1", "close-1", "open-2", "commit-2", "close-2"), calls);
+        assertEquals(Collections.singletonList(Arrays.asList(a, b)), committed);
+    }
+
+    @Test
+    public void testRetryDoesNotReplayCommittedBatches() throws Exception {
+        WriterSessionPool pool = pool(1);
+        DataSet a = batch("a");
+        DataSet b = batch("b");
+        failingWrites.add("1:b");
+
+        assertTrue(task(pool, a, 1).call());
+        assertTrue(task(pool, b, 1).call());
+        pool.close();
+
+        assertEquals(Arrays.asList("1:a", "1:b", "2:b"), writes);
+        assertEquals(Arrays.asList(Collections.singletonList(a), Collections.singletonList(b)), committed);
+    }
+
+    @Test
+    public void testFailureWithoutRetryRollsBackThePendingBatches() {
+        WriterSessionPool pool = pool(1000);
+        failingWrites.add("1:b");
+
+        assertTrue(task(pool, batch("a"), 0).call());
+        try {
+            task(pool, batch("b"), 0).call();
+            fail("the failed write has to be rethrown");
+        } catch (RuntimeException e) {
+            assertEquals(Arrays.asList("open-1", "rollback-1", "close-1"), calls);
+            assertTrue(committed.isEmpty());
+        }
+    }
+
+    @Test
+    public void testAbortWhileTheWorkerStillRuns() throws Exception {
+        WriterSessionPool pool = pool(1000);
+        DataSet a = batch("a");
+
+        CopyPipeWriterStrategy.SessionWriterTask task = new CopyPipeWriterStrategy.SessionWriterTask(context(pool, a, 0)) {
+            @Override
+            protected void write(WriterSession session, DataSet dataSet) throws Exception {
+                // the copy fails while the worker writes
+                pool.abort();
+                record(session, dataSet);
+            }
+        };
+        assertTrue(task.call());
+        pool.close();
+
+        assertEquals(Arrays.asList("open-1", "rollback-1", "close-1"), calls);
+        assertTrue(committed.isEmpty());
+    }
+
+    private WriterSessionPool pool(long commitInterval) {
+        return new WriterSessionPool(() -> new WriterSession(WriterSessionPoolTest.connection(calls)), commitInterval, 0, committed::add);
+    }
+
+    private DataSet batch(String name) {
+        DataSet dataSet = WriterSessionPoolTest.batch(2);
+        names.put(dataSet, name);
+        return dataSet;
+    }
+
+    private CopyPipeWriterStrategy.SessionWriterTask task(WriterSessionPool pool, DataSet dataSet, int retryAttempts) {
+        return new CopyPipeWriterStrategy.SessionWriterTask(context(pool, dataSet, retryAttempts)) {
+            @Override
+            protected void write(WriterSession session, DataSet dataSet) throws Exception {
+                record(session, dataSet);
+            }
+        };
+    }
+
+    /**
+     * Records the write of the data set as the number of the session and the name of the data set, failing it if it
+     * is one of the failing writes
+     */
+    private void record(WriterSession session, DataSet dataSet) throws SQLException {
+        String write = sessions.computeIfAbsent(session, key -> sessions.size() + 1) + ":" + names.get(dataSet);
+        writes.add(write);
+        if (failingWrites.remove(write)) {
+            throw new SQLException("write failed: " + write);
+        }
+    }
+
+    private static CopyPipeWriterStrategy.DataWriterContext context(WriterSessionPool pool, DataSet dataSet, int retryAttempts) {
+        MigrationContext migrationContext = RowBindingPlanTest.proxy(MigrationContext.class, (method, args) -> {
+            if ("getMaxWorkerRetryAttempts".equals(method)) {
+                return retryAttempts;
+            }
+            throw new UnsupportedOperationException(method);
+        });
+        CopyContext context = new CopyContext("migration", migrationContext, Collections.emptySet(), new DefaultPerformanceProfiler());
+        return new CopyPipeWriterStrategy.DataWriterContext(context, new CopyContext.DataCopyItem("products", "products"), dataSet,
+                Collections.singletonList("PK"), Collections.emptySet(), null, pool, Optional.empty(), false, false);
+    }
+}
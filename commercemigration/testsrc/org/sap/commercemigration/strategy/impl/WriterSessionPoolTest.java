@@ -0,0 +1,191 @@
+package org.sap.commercemigration.strategy.impl;
+
+import de.hybris.bootstrap.annotations.UnitTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.sap.commercemigration.dataset.DataColumn;
+import org.sap.commercemigration.dataset.DataSet;
+import org.sap.commercemigration.dataset.impl.DefaultDataColumn;
+import org.sap.commercemigration.dataset.impl.DefaultDataSet;
+
+import java.sql.Connection;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test for {@link WriterSessionPool}. The connections of the sessions are stubbed by proxies recording the
+ * transaction calls.
+ */
+@UnitTest
+public class WriterSessionPoolTest {
+
+    private static final List<DataColumn> COLUMNS = Collections.singletonList(new DefaultDataColumn("PK", Types.BIGINT, 20, 0));
+
+    private List<String> calls;
+    private List<List<DataSet>> committed;
+
+    @Before
+    public void setup() {
+        calls = new ArrayList<>();
+        committed = new ArrayList<>();
+    }
+
+    @Test
+    public void testCommitsEveryBatchWithoutCommitInterval() throws Exception {
+        WriterSessionPool pool = pool(0, 0);
+        DataSet batch = batch(2);
+
+        WriterSession session = pool.acquire();
+        session.addPending(batch);
+        pool.release(session);
+
+        assertEquals(Collections.singletonList(Collections.singletonList(batch)), committed);
+        assertEquals(Arrays.asList("open-1", "commit-1"), calls);
+    }
+
+    @Test
+    public void testCommitsOnceTheCommitIntervalIsReached() throws Exception {
+        WriterSessionPool pool = pool(5, 0);
+        DataSet first = batch(2);
+        DataSet second = batch(2);
+        DataSet third = batch(2);
+
+        write(pool, first);
+        write(pool, second);
+        assertTrue(committed.isEmpty());
+
+        write(pool, third);
+        assertEquals(Collections.singletonList(Arrays.asList(first, second, third)), committed);
+        assertEquals(Arrays.asList("open-1", "commit-1"), calls);
+    }
+
+    @Test
+    public void testCommitsOnceThePendingBytesAreReached() throws Exception {
+        DataSet first = batch(2);
+        DataSet second = batch(2);
+        WriterSessionPool pool = pool(1000, first.getEstimatedSize() + 1);
+
+        write(pool, first);
+        assertTrue(committed.isEmpty());
+
+        write(pool, second);
+        assertEquals(Collections.singletonList(Arrays.asList(first, second)), committed);
+    }
+
+    @Test
+    public void testReusesReleasedSessions() throws Exception {
+        WriterSessionPool pool = pool(1000, 0);
+
+        WriterSession first = pool.acquire();
+        WriterSession second = pool.acquire();
+        pool.release(first);
+        pool.release(second);
+
+        assertSame(second, pool.acquire());
+        assertSame(first, pool.acquire());
+        assertEquals(Arrays.asList("open-1", "open-2"), calls);
+    }
+
+    @Test
+    public void testCloseCommitsAndClosesTheRemainingSessions() throws Exception {
+        WriterSessionPool pool = pool(1000, 0);
+        DataSet first = batch(2);
+        DataSet second = batch(2);
+
+        WriterSession firstSession = pool.acquire();
+        WriterSession secondSession = pool.acquire();
+        firstSession.addPending(first);
+        secondSession.addPending(second);
+        pool.release(firstSession);
+        pool.release(secondSession);
+        pool.close();
+
+        assertEquals(Arrays.asList(Collections.singletonList(second), Collections.singletonList(first)), committed);
+        assertEquals(Arrays.asList("open-1", "open-2", "commit-2", "close-2", "commit-1", "close-1"), calls);
+    }
+
+    @Test
+    public void testDiscardRollsBackThePendingBatches() throws Exception {
+        WriterSessionPool pool = pool(1000, 0);
+        DataSet first = batch(2);
+        DataSet second = batch(2);
+
+        write(pool, first);
+        WriterSession session = pool.acquire();
+        session.addPending(second);
+
+        assertEquals(Arrays.asList(first, second), pool.discard(session));
+        assertTrue(committed.isEmpty());
+        assertEquals(Arrays.asList("open-1", "rollback-1", "close-1"), calls);
+
+        // the discarded session is not handed out again
+        pool.acquire();
+        assertEquals("open-2", calls.get(calls.size() - 1));
+    }
+
+    @Test
+    public void testAbortClosesSessionsReleasedByWorkersStillRunning() throws Exception {
+        WriterSessionPool pool = pool(1000, 0);
+        WriterSession idle = pool.acquire();
+        WriterSession running = pool.acquire();
+        pool.release(idle);
+
+        pool.abort();
+        assertEquals(Arrays.asList("open-1", "open-2", "close-1"), calls);
+
+        running.addPending(batch(2));
+        pool.release(running);
+        pool.close();
+
+        assertTrue(committed.isEmpty());
+        assertEquals(Arrays.asList("open-1", "open-2", "close-1", "rollback-2", "close-2"), calls);
+    }
+
+    private WriterSessionPool pool(long commitInterval, long maxPendingBytes) {
+        return new WriterSessionPool(() -> new WriterSession(connection(calls)), commitInterval, maxPendingBytes, committed::add);
+    }
+
+    private static void write(WriterSessionPool pool, DataSet dataSet) throws Exception {
+        WriterSession session = pool.acquire();
+        session.addPending(dataSet);
+        pool.release(session);
+    }
+
+    static DataSet batch(int rows) {
+        List<List<Object>> values = new ArrayList<>(rows);
+        for (int row = 0; row < rows; row++) {
+            values.add(Collections.singletonList((long) row));
+        }
+        return new DefaultDataSet(1, COLUMNS, values);
+    }
+
+    /**
+     * @return a connection adding its transaction calls to the list, suffixed by the number of the connection
+     */
+    static Connection connection(List<String> calls) {
+        String id = String.valueOf(calls.stream().filter(call -> call.startsWith("open-")).count() + 1);
+        calls.add("open-" + id);
+        return RowBindingPlanTest.proxy(Connection.class, (method, args) -> {
+            switch (method) {
+                case "getAutoCommit":
+                    return true;
+                case "setAutoCommit":
+                    return null;
+                case "commit":
+                case "rollback":
+                case "close":
+                    calls.add(method + "-" + id);
+                    return null;
+                default:
+                    throw new UnsupportedOperationException(method);
+            }
+        });
+    }
+}